@@ -0,0 +1,280 @@
+package com.sistemaventas.backend.busqueda;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.sistemaventas.backend.cache.ProductoCatalogo;
+import com.sistemaventas.backend.repository.DetalleFacturaRepository;
+import com.sistemaventas.backend.repository.ProductoRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Trie de prefijos para el autocompletado de productos mientras se escribe.
+ *
+ * Se indexa la descripción plegada (minúsculas, sin tildes) desde el inicio
+ * y desde cada palabra, así "integ" sugiere "Pan Integral". Cada nodo guarda
+ * ya calculados los K productos más vendidos de su subárbol, de modo que una
+ * consulta solo recorre tantos nodos como letras tiene y copia ese arreglo.
+ * Las claves se cortan a {@link #PROFUNDIDAD_MAXIMA} letras para acotar la memoria.
+ *
+ * Las altas y ediciones de productos se aplican al trie al hacer commit,
+ * recalculando solo los nodos del camino. Las ventas por producto (de
+ * DETALLEFACTURA) se recargan periódicamente reconstruyendo el trie completo.
+ */
+@Component
+@Slf4j
+public class AutocompletadoProductos {
+
+    private static final int PROFUNDIDAD_MAXIMA = 24;
+    private static final int[] VACIO = new int[0];
+
+    private final ProductoRepository productoRepository;
+    private final DetalleFacturaRepository detalleFacturaRepository;
+    private final int topK;
+
+    // Se reemplazan completos al reconstruir; las lecturas no bloquean
+    private volatile Nodo raiz = new Nodo();
+    private volatile Map<Integer, Long> ventas = Map.of();
+    private final Map<Integer, List<String>> clavesPorProducto = new HashMap<>();
+    private volatile boolean cargado;
+
+    public AutocompletadoProductos(ProductoRepository productoRepository,
+            DetalleFacturaRepository detalleFacturaRepository,
+            @Value("${sistemaventas.busqueda.autocompletado.top-k:10}") int topK) {
+        this.productoRepository = productoRepository;
+        this.detalleFacturaRepository = detalleFacturaRepository;
+        this.topK = topK;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void cargar() {
+        reconstruir();
+    }
+
+    // Recargar las ventas por producto y reconstruir el trie
+    @Scheduled(initialDelayString = "${sistemaventas.busqueda.autocompletado.recarga-ms:900000}",
+            fixedDelayString = "${sistemaventas.busqueda.autocompletado.recarga-ms:900000}")
+    public synchronized void reconstruir() {
+        try {
+            long inicio = System.currentTimeMillis();
+            Map<Integer, Long> nuevasVentas = new HashMap<>();
+            for (Object[] fila : detalleFacturaRepository.sumarCantidadesPorProducto()) {
+                nuevasVentas.put((Integer) fila[0], ((Number) fila[1]).longValue());
+            }
+            List<ProductoCatalogo> catalogo = productoRepository.findCatalogo();
+
+            ventas = nuevasVentas;
+            clavesPorProducto.clear();
+            Nodo nuevaRaiz = new Nodo();
+            catalogo.forEach(producto -> insertar(nuevaRaiz, producto));
+            raiz = nuevaRaiz;
+            cargado = true;
+            log.info("Autocompletado cargado: {} productos en {} ms", catalogo.size(), System.currentTimeMillis() - inicio);
+        } catch (RuntimeException e) {
+            log.warn("No se pudo cargar el autocompletado: {}", e.getMessage());
+        }
+    }
+
+    public boolean estaCargado() {
+        return cargado;
+    }
+
+    /**
+     * IDs de los productos más vendidos cuya descripción (o alguna de sus
+     * palabras) empieza por el texto escrito. Como mucho K.
+     */
+    public int[] sugerir(String texto, int limite) {
+        String prefijo = String.join(" ", IndiceProductos.tokenizar(texto));
+        if (prefijo.isEmpty()) {
+            return VACIO;
+        }
+        Nodo nodo = raiz;
+        int largo = Math.min(prefijo.length(), PROFUNDIDAD_MAXIMA);
+        for (int i = 0; i < largo && nodo != null; i++) {
+            nodo = nodo.hijo(prefijo.charAt(i));
+        }
+        if (nodo == null) {
+            return VACIO;
+        }
+        int[] mejores = nodo.mejores;
+        return Arrays.copyOf(mejores, Math.min(limite, mejores.length));
+    }
+
+    // Producto creado o editado (al hacer commit, si hay transacción)
+    public void actualizar(ProductoCatalogo producto) {
+        alConfirmar(() -> {
+            synchronized (this) {
+                Nodo actual = raiz;
+                quitar(actual, producto.idProducto());
+                insertar(actual, producto);
+            }
+        });
+    }
+
+    // Producto eliminado (al hacer commit, si hay transacción)
+    public void eliminar(Integer idProducto) {
+        alConfirmar(() -> {
+            synchronized (this) {
+                quitar(raiz, idProducto);
+            }
+        });
+    }
+
+    private void alConfirmar(Runnable cambio) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cambio.run();
+                }
+            });
+        } else {
+            cambio.run();
+        }
+    }
+
+    private void insertar(Nodo raiz, ProductoCatalogo producto) {
+        List<String> claves = clavesDe(producto.descripcion());
+        clavesPorProducto.put(producto.idProducto(), claves);
+        for (String clave : claves) {
+            List<Nodo> camino = new ArrayList<>(clave.length() + 1);
+            Nodo nodo = raiz;
+            camino.add(nodo);
+            for (int i = 0; i < clave.length(); i++) {
+                nodo = nodo.hijoOCrear(clave.charAt(i));
+                camino.add(nodo);
+            }
+            nodo.propios = agregar(nodo.propios, producto.idProducto());
+            recalcular(camino);
+        }
+    }
+
+    private void quitar(Nodo raiz, Integer idProducto) {
+        List<String> claves = clavesPorProducto.remove(idProducto);
+        if (claves == null) {
+            return;
+        }
+        for (String clave : claves) {
+            List<Nodo> camino = new ArrayList<>(clave.length() + 1);
+            Nodo nodo = raiz;
+            camino.add(nodo);
+            for (int i = 0; i < clave.length() && nodo != null; i++) {
+                nodo = nodo.hijo(clave.charAt(i));
+                camino.add(nodo);
+            }
+            if (nodo != null) {
+                nodo.propios = Arrays.stream(nodo.propios).filter(id -> id != idProducto).toArray();
+                recalcular(camino);
+            }
+        }
+    }
+
+    // Recalcular los K mejores desde la hoja hasta la raíz: propios + mejores de cada hijo
+    private void recalcular(List<Nodo> camino) {
+        for (int i = camino.size() - 1; i >= 0; i--) {
+            Nodo nodo = camino.get(i);
+            Set<Integer> candidatos = new LinkedHashSet<>();
+            for (int id : nodo.propios) {
+                candidatos.add(id);
+            }
+            for (Nodo hijo : nodo.hijos.nodos()) {
+                for (int id : hijo.mejores) {
+                    candidatos.add(id);
+                }
+            }
+            nodo.mejores = candidatos.stream()
+                    .sorted(Comparator.<Integer>comparingLong(id -> ventas.getOrDefault(id, 0L)).reversed()
+                            .thenComparing(Comparator.naturalOrder()))
+                    .limit(topK)
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+        }
+    }
+
+    // Descripción completa y desde cada palabra, cortadas a la profundidad máxima
+    private static List<String> clavesDe(String descripcion) {
+        List<String> palabras = IndiceProductos.tokenizar(descripcion);
+        Set<String> claves = new LinkedHashSet<>();
+        for (int i = 0; i < palabras.size(); i++) {
+            String clave = String.join(" ", palabras.subList(i, palabras.size()));
+            claves.add(clave.length() > PROFUNDIDAD_MAXIMA ? clave.substring(0, PROFUNDIDAD_MAXIMA) : clave);
+        }
+        return new ArrayList<>(claves);
+    }
+
+    private static int[] agregar(int[] ids, int id) {
+        for (int existente : ids) {
+            if (existente == id) {
+                return ids;
+            }
+        }
+        int[] resultado = Arrays.copyOf(ids, ids.length + 1);
+        resultado[ids.length] = id;
+        return resultado;
+    }
+
+    public Map<String, Object> obtenerEstadisticas() {
+        return Map.of("cargado", cargado, "productos", clavesPorProducto.size(), "topK", topK);
+    }
+
+    /**
+     * Nodo del trie. Los hijos se guardan en arreglos ordenados por letra
+     * (más compactos que un mapa) y se reemplazan completos al cambiar, así
+     * una lectura concurrente siempre ve un estado consistente.
+     */
+    private static final class Nodo {
+        private volatile Hijos hijos = Hijos.NINGUNO;
+        private volatile int[] mejores = VACIO;
+        // Productos cuya clave termina en este nodo
+        private int[] propios = VACIO;
+
+        Nodo hijo(char letra) {
+            Hijos actuales = hijos;
+            int posicion = Arrays.binarySearch(actuales.letras(), letra);
+            return posicion >= 0 ? actuales.nodos()[posicion] : null;
+        }
+
+        Nodo hijoOCrear(char letra) {
+            Hijos actuales = hijos;
+            int posicion = Arrays.binarySearch(actuales.letras(), letra);
+            if (posicion >= 0) {
+                return actuales.nodos()[posicion];
+            }
+            int insercion = -posicion - 1;
+            int cantidad = actuales.letras().length;
+            Nodo nuevo = new Nodo();
+
+            char[] letras = new char[cantidad + 1];
+            Nodo[] nodos = new Nodo[cantidad + 1];
+            System.arraycopy(actuales.letras(), 0, letras, 0, insercion);
+            System.arraycopy(actuales.nodos(), 0, nodos, 0, insercion);
+            letras[insercion] = letra;
+            nodos[insercion] = nuevo;
+            System.arraycopy(actuales.letras(), insercion, letras, insercion + 1, cantidad - insercion);
+            System.arraycopy(actuales.nodos(), insercion, nodos, insercion + 1, cantidad - insercion);
+
+            hijos = new Hijos(letras, nodos);
+            return nuevo;
+        }
+    }
+
+    // Letras ordenadas y nodo hijo de cada una (en la misma posición)
+    private record Hijos(char[] letras, Nodo[] nodos) {
+        static final Hijos NINGUNO = new Hijos(new char[0], new Nodo[0]);
+    }
+}
@@ -0,0 +1,294 @@
+package com.sistemaventas.backend.busqueda;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.sistemaventas.backend.cache.ProductoCatalogo;
+import com.sistemaventas.backend.repository.ProductoRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Índice invertido en memoria sobre la descripción y la categoría de los productos.
+ *
+ * Los textos se pasan a minúsculas y sin tildes ("Lácteos" y "lacteos" son el
+ * mismo término) y se separan en palabras. Cada palabra de la consulta puede
+ * coincidir con un término completo, con el inicio de un término ("pan" →
+ * "panaderia") o con cualquier parte de él, usando un índice de trigramas
+ * sobre el diccionario de términos. Todas las palabras de la consulta deben
+ * coincidir; el orden es por relevancia (coincidencia exacta > prefijo >
+ * interior, descripción > categoría).
+ *
+ * Se carga completo al arrancar y después se actualiza producto a producto
+ * cuando se crea, edita o elimina (al hacer commit). Mientras no está cargado,
+ * {@link #estaCargado()} devuelve false y el llamador debe usar la base de datos.
+ */
+@Component
+@Slf4j
+public class IndiceProductos {
+
+    private static final Pattern SEPARADOR = Pattern.compile("[^\\p{Alnum}]+");
+    private static final Pattern MARCAS_DIACRITICAS = Pattern.compile("\\p{M}+");
+
+    // Peso de cada tipo de coincidencia y de cada campo
+    private static final int PESO_EXACTO = 3;
+    private static final int PESO_PREFIJO = 2;
+    private static final int PESO_INTERIOR = 1;
+    private static final int CAMPO_DESCRIPCION = 2;
+    private static final int CAMPO_CATEGORIA = 1;
+
+    // Términos que se expanden como máximo por cada palabra de la consulta
+    // (una sola letra puede ser prefijo de miles de términos)
+    private static final int MAX_TERMINOS_POR_PALABRA = 200;
+
+    private final ProductoRepository productoRepository;
+
+    // término -> (idProducto -> peso del campo donde aparece)
+    private final ConcurrentSkipListMap<String, Map<Integer, Integer>> terminos = new ConcurrentSkipListMap<>();
+    // trigrama -> términos que lo contienen
+    private final Map<String, Set<String>> trigramas = new ConcurrentHashMap<>();
+    // idProducto -> términos indexados (para poder quitarlos al actualizar)
+    private final Map<Integer, Set<String>> documentos = new ConcurrentHashMap<>();
+
+    private volatile boolean cargado;
+
+    public IndiceProductos(ProductoRepository productoRepository) {
+        this.productoRepository = productoRepository;
+    }
+
+    // Construir el índice con todo el catálogo al arrancar
+    @EventListener(ApplicationReadyEvent.class)
+    public void cargar() {
+        try {
+            long inicio = System.currentTimeMillis();
+            List<ProductoCatalogo> catalogo = productoRepository.findCatalogo();
+            catalogo.forEach(this::indexar);
+            cargado = true;
+            log.info("Índice de búsqueda cargado: {} productos, {} términos en {} ms",
+                    catalogo.size(), terminos.size(), System.currentTimeMillis() - inicio);
+        } catch (RuntimeException e) {
+            log.warn("No se pudo cargar el índice de búsqueda, se usará la base de datos: {}", e.getMessage());
+        }
+    }
+
+    public boolean estaCargado() {
+        return cargado;
+    }
+
+    /**
+     * IDs de los productos que coinciden con la consulta, del más al menos
+     * relevante, como máximo {@code limite}.
+     */
+    public List<Integer> buscar(String consulta, int limite) {
+        Set<String> palabras = new LinkedHashSet<>(tokenizar(consulta));
+        if (palabras.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Integer, Integer> puntajes = null;
+        for (String palabra : palabras) {
+            Map<Integer, Integer> coincidencias = coincidenciasDe(palabra);
+            if (puntajes == null) {
+                puntajes = coincidencias;
+            } else {
+                // Todas las palabras deben coincidir: conservar solo la intersección
+                Map<Integer, Integer> anteriores = puntajes;
+                puntajes = new HashMap<>();
+                for (Map.Entry<Integer, Integer> entry : coincidencias.entrySet()) {
+                    Integer previo = anteriores.get(entry.getKey());
+                    if (previo != null) {
+                        puntajes.put(entry.getKey(), previo + entry.getValue());
+                    }
+                }
+            }
+            if (puntajes.isEmpty()) {
+                return List.of();
+            }
+        }
+
+        return puntajes.entrySet().stream()
+                .sorted(Map.Entry.<Integer, Integer>comparingByValue(Comparator.reverseOrder())
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .limit(limite)
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    // Mejor puntaje de cada producto para una palabra de la consulta
+    private Map<Integer, Integer> coincidenciasDe(String palabra) {
+        Map<Integer, Integer> puntajes = new HashMap<>();
+
+        sumarPostings(puntajes, terminos.get(palabra), PESO_EXACTO);
+
+        int expandidos = 0;
+        for (Map.Entry<String, Map<Integer, Integer>> entry : terminos.tailMap(palabra, false).entrySet()) {
+            if (!entry.getKey().startsWith(palabra) || ++expandidos > MAX_TERMINOS_POR_PALABRA) {
+                break;
+            }
+            sumarPostings(puntajes, entry.getValue(), PESO_PREFIJO);
+        }
+
+        if (palabra.length() >= 3) {
+            expandidos = 0;
+            for (String termino : terminosQueContienen(palabra)) {
+                if (termino.startsWith(palabra)) {
+                    continue;
+                }
+                if (++expandidos > MAX_TERMINOS_POR_PALABRA) {
+                    break;
+                }
+                sumarPostings(puntajes, terminos.get(termino), PESO_INTERIOR);
+            }
+        }
+        return puntajes;
+    }
+
+    private static void sumarPostings(Map<Integer, Integer> puntajes, Map<Integer, Integer> postings, int pesoCoincidencia) {
+        if (postings == null) {
+            return;
+        }
+        postings.forEach((idProducto, pesoCampo) -> puntajes.merge(idProducto, pesoCoincidencia * pesoCampo, Math::max));
+    }
+
+    // Términos que contienen la palabra: intersección de los términos de cada trigrama
+    private Set<String> terminosQueContienen(String palabra) {
+        Set<String> candidatos = null;
+        for (String trigrama : trigramasDe(palabra)) {
+            Set<String> conTrigrama = trigramas.get(trigrama);
+            if (conTrigrama == null) {
+                return Set.of();
+            }
+            if (candidatos == null) {
+                candidatos = new HashSet<>(conTrigrama);
+            } else {
+                candidatos.retainAll(conTrigrama);
+            }
+            if (candidatos.isEmpty()) {
+                return Set.of();
+            }
+        }
+        candidatos.removeIf(termino -> !termino.contains(palabra));
+        return candidatos;
+    }
+
+    /**
+     * Reindexar un producto creado o editado. Dentro de una transacción el
+     * cambio se aplica al hacer commit.
+     */
+    public void actualizar(ProductoCatalogo producto) {
+        alConfirmar(() -> indexar(producto));
+    }
+
+    // Quitar un producto eliminado (al hacer commit, si hay transacción)
+    public void eliminar(Integer idProducto) {
+        alConfirmar(() -> quitar(idProducto));
+    }
+
+    private void alConfirmar(Runnable cambio) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cambio.run();
+                }
+            });
+        } else {
+            cambio.run();
+        }
+    }
+
+    // Las escrituras se serializan; las búsquedas leen sin bloquear
+    private synchronized void indexar(ProductoCatalogo producto) {
+        quitar(producto.idProducto());
+
+        Map<String, Integer> pesos = new HashMap<>();
+        tokenizar(producto.descripcion()).forEach(t -> pesos.merge(t, CAMPO_DESCRIPCION, Math::max));
+        tokenizar(producto.categoria()).forEach(t -> pesos.merge(t, CAMPO_CATEGORIA, Math::max));
+
+        pesos.forEach((termino, peso) -> {
+            terminos.computeIfAbsent(termino, t -> {
+                trigramasDe(t).forEach(trigrama -> trigramas.computeIfAbsent(trigrama, k -> ConcurrentHashMap.newKeySet()).add(t));
+                return new ConcurrentHashMap<>();
+            }).put(producto.idProducto(), peso);
+        });
+        documentos.put(producto.idProducto(), pesos.keySet());
+    }
+
+    private synchronized void quitar(Integer idProducto) {
+        Set<String> anteriores = documentos.remove(idProducto);
+        if (anteriores == null) {
+            return;
+        }
+        for (String termino : anteriores) {
+            Map<Integer, Integer> postings = terminos.get(termino);
+            if (postings == null) {
+                continue;
+            }
+            postings.remove(idProducto);
+            if (postings.isEmpty()) {
+                terminos.remove(termino);
+                for (String trigrama : trigramasDe(termino)) {
+                    Set<String> conTrigrama = trigramas.get(trigrama);
+                    if (conTrigrama != null) {
+                        conTrigrama.remove(termino);
+                        if (conTrigrama.isEmpty()) {
+                            trigramas.remove(trigrama);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    public Map<String, Object> obtenerEstadisticas() {
+        return Map.of("cargado", cargado, "productos", documentos.size(),
+                "terminos", terminos.size(), "trigramas", trigramas.size());
+    }
+
+    /**
+     * Minúsculas y sin tildes: "Panadería" → "panaderia". La ñ se conserva
+     * como n (pierde la tilde igual que las vocales).
+     */
+    public static String plegar(String texto) {
+        String descompuesto = Normalizer.normalize(texto, Normalizer.Form.NFD);
+        return MARCAS_DIACRITICAS.matcher(descompuesto).replaceAll("").toLowerCase();
+    }
+
+    // Palabras de un texto ya plegado, sin vacíos
+    public static List<String> tokenizar(String texto) {
+        List<String> palabras = new ArrayList<>();
+        if (texto == null) {
+            return palabras;
+        }
+        for (String palabra : SEPARADOR.split(plegar(texto))) {
+            if (!palabra.isEmpty()) {
+                palabras.add(palabra);
+            }
+        }
+        return palabras;
+    }
+
+    private static Set<String> trigramasDe(String termino) {
+        Set<String> resultado = new HashSet<>();
+        for (int i = 0; i + 3 <= termino.length(); i++) {
+            resultado.add(termino.substring(i, i + 3));
+        }
+        return resultado;
+    }
+}
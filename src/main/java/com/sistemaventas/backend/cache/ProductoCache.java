@@ -0,0 +1,190 @@
+package com.sistemaventas.backend.cache;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.sistemaventas.backend.entity.Producto;
+import com.sistemaventas.backend.repository.ProductoRepository;
+
+/**
+ * Caché en memoria del catálogo de productos.
+ *
+ * - Por ID: los datos de catálogo de cada producto ({@link ProductoCatalogo},
+ *   inmutable y sin stock).
+ * - Listados (todos, por categoría): solo la lista de IDs; los
+ *   productos se resuelven contra la caché por ID.
+ *
+ * El stock no se guarda aquí (ver AlmacenStock), así que las ventas no
+ * invalidan nada: solo lo hacen las altas, ediciones y bajas de productos.
+ * Las invalidaciones se repiten al terminar la transacción para que ninguna
+ * lectura concurrente vuelva a guardar el valor anterior.
+ */
+@Component
+public class ProductoCache {
+
+    private static final String TODOS = "todos";
+
+    private final ProductoRepository productoRepository;
+    private final Cache<Integer, ProductoCatalogo> porId;
+    private final Cache<String, List<Integer>> listados;
+
+    // Cambia con cada invalidación; una carga que empezó antes no debe quedar en caché
+    private final AtomicLong generacion = new AtomicLong();
+
+    public ProductoCache(ProductoRepository productoRepository,
+            @Value("${sistemaventas.cache.productos.tamano-maximo:10000}") long tamanoMaximo,
+            @Value("${sistemaventas.cache.productos.listados-maximo:500}") long listadosMaximo,
+            @Value("${sistemaventas.cache.productos.expiracion-minutos:10}") long expiracionMinutos) {
+        this.productoRepository = productoRepository;
+        this.porId = Caffeine.newBuilder()
+                .maximumSize(tamanoMaximo)
+                .expireAfterWrite(Duration.ofMinutes(expiracionMinutos))
+                .recordStats()
+                .build();
+        this.listados = Caffeine.newBuilder()
+                .maximumSize(listadosMaximo)
+                .expireAfterWrite(Duration.ofMinutes(expiracionMinutos))
+                .recordStats()
+                .build();
+    }
+
+    // Producto por ID
+    public Optional<ProductoCatalogo> obtener(Integer id) {
+        ProductoCatalogo producto = porId.getIfPresent(id);
+        if (producto != null) {
+            return Optional.of(producto);
+        }
+        long lectura = generacion.get();
+        Optional<ProductoCatalogo> cargado = productoRepository.findById(id).map(ProductoCatalogo::de);
+        cargado.ifPresent(p -> guardar(List.of(p), lectura));
+        return cargado;
+    }
+
+    // Varios productos por ID; los que falten se cargan con una sola consulta (IN)
+    public Map<Integer, ProductoCatalogo> obtenerVarios(Collection<Integer> ids) {
+        Map<Integer, ProductoCatalogo> resultado = new LinkedHashMap<>();
+        Map<Integer, ProductoCatalogo> enCache = porId.getAllPresent(ids);
+        List<Integer> faltantes = new ArrayList<>();
+        for (Integer id : new LinkedHashSet<>(ids)) {
+            ProductoCatalogo producto = enCache.get(id);
+            if (producto != null) {
+                resultado.put(id, producto);
+            } else {
+                faltantes.add(id);
+            }
+        }
+        if (!faltantes.isEmpty()) {
+            long lectura = generacion.get();
+            List<ProductoCatalogo> cargados = productoRepository.findAllById(faltantes).stream()
+                    .map(ProductoCatalogo::de)
+                    .toList();
+            guardar(cargados, lectura);
+            cargados.forEach(p -> resultado.put(p.idProducto(), p));
+        }
+        return resultado;
+    }
+
+    public List<ProductoCatalogo> obtenerTodos(Supplier<List<Producto>> cargar) {
+        return obtenerListado(TODOS, cargar);
+    }
+
+    public List<ProductoCatalogo> obtenerPorCategoria(String categoria, Supplier<List<Producto>> cargar) {
+        return obtenerListado("categoria:" + categoria, cargar);
+    }
+
+    private List<ProductoCatalogo> obtenerListado(String clave, Supplier<List<Producto>> cargar) {
+        List<Integer> ids = listados.getIfPresent(clave);
+        if (ids != null) {
+            Map<Integer, ProductoCatalogo> productos = obtenerVarios(ids);
+            return ids.stream().map(productos::get).filter(p -> p != null).toList();
+        }
+        long lectura = generacion.get();
+        List<ProductoCatalogo> cargados = cargar.get().stream().map(ProductoCatalogo::de).toList();
+        guardar(cargados, lectura);
+        listados.put(clave, cargados.stream().map(ProductoCatalogo::idProducto).toList());
+        if (generacion.get() != lectura) {
+            listados.invalidate(clave);
+        }
+        return cargados;
+    }
+
+    // Si hubo una invalidación durante la carga, lo cargado se descarta
+    private void guardar(Collection<ProductoCatalogo> productos, long lectura) {
+        productos.forEach(p -> porId.put(p.idProducto(), p));
+        if (generacion.get() != lectura) {
+            productos.forEach(p -> porId.invalidate(p.idProducto()));
+        }
+    }
+
+    /**
+     * Invalidar un producto y todos los listados: para altas, ediciones y bajas,
+     * que pueden cambiar la descripción, la categoría o el conjunto de productos.
+     */
+    public void invalidarCatalogo(Integer id) {
+        Runnable invalidacion = () -> {
+            generacion.incrementAndGet();
+            if (id != null) {
+                porId.invalidate(id);
+            }
+            listados.invalidateAll();
+        };
+        ejecutarAhoraYAlConfirmar(invalidacion);
+    }
+
+    // Igual que invalidarCatalogo(Integer), para los productos de una importación
+    public void invalidarCatalogo(Collection<Integer> ids) {
+        List<Integer> copia = List.copyOf(ids);
+        Runnable invalidacion = () -> {
+            generacion.incrementAndGet();
+            porId.invalidateAll(copia);
+            listados.invalidateAll();
+        };
+        ejecutarAhoraYAlConfirmar(invalidacion);
+    }
+
+    private void ejecutarAhoraYAlConfirmar(Runnable invalidacion) {
+        invalidacion.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    invalidacion.run();
+                }
+            });
+        }
+    }
+
+    // Aciertos, fallos y expulsiones de cada caché
+    public Map<String, Object> obtenerEstadisticas() {
+        Map<String, Object> estadisticas = new LinkedHashMap<>();
+        estadisticas.put("porId", estadisticas(porId.stats(), porId.estimatedSize()));
+        estadisticas.put("listados", estadisticas(listados.stats(), listados.estimatedSize()));
+        return estadisticas;
+    }
+
+    private static Map<String, Object> estadisticas(CacheStats stats, long tamano) {
+        Map<String, Object> resultado = new LinkedHashMap<>();
+        resultado.put("aciertos", stats.hitCount());
+        resultado.put("fallos", stats.missCount());
+        resultado.put("tasaAciertos", stats.hitRate());
+        resultado.put("expulsiones", stats.evictionCount());
+        resultado.put("tamano", tamano);
+        return resultado;
+    }
+}
@@ -0,0 +1,23 @@
+package com.sistemaventas.backend.cache;
+
+import java.math.BigDecimal;
+
+import com.sistemaventas.backend.entity.Producto;
+
+/**
+ * Datos de catálogo de un producto (descripción, precio y categoría).
+ * Es inmutable y no incluye el stock, que cambia con cada venta y vive en
+ * {@link com.sistemaventas.backend.stock.AlmacenStock}.
+ */
+public record ProductoCatalogo(Integer idProducto, String descripcion, BigDecimal precioUnitario, String categoria) {
+
+    public static ProductoCatalogo de(Producto producto) {
+        return new ProductoCatalogo(producto.getIdProducto(), producto.getDescripcion(),
+                producto.getPrecioUnitario(), producto.getCategoria());
+    }
+
+    // Producto (no gestionado por JPA) con el stock indicado
+    public Producto conStock(Integer cantidadDisponible) {
+        return new Producto(idProducto, cantidadDisponible, precioUnitario, descripcion, categoria);
+    }
+}
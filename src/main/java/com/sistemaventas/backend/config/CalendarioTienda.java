@@ -0,0 +1,48 @@
+package com.sistemaventas.backend.config;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Date;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Días de la tienda en su zona horaria (sistemaventas.tienda.zona-horaria;
+ * si no se configura, la del servidor). Los días y meses se consultan como
+ * rangos [inicio, fin) sobre FACTURA.FECHA, nunca con DATE(fecha) o
+ * MONTH(fecha), para que PostgreSQL pueda usar el índice sobre FECHA.
+ */
+@Component
+public class CalendarioTienda {
+
+    private final ZoneId zona;
+
+    public CalendarioTienda(@Value("${sistemaventas.tienda.zona-horaria:}") String zona) {
+        this.zona = zona == null || zona.isBlank() ? ZoneId.systemDefault() : ZoneId.of(zona);
+    }
+
+    public ZoneId getZona() {
+        return zona;
+    }
+
+    public LocalDate hoy() {
+        return LocalDate.now(zona);
+    }
+
+    // Día de la tienda al que pertenece un instante
+    public LocalDate diaDe(Date fecha) {
+        return momentoDe(fecha).toLocalDate();
+    }
+
+    // Fecha y hora de la tienda de un instante
+    public ZonedDateTime momentoDe(Date fecha) {
+        return fecha.toInstant().atZone(zona);
+    }
+
+    // Instante en que empieza un día de la tienda (límite inferior, incluido, de un rango)
+    public Date inicioDe(LocalDate dia) {
+        return Date.from(dia.atStartOfDay(zona).toInstant());
+    }
+}
@@ -0,0 +1,30 @@
+package com.sistemaventas.backend.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Pool de hilos acotado donde se ejecutan las autorizaciones de pago.
+ * Mientras el banco responde, la espera ocupa un hilo de este pool y no
+ * un hilo de Tomcat. Si el pool y su cola están llenos la tarea se rechaza
+ * (TaskRejectedException) en lugar de acumular ventas sin límite.
+ */
+@Configuration
+public class PagosConfig {
+
+    @Bean(name = "pagosExecutor")
+    public ThreadPoolTaskExecutor pagosExecutor(
+            @Value("${sistemaventas.pagos.hilos:64}") int hilos,
+            @Value("${sistemaventas.pagos.capacidad-cola:500}") int capacidadCola) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(hilos);
+        executor.setMaxPoolSize(hilos);
+        executor.setQueueCapacity(capacidadCola);
+        executor.setThreadNamePrefix("pago-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+}
@@ -0,0 +1,51 @@
+package com.sistemaventas.backend.config;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Pools de hilos para generar los PDF de las facturas.
+ *
+ * - pdfExecutor: genera el PDF después de cada venta. Es pequeño a propósito:
+ *   generar PDF consume CPU y no debe competir con las ventas. Si la cola se
+ *   llena la tarea se descarta y el PDF se genera la primera vez que se descargue.
+ * - pdfLoteExecutor: genera en paralelo los PDF de una exportación por
+ *   período. Con la cola llena la exportación genera el PDF en su propio hilo,
+ *   lo que frena a quien más pide en lugar de descartar trabajo.
+ */
+@Configuration
+public class PdfConfig {
+
+    @Bean(name = "pdfExecutor")
+    public ThreadPoolTaskExecutor pdfExecutor(
+            @Value("${sistemaventas.facturas.pdf.hilos:2}") int hilos,
+            @Value("${sistemaventas.facturas.pdf.capacidad-cola:1000}") int capacidadCola) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(hilos);
+        executor.setMaxPoolSize(hilos);
+        executor.setQueueCapacity(capacidadCola);
+        executor.setThreadNamePrefix("pdf-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+
+    @Bean(name = "pdfLoteExecutor")
+    public ThreadPoolTaskExecutor pdfLoteExecutor(
+            @Value("${sistemaventas.facturas.pdf.lote.hilos:4}") int hilos,
+            @Value("${sistemaventas.facturas.pdf.lote.capacidad-cola:64}") int capacidadCola) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(hilos);
+        executor.setMaxPoolSize(hilos);
+        executor.setQueueCapacity(capacidadCola);
+        executor.setThreadNamePrefix("pdf-lote-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+}
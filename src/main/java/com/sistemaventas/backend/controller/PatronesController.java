@@ -5,6 +5,7 @@ import com.sistemaventas.backend.dto.request.VentaRequest;
 import com.sistemaventas.backend.dto.response.VentaResponse;
 import com.sistemaventas.backend.entity.Producto;
 import com.sistemaventas.backend.facade.VentasFacade;
+import com.sistemaventas.backend.observer.InventarioNotificationService;
 import com.sistemaventas.backend.service.ProductoService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -27,6 +28,9 @@ public class PatronesController {
     @Autowired
     private VentasFacade ventasFacade;
     
+    @Autowired
+    private InventarioNotificationService notificationService;
+    
     /**
      * GET /api/patrones/demo-completa
      * Demostración completa de los 3 patrones de diseño trabajando juntos
@@ -99,6 +103,28 @@ public class PatronesController {
         }
     }
     
+    /**
+     * GET /api/patrones/observer/entregas
+     * Estadísticas de la entrega asíncrona de eventos y eventos fallidos
+     */
+    @GetMapping("/observer/entregas")
+    public ResponseEntity<Map<String, Object>> estadoEntregasObserver() {
+        Map<String, Object> resultado = new HashMap<>(notificationService.obtenerEstadisticasEntrega());
+        resultado.put("eventos_fallidos", notificationService.obtenerEventosFallidos());
+        return ResponseEntity.ok(resultado);
+    }
+    
+    /**
+     * POST /api/patrones/observer/entregas/reintentar
+     * Volver a encolar los eventos que no pudieron entregarse
+     */
+    @PostMapping("/observer/entregas/reintentar")
+    public ResponseEntity<Map<String, Object>> reintentarEntregasObserver() {
+        Map<String, Object> resultado = new HashMap<>();
+        resultado.put("reintentados", notificationService.reintentarEventosFallidos());
+        return ResponseEntity.ok(resultado);
+    }
+    
     /**
      * GET /api/patrones/facade
      * Demostrar solo el patrón Facade
@@ -1,11 +1,21 @@
 package com.sistemaventas.backend.controller;
 
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -17,13 +27,24 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 
 import com.sistemaventas.backend.dto.request.ProductoRequest;
 import com.sistemaventas.backend.dto.response.ApiResponse;
+import com.sistemaventas.backend.dto.response.PaginaProductosResponse;
 import com.sistemaventas.backend.dto.response.ProductoResponse;
+import com.sistemaventas.backend.dto.response.ResultadoImportacionProductoResponse;
 import com.sistemaventas.backend.entity.Producto;
+import com.sistemaventas.backend.facade.ImportacionProductosFacade;
+import com.sistemaventas.backend.importacion.LectorCsvProductos;
+import com.sistemaventas.backend.importacion.LectorNdjson;
 import com.sistemaventas.backend.service.ProductoService;
+import com.sistemaventas.backend.service.ProductoService.PaginaProductos;
 
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 
 /**
@@ -39,6 +60,12 @@ public class ProductoController {
     @Autowired
     private ProductoService productoService;
     
+    @Autowired
+    private ImportacionProductosFacade importacionProductosFacade;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
     @GetMapping
     public ResponseEntity<ApiResponse<List<ProductoResponse>>> obtenerTodosLosProductos() {
         try {
@@ -52,6 +79,105 @@ public class ProductoController {
         }
     }
     
+    /**
+     * GET /api/productos/pagina?tamano=50&orden=id|categoria&cursor=...
+     * Listado paginado por cursor: la respuesta trae el cursor de la siguiente página.
+     */
+    @GetMapping("/pagina")
+    public ResponseEntity<?> obtenerPaginaProductos(@RequestParam(required = false) String cursor,
+                                                    @RequestParam(defaultValue = "50") int tamano,
+                                                    @RequestParam(defaultValue = "id") String orden) {
+        if (tamano < 1 || tamano > 1000) {
+            return ResponseEntity.badRequest()
+                .body(new ApiResponse<>(false, "El tamaño de página debe estar entre 1 y 1000", null));
+        }
+        try {
+            PaginaProductos pagina = productoService.listarPagina(cursor, tamano, orden);
+            List<ProductoResponse> productosResponse = pagina.productos().stream()
+                .map(this::convertirAResponse)
+                .collect(Collectors.toList());
+            return ResponseEntity.ok(new PaginaProductosResponse(productosResponse, pagina.siguienteCursor()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new ApiResponse<>(false, e.getMessage(), null));
+        }
+    }
+    
+    /**
+     * GET /api/productos/exportar
+     * Todo el catálogo en NDJSON (un producto JSON por línea), escrito a medida
+     * que se lee de la base de datos.
+     */
+    @GetMapping(value = "/exportar", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> exportarProductos() {
+        ObjectWriter writer = objectMapper.writerFor(ProductoResponse.class);
+        StreamingResponseBody cuerpo = salida -> {
+            OutputStream out = new BufferedOutputStream(salida, 64 * 1024);
+            try {
+                productoService.exportarProductos(producto -> {
+                    try {
+                        out.write(writer.writeValueAsBytes(convertirAResponse(producto)));
+                        out.write('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            out.flush();
+        };
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType("application/x-ndjson"))
+            .body(cuerpo);
+    }
+    
+    /**
+     * POST /api/productos/importar
+     * Importación masiva del catálogo de un proveedor, en CSV (con encabezado)
+     * o NDJSON (un producto por línea), leída a medida que llega. Los productos
+     * con ID existente se actualizan y los demás se crean. Responde en NDJSON
+     * un resultado por producto (CREADO, ACTUALIZADO o ERROR con el motivo),
+     * escrito en cuanto se guarda cada lote.
+     */
+    @PostMapping(value = "/importar", consumes = {"text/csv", "application/x-ndjson"}, produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> importarProductos(HttpServletRequest request) throws IOException {
+        InputStream entrada = request.getInputStream();
+        boolean csv = MediaType.parseMediaType(request.getContentType()).isCompatibleWith(MediaType.parseMediaType("text/csv"));
+        ObjectWriter writer = objectMapper.writerFor(ResultadoImportacionProductoResponse.class);
+        StreamingResponseBody cuerpo = salida -> {
+            OutputStream out = new BufferedOutputStream(salida, 64 * 1024);
+            try {
+                Iterator<ProductoRequest> productos = csv
+                    ? new LectorCsvProductos(new InputStreamReader(entrada, StandardCharsets.UTF_8))
+                    : new LectorNdjson<ProductoRequest>(new InputStreamReader(entrada, StandardCharsets.UTF_8),
+                        objectMapper.readerFor(ProductoRequest.class));
+                importacionProductosFacade.importar(productos, resultados -> {
+                    try {
+                        for (ResultadoImportacionProductoResponse resultado : resultados) {
+                            out.write(writer.writeValueAsBytes(resultado));
+                            out.write('\n');
+                        }
+                        out.flush();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            } catch (RuntimeException e) {
+                // Encabezado CSV inválido: los lotes anteriores ya quedaron guardados
+                ResultadoImportacionProductoResponse error = ResultadoImportacionProductoResponse.error(-1,
+                    "Entrada inválida, importación detenida: " + e.getMessage());
+                out.write(writer.writeValueAsBytes(error));
+                out.write('\n');
+            }
+            out.flush();
+        };
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType("application/x-ndjson"))
+            .body(cuerpo);
+    }
+    
     @GetMapping("/{id}")
     public ResponseEntity<ApiResponse<ProductoResponse>> obtenerProductoPorId(@PathVariable Integer id) {
         try {
@@ -179,9 +305,14 @@ public class ProductoController {
     }
     
     @GetMapping("/search")
-    public ResponseEntity<List<ProductoResponse>> buscarProductos(@RequestParam String q) {
+    public ResponseEntity<?> buscarProductos(@RequestParam String q,
+                                             @RequestParam(defaultValue = "50") int limite) {
+        if (limite < 1 || limite > 500) {
+            return ResponseEntity.badRequest()
+                .body(new ApiResponse<>(false, "El límite de resultados debe estar entre 1 y 500", null));
+        }
         try {
-            List<Producto> productos = productoService.buscarProductosPorTermino(q);
+            List<Producto> productos = productoService.buscarProductosPorTermino(q, limite);
             List<ProductoResponse> productosResponse = productos.stream()
                 .map(this::convertirAResponse)
                 .collect(Collectors.toList());
@@ -191,6 +322,20 @@ public class ProductoController {
         }
     }
     
+    // Sugerencias para el buscador del punto de venta mientras se escribe
+    @GetMapping("/autocompletar")
+    public ResponseEntity<?> autocompletarProductos(@RequestParam String q,
+                                                    @RequestParam(defaultValue = "10") int limite) {
+        if (limite < 1 || limite > 50) {
+            return ResponseEntity.badRequest()
+                .body(new ApiResponse<>(false, "El límite de sugerencias debe estar entre 1 y 50", null));
+        }
+        List<ProductoResponse> sugerencias = productoService.autocompletar(q, limite).stream()
+            .map(this::convertirAResponse)
+            .collect(Collectors.toList());
+        return ResponseEntity.ok(sugerencias);
+    }
+    
     @GetMapping("/stock-bajo")
     public ResponseEntity<List<ProductoResponse>> obtenerProductosConStockBajo(@RequestParam(defaultValue = "5") int limite) {
         try {
@@ -204,6 +349,12 @@ public class ProductoController {
         }
     }
     
+    // Aciertos y fallos de la caché del catálogo
+    @GetMapping("/cache/estadisticas")
+    public ResponseEntity<Map<String, Object>> obtenerEstadisticasCache() {
+        return ResponseEntity.ok(productoService.obtenerEstadisticasCache());
+    }
+    
     private ProductoResponse convertirAResponse(Producto producto) {
         return new ProductoResponse(
             producto.getIdProducto(),
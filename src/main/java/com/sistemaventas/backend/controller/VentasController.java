@@ -1,9 +1,22 @@
 package com.sistemaventas.backend.controller;
 
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -17,15 +30,33 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import com.sistemaventas.backend.config.CalendarioTienda;
 import com.sistemaventas.backend.dto.request.VentaRequest;
+import com.sistemaventas.backend.dto.response.PaginaVentasResponse;
+import com.sistemaventas.backend.dto.response.ResultadoImportacionResponse;
 import com.sistemaventas.backend.dto.response.VentaResponse;
-import com.sistemaventas.backend.entity.Factura;
+import com.sistemaventas.backend.facade.ImportacionVentasFacade;
 import com.sistemaventas.backend.facade.VentasFacade;
-import com.sistemaventas.backend.service.FacturaPdfService;
+import com.sistemaventas.backend.pdf.PdfAlmacenado;
+import com.sistemaventas.backend.reporte.FormatoReporte;
+import com.sistemaventas.backend.reporte.ReporteVentas;
+import com.sistemaventas.backend.resumen.ResumenDiaVentas;
+import com.sistemaventas.backend.service.PdfFacturasService;
+import com.sistemaventas.backend.service.ReporteVentasService;
+import com.sistemaventas.backend.service.ResumenVentasService;
 
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import lombok.extern.slf4j.Slf4j;
 
 /**
  * Controller (C in MVC): Endpoints para el flujo de ventas (checkout).
@@ -34,6 +65,7 @@ import jakarta.validation.Valid;
  * representado por las entidades/DTOs y la vista por el frontend (Angular).
  */
 @RestController
+@Slf4j
 @RequestMapping("/api/ventas")
 @CrossOrigin(origins = "http://localhost:4200")
 public class VentasController {
@@ -51,65 +83,212 @@ public class VentasController {
     private com.sistemaventas.backend.service.FacturaService facturaService;
     
     @Autowired
-    private FacturaPdfService facturaPdfService;
+    private PdfFacturasService pdfFacturasService;
+    
+    @Autowired
+    private ImportacionVentasFacade importacionVentasFacade;
+
+    @Autowired
+    private ResumenVentasService resumenVentasService;
+
+    @Autowired
+    private CalendarioTienda calendarioTienda;
+
+    @Autowired
+    private ReporteVentasService reporteVentasService;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
     
     /**
      * POST /api/ventas/procesar
      * Endpoint principal que usa el PATRÓN FACADE para procesar una venta completa
+     * Con ?modo=async responde 202 en cuanto la factura queda reservada; el
+     * resultado del pago se consulta en GET /api/ventas/procesar/{idFactura}/estado
      */
     @PostMapping("/procesar")
-    public ResponseEntity<VentaResponse> procesarVenta(@RequestBody VentaRequest ventaRequest) {
-        System.out.println("🛒 === PROCESANDO VENTA REAL ===");
-        
+    public ResponseEntity<VentaResponse> procesarVenta(@RequestBody VentaRequest ventaRequest,
+                                                       @RequestParam(name = "modo", defaultValue = "sync") String modo) {
         try {
-            System.out.println("VentaRequest: " + ventaRequest);
-            
             if (ventaRequest == null) {
-                System.err.println("❌ VentaRequest es null");
+                log.warn("❌ Venta rechazada: datos de venta faltantes");
                 VentaResponse errorResponse = new VentaResponse("ERROR", "Datos de venta faltantes");
                 return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
             }
             
-            System.out.println("Usuario: " + ventaRequest.getIdUsuario());
-            System.out.println("Items: " + (ventaRequest.getItems() != null ? ventaRequest.getItems().size() : 0));
-            System.out.println("Método de pago: " + (ventaRequest.getDatosPago() != null ? ventaRequest.getDatosPago().getMetodoPago() : "null"));
-            
-            // Debug de productos solicitados
-            if (ventaRequest.getItems() != null) {
-                for (var item : ventaRequest.getItems()) {
-                    System.out.println("  - Producto ID: " + item.getIdProducto() + ", Cantidad: " + item.getCantidad());
+            // El inicio de la venta lo registra VentasFacade; aquí solo el detalle de la petición
+            if (log.isDebugEnabled()) {
+                log.debug("🛒 Venta recibida (modo {}) - usuario: {}, items: {}, método de pago: {}", modo,
+                        ventaRequest.getIdUsuario(),
+                        ventaRequest.getItems() != null ? ventaRequest.getItems().size() : 0,
+                        ventaRequest.getDatosPago() != null ? ventaRequest.getDatosPago().getMetodoPago() : null);
+                if (ventaRequest.getItems() != null) {
+                    for (var item : ventaRequest.getItems()) {
+                        log.debug("  - Producto ID: {}, Cantidad: {}", item.getIdProducto(), item.getCantidad());
+                    }
                 }
             }
             
-            // Llamar al VentasFacade real
-            System.out.println("🔄 Llamando a VentasFacade...");
+            if ("async".equalsIgnoreCase(modo)) {
+                VentaResponse pendiente = ventasFacade.iniciarVentaAsincrona(ventaRequest);
+                return ResponseEntity.accepted()
+                        .location(URI.create("/api/ventas/procesar/" + pendiente.getIdFactura() + "/estado"))
+                        .body(pendiente);
+            }
+            
             VentaResponse response = ventasFacade.procesarVenta(ventaRequest);
-            System.out.println("✅ VentasFacade completado. Estado: " + response.getEstado());
             
             if ("ERROR".equals(response.getEstado())) {
-                System.err.println("❌ VentasFacade retornó error: " + response.getMensaje());
+                log.warn("❌ Venta rechazada: {}", response.getMensaje());
                 return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
             }
             
-            System.out.println("🎉 Venta procesada exitosamente");
             return ResponseEntity.status(HttpStatus.CREATED).body(response);
             
+        } catch (RejectedExecutionException e) {
+            log.warn("❌ Pool de pagos saturado, venta rechazada con 503: {}", e.getMessage());
+            VentaResponse errorResponse = new VentaResponse("ERROR", "Hay demasiados pagos en proceso, intente nuevamente");
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(errorResponse);
         } catch (RuntimeException e) {
-            System.err.println("❌ Error de validación: " + e.getMessage());
+            log.warn("❌ Error de validación en la venta: {}", e.getMessage());
             // Errores de validación/negocio -> 400 Bad Request
             VentaResponse errorResponse = new VentaResponse("ERROR", e.getMessage());
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
         } catch (Exception e) {
-            System.err.println("❌ Error técnico: " + e.getMessage());
-            e.printStackTrace();
+            log.error("❌ Error técnico procesando la venta", e);
             VentaResponse errorResponse = new VentaResponse("ERROR", "Error interno del sistema");
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
         }
     }
     
+    /**
+     * GET /api/ventas/procesar/{idFactura}/estado - Estado de una venta asíncrona
+     * (PENDIENTE, EXITOSA o ERROR)
+     */
+    @GetMapping("/procesar/{idFactura}/estado")
+    public ResponseEntity<VentaResponse> consultarEstadoVenta(@PathVariable Integer idFactura) {
+        return ventasFacade.consultarEstadoVenta(idFactura)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+    
+    /**
+     * POST /api/ventas/importar
+     * Importación masiva de ventas de cajas sin conexión. Acepta un arreglo JSON
+     * o NDJSON (una venta por línea) y se lee a medida que llega. Responde en
+     * NDJSON un resultado por venta (EXITOSA con el ID de factura, o ERROR con
+     * el motivo), escrito en cuanto se registra cada lote. Cada venta debe
+     * traer su idVentaCaja: al repetir la importación, las que ya estaban
+     * registradas responden YA_REGISTRADA con su factura.
+     */
+    @PostMapping(value = "/importar",
+            consumes = {MediaType.APPLICATION_JSON_VALUE, "application/x-ndjson"},
+            produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> importarVentas(HttpServletRequest request) throws IOException {
+        InputStream entrada = request.getInputStream();
+        ObjectWriter writer = objectMapper.writerFor(ResultadoImportacionResponse.class);
+        StreamingResponseBody cuerpo = salida -> {
+            OutputStream out = new BufferedOutputStream(salida, 64 * 1024);
+            try (MappingIterator<VentaRequest> ventas = objectMapper.readerFor(VentaRequest.class).readValues(entrada)) {
+                importacionVentasFacade.importar(ventas, resultados -> {
+                    try {
+                        for (ResultadoImportacionResponse resultado : resultados) {
+                            out.write(writer.writeValueAsBytes(resultado));
+                            out.write('\n');
+                        }
+                        out.flush();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            } catch (RuntimeException e) {
+                // JSON mal formado: los lotes anteriores ya quedaron registrados
+                ResultadoImportacionResponse error = ResultadoImportacionResponse.error(-1,
+                        "Entrada inválida, importación detenida: " + e.getMessage());
+                out.write(writer.writeValueAsBytes(error));
+                out.write('\n');
+            }
+            out.flush();
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(cuerpo);
+    }
+    
+    /**
+     * GET /api/ventas/historial?desde=2025-01-01&hasta=2025-01-31&idUsuario=2&tamano=50&cursor=...
+     * Historial de ventas paginado (ID, fecha, total, usuario, método de pago),
+     * de la más reciente a la más antigua. Todos los filtros son opcionales.
+     */
+    @GetMapping("/historial")
+    public ResponseEntity<?> obtenerHistorialVentas(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta,
+            @RequestParam(required = false) Integer idUsuario,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int tamano) {
+        if (tamano < 1 || tamano > 500) {
+            return ResponseEntity.badRequest().body(new VentaResponse("ERROR", "El tamaño de página debe estar entre 1 y 500"));
+        }
+        if (desde != null && hasta != null && desde.isAfter(hasta)) {
+            return ResponseEntity.badRequest().body(new VentaResponse("ERROR", "La fecha 'desde' no puede ser posterior a 'hasta'"));
+        }
+        try {
+            PaginaVentasResponse pagina = facturaService.listarHistorial(desde, hasta, idUsuario, cursor, tamano);
+            return ResponseEntity.ok(pagina);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new VentaResponse("ERROR", e.getMessage()));
+        }
+    }
+
+    /**
+     * GET /api/ventas/resumen?fecha=2025-01-31
+     * Totales del día (por defecto hoy) y detalle por hora, cajero y método de
+     * pago, leídos del resumen precalculado.
+     */
+    @GetMapping("/resumen")
+    public ResponseEntity<ResumenDiaVentas> obtenerResumenDelDia(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fecha) {
+        return ResponseEntity.ok(resumenVentasService.resumenDelDia(fecha != null ? fecha : calendarioTienda.hoy()));
+    }
+
+    /**
+     * GET /api/ventas/reporte?desde=2025-01-01&hasta=2025-12-31&formato=xlsx
+     * Reporte de las ventas confirmadas de los días [desde, hasta], por día,
+     * cajero, categoría y método de pago, en CSV (por defecto) o XLSX. El
+     * archivo se escribe directamente en la respuesta.
+     */
+    @GetMapping("/reporte")
+    public ResponseEntity<?> exportarReporteVentas(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta,
+            @RequestParam(defaultValue = "csv") String formato) {
+        FormatoReporte formatoReporte;
+        ReporteVentas reporte;
+        try {
+            formatoReporte = FormatoReporte.desde(formato);
+            reporte = reporteVentasService.generar(desde, hasta);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new VentaResponse("ERROR", e.getMessage()));
+        }
+        StreamingResponseBody cuerpo = salida -> {
+            OutputStream out = new BufferedOutputStream(salida, 64 * 1024);
+            formatoReporte.escribir(reporte, out);
+            out.flush();
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(formatoReporte.getTipoContenido()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"reporte-ventas_" + desde + "_" + hasta
+                        + "." + formatoReporte.getExtension() + "\"")
+                .body(cuerpo);
+    }
+
     /**
      * GET /api/ventas - Obtener todas las ventas (facturas)
-     * Necesario para el dashboard y reportes
+     * Necesario para el dashboard y reportes. Carga todas las facturas con sus
+     * detalles; para listados usar /api/ventas/historial.
      */
     @GetMapping
     public ResponseEntity<List<com.sistemaventas.backend.entity.Factura>> obtenerTodasLasVentas() {
@@ -143,7 +322,7 @@ public class VentasController {
     @GetMapping("/{id}")
     public ResponseEntity<com.sistemaventas.backend.entity.Factura> obtenerVentaPorId(@org.springframework.web.bind.annotation.PathVariable Integer id) {
         try {
-            var factura = facturaService.buscarPorId(id);
+            var factura = facturaService.buscarConDetalles(id);
             if (factura.isPresent()) {
                 return ResponseEntity.ok(factura.get());
             } else {
@@ -161,7 +340,7 @@ public class VentasController {
     @GetMapping("/{id}/details")
     public ResponseEntity<List<com.sistemaventas.backend.entity.DetalleFactura>> obtenerDetallesVenta(@org.springframework.web.bind.annotation.PathVariable Integer id) {
         try {
-            var factura = facturaService.buscarPorId(id);
+            var factura = facturaService.buscarConDetalles(id);
             if (factura.isPresent()) {
                 List<com.sistemaventas.backend.entity.DetalleFactura> detalles = factura.get().getDetallesFactura();
                 return ResponseEntity.ok(detalles);
@@ -282,41 +461,70 @@ public class VentasController {
     
     /**
      * GET /api/ventas/factura/{id}/pdf
-     * Descargar factura en formato PDF
+     * Descargar factura en formato PDF. El PDF se genera una vez y se sirve
+     * desde el almacén; con If-None-Match y el mismo ETag responde 304.
      */
     @GetMapping("/factura/{id}/pdf")
-    public ResponseEntity<byte[]> descargarFacturaPdf(@PathVariable Long id) {
+    public ResponseEntity<Resource> descargarFacturaPdf(@PathVariable Long id, HttpServletRequest request,
+                                                        WebRequest webRequest) {
         try {
-            System.out.println("📄 Generando PDF para factura ID: " + id);
-            
-            // Obtener la factura completa con detalles
-            Factura factura = facturaService.obtenerFacturaCompleta(id);
-            if (factura == null) {
+            Optional<PdfAlmacenado> encontrado = pdfFacturasService.obtener(id.intValue());
+            if (encontrado.isEmpty()) {
                 return ResponseEntity.notFound().build();
             }
+            PdfAlmacenado pdf = encontrado.get();
+            if (webRequest.checkNotModified(pdf.etag())) {
+                return null;
+            }
             
-            // Generar el PDF
-            byte[] pdfBytes = facturaPdfService.generarFacturaPdf(factura);
-            
-            // Configurar headers para descarga
             HttpHeaders headers = new HttpHeaders();
             headers.setContentType(MediaType.APPLICATION_PDF);
             headers.setContentDispositionFormData("attachment", "factura_" + id + ".pdf");
-            headers.setContentLength(pdfBytes.length);
-            
-            System.out.println("✅ PDF generado correctamente - " + pdfBytes.length + " bytes");
+            headers.setContentLength(pdf.tamano());
+            headers.setETag(pdf.etag());
+            headers.setCacheControl(CacheControl.noCache().cachePrivate());
             
-            return ResponseEntity.ok()
-                    .headers(headers)
-                    .body(pdfBytes);
+            // Con sendfile Tomcat copia el archivo al socket sin pasarlo por la JVM
+            if (Boolean.TRUE.equals(request.getAttribute("org.apache.tomcat.sendfile.support"))) {
+                request.setAttribute("org.apache.tomcat.sendfile.filename", pdf.archivo().toString());
+                request.setAttribute("org.apache.tomcat.sendfile.start", 0L);
+                request.setAttribute("org.apache.tomcat.sendfile.end", pdf.tamano());
+                return ResponseEntity.ok().headers(headers).build();
+            }
+            return ResponseEntity.ok().headers(headers).body(new FileSystemResource(pdf.archivo()));
                     
         } catch (Exception e) {
-            System.err.println("❌ Error generando PDF: " + e.getMessage());
-            e.printStackTrace();
+            log.error("❌ Error obteniendo PDF de la factura {}", id, e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
     
+    /**
+     * GET /api/ventas/facturas/pdf?desde=2025-03-01&hasta=2025-03-31
+     * Descargar en un ZIP los PDF de las facturas pagadas de los días [desde, hasta]
+     * (cierre del día o del mes). El ZIP se escribe a medida que se generan los PDF.
+     */
+    @GetMapping("/facturas/pdf")
+    public ResponseEntity<?> exportarFacturasPdf(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta) {
+        List<Integer> idsFacturas;
+        try {
+            idsFacturas = facturaService.obtenerIdsFacturasConfirmadas(desde, hasta);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new VentaResponse("ERROR", e.getMessage()));
+        }
+        StreamingResponseBody cuerpo = salida -> {
+            OutputStream out = new BufferedOutputStream(salida, 64 * 1024);
+            pdfFacturasService.exportarZip(idsFacturas, out);
+            out.flush();
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/zip"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"facturas_" + desde + "_" + hasta + ".zip\"")
+                .body(cuerpo);
+    }
+    
     /**
      * GET /api/ventas/demo-facade
      * Demostrar el patrón Facade con una venta de ejemplo
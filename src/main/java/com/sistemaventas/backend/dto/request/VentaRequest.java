@@ -1,5 +1,6 @@
 package com.sistemaventas.backend.dto.request;
 
+import java.util.Date;
 import java.util.List;
 
 import jakarta.validation.Valid;
@@ -21,6 +22,10 @@ public class VentaRequest {
     
     private String paymentId; // ID del pago de Mercado Pago (opcional)
     
+    private Date fecha; // Fecha de la venta en la caja (opcional, solo en la importación de ventas)
+    
+    private String idVentaCaja; // ID único de la venta en la caja (obligatorio en la importación de ventas)
+    
     // Constructores
     public VentaRequest() {}
     
@@ -63,6 +68,22 @@ public class VentaRequest {
         this.paymentId = paymentId;
     }
     
+    public Date getFecha() {
+        return fecha;
+    }
+    
+    public void setFecha(Date fecha) {
+        this.fecha = fecha;
+    }
+    
+    public String getIdVentaCaja() {
+        return idVentaCaja;
+    }
+    
+    public void setIdVentaCaja(String idVentaCaja) {
+        this.idVentaCaja = idVentaCaja;
+    }
+    
     @Override
     public String toString() {
         return "VentaRequest{" +
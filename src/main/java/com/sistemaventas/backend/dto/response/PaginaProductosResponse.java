@@ -0,0 +1,45 @@
+package com.sistemaventas.backend.dto.response;
+
+import java.util.List;
+
+/**
+ * Página de productos con paginación por cursor (keyset): para pedir la
+ * siguiente página se envía {@code siguienteCursor}; es null en la última.
+ */
+public class PaginaProductosResponse {
+    private List<ProductoResponse> productos;
+    private String siguienteCursor;
+    private boolean hayMas;
+
+    public PaginaProductosResponse() {}
+
+    public PaginaProductosResponse(List<ProductoResponse> productos, String siguienteCursor) {
+        this.productos = productos;
+        this.siguienteCursor = siguienteCursor;
+        this.hayMas = siguienteCursor != null;
+    }
+
+    public List<ProductoResponse> getProductos() {
+        return productos;
+    }
+
+    public void setProductos(List<ProductoResponse> productos) {
+        this.productos = productos;
+    }
+
+    public String getSiguienteCursor() {
+        return siguienteCursor;
+    }
+
+    public void setSiguienteCursor(String siguienteCursor) {
+        this.siguienteCursor = siguienteCursor;
+    }
+
+    public boolean isHayMas() {
+        return hayMas;
+    }
+
+    public void setHayMas(boolean hayMas) {
+        this.hayMas = hayMas;
+    }
+}
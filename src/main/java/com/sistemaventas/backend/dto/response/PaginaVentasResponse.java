@@ -0,0 +1,45 @@
+package com.sistemaventas.backend.dto.response;
+
+import java.util.List;
+
+/**
+ * Página del historial de ventas con paginación por cursor (keyset): para
+ * pedir la siguiente página se envía {@code siguienteCursor}; es null en la última.
+ */
+public class PaginaVentasResponse {
+    private List<VentaResumenResponse> ventas;
+    private String siguienteCursor;
+    private boolean hayMas;
+
+    public PaginaVentasResponse() {}
+
+    public PaginaVentasResponse(List<VentaResumenResponse> ventas, String siguienteCursor) {
+        this.ventas = ventas;
+        this.siguienteCursor = siguienteCursor;
+        this.hayMas = siguienteCursor != null;
+    }
+
+    public List<VentaResumenResponse> getVentas() {
+        return ventas;
+    }
+
+    public void setVentas(List<VentaResumenResponse> ventas) {
+        this.ventas = ventas;
+    }
+
+    public String getSiguienteCursor() {
+        return siguienteCursor;
+    }
+
+    public void setSiguienteCursor(String siguienteCursor) {
+        this.siguienteCursor = siguienteCursor;
+    }
+
+    public boolean isHayMas() {
+        return hayMas;
+    }
+
+    public void setHayMas(boolean hayMas) {
+        this.hayMas = hayMas;
+    }
+}
@@ -0,0 +1,71 @@
+package com.sistemaventas.backend.dto.response;
+
+/**
+ * Resultado de un producto dentro de una importación del catálogo.
+ * {@code indice} es la posición del producto en la entrada (desde 0, sin
+ * contar la fila de encabezado del CSV).
+ */
+public class ResultadoImportacionProductoResponse {
+    private int indice;
+    private String estado;
+    private Integer idProducto;
+    private String mensaje;
+
+    public ResultadoImportacionProductoResponse() {}
+
+    public static ResultadoImportacionProductoResponse creado(int indice, Integer idProducto) {
+        return guardado(indice, "CREADO", idProducto);
+    }
+
+    public static ResultadoImportacionProductoResponse actualizado(int indice, Integer idProducto) {
+        return guardado(indice, "ACTUALIZADO", idProducto);
+    }
+
+    public static ResultadoImportacionProductoResponse error(int indice, String mensaje) {
+        ResultadoImportacionProductoResponse resultado = new ResultadoImportacionProductoResponse();
+        resultado.indice = indice;
+        resultado.estado = "ERROR";
+        resultado.mensaje = mensaje;
+        return resultado;
+    }
+
+    private static ResultadoImportacionProductoResponse guardado(int indice, String estado, Integer idProducto) {
+        ResultadoImportacionProductoResponse resultado = new ResultadoImportacionProductoResponse();
+        resultado.indice = indice;
+        resultado.estado = estado;
+        resultado.idProducto = idProducto;
+        return resultado;
+    }
+
+    public int getIndice() {
+        return indice;
+    }
+
+    public void setIndice(int indice) {
+        this.indice = indice;
+    }
+
+    public String getEstado() {
+        return estado;
+    }
+
+    public void setEstado(String estado) {
+        this.estado = estado;
+    }
+
+    public Integer getIdProducto() {
+        return idProducto;
+    }
+
+    public void setIdProducto(Integer idProducto) {
+        this.idProducto = idProducto;
+    }
+
+    public String getMensaje() {
+        return mensaje;
+    }
+
+    public void setMensaje(String mensaje) {
+        this.mensaje = mensaje;
+    }
+}
@@ -0,0 +1,82 @@
+package com.sistemaventas.backend.dto.response;
+
+import java.math.BigDecimal;
+
+/**
+ * Resultado de una venta dentro de una importación. {@code indice} es la
+ * posición de la venta en la entrada (desde 0), para que la caja sepa cuáles
+ * quedaron registradas y cuáles debe revisar. Una venta que ya se había
+ * importado (mismo idVentaCaja) vuelve como YA_REGISTRADA con su factura.
+ */
+public class ResultadoImportacionResponse {
+    private int indice;
+    private String estado;
+    private Integer idFactura;
+    private BigDecimal total;
+    private String mensaje;
+
+    public ResultadoImportacionResponse() {}
+
+    public static ResultadoImportacionResponse exitosa(int indice, Integer idFactura, BigDecimal total) {
+        ResultadoImportacionResponse resultado = new ResultadoImportacionResponse();
+        resultado.indice = indice;
+        resultado.estado = "EXITOSA";
+        resultado.idFactura = idFactura;
+        resultado.total = total;
+        return resultado;
+    }
+
+    public static ResultadoImportacionResponse yaRegistrada(int indice, Integer idFactura, BigDecimal total) {
+        ResultadoImportacionResponse resultado = exitosa(indice, idFactura, total);
+        resultado.estado = "YA_REGISTRADA";
+        return resultado;
+    }
+
+    public static ResultadoImportacionResponse error(int indice, String mensaje) {
+        ResultadoImportacionResponse resultado = new ResultadoImportacionResponse();
+        resultado.indice = indice;
+        resultado.estado = "ERROR";
+        resultado.mensaje = mensaje;
+        return resultado;
+    }
+
+    public int getIndice() {
+        return indice;
+    }
+
+    public void setIndice(int indice) {
+        this.indice = indice;
+    }
+
+    public String getEstado() {
+        return estado;
+    }
+
+    public void setEstado(String estado) {
+        this.estado = estado;
+    }
+
+    public Integer getIdFactura() {
+        return idFactura;
+    }
+
+    public void setIdFactura(Integer idFactura) {
+        this.idFactura = idFactura;
+    }
+
+    public BigDecimal getTotal() {
+        return total;
+    }
+
+    public void setTotal(BigDecimal total) {
+        this.total = total;
+    }
+
+    public String getMensaje() {
+        return mensaje;
+    }
+
+    public void setMensaje(String mensaje) {
+        this.mensaje = mensaje;
+    }
+}
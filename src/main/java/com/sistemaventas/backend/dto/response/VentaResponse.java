@@ -9,6 +9,7 @@ import java.util.stream.Collectors;
 import com.sistemaventas.backend.entity.DetalleFactura;
 import com.sistemaventas.backend.entity.Factura;
 import com.sistemaventas.backend.entity.Pago;
+import com.sistemaventas.backend.entity.Producto;
 
 public class VentaResponse {
     
@@ -31,6 +32,14 @@ public class VentaResponse {
     public VentaResponse() {}
     
     public VentaResponse(Factura factura, Pago pago) {
+        this(factura, pago, factura.getDetallesFactura().stream()
+                .map(ItemFactura::new)
+                .collect(Collectors.toList()));
+    }
+    
+    // Con los items ya armados (por ejemplo, cuando el producto del detalle es
+    // una referencia perezosa y la sesión ya está cerrada)
+    public VentaResponse(Factura factura, Pago pago, List<ItemFactura> items) {
         this.idFactura = factura.getIdFactura();
         this.nombreUsuario = factura.getUsuario().getNombre();
         this.fecha = factura.getFecha();
@@ -38,9 +47,7 @@ public class VentaResponse {
         this.iva = factura.getIva();
         this.total = factura.getTotal();
         this.metodoPago = pago != null ? pago.getMetodoPago() : "No especificado";
-        this.items = factura.getDetallesFactura().stream()
-                .map(ItemFactura::new)
-                .collect(Collectors.toList());
+        this.items = items;
         this.estado = "EXITOSA";
         this.mensaje = "Venta procesada correctamente";
         
@@ -181,8 +188,12 @@ public class VentaResponse {
         public ItemFactura() {}
         
         public ItemFactura(DetalleFactura detalle) {
-            this.idProducto = detalle.getProducto().getIdProducto();
-            this.descripcionProducto = detalle.getProducto().getDescripcion();
+            this(detalle.getProducto(), detalle);
+        }
+        
+        public ItemFactura(Producto producto, DetalleFactura detalle) {
+            this.idProducto = producto.getIdProducto();
+            this.descripcionProducto = producto.getDescripcion();
             this.cantidad = detalle.getCantidad();
             this.precioUnitario = detalle.getPrecioUnitario();
             this.subtotal = detalle.getSubtotal();
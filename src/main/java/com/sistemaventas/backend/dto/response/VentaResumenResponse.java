@@ -0,0 +1,77 @@
+package com.sistemaventas.backend.dto.response;
+
+import java.math.BigDecimal;
+import java.util.Date;
+
+/**
+ * Fila del historial de ventas. Se construye directamente en la consulta
+ * (proyección JPQL), sin cargar la factura, sus detalles ni el pago.
+ */
+public class VentaResumenResponse {
+    private Integer idFactura;
+    private Date fecha;
+    private BigDecimal total;
+    private String nombreUsuario;
+    private String metodoPago;
+    private Boolean devuelta;
+
+    public VentaResumenResponse() {}
+
+    public VentaResumenResponse(Integer idFactura, Date fecha, BigDecimal total,
+                                String nombreUsuario, String metodoPago, Boolean devuelta) {
+        this.idFactura = idFactura;
+        this.fecha = fecha;
+        this.total = total;
+        this.nombreUsuario = nombreUsuario;
+        this.metodoPago = metodoPago;
+        this.devuelta = devuelta;
+    }
+
+    public Integer getIdFactura() {
+        return idFactura;
+    }
+
+    public void setIdFactura(Integer idFactura) {
+        this.idFactura = idFactura;
+    }
+
+    public Date getFecha() {
+        return fecha;
+    }
+
+    public void setFecha(Date fecha) {
+        this.fecha = fecha;
+    }
+
+    public BigDecimal getTotal() {
+        return total;
+    }
+
+    public void setTotal(BigDecimal total) {
+        this.total = total;
+    }
+
+    public String getNombreUsuario() {
+        return nombreUsuario;
+    }
+
+    public void setNombreUsuario(String nombreUsuario) {
+        this.nombreUsuario = nombreUsuario;
+    }
+
+    public String getMetodoPago() {
+        return metodoPago;
+    }
+
+    public void setMetodoPago(String metodoPago) {
+        this.metodoPago = metodoPago;
+    }
+
+    public Boolean getDevuelta() {
+        return devuelta;
+    }
+
+    public void setDevuelta(Boolean devuelta) {
+        this.devuelta = devuelta;
+    }
+}
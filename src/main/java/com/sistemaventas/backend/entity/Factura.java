@@ -5,6 +5,8 @@ import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 
+import org.springframework.data.domain.Persistable;
+
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
 import jakarta.persistence.CascadeType;
@@ -16,9 +18,12 @@ import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.OneToOne;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
 import jakarta.persistence.Table;
 import jakarta.persistence.Temporal;
 import jakarta.persistence.TemporalType;
+import jakarta.persistence.Transient;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotNull;
 
@@ -28,7 +33,7 @@ import jakarta.validation.constraints.NotNull;
  * Entity (Model in MVC): representa la factura/venta en la capa de dominio.
  * Contiene detalles (detalles de factura), totales y relación con pago/usuario.
  */
-public class Factura {
+public class Factura implements Persistable<Integer> {
     
     @Id
     @Column(name = "IDFACTURA")
@@ -63,6 +68,9 @@ public class Factura {
     @Column(name = "payment_id", length = 100)
     private String paymentId; // ID del pago en Mercado Pago
     
+    @Column(name = "ID_VENTA_CAJA", length = 100)
+    private String idVentaCaja; // ID de la venta en la caja (solo ventas importadas; único)
+    
     @Column(name = "devuelta")
     private Boolean devuelta = false; // Indica si la factura fue devuelta
     
@@ -73,6 +81,12 @@ public class Factura {
     @JsonIgnore
     private Pago pago;
     
+    // El ID lo asigna la aplicación, así que Spring Data no puede saber por el ID
+    // si la entidad es nueva: sin esta marca save() haría merge() y consultaría
+    // la fila antes de cada INSERT
+    @Transient
+    private boolean nueva = true;
+    
     // Constructores
     public Factura() {
         this.fecha = new Date(); // Fecha actual por defecto
@@ -169,6 +183,14 @@ public class Factura {
         this.paymentId = paymentId;
     }
     
+    public String getIdVentaCaja() {
+        return idVentaCaja;
+    }
+    
+    public void setIdVentaCaja(String idVentaCaja) {
+        this.idVentaCaja = idVentaCaja;
+    }
+    
     public Boolean getDevuelta() {
         return devuelta;
     }
@@ -193,6 +215,25 @@ public class Factura {
         calcularTotales();
     }
     
+    // Persistable: save() usa persist() mientras la entidad no venga de la base de datos
+    @Override
+    @JsonIgnore
+    public Integer getId() {
+        return idFactura;
+    }
+    
+    @Override
+    @JsonIgnore
+    public boolean isNew() {
+        return nueva;
+    }
+    
+    @PostLoad
+    @PostPersist
+    void marcarPersistida() {
+        this.nueva = false;
+    }
+    
     @Override
     public String toString() {
         return "Factura{" +
@@ -2,6 +2,8 @@ package com.sistemaventas.backend.entity;
 
 import java.math.BigDecimal;
 
+import org.springframework.data.domain.Persistable;
+
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
 import jakarta.persistence.Column;
@@ -10,7 +12,10 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.OneToOne;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -27,7 +32,7 @@ import jakarta.validation.constraints.Size;
  * Aquí se guardan método de pago, monto y (opcionalmente) datos enmascarados
  * del titular/últimos 4 dígitos de la tarjeta.
  */
-public class Pago {
+public class Pago implements Persistable<Integer> {
     
     @Id
     @Column(name = "IDPAGO")
@@ -56,6 +61,10 @@ public class Pago {
     @Column(name = "NOMBRE_TITULAR", length = 100)
     private String nombreTitular;
     
+    // Pago recién creado: registrarlo es un INSERT directo (ver Factura)
+    @Transient
+    private boolean nueva = true;
+    
     // Constructores
     public Pago() {}
     
@@ -115,6 +124,24 @@ public class Pago {
         this.nombreTitular = nombreTitular;
     }
     
+    @Override
+    @JsonIgnore
+    public Integer getId() {
+        return idPago;
+    }
+    
+    @Override
+    @JsonIgnore
+    public boolean isNew() {
+        return nueva;
+    }
+    
+    @PostLoad
+    @PostPersist
+    void marcarPersistida() {
+        this.nueva = false;
+    }
+    
     @Override
     public String toString() {
         return "Pago{" +
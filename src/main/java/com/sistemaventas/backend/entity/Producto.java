@@ -29,7 +29,8 @@ public class Producto {
     @Column(name = "IDPRODUCTO")
     private Integer idProducto;
     
-    @Column(name = "CANTIDADDISPONIBLE")
+    // Solo se escribe al crear el producto; después el stock lo mantiene AlmacenStock
+    @Column(name = "CANTIDADDISPONIBLE", updatable = false)
     @Min(value = 0, message = "La cantidad disponible no puede ser negativa")
     private Integer cantidadDisponible;
     
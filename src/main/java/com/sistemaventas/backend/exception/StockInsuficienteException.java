@@ -0,0 +1,31 @@
+package com.sistemaventas.backend.exception;
+
+/**
+ * Excepción lanzada cuando una reserva pide más unidades de las disponibles
+ */
+public class StockInsuficienteException extends RuntimeException {
+
+    private final Integer idProducto;
+    private final int disponible;
+    private final int solicitado;
+
+    public StockInsuficienteException(Integer idProducto, int disponible, int solicitado) {
+        super(String.format("Stock insuficiente para producto %d. Disponible: %d, Solicitado: %d",
+                idProducto, disponible, solicitado));
+        this.idProducto = idProducto;
+        this.disponible = disponible;
+        this.solicitado = solicitado;
+    }
+
+    public Integer getIdProducto() {
+        return idProducto;
+    }
+
+    public int getDisponible() {
+        return disponible;
+    }
+
+    public int getSolicitado() {
+        return solicitado;
+    }
+}
@@ -0,0 +1,214 @@
+package com.sistemaventas.backend.facade;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.sistemaventas.backend.dto.request.ProductoRequest;
+import com.sistemaventas.backend.dto.response.ResultadoImportacionProductoResponse;
+import com.sistemaventas.backend.entity.Producto;
+import com.sistemaventas.backend.factory.ProductoFactory;
+import com.sistemaventas.backend.service.ProductoService;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Importación masiva del catálogo de un proveedor: crea los productos nuevos
+ * y actualiza los existentes (por ID).
+ *
+ * Los productos se procesan en lotes de tamaño fijo, así la memoria no
+ * depende del tamaño del archivo. Por cada lote:
+ * - cada producto se valida con la fábrica de su categoría, en paralelo
+ *   (se crea una fábrica por categoría y se reutiliza)
+ * - los IDs que ya existen se buscan con una sola consulta IN
+ * - los productos sin ID reciben IDs reservados de una sola vez; antes, la
+ *   secuencia se mueve más allá de los IDs nuevos que trae el archivo
+ * - los INSERT, los UPDATE y el ajuste de stock van en lotes, en una sola transacción
+ *
+ * Si la transacción del lote falla, el lote se repite producto por producto
+ * para que un solo producto no deje sin importar a los demás.
+ */
+@Service
+@Slf4j
+public class ImportacionProductosFacade {
+
+    private final ProductoService productoService;
+    private final TransactionTemplate transactionTemplate;
+    private final int tamanoLote;
+
+    // Una instancia por tipo de fábrica (no tienen estado); las categorías desconocidas comparten la general
+    private final Map<Class<? extends ProductoFactory>, ProductoFactory> fabricas = new ConcurrentHashMap<>();
+
+    public ImportacionProductosFacade(ProductoService productoService, PlatformTransactionManager transactionManager,
+            @Value("${sistemaventas.importacion.productos.tamano-lote:1000}") int tamanoLote) {
+        this.productoService = productoService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.tamanoLote = tamanoLote;
+    }
+
+    /**
+     * Importa los productos a medida que se leen y entrega los resultados de
+     * cada lote apenas termina su transacción, en el mismo orden de la entrada.
+     * Si leer un producto lanza IllegalArgumentException (fila mal formada),
+     * solo ese producto queda con error y la importación sigue.
+     */
+    public void importar(Iterator<ProductoRequest> productos,
+            Consumer<List<ResultadoImportacionProductoResponse>> alTerminarLote) {
+        List<Fila> lote = new ArrayList<>(tamanoLote);
+        int leidos = 0;
+        int creados = 0;
+        int actualizados = 0;
+        while (productos.hasNext()) {
+            Fila fila = new Fila(leidos++);
+            try {
+                fila.request = productos.next();
+            } catch (IllegalArgumentException e) {
+                fila.error = e.getMessage();
+            }
+            lote.add(fila);
+            if (lote.size() == tamanoLote || !productos.hasNext()) {
+                List<ResultadoImportacionProductoResponse> resultados = importarLote(lote);
+                creados += (int) resultados.stream().filter(r -> "CREADO".equals(r.getEstado())).count();
+                actualizados += (int) resultados.stream().filter(r -> "ACTUALIZADO".equals(r.getEstado())).count();
+                lote.clear();
+                alTerminarLote.accept(resultados);
+            }
+        }
+        log.info("📥 Importación de productos terminada - {} recibidos, {} creados, {} actualizados, {} con error",
+                leidos, creados, actualizados, leidos - creados - actualizados);
+    }
+
+    private List<ResultadoImportacionProductoResponse> importarLote(List<Fila> lote) {
+        // La validación no toca la base de datos: se reparte entre varios hilos
+        lote.parallelStream().filter(fila -> fila.error == null).forEach(this::validar);
+
+        // Un ID repetido dentro del lote: solo se importa la primera aparición
+        Set<Integer> idsIndicados = new HashSet<>();
+        List<Fila> sinId = new ArrayList<>();
+        for (Fila fila : lote) {
+            if (fila.producto == null) {
+                continue;
+            }
+            Integer id = fila.producto.getIdProducto();
+            if (id == null || id == 0) {
+                sinId.add(fila);
+            } else if (!idsIndicados.add(id)) {
+                fila.producto = null;
+                fila.error = "ID de producto repetido en la importación: " + id;
+            }
+        }
+
+        Set<Integer> existentes = productoService.buscarIdsExistentes(idsIndicados);
+        idsIndicados.stream()
+                .filter(id -> !existentes.contains(id))
+                .max(Integer::compare)
+                .ifPresent(productoService::reservarIdsHasta);
+        if (!sinId.isEmpty()) {
+            List<Integer> ids = productoService.reservarIds(sinId.size());
+            for (int i = 0; i < sinId.size(); i++) {
+                sinId.get(i).producto.setIdProducto(ids.get(i));
+            }
+        }
+
+        List<Fila> validas = new ArrayList<>();
+        for (Fila fila : lote) {
+            if (fila.producto != null) {
+                fila.existente = existentes.contains(fila.producto.getIdProducto());
+                validas.add(fila);
+            }
+        }
+
+        if (!validas.isEmpty()) {
+            try {
+                guardar(validas);
+            } catch (RuntimeException e) {
+                log.warn("⚠️ El lote de {} productos no pudo guardarse junto ({}); se guardan uno por uno",
+                        validas.size(), e.getMessage());
+                for (Fila fila : validas) {
+                    try {
+                        guardar(List.of(fila));
+                    } catch (RuntimeException errorProducto) {
+                        fila.producto = null;
+                        fila.error = errorProducto.getMessage();
+                    }
+                }
+            }
+        }
+
+        List<ResultadoImportacionProductoResponse> resultados = new ArrayList<>(lote.size());
+        for (Fila fila : lote) {
+            if (fila.producto == null) {
+                resultados.add(ResultadoImportacionProductoResponse.error(fila.indice, fila.error));
+            } else if (fila.existente) {
+                resultados.add(ResultadoImportacionProductoResponse.actualizado(fila.indice, fila.producto.getIdProducto()));
+            } else {
+                resultados.add(ResultadoImportacionProductoResponse.creado(fila.indice, fila.producto.getIdProducto()));
+            }
+        }
+        return resultados;
+    }
+
+    // Las mismas reglas que el alta de un producto, sin consultar la base de datos
+    private void validar(Fila fila) {
+        try {
+            ProductoRequest request = fila.request;
+            if (request == null) {
+                throw new IllegalArgumentException("Datos del producto faltantes");
+            }
+            if (request.getDescripcion() != null && request.getDescripcion().length() > 1024) {
+                throw new IllegalArgumentException("La descripción no puede exceder 1024 caracteres");
+            }
+            if (request.getCategoria() != null && request.getCategoria().length() > 100) {
+                throw new IllegalArgumentException("La categoría no puede exceder 100 caracteres");
+            }
+            ProductoFactory resuelta = ProductoFactory.obtenerFactory(request.getCategoria());
+            Producto producto = fabricas.computeIfAbsent(resuelta.getClass(), clase -> resuelta).crearProducto(request);
+            if (producto == null) {
+                throw new RuntimeException("Error: el factory no pudo crear el producto");
+            }
+            fila.producto = producto;
+        } catch (RuntimeException e) {
+            fila.error = e.getMessage();
+        }
+    }
+
+    // Guardar en una transacción; cada intento usa instancias nuevas por si uno anterior se revirtió
+    private void guardar(List<Fila> filas) {
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Producto> nuevos = new ArrayList<>();
+            List<Producto> existentes = new ArrayList<>();
+            for (Fila fila : filas) {
+                Producto p = fila.producto;
+                Producto copia = new Producto(p.getIdProducto(), p.getCantidadDisponible(), p.getPrecioUnitario(),
+                        p.getDescripcion(), p.getCategoria());
+                (fila.existente ? existentes : nuevos).add(copia);
+            }
+            productoService.guardarImportados(nuevos, existentes);
+        });
+    }
+
+    // ==========================================
+    // CLASE INTERNA: Fila
+    // ==========================================
+    private static class Fila {
+        private final int indice;
+        private ProductoRequest request;
+        private Producto producto;
+        private boolean existente;
+        private String error;
+
+        Fila(int indice) {
+            this.indice = indice;
+        }
+    }
+}
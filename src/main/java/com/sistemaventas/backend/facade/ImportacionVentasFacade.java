@@ -0,0 +1,338 @@
+package com.sistemaventas.backend.facade;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.sistemaventas.backend.dto.request.VentaRequest;
+import com.sistemaventas.backend.dto.response.ResultadoImportacionResponse;
+import com.sistemaventas.backend.entity.DetalleFactura;
+import com.sistemaventas.backend.entity.Factura;
+import com.sistemaventas.backend.entity.Pago;
+import com.sistemaventas.backend.entity.Producto;
+import com.sistemaventas.backend.entity.Usuario;
+import com.sistemaventas.backend.service.FacturaService;
+import com.sistemaventas.backend.service.FacturaService.VentaDeCaja;
+import com.sistemaventas.backend.service.PagoService;
+import com.sistemaventas.backend.service.ProductoService;
+import com.sistemaventas.backend.service.ResumenVentasService;
+import com.sistemaventas.backend.service.UsuarioService;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Importación masiva de ventas registradas en cajas sin conexión.
+ *
+ * Las ventas se procesan en lotes. Por cada lote:
+ * - usuarios y productos se cargan con una consulta IN cada uno
+ * - cada venta se valida en memoria, con el stock que van dejando las anteriores
+ * - el stock de todas las ventas válidas se descuenta con una sola reserva por producto
+ * - facturas, detalles y pagos se insertan en lotes JDBC, en una sola transacción
+ * - el resumen de ventas recibe una actualización por franja, no una por venta
+ *
+ * El pago ya se cobró en la caja, así que no se vuelve a autorizar con la
+ * pasarela: solo se registra. Si la transacción del lote falla (por ejemplo,
+ * una venta en línea se llevó el stock mientras tanto) el lote se repite venta
+ * por venta, para que una sola venta no deje sin registrar a las demás.
+ *
+ * Cada venta trae su idVentaCaja (único en FACTURA), así que una caja puede
+ * repetir la importación después de un corte: las ventas que ya quedaron
+ * registradas se responden como YA_REGISTRADA sin volver a descontar stock.
+ */
+@Service
+@Slf4j
+public class ImportacionVentasFacade {
+
+    // Largo de la columna FACTURA.ID_VENTA_CAJA
+    private static final int LARGO_MAXIMO_ID_VENTA_CAJA = 100;
+
+    private final ProductoService productoService;
+    private final UsuarioService usuarioService;
+    private final FacturaService facturaService;
+    private final PagoService pagoService;
+    private final ResumenVentasService resumenVentasService;
+    private final TransactionTemplate transactionTemplate;
+    private final int tamanoLote;
+
+    public ImportacionVentasFacade(ProductoService productoService, UsuarioService usuarioService,
+            FacturaService facturaService, PagoService pagoService, ResumenVentasService resumenVentasService,
+            PlatformTransactionManager transactionManager,
+            @Value("${sistemaventas.importacion.ventas.tamano-lote:500}") int tamanoLote) {
+        this.productoService = productoService;
+        this.usuarioService = usuarioService;
+        this.facturaService = facturaService;
+        this.pagoService = pagoService;
+        this.resumenVentasService = resumenVentasService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.tamanoLote = tamanoLote;
+    }
+
+    /**
+     * Importa las ventas a medida que se leen y entrega los resultados de cada
+     * lote apenas termina su transacción, en el mismo orden de la entrada.
+     */
+    public void importar(Iterator<VentaRequest> ventas, Consumer<List<ResultadoImportacionResponse>> alTerminarLote) {
+        List<VentaRequest> lote = new ArrayList<>(tamanoLote);
+        int procesadas = 0;
+        int exitosas = 0;
+        while (ventas.hasNext()) {
+            lote.add(ventas.next());
+            if (lote.size() == tamanoLote || !ventas.hasNext()) {
+                List<ResultadoImportacionResponse> resultados = importarLote(lote, procesadas);
+                exitosas += (int) resultados.stream().filter(r -> "EXITOSA".equals(r.getEstado())).count();
+                procesadas += lote.size();
+                lote.clear();
+                alTerminarLote.accept(resultados);
+            }
+        }
+        log.info("📥 Importación de ventas terminada - {} recibidas, {} registradas", procesadas, exitosas);
+    }
+
+    /**
+     * Valida y registra un lote. {@code primerIndice} es la posición de la
+     * primera venta del lote en la entrada completa.
+     */
+    List<ResultadoImportacionResponse> importarLote(List<VentaRequest> lote, int primerIndice) {
+        ResultadoImportacionResponse[] resultados = new ResultadoImportacionResponse[lote.size()];
+
+        Set<Integer> idsUsuarios = new LinkedHashSet<>();
+        Set<Integer> idsProductos = new LinkedHashSet<>();
+        Set<String> idsVentaCaja = new LinkedHashSet<>();
+        for (VentaRequest venta : lote) {
+            if (venta == null) {
+                continue;
+            }
+            if (venta.getIdVentaCaja() != null) {
+                idsVentaCaja.add(venta.getIdVentaCaja());
+            }
+            idsUsuarios.add(venta.getIdUsuario());
+            if (venta.getItems() != null) {
+                venta.getItems().stream().filter(Objects::nonNull).forEach(item -> idsProductos.add(item.getIdProducto()));
+            }
+        }
+        idsUsuarios.remove(null);
+        idsProductos.remove(null);
+        Map<Integer, Usuario> usuarios = usuarioService.buscarPorIds(idsUsuarios);
+        Map<Integer, Producto> productos = productoService.buscarPorIds(idsProductos);
+        Map<String, VentaDeCaja> yaRegistradas = facturaService.buscarVentasDeCaja(idsVentaCaja);
+
+        // Stock que va quedando a medida que se aceptan las ventas del lote
+        Map<Integer, Integer> stockRestante = new HashMap<>();
+        productos.forEach((id, producto) -> stockRestante.put(id, Objects.requireNonNullElse(producto.getCantidadDisponible(), 0)));
+
+        List<VentaValidada> validas = new ArrayList<>();
+        // Posición de la primera venta del lote con cada idVentaCaja, y las que la repiten
+        Map<String, Integer> primeras = new HashMap<>();
+        Map<Integer, Integer> repetidas = new LinkedHashMap<>();
+        for (int i = 0; i < lote.size(); i++) {
+            String idVentaCaja = lote.get(i) != null ? lote.get(i).getIdVentaCaja() : null;
+            VentaDeCaja registrada = idVentaCaja != null ? yaRegistradas.get(idVentaCaja) : null;
+            if (registrada != null) {
+                resultados[i] = ResultadoImportacionResponse.yaRegistrada(primerIndice + i,
+                        registrada.idFactura(), registrada.total());
+                continue;
+            }
+            if (idVentaCaja != null && primeras.containsKey(idVentaCaja)) {
+                repetidas.put(i, primeras.get(idVentaCaja));
+                continue;
+            }
+            try {
+                validas.add(validar(i, lote.get(i), usuarios, productos, stockRestante));
+                primeras.put(idVentaCaja, i);
+            } catch (RuntimeException e) {
+                resultados[i] = ResultadoImportacionResponse.error(primerIndice + i, e.getMessage());
+            }
+        }
+
+        if (!validas.isEmpty()) {
+            try {
+                registrar(validas);
+            } catch (RuntimeException e) {
+                log.warn("⚠️ El lote de {} ventas no pudo registrarse junto ({}); se registran una por una",
+                        validas.size(), e.getMessage());
+                for (VentaValidada venta : validas) {
+                    try {
+                        registrar(List.of(venta));
+                    } catch (RuntimeException errorVenta) {
+                        venta.factura = null;
+                        // Otra importación de la misma caja pudo registrarla entretanto
+                        VentaDeCaja registrada = facturaService.buscarVentasDeCaja(
+                                List.of(venta.request.getIdVentaCaja())).get(venta.request.getIdVentaCaja());
+                        resultados[venta.posicion] = registrada != null
+                                ? ResultadoImportacionResponse.yaRegistrada(primerIndice + venta.posicion,
+                                        registrada.idFactura(), registrada.total())
+                                : ResultadoImportacionResponse.error(primerIndice + venta.posicion, errorVenta.getMessage());
+                    }
+                }
+            }
+            for (VentaValidada venta : validas) {
+                if (venta.factura != null) {
+                    resultados[venta.posicion] = ResultadoImportacionResponse.exitosa(
+                            primerIndice + venta.posicion, venta.factura.getIdFactura(), venta.factura.getTotal());
+                }
+            }
+        }
+        // Una venta repetida en la entrada responde lo mismo que su primera aparición
+        repetidas.forEach((posicion, primera) -> {
+            ResultadoImportacionResponse original = resultados[primera];
+            resultados[posicion] = !"ERROR".equals(original.getEstado())
+                    ? ResultadoImportacionResponse.yaRegistrada(primerIndice + posicion, original.getIdFactura(), original.getTotal())
+                    : ResultadoImportacionResponse.error(primerIndice + posicion, original.getMensaje());
+        });
+        return List.of(resultados);
+    }
+
+    /**
+     * Validar una venta contra los usuarios y productos del lote. Si es válida,
+     * su cantidad se descuenta del stock restante para las ventas siguientes.
+     */
+    private VentaValidada validar(int posicion, VentaRequest venta, Map<Integer, Usuario> usuarios,
+            Map<Integer, Producto> productos, Map<Integer, Integer> stockRestante) {
+        if (venta == null) {
+            throw new RuntimeException("Datos de venta faltantes");
+        }
+        if (venta.getIdVentaCaja() == null || venta.getIdVentaCaja().isBlank()) {
+            throw new RuntimeException("El ID de la venta en la caja (idVentaCaja) es obligatorio");
+        }
+        if (venta.getIdVentaCaja().length() > LARGO_MAXIMO_ID_VENTA_CAJA) {
+            throw new RuntimeException("El ID de la venta en la caja no puede superar " + LARGO_MAXIMO_ID_VENTA_CAJA + " caracteres");
+        }
+        if (venta.getDatosPago() == null || venta.getDatosPago().getMetodoPago() == null) {
+            throw new RuntimeException("Los datos de pago son obligatorios");
+        }
+        Usuario usuario = usuarios.get(venta.getIdUsuario());
+        if (usuario == null) {
+            throw new RuntimeException("Usuario no encontrado con ID: " + venta.getIdUsuario());
+        }
+        if (venta.getItems() == null || venta.getItems().isEmpty()) {
+            throw new RuntimeException("La venta debe tener al menos un item");
+        }
+
+        Map<Producto, Integer> cantidades = new LinkedHashMap<>();
+        List<Producto> productosPorItem = new ArrayList<>();
+        for (VentaRequest.ItemVenta item : venta.getItems()) {
+            if (item == null) {
+                throw new RuntimeException("La venta tiene un item vacío");
+            }
+            Producto producto = productos.get(item.getIdProducto());
+            if (producto == null) {
+                throw new RuntimeException("Producto no encontrado con ID: " + item.getIdProducto());
+            }
+            if (item.getCantidad() == null || item.getCantidad() <= 0) {
+                throw new RuntimeException("Cantidad inválida para el producto con ID: " + item.getIdProducto());
+            }
+            if (producto.getPrecioUnitario() == null || producto.getPrecioUnitario().compareTo(BigDecimal.ZERO) <= 0) {
+                throw new RuntimeException(
+                        "El producto '%s' (ID: %d) no tiene precio configurado".formatted(
+                                producto.getDescripcion(), producto.getIdProducto()));
+            }
+            cantidades.merge(producto, item.getCantidad(), Integer::sum);
+            productosPorItem.add(producto);
+        }
+
+        cantidades.forEach((producto, cantidad) -> {
+            int disponible = stockRestante.get(producto.getIdProducto());
+            if (disponible < cantidad) {
+                throw new RuntimeException(
+                        "Stock insuficiente para '%s'. Disponible: %d, Solicitado: %d".formatted(
+                                producto.getDescripcion(), disponible, cantidad));
+            }
+        });
+        cantidades.forEach((producto, cantidad) -> stockRestante.merge(producto.getIdProducto(), -cantidad, Integer::sum));
+
+        return new VentaValidada(posicion, venta, usuario, cantidades, productosPorItem);
+    }
+
+    /**
+     * Registrar ventas ya validadas en una sola transacción: una reserva de
+     * stock por producto para todas ellas y los INSERT en lotes.
+     */
+    private void registrar(List<VentaValidada> ventas) {
+        transactionTemplate.executeWithoutResult(status -> {
+            Map<Producto, Integer> cantidadesPorProducto = new LinkedHashMap<>();
+            ventas.forEach(venta -> venta.cantidades.forEach(
+                    (producto, cantidad) -> cantidadesPorProducto.merge(producto, cantidad, Integer::sum)));
+            productoService.reducirStockEnLote(cantidadesPorProducto);
+
+            List<Factura> facturas = new ArrayList<>(ventas.size());
+            List<Pago> pagos = new ArrayList<>(ventas.size());
+            for (VentaValidada venta : ventas) {
+                Factura factura = crearFactura(venta);
+                Pago pago = pagoService.crearPago(venta.request.getDatosPago(), factura.getTotal(), factura);
+                // El ID del pago va en el mismo INSERT de la factura, sin UPDATE posterior
+                factura.setIdPago(pago.getIdPago());
+                facturas.add(factura);
+                pagos.add(pago);
+            }
+            facturaService.guardarFacturas(facturas);
+            pagoService.registrarPagos(pagos);
+            resumenVentasService.registrarVentas(pagos);
+
+            for (int i = 0; i < ventas.size(); i++) {
+                ventas.get(i).factura = facturas.get(i);
+            }
+        });
+    }
+
+    private Factura crearFactura(VentaValidada venta) {
+        Factura factura = new Factura();
+        factura.setUsuario(venta.usuario);
+        factura.setFecha(venta.request.getFecha() != null ? venta.request.getFecha() : new Date());
+        factura.setIdVentaCaja(venta.request.getIdVentaCaja());
+        if (venta.request.getPaymentId() != null && !venta.request.getPaymentId().isEmpty()) {
+            factura.setPaymentId(venta.request.getPaymentId());
+        }
+
+        List<VentaRequest.ItemVenta> items = venta.request.getItems();
+        List<DetalleFactura> detalles = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            Producto producto = venta.productosPorItem.get(i);
+            DetalleFactura detalle = new DetalleFactura();
+            // Referencia por ID: el producto ya se validó y no hace falta volver a leerlo
+            detalle.setProducto(productoService.obtenerReferencia(producto.getIdProducto()));
+            detalle.setFactura(factura);
+            detalle.setCantidad(items.get(i).getCantidad());
+            detalle.setPrecioUnitario(producto.getPrecioUnitario());
+            detalle.calcularSubtotal();
+            detalles.add(detalle);
+        }
+        factura.setDetallesFactura(detalles);
+        factura.calcularTotales();
+        return factura;
+    }
+
+    // ==========================================
+    // CLASE INTERNA: VentaValidada
+    // ==========================================
+    private static class VentaValidada {
+        private final int posicion;
+        private final VentaRequest request;
+        private final Usuario usuario;
+        private final Map<Producto, Integer> cantidades;
+        private final List<Producto> productosPorItem;
+        private Factura factura;
+
+        VentaValidada(int posicion, VentaRequest request, Usuario usuario,
+                Map<Producto, Integer> cantidades, List<Producto> productosPorItem) {
+            this.posicion = posicion;
+            this.request = request;
+            this.usuario = usuario;
+            this.cantidades = cantidades;
+            this.productosPorItem = productosPorItem;
+        }
+    }
+}
@@ -3,11 +3,21 @@ package com.sistemaventas.backend.facade;
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import com.sistemaventas.backend.dto.request.VentaRequest;
 import com.sistemaventas.backend.dto.response.VentaResponse;
@@ -19,9 +29,13 @@ import com.sistemaventas.backend.entity.Usuario;
 import com.sistemaventas.backend.observer.InventarioNotificationService;
 import com.sistemaventas.backend.service.FacturaService;
 import com.sistemaventas.backend.service.PagoService;
+import com.sistemaventas.backend.service.PdfFacturasService;
 import com.sistemaventas.backend.service.ProductoService;
+import com.sistemaventas.backend.service.ResumenVentasService;
 import com.sistemaventas.backend.service.UsuarioService;
 
+import lombok.extern.slf4j.Slf4j;
+
 /**
  * PATRÓN FACADE
  * 
@@ -33,6 +47,7 @@ import com.sistemaventas.backend.service.UsuarioService;
  * - InventarioNotificationService (notificaciones Observer)
  */
 @Service
+@Slf4j
 public class VentasFacade {
     
     @Autowired
@@ -52,76 +67,210 @@ public class VentasFacade {
     private PagoService pagoService;
 
 
-    public VentasFacade(FacturaService facturaService, InventarioNotificationService notificationService, PagoService pagoService, ProductoService productoService, UsuarioService usuarioService) {
+    private final ResumenVentasService resumenVentasService;
+
+    private final PdfFacturasService pdfFacturasService;
+
+    private final TransactionTemplate transactionTemplate;
+    
+    // Estado de las ventas asíncronas, consultable por ID de factura
+    private static final String ESTADO_PENDIENTE = "PENDIENTE";
+    private static final long RETENCION_ESTADOS_MS = 30 * 60_000L;
+    private final Map<Integer, EstadoVentaAsincrona> ventasAsincronas = new ConcurrentHashMap<>();
+    private final AtomicLong ultimaLimpieza = new AtomicLong();
+
+
+    public VentasFacade(FacturaService facturaService, InventarioNotificationService notificationService, PagoService pagoService, ProductoService productoService, UsuarioService usuarioService, ResumenVentasService resumenVentasService, PdfFacturasService pdfFacturasService, PlatformTransactionManager transactionManager) {
         this.facturaService = facturaService;
         this.pagoService = pagoService;
         this.productoService = productoService;
         this.usuarioService = usuarioService;
+        this.resumenVentasService = resumenVentasService;
+        this.pdfFacturasService = pdfFacturasService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
     
     /**
      * MÉTODO PRINCIPAL DEL FACADE
-     * Procesa una venta completa coordinando todos los servicios necesarios
+     * Procesa una venta completa coordinando todos los servicios necesarios.
+     * 
+     * La venta se divide en fases para no retener una conexión de la base de
+     * datos mientras el banco autoriza el pago:
+     * - FASE 1 (transacción corta): validar, crear la factura pendiente y reservar el stock
+     * - FASE 2 (sin transacción): autorizar el pago, que puede tardar segundos
+     * - FASE 3 (transacción corta): registrar el pago y asociarlo a la factura
+     * Si el pago falla, una transacción de compensación libera el stock reservado
+     * y elimina la factura pendiente.
      */
-    @org.springframework.transaction.annotation.Transactional
     public VentaResponse procesarVenta(VentaRequest ventaRequest) {
-        System.out.println("🛒 === INICIANDO PROCESAMIENTO DE VENTA ===");
-        System.out.println("Usuario: " + ventaRequest.getIdUsuario());
-        System.out.println("Items: " + ventaRequest.getItems().size());
-        System.out.println("Método de pago: " + ventaRequest.getDatosPago().getMetodoPago());
+        log.info("🛒 Iniciando venta - usuario: {}, items: {}, método de pago: {}",
+                ventaRequest.getIdUsuario(), ventaRequest.getItems().size(), ventaRequest.getDatosPago().getMetodoPago());
         
         try {
-            // PASO 1: Validar usuario
-            Usuario usuario = validarUsuario(ventaRequest.getIdUsuario());
-            System.out.println("✅ Usuario validado: " + usuario.getNombre());
-            
-            // PASO 2: Validar disponibilidad de productos y calcular totales
-            List<DetalleValidado> detallesValidados = validarYCalcularProductos(ventaRequest.getItems());
-            BigDecimal subtotal = calcularSubtotal(detallesValidados);
-            System.out.println("✅ Productos validados - Subtotal: $" + subtotal);
+            // FASE 1: Reservar stock y crear factura pendiente (pasos 1 a 5)
+            VentaPendiente venta = transactionTemplate.execute(status -> reservarVenta(ventaRequest));
+            log.debug("✅ Factura pendiente guardada - ID: {}", venta.getFactura().getIdFactura());
             
-            // PASO 3: Crear factura con detalles (sin guardar aún)
-            Factura factura = crearFactura(usuario, detallesValidados, subtotal, ventaRequest);
-            System.out.println("✅ Factura creada - ID temporal: " + factura.getIdFactura() + ", Total: $" + factura.getTotal());
+            // FASE 2: Autorizar pago fuera de cualquier transacción
+            autorizarPago(venta, ventaRequest.getDatosPago());
+            log.debug("✅ Pago autorizado - Método: {}", ventaRequest.getDatosPago().getMetodoPago());
             
-            // PASO 4: Guardar factura primero (necesaria para el pago)
-            Factura facturaGuardada = facturaService.guardarFactura(factura);
-            System.out.println("✅ Factura guardada - ID final: " + facturaGuardada.getIdFactura());
-            
-            // PASO 5: Procesar pago (ahora con factura ya persistida)
-            Pago pago = procesarPago(ventaRequest.getDatosPago(), facturaGuardada.getTotal(), facturaGuardada);
-            System.out.println("✅ Pago procesado - Método: " + pago.getMetodoPago());
-            
-            // PASO 6: Actualizar la factura con el ID del pago
-            facturaGuardada.setIdPago(pago.getIdPago());
-            facturaGuardada = facturaService.guardarFactura(facturaGuardada);
-            System.out.println("✅ Factura actualizada con pago");
-            
-            // PASO 7: Actualizar inventario y notificar observadores
-            actualizarInventarioYNotificar(detallesValidados);
-            System.out.println("✅ Inventario actualizado y notificaciones enviadas");
+            // FASE 3: Registrar el pago y asociarlo a la factura
+            Pago pago = confirmarVenta(venta, ventaRequest.getDatosPago());
+            log.debug("✅ Factura actualizada con pago");
             
             // PASO 8: Crear respuesta exitosa
-            VentaResponse response = new VentaResponse(facturaGuardada, pago);
+            VentaResponse response = crearRespuesta(venta, pago);
             
-            System.out.println("🎉 === VENTA PROCESADA EXITOSAMENTE ===");
-            System.out.println("Factura ID: " + response.getIdFactura());
-            System.out.println("Total: $" + response.getTotal());
+            log.info("🎉 Venta procesada exitosamente - factura: {}, total: ${}", response.getIdFactura(), response.getTotal());
             
             return response;
             
         } catch (RuntimeException e) {
-            System.err.println("❌ Error de negocio procesando venta: " + e.getMessage());
-            // Para errores de negocio, no hacer rollback, solo devolver error
+            log.warn("❌ Error de negocio procesando venta: {}", e.getMessage());
             throw e;  // Re-lanzar para que el controlador lo maneje
         } catch (Exception e) {
-            System.err.println("❌ Error técnico procesando venta: " + e.getMessage());
-            e.printStackTrace();
-            // Para errores técnicos, hacer rollback
+            log.error("❌ Error técnico procesando venta: {}", e.getMessage(), e);
             throw new RuntimeException("Error técnico en el procesamiento: " + e.getMessage(), e);
         }
     }
     
+    /**
+     * Variante asíncrona de procesarVenta.
+     * Solo la FASE 1 se ejecuta en el hilo de la petición; la autorización del
+     * pago y la FASE 3 continúan en el pool de pagos. Devuelve de inmediato una
+     * respuesta PENDIENTE con el ID de la factura, cuyo estado final se consulta
+     * con consultarEstadoVenta.
+     */
+    public VentaResponse iniciarVentaAsincrona(VentaRequest ventaRequest) {
+        log.info("🛒 Iniciando venta asíncrona - usuario: {}, items: {}, método de pago: {}",
+                ventaRequest.getIdUsuario(), ventaRequest.getItems().size(), ventaRequest.getDatosPago().getMetodoPago());
+        
+        // FASE 1: Reservar stock y crear factura pendiente
+        VentaPendiente venta = transactionTemplate.execute(status -> reservarVenta(ventaRequest));
+        Factura factura = venta.getFactura();
+        VentaRequest.DatosPago datosPago = ventaRequest.getDatosPago();
+        
+        VentaResponse pendiente = new VentaResponse(ESTADO_PENDIENTE, "Venta registrada, pago en proceso");
+        pendiente.setIdFactura(factura.getIdFactura());
+        pendiente.setTotal(factura.getTotal());
+        pendiente.setMetodoPago(datosPago.getMetodoPago());
+        registrarEstado(pendiente);
+        
+        // FASE 2: Lanzar la autorización del pago sin esperar la respuesta
+        CompletableFuture<Boolean> autorizacion;
+        try {
+            autorizacion = pagoService.autorizarPagoAsync(datosPago, factura.getTotal());
+        } catch (RuntimeException e) {
+            // Datos de pago inválidos o pool de pagos saturado: la venta no sigue en curso
+            ventasAsincronas.remove(factura.getIdFactura());
+            compensarVenta(venta);
+            if (e instanceof RejectedExecutionException) {
+                throw e;
+            }
+            throw new RuntimeException("Error al procesar el pago: " + e.getMessage());
+        }
+        
+        // FASE 3: Se ejecuta cuando el banco responde
+        autorizacion.whenComplete((aprobado, error) -> completarVentaAsincrona(venta, datosPago, aprobado, error));
+        
+        log.info("⏳ Venta {} pendiente de autorización del pago", factura.getIdFactura());
+        return pendiente;
+    }
+    
+    /**
+     * Estado de una venta iniciada con iniciarVentaAsincrona: PENDIENTE mientras
+     * el pago se autoriza, EXITOSA con la venta completa, o ERROR con el motivo.
+     */
+    public Optional<VentaResponse> consultarEstadoVenta(Integer idFactura) {
+        return Optional.ofNullable(ventasAsincronas.get(idFactura)).map(EstadoVentaAsincrona::getRespuesta);
+    }
+    
+    /**
+     * Cierra una venta asíncrona con la respuesta del banco: registra el pago
+     * o compensa la reserva, y deja el resultado disponible para consulta.
+     */
+    private void completarVentaAsincrona(VentaPendiente venta, VentaRequest.DatosPago datosPago, Boolean aprobado, Throwable error) {
+        Integer idFactura = venta.getFactura().getIdFactura();
+        VentaResponse resultado;
+        try {
+            if (error != null) {
+                compensarVenta(venta);
+                Throwable causa = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                throw new RuntimeException("Error al procesar el pago: " + causa.getMessage());
+            }
+            if (!Boolean.TRUE.equals(aprobado)) {
+                compensarVenta(venta);
+                throw new RuntimeException("Error al procesar el pago: pago rechazado con " + datosPago.getMetodoPago());
+            }
+            
+            Pago pago = confirmarVenta(venta, datosPago);
+            resultado = crearRespuesta(venta, pago);
+            log.info("🎉 Venta asíncrona {} procesada exitosamente", idFactura);
+            
+        } catch (RuntimeException e) {
+            log.warn("❌ Venta asíncrona {} fallida: {}", idFactura, e.getMessage());
+            resultado = new VentaResponse("ERROR", e.getMessage());
+            resultado.setIdFactura(idFactura);
+        }
+        registrarEstado(resultado);
+    }
+    
+    /**
+     * Guarda el estado de una venta asíncrona y, como mucho una vez por minuto,
+     * descarta los resultados finales que ya superaron el tiempo de retención.
+     */
+    private void registrarEstado(VentaResponse respuesta) {
+        long ahora = System.currentTimeMillis();
+        ventasAsincronas.put(respuesta.getIdFactura(), new EstadoVentaAsincrona(respuesta, ahora));
+        
+        long ultima = ultimaLimpieza.get();
+        if (ahora - ultima > 60_000 && ultimaLimpieza.compareAndSet(ultima, ahora)) {
+            ventasAsincronas.values().removeIf(estado -> estado.esFinal() && ahora - estado.getActualizadoEn() > RETENCION_ESTADOS_MS);
+        }
+    }
+    
+    /**
+     * Respuesta de una venta confirmada. Los items se arman con los productos
+     * validados, porque el producto de cada detalle es solo una referencia.
+     */
+    private VentaResponse crearRespuesta(VentaPendiente venta, Pago pago) {
+        List<DetalleFactura> detalles = venta.getFactura().getDetallesFactura();
+        List<VentaResponse.ItemFactura> items = new ArrayList<>();
+        for (int i = 0; i < detalles.size(); i++) {
+            items.add(new VentaResponse.ItemFactura(venta.getDetallesValidados().get(i).getProducto(), detalles.get(i)));
+        }
+        return new VentaResponse(venta.getFactura(), pago, items);
+    }
+    
+    /**
+     * FASE 1: validar usuario y productos, guardar la factura sin pago y
+     * descontar el stock. Se ejecuta dentro de una transacción corta.
+     */
+    private VentaPendiente reservarVenta(VentaRequest ventaRequest) {
+        // PASO 1: Validar usuario
+        Usuario usuario = validarUsuario(ventaRequest.getIdUsuario());
+        log.debug("✅ Usuario validado: {}", usuario.getNombre());
+        
+        // PASO 2: Validar disponibilidad de productos y calcular totales
+        List<DetalleValidado> detallesValidados = validarYCalcularProductos(ventaRequest.getItems());
+        BigDecimal subtotal = calcularSubtotal(detallesValidados);
+        log.debug("✅ Productos validados - Subtotal: ${}", subtotal);
+        
+        // PASO 3: Crear factura con detalles (sin guardar aún)
+        Factura factura = crearFactura(usuario, detallesValidados, subtotal, ventaRequest);
+        log.debug("✅ Factura creada - Total: ${}", factura.getTotal());
+        
+        // PASO 4: Guardar factura pendiente de pago
+        Factura facturaGuardada = facturaService.guardarFactura(factura);
+        
+        // PASO 5: Reservar (descontar) inventario y notificar observadores
+        Map<Producto, Integer> cantidadesPorProducto = actualizarInventarioYNotificar(detallesValidados);
+        log.debug("✅ Inventario reservado y notificaciones enviadas");
+        
+        return new VentaPendiente(facturaGuardada, detallesValidados, cantidadesPorProducto);
+    }
+    
     /**
      * PASO 1: Validar que el usuario existe y puede realizar ventas
      */
@@ -136,7 +285,7 @@ public class VentasFacade {
         
         // Validar que el usuario puede realizar ventas (opcional)
         if (usuario.getRol() != null && usuario.getRol().getNombreRol().equals("Administrador")) {
-            System.out.println("⚠️ Venta realizada por administrador: " + usuario.getNombre());
+            log.info("⚠️ Venta realizada por administrador: {}", usuario.getNombre());
         }
         
         return usuario;
@@ -144,28 +293,33 @@ public class VentasFacade {
     
     /**
      * PASO 2: Validar productos y calcular precios
+     * Todos los productos del carrito se cargan con una sola consulta (IN) y
+     * el precio y el stock se validan en memoria.
      */
     private List<DetalleValidado> validarYCalcularProductos(List<VentaRequest.ItemVenta> items) {
         List<DetalleValidado> detallesValidados = new ArrayList<>();
         
+        Map<Integer, Producto> productos = productoService.buscarPorIds(
+                items.stream().map(VentaRequest.ItemVenta::getIdProducto).toList());
+        
+        // Cantidad total pedida por producto (un producto puede venir en varias líneas)
+        Map<Integer, Integer> cantidadesSolicitadas = new HashMap<>();
+        
         for (VentaRequest.ItemVenta item : items) {
-            System.out.println("🔍 Procesando item - Producto ID: " + item.getIdProducto() + ", Cantidad: " + item.getCantidad());
             
-            // Buscar producto
-            Optional<Producto> productoOpt = productoService.buscarPorId(item.getIdProducto());
+            Producto producto = productos.get(item.getIdProducto());
             
-            if (productoOpt.isEmpty()) {
+            if (producto == null) {
                 throw new RuntimeException("Producto no encontrado con ID: " + item.getIdProducto());
             }
             
-            Producto producto = productoOpt.get();
-            System.out.println("📦 Producto encontrado: " + producto.getDescripcion());
-            System.out.println("💰 Precio unitario: " + producto.getPrecioUnitario());
-            System.out.println("📊 Stock disponible: " + producto.getCantidadDisponible());
+            log.debug("🔍 Item - producto: {} (ID: {}), cantidad: {}, precio: {}, stock: {}",
+                    producto.getDescripcion(), producto.getIdProducto(), item.getCantidad(),
+                    producto.getPrecioUnitario(), producto.getCantidadDisponible());
             
             // Validar que el producto tiene precio
             if (producto.getPrecioUnitario() == null) {
-                System.err.println("❌ ERROR: Producto sin precio - " + producto.getDescripcion() + " (ID: " + producto.getIdProducto() + ")");
+                log.warn("❌ ERROR: Producto sin precio - {} (ID: {})", producto.getDescripcion(), producto.getIdProducto());
                 throw new RuntimeException(
                         "El producto '%s' (ID: %d) no tiene precio configurado".formatted(
                                 producto.getDescripcion(), producto.getIdProducto())
@@ -180,11 +334,12 @@ public class VentasFacade {
                 );
             }
             
-            // Validar stock disponible
-            if (!producto.tieneStockSuficiente(item.getCantidad())) {
+            // Validar stock disponible (sumando todas las líneas del mismo producto)
+            int cantidadTotal = cantidadesSolicitadas.merge(producto.getIdProducto(), item.getCantidad(), Integer::sum);
+            if (!producto.tieneStockSuficiente(cantidadTotal)) {
                 throw new RuntimeException(
                         "Stock insuficiente para '%s'. Disponible: %d, Solicitado: %d".formatted(
-                                producto.getDescripcion(), producto.getCantidadDisponible(), item.getCantidad())
+                                producto.getDescripcion(), producto.getCantidadDisponible(), cantidadTotal)
                 );
             }
             
@@ -193,7 +348,7 @@ public class VentasFacade {
             
             detallesValidados.add(new DetalleValidado(producto, item.getCantidad(), subtotalItem));
             
-            System.out.println("   ✓ " + producto.getDescripcion() + " x" + item.getCantidad() + " = $" + subtotalItem);
+            log.debug("   ✓ {} x{} = ${}", producto.getDescripcion(), item.getCantidad(), subtotalItem);
         }
         
         return detallesValidados;
@@ -228,7 +383,7 @@ public class VentasFacade {
         // Guardar payment_id si existe (para pagos con Mercado Pago)
         if (ventaRequest.getPaymentId() != null && !ventaRequest.getPaymentId().isEmpty()) {
             factura.setPaymentId(ventaRequest.getPaymentId());
-            System.out.println("💳 Payment ID de Mercado Pago guardado: " + ventaRequest.getPaymentId());
+            log.debug("💳 Payment ID de Mercado Pago guardado: {}", ventaRequest.getPaymentId());
         }
         
         // Crear detalles de factura
@@ -236,7 +391,9 @@ public class VentasFacade {
         
         for (DetalleValidado detalle : detallesValidados) {
             DetalleFactura detalleFactura = new DetalleFactura();
-            detalleFactura.setProducto(detalle.getProducto());
+            // Referencia por ID: el producto validado viene de la caché y no
+            // hace falta volver a leerlo para guardar el detalle
+            detalleFactura.setProducto(productoService.obtenerReferencia(detalle.getProducto().getIdProducto()));
             detalleFactura.setFactura(factura);
             detalleFactura.setCantidad(detalle.getCantidad());
             detalleFactura.setPrecioUnitario(detalle.getProducto().getPrecioUnitario());
@@ -251,46 +408,108 @@ public class VentasFacade {
     }
     
     /**
-     * PASO 4: Procesar pago usando PagoService
+     * FASE 2: Autorizar el pago usando PagoService (sin transacción abierta).
+     * Si el pago no se aprueba se compensa la reserva antes de propagar el error.
      */
-    private Pago procesarPago(VentaRequest.DatosPago datosPago, BigDecimal total, Factura factura) {
+    private void autorizarPago(VentaPendiente venta, VentaRequest.DatosPago datosPago) {
+        boolean aprobado;
         try {
-            return pagoService.procesarPago(datosPago, total, factura);
+            aprobado = pagoService.autorizarPago(datosPago, venta.getFactura().getTotal());
         } catch (Exception e) {
+            compensarVenta(venta);
             throw new RuntimeException("Error al procesar el pago: " + e.getMessage());
         }
+        
+        if (!aprobado) {
+            compensarVenta(venta);
+            throw new RuntimeException("Error al procesar el pago: pago rechazado con " + datosPago.getMetodoPago());
+        }
+    }
+    
+    /**
+     * FASE 3: Registrar el pago autorizado y asociarlo a la factura pendiente
+     * en una transacción corta.
+     */
+    private Pago confirmarVenta(VentaPendiente venta, VentaRequest.DatosPago datosPago) {
+        Factura factura = venta.getFactura();
+        try {
+            Pago pago = transactionTemplate.execute(status -> {
+                Pago pagoRegistrado = pagoService.registrarPago(datosPago, factura.getTotal(),
+                        facturaService.obtenerReferencia(factura.getIdFactura()));
+                facturaService.asignarPago(factura.getIdFactura(), pagoRegistrado.getIdPago());
+                // Al final: la fila del día en el resumen queda bloqueada solo hasta el commit
+                resumenVentasService.registrarVenta(factura, pagoRegistrado.getMetodoPago());
+                return pagoRegistrado;
+            });
+            factura.setIdPago(pago.getIdPago());
+            // Ya confirmada: el PDF queda listo antes de que el cliente lo pida
+            pdfFacturasService.generarEnSegundoPlano(factura.getIdFactura());
+            return pago;
+        } catch (RuntimeException e) {
+            compensarVenta(venta);
+            anularPago(factura, datosPago, e);
+            throw new RuntimeException("Error al registrar el pago: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * El banco ya aprobó el cobro pero la venta no quedó registrada: pedir a
+     * la pasarela que lo anule. Si no puede, el cobro queda en el log de
+     * errores con su referencia para reversarlo a mano.
+     */
+    private void anularPago(Factura factura, VentaRequest.DatosPago datosPago, RuntimeException causa) {
+        if (pagoService.anularPago(datosPago, factura.getTotal())) {
+            log.warn("↩️ Pago de la factura {} anulado con {} por ${}", factura.getIdFactura(),
+                    datosPago.getMetodoPago(), factura.getTotal());
+            return;
+        }
+        String tarjeta = datosPago.getNumeroTarjeta() != null && datosPago.getNumeroTarjeta().length() >= 4
+                ? "****" + datosPago.getNumeroTarjeta().substring(datosPago.getNumeroTarjeta().length() - 4)
+                : null;
+        log.error("❌ Pago aprobado sin venta registrada, reversar manualmente - factura: {}, método: {}, monto: ${}, "
+                + "payment ID: {}, tarjeta: {}, causa: {}", factura.getIdFactura(), datosPago.getMetodoPago(),
+                factura.getTotal(), factura.getPaymentId(), tarjeta, causa.getMessage());
+    }
+    
+    /**
+     * Deshacer la FASE 1 cuando el pago no se completa: liberar el stock
+     * reservado y eliminar la factura pendiente.
+     */
+    private void compensarVenta(VentaPendiente venta) {
+        Integer idFactura = venta.getFactura().getIdFactura();
+        log.warn("↩️ Compensando venta - liberando stock de la factura {}", idFactura);
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                productoService.liberarStockEnLote(venta.getCantidadesPorProducto());
+                facturaService.eliminarFactura(idFactura);
+            });
+        } catch (RuntimeException e) {
+            log.error("❌ Error compensando la factura {}: {}", idFactura, e.getMessage());
+        }
     }
     
     /**
      * PASO 5: Actualizar inventario y notificar observadores
+     * Las cantidades se agrupan por producto y se descuentan en un solo lote.
      */
-    private void actualizarInventarioYNotificar(List<DetalleValidado> detallesValidados) {
-        System.out.println("📦 === ACTUALIZANDO INVENTARIO ===");
-        System.out.println("Total de items a actualizar: " + detallesValidados.size());
+    private Map<Producto, Integer> actualizarInventarioYNotificar(List<DetalleValidado> detallesValidados) {
+        log.debug("📦 Actualizando inventario - items: {}", detallesValidados.size());
         
-        int index = 1;
+        Map<Producto, Integer> cantidadesPorProducto = new LinkedHashMap<>();
         for (DetalleValidado detalle : detallesValidados) {
-            try {
-                System.out.println("\n🔄 Item " + index + "/" + detallesValidados.size());
-                System.out.println("   Producto: " + detalle.getProducto().getDescripcion());
-                System.out.println("   ID: " + detalle.getProducto().getIdProducto());
-                System.out.println("   Cantidad a reducir: " + detalle.getCantidad());
-                System.out.println("   Stock actual: " + detalle.getProducto().getCantidadDisponible());
-                
-                // Reducir stock usando ProductoService (que ya tiene Observer integrado)
-                productoService.reducirStock(detalle.getProducto().getIdProducto(), detalle.getCantidad());
-                
-                System.out.println("   ✅ Stock reducido exitosamente");
-                index++;
-                
-            } catch (Exception e) {
-                System.err.println("   ❌ ERROR reduciendo stock: " + e.getMessage());
-                throw new RuntimeException("Error actualizando stock para " + 
-                        detalle.getProducto().getDescripcion() + ": " + e.getMessage());
-            }
+            cantidadesPorProducto.merge(detalle.getProducto(), detalle.getCantidad(), Integer::sum);
         }
         
-        System.out.println("\n✅ === INVENTARIO ACTUALIZADO COMPLETAMENTE ===");
+        try {
+            // Reducir stock usando ProductoService (que ya tiene Observer integrado)
+            productoService.reducirStockEnLote(cantidadesPorProducto);
+        } catch (Exception e) {
+            log.error("   ❌ ERROR reduciendo stock: {}", e.getMessage());
+            throw new RuntimeException("Error actualizando stock: " + e.getMessage());
+        }
+        
+        log.debug("✅ === INVENTARIO ACTUALIZADO COMPLETAMENTE ({} productos) ===", cantidadesPorProducto.size());
+        return cantidadesPorProducto;
     }
     
     /**
@@ -301,22 +520,22 @@ public class VentasFacade {
         validarUsuario(ventaRequest.getIdUsuario());
         validarYCalcularProductos(ventaRequest.getItems());
         
-        System.out.println("✅ Validación completa exitosa - La venta puede procesarse");
+        log.info("✅ Validación completa exitosa - La venta puede procesarse");
     }
     
     /**
      * Método para demostrar el patrón Facade
      */
     public VentaResponse demostrarPatronFacade() {
-        System.out.println("=== DEMOSTRACIÓN PATRÓN FACADE ===");
+        log.info("=== DEMOSTRACIÓN PATRÓN FACADE ===");
         
         // Crear venta de demostración
         VentaRequest ventaDemo = crearVentaDemo();
         
-        System.out.println("Procesando venta de demostración...");
+        log.info("Procesando venta de demostración...");
         VentaResponse resultado = procesarVenta(ventaDemo);
         
-        System.out.println("=== FIN DEMOSTRACIÓN ===");
+        log.info("=== FIN DEMOSTRACIÓN ===");
         return resultado;
     }
     
@@ -341,6 +560,42 @@ public class VentasFacade {
         return venta;
     }
     
+    // ==========================================
+    // CLASE INTERNA: VentaPendiente
+    // ==========================================
+    private static class VentaPendiente {
+        private final Factura factura;
+        private final List<DetalleValidado> detallesValidados;
+        private final Map<Producto, Integer> cantidadesPorProducto;
+        
+        public VentaPendiente(Factura factura, List<DetalleValidado> detallesValidados, Map<Producto, Integer> cantidadesPorProducto) {
+            this.factura = factura;
+            this.detallesValidados = detallesValidados;
+            this.cantidadesPorProducto = cantidadesPorProducto;
+        }
+        
+        public Factura getFactura() { return factura; }
+        public List<DetalleValidado> getDetallesValidados() { return detallesValidados; }
+        public Map<Producto, Integer> getCantidadesPorProducto() { return cantidadesPorProducto; }
+    }
+    
+    // ==========================================
+    // CLASE INTERNA: EstadoVentaAsincrona
+    // ==========================================
+    private static class EstadoVentaAsincrona {
+        private final VentaResponse respuesta;
+        private final long actualizadoEn;
+        
+        public EstadoVentaAsincrona(VentaResponse respuesta, long actualizadoEn) {
+            this.respuesta = respuesta;
+            this.actualizadoEn = actualizadoEn;
+        }
+        
+        public VentaResponse getRespuesta() { return respuesta; }
+        public long getActualizadoEn() { return actualizadoEn; }
+        public boolean esFinal() { return !ESTADO_PENDIENTE.equals(respuesta.getEstado()); }
+    }
+    
     // ==========================================
     // CLASE INTERNA: DetalleValidado
     // ==========================================
@@ -3,7 +3,11 @@ package com.sistemaventas.backend.factory;
 import com.sistemaventas.backend.dto.request.ProductoRequest;
 import com.sistemaventas.backend.entity.Producto;
 
+import lombok.extern.slf4j.Slf4j;
+
 // Abstract Factory
+// Las fábricas no guardan estado: una misma instancia puede usarse desde varios hilos
+@Slf4j
 public abstract class ProductoFactory {
     
     // Factory Method abstracto
@@ -27,41 +31,41 @@ public abstract class ProductoFactory {
     
     // Método común para validaciones básicas
     protected void validarProductoBase(ProductoRequest request) {
-        System.out.println("=== INICIO VALIDACIÓN PRODUCTO BASE ===");
-        System.out.println("Request a validar: " + request);
+        log.debug("=== INICIO VALIDACIÓN PRODUCTO BASE ===");
+        log.debug("Request a validar: {}", request);
         
         try {
             if (request == null) {
                 throw new IllegalArgumentException("El request no puede ser null");
             }
             
-            System.out.println("Validando descripción: " + request.getDescripcion());
+            log.debug("Validando descripción: {}", request.getDescripcion());
             if (request.getDescripcion() == null || request.getDescripcion().trim().isEmpty()) {
                 throw new IllegalArgumentException("La descripción del producto es obligatoria");
             }
             
-            System.out.println("Validando precio unitario: " + request.getPrecioUnitario());
+            log.debug("Validando precio unitario: {}", request.getPrecioUnitario());
             if (request.getPrecioUnitario() == null || request.getPrecioUnitario().doubleValue() <= 0) {
                 throw new IllegalArgumentException("El precio unitario debe ser mayor a 0");
             }
             
-            System.out.println("Validando cantidad disponible: " + request.getCantidadDisponible());
+            log.debug("Validando cantidad disponible: {}", request.getCantidadDisponible());
             if (request.getCantidadDisponible() == null || request.getCantidadDisponible() < 0) {
                 throw new IllegalArgumentException("La cantidad disponible no puede ser negativa");
             }
             
-            System.out.println("Validando categoría: " + request.getCategoria());
+            log.debug("Validando categoría: {}", request.getCategoria());
             if (request.getCategoria() == null || request.getCategoria().trim().isEmpty()) {
                 throw new IllegalArgumentException("La categoría es obligatoria");
             }
             
-            System.out.println("Validaciones básicas completadas exitosamente");
+            log.debug("Validaciones básicas completadas exitosamente");
             
         } catch (Exception e) {
-            System.err.println("Error en validación de producto: " + e.getMessage());
+            log.debug("Error en validación de producto: {}", e.getMessage());
             throw e;
         } finally {
-            System.out.println("=== FIN VALIDACIÓN PRODUCTO BASE ===");
+            log.debug("=== FIN VALIDACIÓN PRODUCTO BASE ===");
         }
     }
     
@@ -79,6 +83,7 @@ public abstract class ProductoFactory {
     }
 }
 
+@Slf4j
 class GranosProductoFactory extends ProductoFactory {
     @Override
     public Producto crearProducto(ProductoRequest request) {
@@ -102,12 +107,13 @@ class GranosProductoFactory extends ProductoFactory {
         
         // Si es un grano premium (precio alto), dar más tiempo de almacenamiento
         if (producto.getPrecioUnitario().doubleValue() > 3000) {
-            System.out.println("Producto de grano premium detectado: " + producto.getDescripcion());
+            log.debug("Producto de grano premium detectado: {}", producto.getDescripcion());
         }
     }
 }
 
 // Factory para productos de Aceites
+@Slf4j
 class AceitesProductoFactory extends ProductoFactory {
     @Override
     public Producto crearProducto(ProductoRequest request) {
@@ -127,11 +133,12 @@ class AceitesProductoFactory extends ProductoFactory {
         }
         
         // Todos los aceites requieren condiciones especiales de almacenamiento
-        System.out.println("NOTA: Aceite requiere almacenamiento en lugar fresco y seco: " + producto.getDescripcion());
+        log.debug("NOTA: Aceite requiere almacenamiento en lugar fresco y seco: {}", producto.getDescripcion());
     }
 }
 
 // Factory para productos Lácteos
+@Slf4j
 class LacteosProductoFactory extends ProductoFactory {
     @Override
     public Producto crearProducto(ProductoRequest request) {
@@ -146,16 +153,17 @@ class LacteosProductoFactory extends ProductoFactory {
     
     private void aplicarReglasLacteos(Producto producto) {
         // Los lácteos requieren refrigeración
-        System.out.println("IMPORTANTE: Producto lácteo requiere refrigeración: " + producto.getDescripcion());
+        log.debug("IMPORTANTE: Producto lácteo requiere refrigeración: {}", producto.getDescripcion());
         
         // Validar que la cantidad no sea excesiva (productos perecederos)
         if (producto.getCantidadDisponible() > 100) {
-            System.out.println("ADVERTENCIA: Gran cantidad de producto perecedero en inventario");
+            log.debug("ADVERTENCIA: Gran cantidad de producto perecedero en inventario");
         }
     }
 }
 
 // Factory para productos de Panadería
+@Slf4j
 class PanaderiaProductoFactory extends ProductoFactory {
     @Override
     public Producto crearProducto(ProductoRequest request) {
@@ -170,16 +178,17 @@ class PanaderiaProductoFactory extends ProductoFactory {
     
     private void aplicarReglasPanaderia(Producto producto) {
         // Los productos de panadería tienen vida útil corta
-        System.out.println("NOTA: Producto de panadería - verificar fecha de vencimiento: " + producto.getDescripcion());
+        log.debug("NOTA: Producto de panadería - verificar fecha de vencimiento: {}", producto.getDescripcion());
         
         // Limitar cantidad máxima por ser perecedero
         if (producto.getCantidadDisponible() > 50) {
-            System.out.println("ADVERTENCIA: Cantidad alta para producto de panadería (vida útil corta)");
+            log.debug("ADVERTENCIA: Cantidad alta para producto de panadería (vida útil corta)");
         }
     }
 }
 
 // Factory para Endulzantes
+@Slf4j
 class EndulzantesProductoFactory extends ProductoFactory {
     @Override
     public Producto crearProducto(ProductoRequest request) {
@@ -194,7 +203,7 @@ class EndulzantesProductoFactory extends ProductoFactory {
     
     private void aplicarReglasEndulzantes(Producto producto) {
         // Los endulzantes deben protegerse de la humedad
-        System.out.println("NOTA: Endulzante - proteger de humedad: " + producto.getDescripcion());
+        log.debug("NOTA: Endulzante - proteger de humedad: {}", producto.getDescripcion());
         
         if (producto.getDescripcion().toLowerCase().contains("azúcar") || 
             producto.getDescripcion().toLowerCase().contains("azucar")) {
@@ -207,6 +216,7 @@ class EndulzantesProductoFactory extends ProductoFactory {
 }
 
 // Factory General para categorías no específicas
+@Slf4j
 class ProductoGeneralFactory extends ProductoFactory {
     @Override
     public Producto crearProducto(ProductoRequest request) {
@@ -219,7 +229,7 @@ class ProductoGeneralFactory extends ProductoFactory {
             producto.setCategoria(request.getCategoria());
         }
         
-        System.out.println("Producto creado con factory general: " + producto.getDescripcion());
+        log.debug("Producto creado con factory general: {}", producto.getDescripcion());
         
         return producto;
     }
@@ -0,0 +1,12 @@
+package com.sistemaventas.backend.id;
+
+/**
+ * Rango de IDs [inicio, inicio + tamano) reservado en la base de datos con
+ * una sola llamada a nextval().
+ */
+public record BloqueIds(long inicio, int tamano) {
+
+    public long fin() {
+        return inicio + tamano;
+    }
+}
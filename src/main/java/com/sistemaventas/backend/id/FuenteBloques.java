@@ -0,0 +1,18 @@
+package com.sistemaventas.backend.id;
+
+/**
+ * Origen de los bloques de IDs (normalmente una secuencia de PostgreSQL).
+ */
+@FunctionalInterface
+public interface FuenteBloques {
+
+    BloqueIds siguienteBloque(Secuencia secuencia);
+
+    /**
+     * Mover la secuencia para que los bloques siguientes empiecen después de
+     * {@code id} (IDs asignados por fuera del generador, como en una importación)
+     */
+    default void avanzarHasta(Secuencia secuencia, long id) {
+        throw new UnsupportedOperationException("La fuente de IDs no permite avanzar la secuencia " + secuencia.getNombre());
+    }
+}
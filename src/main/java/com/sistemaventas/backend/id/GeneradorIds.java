@@ -0,0 +1,27 @@
+package com.sistemaventas.backend.id;
+
+import java.util.List;
+
+/**
+ * Asigna identificadores a las entidades sin recorrer las tablas.
+ * Las implementaciones deben ser seguras para ser usadas desde varios hilos
+ * (y varios nodos) a la vez.
+ */
+public interface GeneradorIds {
+
+    /**
+     * Devuelve el siguiente ID libre para la secuencia indicada
+     */
+    Integer siguienteId(Secuencia secuencia);
+
+    /**
+     * Reserva {@code cantidad} IDs de una sola vez (no necesariamente consecutivos)
+     */
+    List<Integer> reservarIds(Secuencia secuencia, int cantidad);
+
+    /**
+     * Garantiza que los IDs que se entreguen después sean mayores que {@code id}:
+     * para filas insertadas con un ID elegido por fuera del generador
+     */
+    void avanzarHasta(Secuencia secuencia, long id);
+}
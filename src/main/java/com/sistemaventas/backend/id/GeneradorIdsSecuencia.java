@@ -0,0 +1,94 @@
+package com.sistemaventas.backend.id;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Generador de IDs "pooled" (hi-lo): cada llamada a la base de datos reserva
+ * un bloque completo de IDs que luego se reparte desde memoria. Solo se toca
+ * la base de datos una vez cada {@code tamano} IDs y nunca se recorre la tabla.
+ *
+ * Como los bloques salen de una secuencia con INCREMENT BY igual al tamaño del
+ * bloque, dos hilos o dos nodos nunca reciben el mismo rango.
+ */
+@Component
+public class GeneradorIdsSecuencia implements GeneradorIds {
+
+    private final FuenteBloques fuente;
+    private final Map<Secuencia, EstadoBloque> estados = new EnumMap<>(Secuencia.class);
+
+    public GeneradorIdsSecuencia(FuenteBloques fuente) {
+        this.fuente = fuente;
+        for (Secuencia secuencia : Secuencia.values()) {
+            estados.put(secuencia, new EstadoBloque(secuencia));
+        }
+    }
+
+    @Override
+    public Integer siguienteId(Secuencia secuencia) {
+        return estados.get(secuencia).siguiente();
+    }
+
+    @Override
+    public List<Integer> reservarIds(Secuencia secuencia, int cantidad) {
+        if (cantidad < 0) {
+            throw new IllegalArgumentException("La cantidad de IDs a reservar no puede ser negativa");
+        }
+        return estados.get(secuencia).reservar(cantidad);
+    }
+
+    @Override
+    public void avanzarHasta(Secuencia secuencia, long id) {
+        estados.get(secuencia).avanzarHasta(id);
+    }
+
+    // Bloque en uso para una secuencia; se protege con su propio monitor
+    private final class EstadoBloque {
+        private final Secuencia secuencia;
+        private long siguiente;
+        private long limite;
+
+        private EstadoBloque(Secuencia secuencia) {
+            this.secuencia = secuencia;
+        }
+
+        synchronized Integer siguiente() {
+            if (siguiente >= limite) {
+                recargar();
+            }
+            return Math.toIntExact(siguiente++);
+        }
+
+        synchronized List<Integer> reservar(int cantidad) {
+            List<Integer> ids = new ArrayList<>(cantidad);
+            while (ids.size() < cantidad) {
+                if (siguiente >= limite) {
+                    recargar();
+                }
+                ids.add(Math.toIntExact(siguiente++));
+            }
+            return ids;
+        }
+
+        // El bloque en uso se descarta si aún puede entregar un ID <= id
+        synchronized void avanzarHasta(long id) {
+            fuente.avanzarHasta(secuencia, id);
+            if (siguiente <= id) {
+                siguiente = limite;
+            }
+        }
+
+        private void recargar() {
+            BloqueIds bloque = fuente.siguienteBloque(secuencia);
+            if (bloque.tamano() <= 0) {
+                throw new IllegalStateException("Bloque de IDs vacío para la secuencia " + secuencia.getNombre());
+            }
+            siguiente = bloque.inicio();
+            limite = bloque.fin();
+        }
+    }
+}
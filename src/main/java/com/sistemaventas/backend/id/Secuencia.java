@@ -0,0 +1,37 @@
+package com.sistemaventas.backend.id;
+
+/**
+ * Secuencias de base de datos usadas para asignar los IDs de cada entidad.
+ * Cada valor conoce el nombre de la secuencia y la tabla/columna de la que
+ * toma el valor inicial la primera vez que se crea.
+ */
+public enum Secuencia {
+
+    FACTURA("seq_factura", "FACTURA", "IDFACTURA"),
+    DETALLE_FACTURA("seq_detallefactura", "DETALLEFACTURA", "IDDETALLE"),
+    PAGO("seq_pago", "PAGO", "IDPAGO"),
+    USUARIO("seq_usuario", "USUARIO", "IDUSUARIO"),
+    PRODUCTO("seq_producto", "PRODUCTO", "IDPRODUCTO");
+
+    private final String nombre;
+    private final String tabla;
+    private final String columnaId;
+
+    Secuencia(String nombre, String tabla, String columnaId) {
+        this.nombre = nombre;
+        this.tabla = tabla;
+        this.columnaId = columnaId;
+    }
+
+    public String getNombre() {
+        return nombre;
+    }
+
+    public String getTabla() {
+        return tabla;
+    }
+
+    public String getColumnaId() {
+        return columnaId;
+    }
+}
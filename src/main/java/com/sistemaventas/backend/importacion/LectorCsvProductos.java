@@ -0,0 +1,175 @@
+package com.sistemaventas.backend.importacion;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.NoSuchElementException;
+
+import com.sistemaventas.backend.dto.request.ProductoRequest;
+
+/**
+ * Lee un catálogo de productos en CSV fila por fila, sin cargar el archivo
+ * completo. La primera fila es el encabezado con los nombres de las columnas
+ * (en cualquier orden, sin distinguir mayúsculas):
+ * idProducto (opcional), descripcion, precioUnitario, cantidadDisponible y categoria.
+ *
+ * El separador es la coma, o el punto y coma si el encabezado lo usa (CSV de
+ * Excel en español; en ese caso los decimales pueden venir con coma). Los
+ * valores pueden ir entre comillas dobles ("" dentro de comillas es una
+ * comilla), pero un valor no puede ocupar varias líneas.
+ *
+ * Una fila mal formada no detiene la lectura: {@link #next()} lanza
+ * IllegalArgumentException y la siguiente llamada sigue con la fila siguiente.
+ */
+public class LectorCsvProductos implements Iterator<ProductoRequest> {
+
+    private static final String[] OBLIGATORIAS = {"descripcion", "preciounitario", "cantidaddisponible", "categoria"};
+
+    private final BufferedReader lector;
+    private final char separador;
+    private final int columnas;
+    private final int colId;
+    private final int colDescripcion;
+    private final int colPrecio;
+    private final int colCantidad;
+    private final int colCategoria;
+
+    private String siguiente;
+
+    public LectorCsvProductos(Reader entrada) {
+        this.lector = entrada instanceof BufferedReader buffered ? buffered : new BufferedReader(entrada, 64 * 1024);
+        String encabezado = leerLinea();
+        if (encabezado == null) {
+            throw new IllegalArgumentException("El CSV está vacío");
+        }
+        // Marca de orden de bytes (BOM) que agrega Excel al guardar en UTF-8
+        if (encabezado.startsWith("\uFEFF")) {
+            encabezado = encabezado.substring(1);
+        }
+        this.separador = encabezado.indexOf(';') >= 0 && encabezado.indexOf(',') < 0 ? ';' : ',';
+
+        List<String> nombres = dividir(encabezado).stream().map(n -> n.trim().toLowerCase(Locale.ROOT)).toList();
+        for (String obligatoria : OBLIGATORIAS) {
+            if (!nombres.contains(obligatoria)) {
+                throw new IllegalArgumentException("Falta la columna '" + obligatoria + "' en el encabezado del CSV");
+            }
+        }
+        this.columnas = nombres.size();
+        this.colId = nombres.indexOf("idproducto");
+        this.colDescripcion = nombres.indexOf("descripcion");
+        this.colPrecio = nombres.indexOf("preciounitario");
+        this.colCantidad = nombres.indexOf("cantidaddisponible");
+        this.colCategoria = nombres.indexOf("categoria");
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (siguiente == null) {
+            String linea = leerLinea();
+            if (linea == null) {
+                return false;
+            }
+            if (!linea.isBlank()) {
+                siguiente = linea;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public ProductoRequest next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        String linea = siguiente;
+        siguiente = null;
+
+        List<String> valores = dividir(linea);
+        if (valores.size() != columnas) {
+            throw new IllegalArgumentException(
+                    "Se esperaban %d columnas y la fila tiene %d".formatted(columnas, valores.size()));
+        }
+        ProductoRequest request = new ProductoRequest();
+        request.setIdProducto(colId >= 0 ? entero(valores.get(colId), "idProducto") : null);
+        request.setDescripcion(texto(valores.get(colDescripcion)));
+        request.setPrecioUnitario(decimal(valores.get(colPrecio), "precioUnitario"));
+        request.setCantidadDisponible(entero(valores.get(colCantidad), "cantidadDisponible"));
+        request.setCategoria(texto(valores.get(colCategoria)));
+        return request;
+    }
+
+    private String leerLinea() {
+        try {
+            return lector.readLine();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Valores de una línea, respetando separadores y comillas dentro de valores entre comillas
+    private List<String> dividir(String linea) {
+        List<String> valores = new ArrayList<>();
+        StringBuilder actual = new StringBuilder();
+        boolean entreComillas = false;
+        for (int i = 0; i < linea.length(); i++) {
+            char c = linea.charAt(i);
+            if (entreComillas) {
+                if (c == '"' && i + 1 < linea.length() && linea.charAt(i + 1) == '"') {
+                    actual.append('"');
+                    i++;
+                } else if (c == '"') {
+                    entreComillas = false;
+                } else {
+                    actual.append(c);
+                }
+            } else if (c == '"') {
+                entreComillas = true;
+            } else if (c == separador) {
+                valores.add(actual.toString());
+                actual.setLength(0);
+            } else {
+                actual.append(c);
+            }
+        }
+        if (entreComillas) {
+            throw new IllegalArgumentException("Comillas sin cerrar en la fila");
+        }
+        valores.add(actual.toString());
+        return valores;
+    }
+
+    private static String texto(String valor) {
+        String limpio = valor.trim();
+        return limpio.isEmpty() ? null : limpio;
+    }
+
+    private static Integer entero(String valor, String columna) {
+        String limpio = texto(valor);
+        if (limpio == null) {
+            return null;
+        }
+        try {
+            return Integer.valueOf(limpio);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Valor inválido en '" + columna + "': " + limpio);
+        }
+    }
+
+    private BigDecimal decimal(String valor, String columna) {
+        String limpio = texto(valor);
+        if (limpio == null) {
+            return null;
+        }
+        try {
+            return new BigDecimal(separador == ';' ? limpio.replace(',', '.') : limpio);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Valor inválido en '" + columna + "': " + limpio);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.sistemaventas.backend.importacion;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+/**
+ * Lee NDJSON (un objeto JSON por línea) línea por línea, sin cargar la
+ * entrada completa. Las líneas en blanco se ignoran.
+ *
+ * Cada línea se convierte por separado, así que una línea mal formada no
+ * detiene la lectura: {@link #next()} lanza IllegalArgumentException y la
+ * siguiente llamada sigue con la línea siguiente (como {@link LectorCsvProductos}).
+ */
+public class LectorNdjson<T> implements Iterator<T> {
+
+    private final BufferedReader lector;
+    private final ObjectReader reader;
+
+    private String siguiente;
+
+    public LectorNdjson(Reader entrada, ObjectReader reader) {
+        this.lector = entrada instanceof BufferedReader buffered ? buffered : new BufferedReader(entrada, 64 * 1024);
+        this.reader = reader;
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (siguiente == null) {
+            String linea;
+            try {
+                linea = lector.readLine();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            if (linea == null) {
+                return false;
+            }
+            if (!linea.isBlank()) {
+                siguiente = linea;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        String linea = siguiente;
+        siguiente = null;
+        try {
+            return reader.readValue(linea);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("JSON inválido: " + e.getOriginalMessage());
+        }
+    }
+}
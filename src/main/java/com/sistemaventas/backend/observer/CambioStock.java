@@ -0,0 +1,26 @@
+package com.sistemaventas.backend.observer;
+
+import com.sistemaventas.backend.entity.Producto;
+
+/**
+ * Cambio de stock de un producto dentro de un lote (una venta, una devolución
+ * o varios cambios agrupados en la ventana de coalescencia).
+ * El producto es una copia con el stock ya actualizado, no la entidad gestionada.
+ */
+public record CambioStock(Producto producto, int stockAnterior, int nuevoStock) {
+
+    public static CambioStock de(Producto producto, int stockAnterior, int nuevoStock) {
+        Producto copia = EventoInventario.copiar(producto);
+        copia.setCantidadDisponible(nuevoStock);
+        return new CambioStock(copia, stockAnterior, nuevoStock);
+    }
+
+    // Unir dos cambios consecutivos del mismo producto en uno solo
+    public CambioStock combinar(CambioStock siguiente) {
+        return new CambioStock(siguiente.producto(), stockAnterior, siguiente.nuevoStock());
+    }
+
+    public int variacion() {
+        return nuevoStock - stockAnterior;
+    }
+}
@@ -0,0 +1,69 @@
+package com.sistemaventas.backend.observer;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+/**
+ * Agrupa los cambios de stock que llegan dentro de una ventana de tiempo.
+ * El primer lote abre la ventana; los siguientes se suman y, si repiten un
+ * producto, sus cambios se colapsan en uno (stock anterior del primero,
+ * nuevo stock del último). Al cerrar la ventana se emite un único lote.
+ */
+class CoalescedorCambiosStock {
+
+    private final long ventanaMs;
+    private final Consumer<List<CambioStock>> destino;
+    private final ScheduledExecutorService temporizador;
+    private final Map<Integer, CambioStock> pendientes = new LinkedHashMap<>();
+    private boolean ventanaAbierta;
+
+    CoalescedorCambiosStock(long ventanaMs, Consumer<List<CambioStock>> destino) {
+        this.ventanaMs = ventanaMs;
+        this.destino = destino;
+        this.temporizador = ventanaMs > 0
+                ? Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("coalescedor-stock-"))
+                : null;
+    }
+
+    void agregar(List<CambioStock> cambios) {
+        if (temporizador == null) {
+            destino.accept(cambios);
+            return;
+        }
+        synchronized (this) {
+            cambios.forEach(cambio -> pendientes.merge(cambio.producto().getIdProducto(), cambio, CambioStock::combinar));
+            if (!ventanaAbierta) {
+                ventanaAbierta = true;
+                temporizador.schedule(this::vaciar, ventanaMs, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    // Emitir los cambios acumulados como un solo lote
+    void vaciar() {
+        List<CambioStock> lote;
+        synchronized (this) {
+            lote = new ArrayList<>(pendientes.values());
+            pendientes.clear();
+            ventanaAbierta = false;
+        }
+        if (!lote.isEmpty()) {
+            destino.accept(lote);
+        }
+    }
+
+    void detener() {
+        if (temporizador != null) {
+            temporizador.shutdownNow();
+            vaciar();
+        }
+    }
+}
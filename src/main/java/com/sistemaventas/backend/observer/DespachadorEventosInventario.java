@@ -0,0 +1,188 @@
+package com.sistemaventas.backend.observer;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Entrega asíncrona de eventos de inventario.
+ * Cada observador tiene su propio pool con una cola acotada, de modo que un
+ * observador lento (p. ej. el de email) no retrasa a los demás ni a la venta.
+ * Con un hilo por observador los eventos llegan en el mismo orden en que se publicaron.
+ *
+ * Contrapresión: si la cola de un observador está llena, el publicador espera
+ * como máximo esperaMaximaMs; si sigue llena, el evento va a la cola de
+ * eventos fallidos (igual que cuando el observador lanza una excepción).
+ */
+@Slf4j
+class DespachadorEventosInventario {
+
+    private final Map<InventarioObserver, ThreadPoolExecutor> pools = new LinkedHashMap<>();
+    private final BlockingQueue<EventoFallido> eventosFallidos;
+    private final long esperaMaximaMs;
+    private final AtomicLong entregados = new AtomicLong();
+    private final AtomicLong fallidos = new AtomicLong();
+
+    DespachadorEventosInventario(List<InventarioObserver> observadores, int hilosPorObservador,
+                                 int capacidadCola, long esperaMaximaMs, int capacidadFallidos) {
+        this.esperaMaximaMs = esperaMaximaMs;
+        this.eventosFallidos = new ArrayBlockingQueue<>(capacidadFallidos);
+        observadores.forEach(observer -> registrar(observer, hilosPorObservador, capacidadCola));
+    }
+
+    private void registrar(InventarioObserver observer, int hilos, int capacidadCola) {
+        String nombre = observer.getClass().getSimpleName();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(hilos, hilos, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(capacidadCola), new CustomizableThreadFactory(nombre + "-"),
+                esperarOFallar());
+        synchronized (pools) {
+            pools.put(observer, pool);
+        }
+    }
+
+    // Política de rechazo: esperar un hueco en la cola o mandar el evento a fallidos
+    private RejectedExecutionHandler esperarOFallar() {
+        return (tarea, pool) -> {
+            EntregaEvento entrega = (EntregaEvento) tarea;
+            try {
+                if (!pool.isShutdown() && pool.getQueue().offer(tarea, esperaMaximaMs, TimeUnit.MILLISECONDS)) {
+                    return;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            registrarFallido(entrega.evento, entrega.observer, "Cola de eventos llena");
+        };
+    }
+
+    // Encolar el evento para cada observador registrado
+    void despachar(EventoInventario evento) {
+        List<Map.Entry<InventarioObserver, ThreadPoolExecutor>> destinos;
+        synchronized (pools) {
+            destinos = new ArrayList<>(pools.entrySet());
+        }
+        for (Map.Entry<InventarioObserver, ThreadPoolExecutor> destino : destinos) {
+            destino.getValue().execute(new EntregaEvento(evento, destino.getKey()));
+        }
+    }
+
+    void agregar(InventarioObserver observer, int hilos, int capacidadCola) {
+        synchronized (pools) {
+            if (pools.containsKey(observer)) {
+                return;
+            }
+        }
+        registrar(observer, hilos, capacidadCola);
+    }
+
+    void eliminar(InventarioObserver observer) {
+        ThreadPoolExecutor pool;
+        synchronized (pools) {
+            pool = pools.remove(observer);
+        }
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    // Volver a encolar los eventos fallidos para su observador
+    int reintentarFallidos() {
+        List<EventoFallido> pendientes = new ArrayList<>();
+        eventosFallidos.drainTo(pendientes);
+        int reintentados = 0;
+        for (EventoFallido fallido : pendientes) {
+            ThreadPoolExecutor pool;
+            InventarioObserver observer;
+            synchronized (pools) {
+                observer = pools.keySet().stream()
+                        .filter(obs -> obs.getClass().getSimpleName().equals(fallido.getObservador()))
+                        .findFirst().orElse(null);
+                pool = observer != null ? pools.get(observer) : null;
+            }
+            if (pool != null) {
+                pool.execute(new EntregaEvento(fallido.getEvento(), observer));
+                reintentados++;
+            }
+        }
+        return reintentados;
+    }
+
+    List<EventoFallido> obtenerFallidos() {
+        return List.copyOf(eventosFallidos);
+    }
+
+    Map<String, Object> obtenerEstadisticas() {
+        Map<String, Object> estadisticas = new LinkedHashMap<>();
+        estadisticas.put("entregados", entregados.get());
+        estadisticas.put("fallidos", fallidos.get());
+        estadisticas.put("fallidosEnCola", eventosFallidos.size());
+        Map<String, Integer> pendientes = new LinkedHashMap<>();
+        synchronized (pools) {
+            pools.forEach((observer, pool) -> pendientes.put(observer.getClass().getSimpleName(), pool.getQueue().size()));
+        }
+        estadisticas.put("pendientesPorObservador", pendientes);
+        return estadisticas;
+    }
+
+    // Dejar de aceptar eventos y esperar a que se entreguen los ya encolados
+    void detener(long esperaMs) {
+        List<ThreadPoolExecutor> activos;
+        synchronized (pools) {
+            activos = new ArrayList<>(pools.values());
+        }
+        activos.forEach(ThreadPoolExecutor::shutdown);
+        for (ThreadPoolExecutor pool : activos) {
+            try {
+                if (!pool.awaitTermination(esperaMs, TimeUnit.MILLISECONDS)) {
+                    pool.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                pool.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void registrarFallido(EventoInventario evento, InventarioObserver observer, String motivo) {
+        fallidos.incrementAndGet();
+        String nombre = observer.getClass().getSimpleName();
+        log.warn("❌ Evento no entregado a {} ({}): {}", nombre, motivo, evento);
+        EventoFallido fallido = new EventoFallido(evento, nombre, motivo);
+        // Si la cola de fallidos está llena se descarta el más antiguo
+        while (!eventosFallidos.offer(fallido)) {
+            eventosFallidos.poll();
+        }
+    }
+
+    // Tarea que entrega un evento a un observador
+    private class EntregaEvento implements Runnable {
+        private final EventoInventario evento;
+        private final InventarioObserver observer;
+
+        EntregaEvento(EventoInventario evento, InventarioObserver observer) {
+            this.evento = evento;
+            this.observer = observer;
+        }
+
+        @Override
+        public void run() {
+            try {
+                evento.entregarA(observer);
+                entregados.incrementAndGet();
+            } catch (Exception e) {
+                registrarFallido(evento, observer, e.getMessage());
+            }
+        }
+    }
+}
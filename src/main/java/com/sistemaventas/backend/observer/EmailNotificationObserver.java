@@ -3,32 +3,38 @@ package com.sistemaventas.backend.observer;
 import com.sistemaventas.backend.entity.Producto;
 import org.springframework.stereotype.Component;
 
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+import lombok.extern.slf4j.Slf4j;
 
 // ==========================================
 // OBSERVER 1: Notificaciones por Email
 // ==========================================
 @Component
+@Slf4j
 public class EmailNotificationObserver implements InventarioObserver {
     
-    private final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss");
-    
     @Override
     public void onStockChange(Producto producto, int stockAnterior, int nuevoStock) {
-        String timestamp = LocalDateTime.now().format(formatter);
-        System.out.println("📧 [EMAIL] " + timestamp + " - Cambio de stock en " + producto.getDescripcion() + 
-                          " (" + stockAnterior + " → " + nuevoStock + ")");
+        log.info("📧 [EMAIL] Cambio de stock en {} ({} → {})", producto.getDescripcion(), stockAnterior, nuevoStock);
         
         // Aquí iría la lógica real para enviar email
         // Por ejemplo: emailService.sendStockChangeNotification(producto, stockAnterior, nuevoStock);
     }
     
+    @Override
+    public void onStockChangeBatch(List<CambioStock> cambios) {
+        log.info("📧 [EMAIL] Resumen de {} cambios de stock:", cambios.size());
+        for (CambioStock cambio : cambios) {
+            log.debug("   • {} ({} → {})", cambio.producto().getDescripcion(), cambio.stockAnterior(), cambio.nuevoStock());
+        }
+        
+        // Un solo email con el resumen en lugar de uno por producto
+    }
+    
     @Override
     public void onStockBajo(Producto producto, int stockActual) {
-        String timestamp = LocalDateTime.now().format(formatter);
-        System.out.println("📧 [EMAIL ALERTA] " + timestamp + " - STOCK BAJO: " + producto.getDescripcion() + 
-                          " (Quedan solo " + stockActual + " unidades)");
+        log.info("📧 [EMAIL ALERTA] STOCK BAJO: {} (Quedan solo {} unidades)", producto.getDescripcion(), stockActual);
         
         // Enviar email a administradores
         enviarEmailStockBajo(producto, stockActual);
@@ -36,8 +42,7 @@ public class EmailNotificationObserver implements InventarioObserver {
     
     @Override
     public void onProductoAgotado(Producto producto) {
-        String timestamp = LocalDateTime.now().format(formatter);
-        System.out.println("📧 [EMAIL CRÍTICO] " + timestamp + " - PRODUCTO AGOTADO: " + producto.getDescripcion());
+        log.info("📧 [EMAIL CRÍTICO] PRODUCTO AGOTADO: {}", producto.getDescripcion());
         
         // Enviar email urgente
         enviarEmailProductoAgotado(producto);
@@ -45,24 +50,16 @@ public class EmailNotificationObserver implements InventarioObserver {
     
     @Override
     public void onProductoRestockado(Producto producto, int nuevoStock) {
-        String timestamp = LocalDateTime.now().format(formatter);
-        System.out.println("📧 [EMAIL INFO] " + timestamp + " - Producto restockado: " + producto.getDescripcion() + 
-                          " (Nuevo stock: " + nuevoStock + ")");
+        log.info("📧 [EMAIL INFO] Producto restockado: {} (Nuevo stock: {})", producto.getDescripcion(), nuevoStock);
     }
     
     private void enviarEmailStockBajo(Producto producto, int stockActual) {
         // Simulación de envío de email
-        System.out.println("   📤 Enviando email a: admin@sistemaventas.com");
-        System.out.println("   📝 Asunto: [ALERTA] Stock bajo - " + producto.getDescripcion());
-        System.out.println("   📄 Mensaje: El producto " + producto.getDescripcion() + 
-                          " tiene stock bajo (" + stockActual + " unidades). Considere realizar pedido.");
+        log.debug("   📤 Email a admin@sistemaventas.com - [ALERTA] Stock bajo: El producto {} tiene stock bajo ({} unidades). Considere realizar pedido.", producto.getDescripcion(), stockActual);
     }
     
     private void enviarEmailProductoAgotado(Producto producto) {
         // Simulación de envío de email urgente
-        System.out.println("   🚨 Enviando email URGENTE a: admin@sistemaventas.com, compras@sistemaventas.com");
-        System.out.println("   📝 Asunto: [URGENTE] Producto agotado - " + producto.getDescripcion());
-        System.out.println("   📄 Mensaje: El producto " + producto.getDescripcion() + 
-                          " está completamente agotado. Acción inmediata requerida.");
+        log.debug("   🚨 Email URGENTE a admin@sistemaventas.com, compras@sistemaventas.com - El producto {} está completamente agotado. Acción inmediata requerida.", producto.getDescripcion());
     }
 }
\ No newline at end of file
@@ -0,0 +1,27 @@
+package com.sistemaventas.backend.observer;
+
+import java.time.LocalDateTime;
+
+/**
+ * Evento que no pudo entregarse a un observador (cola llena o error del
+ * observador). Se conserva en la cola de eventos fallidos para revisión
+ * o reintento.
+ */
+public final class EventoFallido {
+
+    private final EventoInventario evento;
+    private final String observador;
+    private final String motivo;
+    private final LocalDateTime fecha = LocalDateTime.now();
+
+    public EventoFallido(EventoInventario evento, String observador, String motivo) {
+        this.evento = evento;
+        this.observador = observador;
+        this.motivo = motivo;
+    }
+
+    public EventoInventario getEvento() { return evento; }
+    public String getObservador() { return observador; }
+    public String getMotivo() { return motivo; }
+    public LocalDateTime getFecha() { return fecha; }
+}
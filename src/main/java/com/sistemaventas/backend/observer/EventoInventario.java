@@ -0,0 +1,64 @@
+package com.sistemaventas.backend.observer;
+
+import java.util.List;
+
+import com.sistemaventas.backend.entity.Producto;
+
+/**
+ * Evento de inventario que se entrega a los observadores.
+ * Guarda copias de los productos (no las entidades gestionadas) para poder
+ * entregarse en otro hilo después de que la transacción haya terminado.
+ */
+public final class EventoInventario {
+
+    public enum Tipo { CAMBIOS_STOCK, STOCK_BAJO, PRODUCTO_AGOTADO, PRODUCTO_RESTOCKADO }
+
+    private final Tipo tipo;
+    private final Producto producto;
+    private final int stockActual;
+    private final List<CambioStock> cambios;
+
+    // Evento de alerta de un producto (stock bajo, agotado o restockado)
+    public EventoInventario(Tipo tipo, Producto producto, int stockActual) {
+        this.tipo = tipo;
+        this.producto = copiar(producto);
+        this.stockActual = stockActual;
+        this.cambios = List.of();
+    }
+
+    // Lote de cambios de stock
+    public EventoInventario(List<CambioStock> cambios) {
+        this.tipo = Tipo.CAMBIOS_STOCK;
+        this.producto = null;
+        this.stockActual = 0;
+        this.cambios = List.copyOf(cambios);
+    }
+
+    // Entregar el evento al método correspondiente del observador
+    public void entregarA(InventarioObserver observer) {
+        switch (tipo) {
+            case CAMBIOS_STOCK -> observer.onStockChangeBatch(cambios);
+            case STOCK_BAJO -> observer.onStockBajo(producto, stockActual);
+            case PRODUCTO_AGOTADO -> observer.onProductoAgotado(producto);
+            case PRODUCTO_RESTOCKADO -> observer.onProductoRestockado(producto, stockActual);
+        }
+    }
+
+    static Producto copiar(Producto producto) {
+        return new Producto(producto.getIdProducto(), producto.getCantidadDisponible(),
+                producto.getPrecioUnitario(), producto.getDescripcion(), producto.getCategoria());
+    }
+
+    public Tipo getTipo() { return tipo; }
+    public Producto getProducto() { return producto; }
+    public int getStockActual() { return stockActual; }
+    public List<CambioStock> getCambios() { return cambios; }
+
+    @Override
+    public String toString() {
+        if (tipo == Tipo.CAMBIOS_STOCK) {
+            return tipo + "{" + cambios.size() + " productos}";
+        }
+        return tipo + "{producto=" + producto.getIdProducto() + ", stock=" + stockActual + "}";
+    }
+}
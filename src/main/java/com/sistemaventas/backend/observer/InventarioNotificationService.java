@@ -1,58 +1,113 @@
 package com.sistemaventas.backend.observer;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import com.sistemaventas.backend.entity.Producto;
 
+import jakarta.annotation.PreDestroy;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Subject del patrón Observer para el inventario.
+ * En modo "async" (por defecto) los eventos se entregan en segundo plano,
+ * con una cola acotada por observador, y solo después de que la transacción
+ * que cambió el stock haga commit: si la venta se revierte no se notifica nada.
+ * En modo "sync" los observadores se llaman en el mismo hilo, como antes.
+ */
 @Service
+@Slf4j
 public class InventarioNotificationService implements InventarioSubject {
 
     public static int getSTOCK_MINIMO_DEFAULT() {
         return STOCK_MINIMO_DEFAULT;
     }
     
-    private final List<InventarioObserver> observadores = new ArrayList<>();
+    private final List<InventarioObserver> observadores = new CopyOnWriteArrayList<>();
     private static final int STOCK_MINIMO_DEFAULT = 10;
     private static final int STOCK_CRITICO = 5;
     
+    private final boolean asincrono;
+    private final int hilosPorObservador;
+    private final int capacidadCola;
+    private final DespachadorEventosInventario despachador;
+    private final CoalescedorCambiosStock coalescedor;
+    
     // Constructor que registra automáticamente los observadores
-    public InventarioNotificationService(List<InventarioObserver> observers) {
+    public InventarioNotificationService(List<InventarioObserver> observers,
+            @Value("${sistemaventas.inventario.notificaciones.modo:async}") String modo,
+            @Value("${sistemaventas.inventario.notificaciones.hilos-por-observador:1}") int hilosPorObservador,
+            @Value("${sistemaventas.inventario.notificaciones.capacidad-cola:1000}") int capacidadCola,
+            @Value("${sistemaventas.inventario.notificaciones.espera-maxima-ms:50}") long esperaMaximaMs,
+            @Value("${sistemaventas.inventario.notificaciones.capacidad-fallidos:500}") int capacidadFallidos,
+            @Value("${sistemaventas.inventario.notificaciones.ventana-coalescencia-ms:200}") long ventanaCoalescenciaMs) {
         this.observadores.addAll(observers);
-        System.out.println("InventarioNotificationService inicializado con " + observers.size() + " observadores");
+        this.asincrono = !"sync".equalsIgnoreCase(modo);
+        this.hilosPorObservador = hilosPorObservador;
+        this.capacidadCola = capacidadCola;
+        this.despachador = asincrono
+                ? new DespachadorEventosInventario(observers, hilosPorObservador, capacidadCola, esperaMaximaMs, capacidadFallidos)
+                : null;
+        this.coalescedor = asincrono
+                ? new CoalescedorCambiosStock(ventanaCoalescenciaMs, lote -> despachador.despachar(new EventoInventario(lote)))
+                : null;
+        log.info("InventarioNotificationService inicializado con {} observadores (modo {})", observers.size(), asincrono ? "async" : "sync");
     }
     
     @Override
     public void agregarObservador(InventarioObserver observer) {
         if (!observadores.contains(observer)) {
             observadores.add(observer);
-            System.out.println("Observador agregado: " + observer.getClass().getSimpleName());
+            if (asincrono) {
+                despachador.agregar(observer, hilosPorObservador, capacidadCola);
+            }
+            log.info("Observador agregado: {}", observer.getClass().getSimpleName());
         }
     }
     
     @Override
     public void eliminarObservador(InventarioObserver observer) {
         observadores.remove(observer);
-        System.out.println("Observador eliminado: " + observer.getClass().getSimpleName());
+        if (asincrono) {
+            despachador.eliminar(observer);
+        }
+        log.info("Observador eliminado: {}", observer.getClass().getSimpleName());
     }
     
     @Override
     public void notificarCambioStock(Producto producto, int stockAnterior, int nuevoStock) {
-        System.out.println("=== NOTIFICANDO CAMBIO DE STOCK ===");
-        System.out.println("Producto: " + producto.getDescripcion());
-        System.out.println("Stock anterior: " + stockAnterior + " -> Nuevo stock: " + nuevoStock);
+        log.debug("Notificando cambio de stock - {}: {} -> {}", producto.getDescripcion(), stockAnterior, nuevoStock);
         
-        for (InventarioObserver observer : observadores) {
-            try {
-                observer.onStockChange(producto, stockAnterior, nuevoStock);
-            } catch (Exception e) {
-                System.err.println("Error en observador " + observer.getClass().getSimpleName() + ": " + e.getMessage());
-            }
+        publicarCambios(List.of(CambioStock.de(producto, stockAnterior, nuevoStock)));
+        verificarUmbrales(producto, stockAnterior, nuevoStock);
+    }
+    
+    /**
+     * Notificar todos los cambios de stock de una venta o devolución como un
+     * solo lote: cada observador recibe una llamada a onStockChangeBatch en
+     * lugar de una llamada por línea.
+     */
+    public void notificarCambiosStock(List<CambioStock> cambios) {
+        if (cambios.isEmpty()) {
+            return;
         }
+        log.debug("Notificando cambios de stock de {} productos", cambios.size());
         
-        // Verificar condiciones especiales
+        publicarCambios(cambios);
+        cambios.forEach(cambio -> verificarUmbrales(cambio.producto(), cambio.stockAnterior(), cambio.nuevoStock()));
+    }
+    
+    // Verificar condiciones especiales
+    private void verificarUmbrales(Producto producto, int stockAnterior, int nuevoStock) {
         if (nuevoStock == 0) {
             notificarProductoAgotado(producto);
         } else if (nuevoStock <= STOCK_CRITICO) {
@@ -64,43 +119,120 @@ public class InventarioNotificationService implements InventarioSubject {
     
     @Override
     public void notificarStockBajo(Producto producto, int stockActual) {
-        System.out.println("⚠️  ALERTA: STOCK BAJO - " + producto.getDescripcion() + " (Stock: " + stockActual + ")");
+        log.warn("⚠️  ALERTA: STOCK BAJO - {} (Stock: {})", producto.getDescripcion(), stockActual);
         
-        for (InventarioObserver observer : observadores) {
-            try {
-                observer.onStockBajo(producto, stockActual);
-            } catch (Exception e) {
-                System.err.println("Error en observador " + observer.getClass().getSimpleName() + ": " + e.getMessage());
-            }
-        }
+        publicar(new EventoInventario(EventoInventario.Tipo.STOCK_BAJO, producto, stockActual));
     }
     
     @Override
     public void notificarProductoAgotado(Producto producto) {
-        System.out.println("🚨 CRÍTICO: PRODUCTO AGOTADO - " + producto.getDescripcion());
+        log.warn("🚨 CRÍTICO: PRODUCTO AGOTADO - {}", producto.getDescripcion());
         
-        for (InventarioObserver observer : observadores) {
-            try {
-                observer.onProductoAgotado(producto);
-            } catch (Exception e) {
-                System.err.println("Error en observador " + observer.getClass().getSimpleName() + ": " + e.getMessage());
-            }
-        }
+        publicar(new EventoInventario(EventoInventario.Tipo.PRODUCTO_AGOTADO, producto, 0));
     }
     
     @Override
     public void notificarProductoRestockado(Producto producto, int nuevoStock) {
-        System.out.println("✅ RESTOCKADO: " + producto.getDescripcion() + " (Nuevo stock: " + nuevoStock + ")");
+        log.info("✅ RESTOCKADO: {} (Nuevo stock: {})", producto.getDescripcion(), nuevoStock);
         
+        publicar(new EventoInventario(EventoInventario.Tipo.PRODUCTO_RESTOCKADO, producto, nuevoStock));
+    }
+    
+    /**
+     * Entregar una alerta de producto (stock bajo, agotado o restockado) a los observadores.
+     * En modo async, si hay una transacción activa el evento se encola al hacer
+     * commit (y se descarta si hay rollback); sin transacción se encola de inmediato.
+     */
+    private void publicar(EventoInventario evento) {
+        if (!asincrono) {
+            entregarEnLinea(evento);
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    despachador.despachar(evento);
+                }
+            });
+        } else {
+            despachador.despachar(evento);
+        }
+    }
+    
+    /**
+     * Publicar cambios de stock agrupados.
+     * En modo async los cambios de una misma transacción se acumulan (un producto
+     * repetido se colapsa en un solo cambio) y al hacer commit pasan a la ventana
+     * de coalescencia, que emite un único lote para todos los observadores.
+     */
+    private void publicarCambios(List<CambioStock> cambios) {
+        if (!asincrono) {
+            entregarEnLinea(new EventoInventario(cambios));
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            coalescedor.agregar(cambios);
+            return;
+        }
+        
+        @SuppressWarnings("unchecked")
+        Map<Integer, CambioStock> lote = (Map<Integer, CambioStock>) TransactionSynchronizationManager.getResource(this);
+        if (lote == null) {
+            Map<Integer, CambioStock> loteTransaccion = new LinkedHashMap<>();
+            TransactionSynchronizationManager.bindResource(this, loteTransaccion);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    coalescedor.agregar(new ArrayList<>(loteTransaccion.values()));
+                }
+                
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(InventarioNotificationService.this);
+                }
+            });
+            lote = loteTransaccion;
+        }
+        for (CambioStock cambio : cambios) {
+            lote.merge(cambio.producto().getIdProducto(), cambio, CambioStock::combinar);
+        }
+    }
+    
+    private void entregarEnLinea(EventoInventario evento) {
         for (InventarioObserver observer : observadores) {
             try {
-                observer.onProductoRestockado(producto, nuevoStock);
+                evento.entregarA(observer);
             } catch (Exception e) {
-                System.err.println("Error en observador " + observer.getClass().getSimpleName() + ": " + e.getMessage());
+                log.error("Error en observador {}: {}", observer.getClass().getSimpleName(), e.getMessage(), e);
             }
         }
     }
     
+    // Eventos que no pudieron entregarse (cola llena o error del observador)
+    public List<EventoFallido> obtenerEventosFallidos() {
+        return asincrono ? despachador.obtenerFallidos() : List.of();
+    }
+    
+    // Volver a encolar los eventos fallidos; devuelve cuántos se reintentaron
+    public int reintentarEventosFallidos() {
+        return asincrono ? despachador.reintentarFallidos() : 0;
+    }
+    
+    // Contadores de entregas y eventos pendientes por observador
+    public Map<String, Object> obtenerEstadisticasEntrega() {
+        return asincrono ? despachador.obtenerEstadisticas() : Map.of("modo", "sync");
+    }
+    
+    // Entregar los eventos pendientes antes de cerrar la aplicación
+    @PreDestroy
+    public void detener() {
+        if (asincrono) {
+            coalescedor.detener();
+            despachador.detener(5000);
+        }
+    }
+    
     // Método público para ser usado por los servicios
     public void procesarCambioStock(Producto producto, int stockAnterior) {
         int nuevoStock = producto.getCantidadDisponible();
@@ -116,9 +248,9 @@ public class InventarioNotificationService implements InventarioSubject {
     
     // Método para demostrar el patrón Observer
     public void demostrarPatronObserver() {
-        System.out.println("=== DEMOSTRACIÓN PATRÓN OBSERVER ===");
-        System.out.println("Observadores registrados: " + obtenerObservadoresRegistrados());
-        System.out.println("Total observadores: " + observadores.size());
+        log.info("=== DEMOSTRACIÓN PATRÓN OBSERVER ===");
+        log.info("Observadores registrados: {}", obtenerObservadoresRegistrados());
+        log.info("Total observadores: {}", observadores.size());
         
         // Simular cambios de stock
         Producto productoDemo = new Producto();
@@ -143,7 +275,7 @@ public class InventarioNotificationService implements InventarioSubject {
         productoDemo.setCantidadDisponible(25);
         notificarCambioStock(productoDemo, 0, 25);
         
-        System.out.println("=== FIN DEMOSTRACIÓN ===");
+        log.info("=== FIN DEMOSTRACIÓN ===");
     }
 
     public List<InventarioObserver> getObservadores() {
@@ -1,5 +1,7 @@
 package com.sistemaventas.backend.observer;
 
+import java.util.List;
+
 import com.sistemaventas.backend.entity.Producto;
 
 // Observer interface
@@ -8,6 +10,12 @@ public interface InventarioObserver {
     void onStockBajo(Producto producto, int stockActual);
     void onProductoAgotado(Producto producto);
     void onProductoRestockado(Producto producto, int nuevoStock);
+    
+    // Todos los cambios de stock de una venta/devolución en una sola llamada.
+    // Por defecto se entrega cada cambio a onStockChange.
+    default void onStockChangeBatch(List<CambioStock> cambios) {
+        cambios.forEach(cambio -> onStockChange(cambio.producto(), cambio.stockAnterior(), cambio.nuevoStock()));
+    }
 }
 
 // Subject interface
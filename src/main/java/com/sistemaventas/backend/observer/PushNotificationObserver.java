@@ -3,10 +3,13 @@ package com.sistemaventas.backend.observer;
 import com.sistemaventas.backend.entity.Producto;
 import org.springframework.stereotype.Component;
 
+import lombok.extern.slf4j.Slf4j;
+
 // ==========================================
 // OBSERVER 3: Notificaciones Push/SMS
 // ==========================================
 @Component
+@Slf4j
 public class PushNotificationObserver implements InventarioObserver {
     
     @Override
@@ -14,38 +17,36 @@ public class PushNotificationObserver implements InventarioObserver {
         // Solo notificar cambios significativos
         int diferencia = Math.abs(nuevoStock - stockAnterior);
         if (diferencia >= 10) {
-            System.out.println("📱 [PUSH] Cambio significativo de stock: " + producto.getDescripcion() + 
-                              " (Δ: " + (nuevoStock - stockAnterior) + ")");
+            log.info("📱 [PUSH] Cambio significativo de stock: {} (Δ: {})", producto.getDescripcion(), nuevoStock - stockAnterior);
         }
     }
     
     @Override
     public void onStockBajo(Producto producto, int stockActual) {
-        System.out.println("📱 [PUSH ALERTA] Stock bajo en " + producto.getDescripcion() + 
-                          " (" + stockActual + " unidades)");
+        log.info("📱 [PUSH ALERTA] Stock bajo en {} ({} unidades)", producto.getDescripcion(), stockActual);
         enviarNotificacionPush("Stock Bajo", "⚠️ " + producto.getDescripcion() + " tiene stock bajo");
     }
     
     @Override
     public void onProductoAgotado(Producto producto) {
-        System.out.println("📱 [PUSH CRÍTICO] Producto agotado: " + producto.getDescripcion());
+        log.info("📱 [PUSH CRÍTICO] Producto agotado: {}", producto.getDescripcion());
         enviarNotificacionPush("Producto Agotado", "🚨 " + producto.getDescripcion() + " está agotado");
         enviarSMS("Producto agotado: " + producto.getDescripcion());
     }
     
     @Override
     public void onProductoRestockado(Producto producto, int nuevoStock) {
-        System.out.println("📱 [PUSH INFO] ✅ " + producto.getDescripcion() + " restockado (" + nuevoStock + " unidades)");
+        log.info("📱 [PUSH INFO] ✅ {} restockado ({} unidades)", producto.getDescripcion(), nuevoStock);
         enviarNotificacionPush("Restock Exitoso", "✅ " + producto.getDescripcion() + " disponible nuevamente");
     }
     
     private void enviarNotificacionPush(String titulo, String mensaje) {
-        System.out.println("   📱 Push → " + titulo + ": " + mensaje);
+        log.debug("   📱 Push → {}: {}", titulo, mensaje);
         // Aquí iría la integración con Firebase, OneSignal, etc.
     }
     
     private void enviarSMS(String mensaje) {
-        System.out.println("   📲 SMS → +573187425471: " + mensaje);
+        log.debug("   📲 SMS → +573187425471: {}", mensaje);
         // Aquí iría la integración con Twilio, AWS SNS, etc.
     }
 }
\ No newline at end of file
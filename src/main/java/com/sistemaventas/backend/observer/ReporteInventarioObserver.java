@@ -3,78 +3,73 @@ package com.sistemaventas.backend.observer;
 import com.sistemaventas.backend.entity.Producto;
 import org.springframework.stereotype.Component;
 
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+import lombok.extern.slf4j.Slf4j;
 
 // ==========================================
 // OBSERVER 2: Reportes y Auditoría
 // ==========================================
 @Component
+@Slf4j
 public class ReporteInventarioObserver implements InventarioObserver {
     
-    private final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss");
-    
     @Override
     public void onStockChange(Producto producto, int stockAnterior, int nuevoStock) {
-        String timestamp = LocalDateTime.now().format(formatter);
-        System.out.println("📊 [REPORTE] " + timestamp + " - Registrando cambio de inventario:");
-        System.out.println("   🏷️  Producto: " + producto.getDescripcion() + " (ID: " + producto.getIdProducto() + ")");
-        System.out.println("   📦 Stock: " + stockAnterior + " → " + nuevoStock);
-        System.out.println("   📈 Variación: " + (nuevoStock - stockAnterior));
+        log.info("📊 [REPORTE] Cambio de inventario - {} (ID: {}) 📦 {} → {} 📈 {}",
+                producto.getDescripcion(), producto.getIdProducto(), stockAnterior, nuevoStock, nuevoStock - stockAnterior);
         
         // Aquí se guardaría en una tabla de auditoría
         registrarEnAuditoria(producto, stockAnterior, nuevoStock);
     }
     
+    @Override
+    public void onStockChangeBatch(List<CambioStock> cambios) {
+        log.info("📊 [REPORTE] Registrando {} cambios de inventario", cambios.size());
+        for (CambioStock cambio : cambios) {
+            log.debug("   🏷️  {} (ID: {}) 📦 {} → {} 📈 {}", cambio.producto().getDescripcion(), cambio.producto().getIdProducto(), cambio.stockAnterior(), cambio.nuevoStock(), cambio.variacion());
+        }
+        
+        // Aquí se guardaría en la tabla de auditoría con una sola inserción por lotes
+        // Por ejemplo: auditoriaRepository.saveAll(...)
+    }
+    
     @Override
     public void onStockBajo(Producto producto, int stockActual) {
-        System.out.println("📊 [REPORTE ALERTA] Agregando a reporte de stock bajo:");
-        System.out.println("   🏷️  Producto: " + producto.getDescripcion());
-        System.out.println("   📦 Stock actual: " + stockActual);
-        System.out.println("   ⚠️  Estado: REQUIERE RESTOCK");
+        log.info("📊 [REPORTE ALERTA] Stock bajo - {} (Stock actual: {}) ⚠️ REQUIERE RESTOCK", producto.getDescripcion(), stockActual);
         
         agregarAReporteStockBajo(producto, stockActual);
     }
     
     @Override
     public void onProductoAgotado(Producto producto) {
-        System.out.println("📊 [REPORTE CRÍTICO] Agregando a reporte de productos agotados:");
-        System.out.println("   🏷️  Producto: " + producto.getDescripcion());
-        System.out.println("   🚨 Estado: AGOTADO");
-        System.out.println("   📅 Fecha: " + LocalDateTime.now().format(formatter));
+        log.info("📊 [REPORTE CRÍTICO] Producto agotado - {} 🚨 AGOTADO", producto.getDescripcion());
         
         agregarAReporteProductosAgotados(producto);
     }
     
     @Override
     public void onProductoRestockado(Producto producto, int nuevoStock) {
-        System.out.println("📊 [REPORTE INFO] Producto restockado exitosamente:");
-        System.out.println("   🏷️  Producto: " + producto.getDescripcion());
-        System.out.println("   📦 Nuevo stock: " + nuevoStock);
-        System.out.println("   ✅ Estado: DISPONIBLE");
+        log.info("📊 [REPORTE INFO] Producto restockado - {} (Nuevo stock: {}) ✅ DISPONIBLE", producto.getDescripcion(), nuevoStock);
     }
     
     private void registrarEnAuditoria(Producto producto, int stockAnterior, int nuevoStock) {
         // Simulación de registro en base de datos de auditoría
-        System.out.println("   💾 Guardando en tabla AUDITORIA_INVENTARIO...");
-        System.out.println("   🏷️  Producto: " + producto.getDescripcion() + " (ID: " + producto.getIdProducto() + ")");
-        System.out.println("   📦 Stock anterior: " + stockAnterior);
-        System.out.println("   📦 Nuevo stock: " + nuevoStock);
+        log.debug("   💾 AUDITORIA_INVENTARIO ← producto {} (ID: {}): {} → {}",
+                producto.getDescripcion(), producto.getIdProducto(), stockAnterior, nuevoStock);
         // Aquí iría: auditoriaRepository.save(new AuditoriaInventario(...));
     }
     
     private void agregarAReporteStockBajo(Producto producto, int stockActual) {
         // Simulación de agregar a reporte
-        System.out.println("   📋 Agregando a REPORTE_STOCK_BAJO...");
-        System.out.println("   🏷️  Producto: " + producto.getDescripcion() + " (ID: " + producto.getIdProducto() + ")");
-        System.out.println("   📦 Stock actual: " + stockActual);
+        log.debug("   📋 REPORTE_STOCK_BAJO ← producto {} (ID: {}), stock actual: {}",
+                producto.getDescripcion(), producto.getIdProducto(), stockActual);
         // Aquí iría la lógica para generar reportes
     }
     
     private void agregarAReporteProductosAgotados(Producto producto) {
         // Simulación de agregar a reporte crítico
-        System.out.println("   🚨 Agregando a REPORTE_PRODUCTOS_AGOTADOS...");
-        System.out.println("   🏷️  Producto: " + producto.getDescripcion() + " (ID: " + producto.getIdProducto() + ")");
+        log.debug("   🚨 REPORTE_PRODUCTOS_AGOTADOS ← producto {} (ID: {})", producto.getDescripcion(), producto.getIdProducto());
         // Aquí iría la lógica para reportes críticos
     }
 }
\ No newline at end of file
@@ -0,0 +1,28 @@
+package com.sistemaventas.backend.pasarela;
+
+import java.math.BigDecimal;
+import java.util.concurrent.CompletableFuture;
+
+import org.springframework.stereotype.Component;
+
+import com.sistemaventas.backend.dto.request.VentaRequest;
+
+import lombok.extern.slf4j.Slf4j;
+
+@Component
+@Slf4j
+public class PasarelaEfectivo implements PasarelaPago {
+
+    @Override
+    public boolean soporta(String metodoPago) {
+        return metodoPago.equals("efectivo");
+    }
+
+    @Override
+    public CompletableFuture<Boolean> autorizar(VentaRequest.DatosPago datosPago, BigDecimal monto) {
+        log.info("💵 Procesando pago en efectivo por ${}", monto);
+        // Siempre exitoso para efectivo
+        log.info("✅ Pago en efectivo procesado exitosamente");
+        return CompletableFuture.completedFuture(true);
+    }
+}
@@ -0,0 +1,29 @@
+package com.sistemaventas.backend.pasarela;
+
+import java.math.BigDecimal;
+import java.util.concurrent.CompletableFuture;
+
+import org.springframework.stereotype.Component;
+
+import com.sistemaventas.backend.dto.request.VentaRequest;
+
+import lombok.extern.slf4j.Slf4j;
+
+@Component
+@Slf4j
+public class PasarelaMercadoPago implements PasarelaPago {
+
+    @Override
+    public boolean soporta(String metodoPago) {
+        return metodoPago.equals("mercado_pago") || metodoPago.equals("mercado pago");
+    }
+
+    @Override
+    public CompletableFuture<Boolean> autorizar(VentaRequest.DatosPago datosPago, BigDecimal monto) {
+        log.info("🔵 Procesando pago con Mercado Pago por ${}", monto);
+        
+        // El pago ya fue aprobado por Mercado Pago, solo registramos
+        log.info("✅ Pago con Mercado Pago confirmado");
+        return CompletableFuture.completedFuture(true);
+    }
+}
@@ -0,0 +1,26 @@
+package com.sistemaventas.backend.pasarela;
+
+import java.math.BigDecimal;
+import java.util.concurrent.CompletableFuture;
+
+import com.sistemaventas.backend.dto.request.VentaRequest;
+
+/**
+ * Pasarela de pago: autoriza un cobro con el banco o proveedor de un método
+ * de pago concreto. La autorización es asíncrona; el futuro se completa con
+ * true si el pago fue aprobado y false si fue rechazado.
+ */
+public interface PasarelaPago {
+
+    // Indica si esta pasarela atiende el método de pago (recibido en minúsculas)
+    boolean soporta(String metodoPago);
+
+    // Autorizar el cobro sin bloquear el hilo que llama
+    CompletableFuture<Boolean> autorizar(VentaRequest.DatosPago datosPago, BigDecimal monto);
+
+    // Anular un cobro autorizado que no se pudo registrar; false si la pasarela
+    // no puede anularlo y hay que reversarlo a mano
+    default boolean anular(VentaRequest.DatosPago datosPago, BigDecimal monto) {
+        return false;
+    }
+}
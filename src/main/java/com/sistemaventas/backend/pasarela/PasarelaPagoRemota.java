@@ -0,0 +1,49 @@
+package com.sistemaventas.backend.pasarela;
+
+import java.math.BigDecimal;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import com.sistemaventas.backend.dto.request.VentaRequest;
+
+/**
+ * Base de las pasarelas que esperan la respuesta de un banco. La llamada
+ * bloqueante se ejecuta en el pool acotado de pagos (pagosExecutor).
+ */
+public abstract class PasarelaPagoRemota implements PasarelaPago {
+
+    private final Executor pagosExecutor;
+
+    protected PasarelaPagoRemota(Executor pagosExecutor) {
+        this.pagosExecutor = pagosExecutor;
+    }
+
+    @Override
+    public CompletableFuture<Boolean> autorizar(VentaRequest.DatosPago datosPago, BigDecimal monto) {
+        return CompletableFuture.supplyAsync(() -> autorizarConBanco(datosPago, monto), pagosExecutor);
+    }
+
+    // Llamada bloqueante al banco/proveedor
+    protected abstract boolean autorizarConBanco(VentaRequest.DatosPago datosPago, BigDecimal monto);
+
+    // Anular la autorización con el banco; bloquea a quien compensa la venta
+    @Override
+    public boolean anular(VentaRequest.DatosPago datosPago, BigDecimal monto) {
+        // Simular la anulación con el banco (aquí iría integración real)
+        simulateDelay(500);
+        return true;
+    }
+
+    // Simular delay de procesamiento
+    protected void simulateDelay(int milliseconds) {
+        try {
+            Thread.sleep(milliseconds);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    protected String ultimosDigitos(String numeroTarjeta) {
+        return "****" + numeroTarjeta.substring(Math.max(0, numeroTarjeta.length() - 4));
+    }
+}
@@ -0,0 +1,49 @@
+package com.sistemaventas.backend.pasarela;
+
+import java.math.BigDecimal;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import com.sistemaventas.backend.dto.request.VentaRequest;
+
+import lombok.extern.slf4j.Slf4j;
+
+@Component
+@Slf4j
+public class PasarelaTarjetaCredito extends PasarelaPagoRemota {
+
+    public PasarelaTarjetaCredito(@Qualifier("pagosExecutor") Executor pagosExecutor) {
+        super(pagosExecutor);
+    }
+
+    @Override
+    public boolean soporta(String metodoPago) {
+        return switch (metodoPago) {
+            case "tarjeta credito", "tarjeta crédito", "tarjeta_credito" -> true;
+            default -> false;
+        };
+    }
+
+    @Override
+    protected boolean autorizarConBanco(VentaRequest.DatosPago datosPago, BigDecimal monto) {
+        log.info("💳 Procesando tarjeta de crédito - titular: {}, número: {}, monto: ${}",
+                datosPago.getNombreTitular(), ultimosDigitos(datosPago.getNumeroTarjeta()), monto);
+        
+        // Simular validación con banco (aquí iría integración real)
+        simulateDelay(2000); // Simular tiempo de procesamiento
+        
+        // 95% de éxito para simulación
+        boolean exitoso = ThreadLocalRandom.current().nextDouble() > 0.05;
+        
+        if (exitoso) {
+            log.info("✅ Pago con tarjeta de crédito aprobado");
+        } else {
+            log.warn("❌ Pago con tarjeta de crédito rechazado");
+        }
+        
+        return exitoso;
+    }
+}
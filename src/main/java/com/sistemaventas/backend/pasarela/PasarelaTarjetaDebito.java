@@ -0,0 +1,49 @@
+package com.sistemaventas.backend.pasarela;
+
+import java.math.BigDecimal;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import com.sistemaventas.backend.dto.request.VentaRequest;
+
+import lombok.extern.slf4j.Slf4j;
+
+@Component
+@Slf4j
+public class PasarelaTarjetaDebito extends PasarelaPagoRemota {
+
+    public PasarelaTarjetaDebito(@Qualifier("pagosExecutor") Executor pagosExecutor) {
+        super(pagosExecutor);
+    }
+
+    @Override
+    public boolean soporta(String metodoPago) {
+        return switch (metodoPago) {
+            case "tarjeta debito", "tarjeta débito", "tarjeta_debito" -> true;
+            default -> false;
+        };
+    }
+
+    @Override
+    protected boolean autorizarConBanco(VentaRequest.DatosPago datosPago, BigDecimal monto) {
+        log.info("💳 Procesando tarjeta de débito - titular: {}, número: {}, monto: ${}",
+                datosPago.getNombreTitular(), ultimosDigitos(datosPago.getNumeroTarjeta()), monto);
+        
+        // Simular validación de fondos
+        simulateDelay(1500);
+        
+        // 90% de éxito para débito
+        boolean exitoso = ThreadLocalRandom.current().nextDouble() > 0.10;
+        
+        if (exitoso) {
+            log.info("✅ Pago con tarjeta de débito aprobado");
+        } else {
+            log.warn("❌ Pago con tarjeta de débito rechazado (fondos insuficientes)");
+        }
+        
+        return exitoso;
+    }
+}
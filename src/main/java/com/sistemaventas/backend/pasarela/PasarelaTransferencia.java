@@ -0,0 +1,45 @@
+package com.sistemaventas.backend.pasarela;
+
+import java.math.BigDecimal;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import com.sistemaventas.backend.dto.request.VentaRequest;
+
+import lombok.extern.slf4j.Slf4j;
+
+@Component
+@Slf4j
+public class PasarelaTransferencia extends PasarelaPagoRemota {
+
+    public PasarelaTransferencia(@Qualifier("pagosExecutor") Executor pagosExecutor) {
+        super(pagosExecutor);
+    }
+
+    @Override
+    public boolean soporta(String metodoPago) {
+        return metodoPago.equals("transferencia");
+    }
+
+    @Override
+    protected boolean autorizarConBanco(VentaRequest.DatosPago datosPago, BigDecimal monto) {
+        log.info("🏦 Procesando transferencia bancaria por ${}", monto);
+        
+        // Simular tiempo de procesamiento bancario
+        simulateDelay(3000);
+        
+        // 98% de éxito para transferencias
+        boolean exitoso = ThreadLocalRandom.current().nextDouble() > 0.02;
+        
+        if (exitoso) {
+            log.info("✅ Transferencia bancaria procesada exitosamente");
+        } else {
+            log.warn("❌ Error en transferencia bancaria");
+        }
+        
+        return exitoso;
+    }
+}
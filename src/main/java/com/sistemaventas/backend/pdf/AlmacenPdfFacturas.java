@@ -0,0 +1,218 @@
+package com.sistemaventas.backend.pdf;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Almacén en disco de los PDF de facturas, direccionado por contenido:
+ *
+ *   objetos/ab/abcd...ef.pdf   el PDF, con su hash SHA-256 como nombre
+ *   facturas/123               el hash del PDF vigente de la factura 123
+ *
+ * Los archivos se escriben en un temporal y se mueven de forma atómica, así
+ * que una descarga nunca ve un PDF a medio escribir. El directorio se crea
+ * al guardar el primer PDF.
+ *
+ * Guardar y eliminar solo cambian el puntero: el objeto anterior puede estar
+ * descargándose (sendfile, ZIP de exportación) y se deja en disco. Los
+ * objetos sin puntero se borran en una limpieza periódica, cuando llevan
+ * más de sistemaventas.facturas.pdf.limpieza.antiguedad-minima-ms sin
+ * modificarse; ninguna descarga tarda tanto.
+ */
+@Component
+@Slf4j
+public class AlmacenPdfFacturas {
+
+    // Escribe un PDF en el flujo de salida del almacén
+    @FunctionalInterface
+    public interface EscritorPdf {
+        void escribir(OutputStream salida) throws IOException;
+    }
+
+    private static final long ANTIGUEDAD_MINIMA_MS = 60 * 60 * 1000;
+
+    private final Path objetos;
+    private final Path facturas;
+    private final long antiguedadMinimaMs;
+
+    public AlmacenPdfFacturas(String directorio) {
+        this(directorio, ANTIGUEDAD_MINIMA_MS);
+    }
+
+    @Autowired
+    public AlmacenPdfFacturas(@Value("${sistemaventas.facturas.pdf.directorio:datos/facturas-pdf}") String directorio,
+            @Value("${sistemaventas.facturas.pdf.limpieza.antiguedad-minima-ms:3600000}") long antiguedadMinimaMs) {
+        Path raiz = Paths.get(directorio).toAbsolutePath();
+        this.objetos = raiz.resolve("objetos");
+        this.facturas = raiz.resolve("facturas");
+        this.antiguedadMinimaMs = antiguedadMinimaMs;
+    }
+
+    // PDF vigente de la factura, si ya se generó
+    public Optional<PdfAlmacenado> buscar(int idFactura) {
+        try {
+            String hash = Files.readString(puntero(idFactura), StandardCharsets.US_ASCII).trim();
+            Path archivo = objeto(hash);
+            return Optional.of(new PdfAlmacenado(archivo, hash, Files.size(archivo)));
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error leyendo el PDF de la factura " + idFactura, e);
+        }
+    }
+
+    /**
+     * Guardar el PDF que escribe el escritor como PDF vigente de la factura.
+     * El hash se calcula mientras se escribe, sin tener el PDF en memoria.
+     */
+    public PdfAlmacenado guardar(int idFactura, EscritorPdf escritor) {
+        Path temporal = null;
+        try {
+            Files.createDirectories(objetos);
+            Files.createDirectories(facturas);
+            temporal = Files.createTempFile(objetos, "factura-" + idFactura + "-", ".tmp");
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            try (OutputStream salida = new DigestOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(temporal), 64 * 1024), sha256)) {
+                escritor.escribir(salida);
+            }
+            String hash = HexFormat.of().formatHex(sha256.digest());
+            Path archivo = objeto(hash);
+            Files.createDirectories(archivo.getParent());
+            Files.move(temporal, archivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            escribirAtomico(puntero(idFactura), hash);
+            return new PdfAlmacenado(archivo, hash, Files.size(archivo));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error guardando el PDF de la factura " + idFactura, e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        } finally {
+            if (temporal != null) {
+                eliminarObjeto(temporal);
+            }
+        }
+    }
+
+    // Quitar el PDF vigente de la factura (se volverá a generar al pedirlo); el objeto lo borra la limpieza
+    public void eliminar(int idFactura) {
+        try {
+            Files.deleteIfExists(puntero(idFactura));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error eliminando el PDF de la factura " + idFactura, e);
+        }
+    }
+
+    @Scheduled(initialDelayString = "${sistemaventas.facturas.pdf.limpieza.intervalo-ms:3600000}",
+            fixedDelayString = "${sistemaventas.facturas.pdf.limpieza.intervalo-ms:3600000}")
+    public void limpiar() {
+        try {
+            int eliminados = limpiar(antiguedadMinimaMs);
+            if (eliminados > 0) {
+                log.info("🧹 Almacén de PDF: {} objetos sin factura eliminados", eliminados);
+            }
+        } catch (RuntimeException e) {
+            log.warn("No se pudo limpiar el almacén de PDF: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Borrar los objetos (y temporales abandonados) que ninguna factura
+     * apunta y que no se modificaron en los últimos antiguedadMinimaMs.
+     * Un objeto recién guardado aún no tiene puntero, pero es reciente.
+     * Devuelve cuántos archivos se borraron.
+     */
+    int limpiar(long antiguedadMinimaMs) {
+        if (!Files.isDirectory(objetos)) {
+            return 0;
+        }
+        long limite = System.currentTimeMillis() - antiguedadMinimaMs;
+        try {
+            Set<Path> referenciados = new HashSet<>();
+            if (Files.isDirectory(facturas)) {
+                try (Stream<Path> punteros = Files.list(facturas)) {
+                    punteros.filter(p -> !p.getFileName().toString().endsWith(".tmp"))
+                            .forEach(p -> leerHash(p).ifPresent(hash -> referenciados.add(objeto(hash))));
+                }
+            }
+            int eliminados = 0;
+            try (Stream<Path> archivos = Files.walk(objetos)) {
+                for (Path archivo : (Iterable<Path>) archivos.filter(Files::isRegularFile)::iterator) {
+                    if (!referenciados.contains(archivo) && modificado(archivo) < limite) {
+                        eliminarObjeto(archivo);
+                        eliminados++;
+                    }
+                }
+            }
+            return eliminados;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error limpiando el almacén de PDF", e);
+        }
+    }
+
+    private Path puntero(int idFactura) {
+        return facturas.resolve(String.valueOf(idFactura));
+    }
+
+    private Path objeto(String hash) {
+        return objetos.resolve(hash.substring(0, 2)).resolve(hash + ".pdf");
+    }
+
+    private static Optional<String> leerHash(Path puntero) {
+        try {
+            return Optional.of(Files.readString(puntero, StandardCharsets.US_ASCII).trim());
+        } catch (IOException e) {
+            // Puntero borrado o reemplazado mientras se listaba
+            return Optional.empty();
+        }
+    }
+
+    private static long modificado(Path archivo) {
+        try {
+            return Files.getLastModifiedTime(archivo).toMillis();
+        } catch (IOException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+
+    private void escribirAtomico(Path destino, String contenido) throws IOException {
+        Path temporal = Files.createTempFile(destino.getParent(), destino.getFileName() + "-", ".tmp");
+        try {
+            Files.writeString(temporal, contenido, StandardCharsets.US_ASCII);
+            Files.move(temporal, destino, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporal);
+        }
+    }
+
+    private static void eliminarObjeto(Path archivo) {
+        try {
+            Files.deleteIfExists(archivo);
+        } catch (IOException e) {
+            log.warn("No se pudo eliminar {}: {}", archivo, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.sistemaventas.backend.pdf;
+
+import java.nio.file.Path;
+
+/**
+ * PDF de una factura guardado en el almacén. El hash SHA-256 del contenido
+ * es también su nombre de archivo y su ETag.
+ */
+public record PdfAlmacenado(Path archivo, String hash, long tamano) {
+
+    public String etag() {
+        return "\"" + hash + "\"";
+    }
+}
@@ -0,0 +1,137 @@
+package com.sistemaventas.backend.reporte;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+
+import com.sistemaventas.backend.config.CalendarioTienda;
+
+/**
+ * Calcula el reporte de ventas en una sola pasada sobre las líneas de venta,
+ * sin guardarlas: la memoria depende del número de grupos (días, cajeros,
+ * categorías, métodos de pago) y no del número de facturas del período.
+ *
+ * Las líneas de una factura deben llegar seguidas; los importes de la factura
+ * se suman una sola vez, con su primera línea.
+ */
+public class AcumuladorReporteVentas {
+
+    static final String METODO_DESCONOCIDO = "DESCONOCIDO";
+    static final String SIN_CATEGORIA = "SIN CATEGORÍA";
+
+    private final CalendarioTienda calendarioTienda;
+
+    private final Acumulado total = new Acumulado();
+    private final Map<LocalDate, Acumulado> porDia = new TreeMap<>();
+    private final Map<String, Acumulado> porCajero = new TreeMap<>();
+    private final Map<String, Acumulado> porCategoria = new TreeMap<>();
+    private final Map<String, Acumulado> porMetodoPago = new TreeMap<>();
+
+    // Factura en curso y los grupos a los que pertenece
+    private Integer idFactura;
+    private Acumulado dia;
+    private Acumulado cajero;
+    private Acumulado metodoPago;
+    private final Set<String> categoriasFactura = new HashSet<>();
+
+    public AcumuladorReporteVentas(CalendarioTienda calendarioTienda) {
+        this.calendarioTienda = calendarioTienda;
+    }
+
+    public void agregar(LineaVentaReporte linea) {
+        if (!Objects.equals(idFactura, linea.idFactura())) {
+            idFactura = linea.idFactura();
+            categoriasFactura.clear();
+            dia = porDia.computeIfAbsent(calendarioTienda.diaDe(linea.fecha()), d -> new Acumulado());
+            cajero = porCajero.computeIfAbsent(linea.cajero() + " (" + linea.idUsuario() + ")", c -> new Acumulado());
+            metodoPago = porMetodoPago.computeIfAbsent(clave(linea.metodoPago(), METODO_DESCONOCIDO), m -> new Acumulado());
+
+            BigDecimal subtotal = importe(linea.subtotalFactura());
+            BigDecimal iva = importe(linea.ivaFactura());
+            BigDecimal totalFactura = importe(linea.totalFactura());
+            for (Acumulado grupo : List.of(total, dia, cajero, metodoPago)) {
+                grupo.sumarVenta(subtotal, iva, totalFactura, linea.devuelta());
+            }
+        }
+        total.unidades += linea.cantidad();
+        dia.unidades += linea.cantidad();
+        cajero.unidades += linea.cantidad();
+        metodoPago.unidades += linea.cantidad();
+
+        String categoria = clave(linea.categoria(), SIN_CATEGORIA);
+        Acumulado grupoCategoria = porCategoria.computeIfAbsent(categoria, c -> new Acumulado());
+        BigDecimal subtotalLinea = importe(linea.subtotalLinea());
+        BigDecimal ivaLinea = ivaProporcional(subtotalLinea, linea);
+        if (categoriasFactura.add(categoria)) {
+            grupoCategoria.sumarVenta(subtotalLinea, ivaLinea, subtotalLinea.add(ivaLinea), linea.devuelta());
+        } else {
+            grupoCategoria.sumarImportes(subtotalLinea, ivaLinea, subtotalLinea.add(ivaLinea), linea.devuelta());
+        }
+        grupoCategoria.unidades += linea.cantidad();
+    }
+
+    public ReporteVentas resultado(LocalDate desde, LocalDate hasta) {
+        return new ReporteVentas(desde, hasta, total.fila("TOTAL"),
+                filas(porDia), filas(porCajero), filas(porCategoria), filas(porMetodoPago));
+    }
+
+    private static <K> List<ReporteVentas.Fila> filas(Map<K, Acumulado> grupos) {
+        return grupos.entrySet().stream()
+                .map(entry -> entry.getValue().fila(entry.getKey().toString()))
+                .toList();
+    }
+
+    // Parte del IVA de la factura que corresponde a la línea
+    private static BigDecimal ivaProporcional(BigDecimal subtotalLinea, LineaVentaReporte linea) {
+        BigDecimal subtotalFactura = importe(linea.subtotalFactura());
+        if (subtotalFactura.signum() == 0) {
+            return BigDecimal.ZERO;
+        }
+        return subtotalLinea.multiply(importe(linea.ivaFactura())).divide(subtotalFactura, 2, RoundingMode.HALF_UP);
+    }
+
+    private static String clave(String valor, String porDefecto) {
+        return valor == null || valor.isBlank() ? porDefecto : valor;
+    }
+
+    private static BigDecimal importe(BigDecimal valor) {
+        return Objects.requireNonNullElse(valor, BigDecimal.ZERO);
+    }
+
+    private static class Acumulado {
+        private long ventas;
+        private long unidades;
+        private BigDecimal subtotal = BigDecimal.ZERO;
+        private BigDecimal iva = BigDecimal.ZERO;
+        private BigDecimal total = BigDecimal.ZERO;
+        private long devoluciones;
+        private BigDecimal totalDevuelto = BigDecimal.ZERO;
+
+        void sumarVenta(BigDecimal subtotal, BigDecimal iva, BigDecimal total, boolean devuelta) {
+            ventas++;
+            if (devuelta) {
+                devoluciones++;
+            }
+            sumarImportes(subtotal, iva, total, devuelta);
+        }
+
+        void sumarImportes(BigDecimal subtotal, BigDecimal iva, BigDecimal total, boolean devuelta) {
+            this.subtotal = this.subtotal.add(subtotal);
+            this.iva = this.iva.add(iva);
+            this.total = this.total.add(total);
+            if (devuelta) {
+                totalDevuelto = totalDevuelto.add(total);
+            }
+        }
+
+        ReporteVentas.Fila fila(String clave) {
+            return new ReporteVentas.Fila(clave, ventas, unidades, subtotal, iva, total, devoluciones, totalDevuelto);
+        }
+    }
+}
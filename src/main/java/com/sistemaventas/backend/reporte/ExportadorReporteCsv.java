@@ -0,0 +1,46 @@
+package com.sistemaventas.backend.reporte;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reporte de ventas en CSV (UTF-8 con BOM, separado por comas, punto
+ * decimal): una fila por grupo, con la agrupación en la primera columna.
+ */
+class ExportadorReporteCsv {
+
+    void escribir(ReporteVentas reporte, OutputStream salida) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(salida, StandardCharsets.UTF_8));
+        writer.write('\uFEFF'); // BOM: Excel abre el archivo como UTF-8
+        writer.write("agrupacion,clave," + String.join(",", ReporteVentas.COLUMNAS) + "\r\n");
+        for (Map.Entry<String, List<ReporteVentas.Fila>> agrupacion : reporte.agrupaciones().entrySet()) {
+            for (ReporteVentas.Fila fila : agrupacion.getValue()) {
+                writer.write(agrupacion.getKey());
+                writer.write(',');
+                writer.write(campo(fila.clave()));
+                for (Object valor : fila.valores()) {
+                    writer.write(',');
+                    writer.write(valor instanceof BigDecimal importe ? importe.toPlainString() : valor.toString());
+                }
+                writer.write("\r\n");
+            }
+        }
+        // Sin cerrar: el flujo de salida es de quien llama
+        writer.flush();
+    }
+
+    // Entre comillas si contiene separadores, comillas o saltos de línea
+    private static String campo(String valor) {
+        if (valor.indexOf(',') < 0 && valor.indexOf('"') < 0 && valor.indexOf('\n') < 0 && valor.indexOf('\r') < 0) {
+            return valor;
+        }
+        return '"' + valor.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,140 @@
+package com.sistemaventas.backend.reporte;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Reporte de ventas en XLSX (Office Open XML), con una hoja por agrupación.
+ * El libro se escribe parte por parte en el ZIP de salida, con las celdas de
+ * texto en línea (sin tabla de cadenas compartidas), así que no se arma en
+ * memoria ni se necesita una librería de hojas de cálculo.
+ */
+class ExportadorReporteXlsx {
+
+    private static final String XML = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n";
+    private static final String NS_HOJA = "http://schemas.openxmlformats.org/spreadsheetml/2006/main";
+    private static final String NS_RELACIONES = "http://schemas.openxmlformats.org/officeDocument/2006/relationships";
+
+    void escribir(ReporteVentas reporte, OutputStream salida) throws IOException {
+        List<String> hojas = new ArrayList<>(reporte.agrupaciones().keySet());
+        // Se termina con finish() y no con close(): el flujo de salida es de quien llama
+        ZipOutputStream zip = new ZipOutputStream(salida);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(zip, StandardCharsets.UTF_8));
+
+        parte(zip, writer, "[Content_Types].xml", tiposDeContenido(hojas));
+        parte(zip, writer, "_rels/.rels", XML
+                + "<Relationships xmlns=\"http://schemas.openxmlformats.org/package/2006/relationships\">"
+                + "<Relationship Id=\"rId1\" Type=\"" + NS_RELACIONES + "/officeDocument\" Target=\"xl/workbook.xml\"/>"
+                + "</Relationships>");
+        parte(zip, writer, "xl/workbook.xml", libro(hojas));
+        parte(zip, writer, "xl/_rels/workbook.xml.rels", relacionesLibro(hojas));
+
+        int numero = 1;
+        for (Map.Entry<String, List<ReporteVentas.Fila>> agrupacion : reporte.agrupaciones().entrySet()) {
+            zip.putNextEntry(new ZipEntry("xl/worksheets/sheet" + numero++ + ".xml"));
+            escribirHoja(writer, agrupacion.getKey(), agrupacion.getValue());
+            writer.flush();
+            zip.closeEntry();
+        }
+        zip.finish();
+        zip.flush();
+    }
+
+    private static void escribirHoja(Writer writer, String agrupacion, List<ReporteVentas.Fila> filas) throws IOException {
+        writer.write(XML);
+        writer.write("<worksheet xmlns=\"" + NS_HOJA + "\"><sheetData>");
+        writer.write("<row>");
+        celdaTexto(writer, agrupacion);
+        for (String columna : ReporteVentas.COLUMNAS) {
+            celdaTexto(writer, columna);
+        }
+        writer.write("</row>");
+        for (ReporteVentas.Fila fila : filas) {
+            writer.write("<row>");
+            celdaTexto(writer, fila.clave());
+            for (Object valor : fila.valores()) {
+                writer.write("<c><v>");
+                writer.write(valor instanceof BigDecimal importe ? importe.toPlainString() : valor.toString());
+                writer.write("</v></c>");
+            }
+            writer.write("</row>");
+        }
+        writer.write("</sheetData></worksheet>");
+    }
+
+    private static void celdaTexto(Writer writer, String texto) throws IOException {
+        writer.write("<c t=\"inlineStr\"><is><t>");
+        writer.write(escapar(texto));
+        writer.write("</t></is></c>");
+    }
+
+    private static void parte(ZipOutputStream zip, Writer writer, String nombre, String contenido) throws IOException {
+        zip.putNextEntry(new ZipEntry(nombre));
+        writer.write(contenido);
+        writer.flush();
+        zip.closeEntry();
+    }
+
+    private static String tiposDeContenido(List<String> hojas) {
+        StringBuilder xml = new StringBuilder(XML)
+                .append("<Types xmlns=\"http://schemas.openxmlformats.org/package/2006/content-types\">")
+                .append("<Default Extension=\"rels\" ContentType=\"application/vnd.openxmlformats-package.relationships+xml\"/>")
+                .append("<Default Extension=\"xml\" ContentType=\"application/xml\"/>")
+                .append("<Override PartName=\"/xl/workbook.xml\" ")
+                .append("ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.sheet.main+xml\"/>");
+        for (int i = 1; i <= hojas.size(); i++) {
+            xml.append("<Override PartName=\"/xl/worksheets/sheet").append(i).append(".xml\" ")
+                    .append("ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.worksheet+xml\"/>");
+        }
+        return xml.append("</Types>").toString();
+    }
+
+    private static String libro(List<String> hojas) {
+        StringBuilder xml = new StringBuilder(XML)
+                .append("<workbook xmlns=\"").append(NS_HOJA).append("\" xmlns:r=\"").append(NS_RELACIONES).append("\"><sheets>");
+        for (int i = 1; i <= hojas.size(); i++) {
+            xml.append("<sheet name=\"").append(escapar(hojas.get(i - 1))).append("\" sheetId=\"").append(i)
+                    .append("\" r:id=\"rId").append(i).append("\"/>");
+        }
+        return xml.append("</sheets></workbook>").toString();
+    }
+
+    private static String relacionesLibro(List<String> hojas) {
+        StringBuilder xml = new StringBuilder(XML)
+                .append("<Relationships xmlns=\"http://schemas.openxmlformats.org/package/2006/relationships\">");
+        for (int i = 1; i <= hojas.size(); i++) {
+            xml.append("<Relationship Id=\"rId").append(i).append("\" Type=\"").append(NS_RELACIONES)
+                    .append("/worksheet\" Target=\"worksheets/sheet").append(i).append(".xml\"/>");
+        }
+        return xml.append("</Relationships>").toString();
+    }
+
+    private static String escapar(String texto) {
+        StringBuilder escapado = new StringBuilder(texto.length());
+        for (char c : texto.toCharArray()) {
+            switch (c) {
+                case '&' -> escapado.append("&amp;");
+                case '<' -> escapado.append("&lt;");
+                case '>' -> escapado.append("&gt;");
+                case '"' -> escapado.append("&quot;");
+                default -> {
+                    // Caracteres de control no permitidos en XML
+                    if (c >= 0x20 || c == '\t' || c == '\n' || c == '\r') {
+                        escapado.append(c);
+                    }
+                }
+            }
+        }
+        return escapado.toString();
+    }
+}
@@ -0,0 +1,52 @@
+package com.sistemaventas.backend.reporte;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Formatos en que se exporta el reporte de ventas. Cada exportador escribe
+ * directamente en el flujo de salida, sin armar el archivo en memoria.
+ */
+public enum FormatoReporte {
+
+    CSV("text/csv; charset=UTF-8", "csv") {
+        @Override
+        public void escribir(ReporteVentas reporte, OutputStream salida) throws IOException {
+            new ExportadorReporteCsv().escribir(reporte, salida);
+        }
+    },
+
+    XLSX("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet", "xlsx") {
+        @Override
+        public void escribir(ReporteVentas reporte, OutputStream salida) throws IOException {
+            new ExportadorReporteXlsx().escribir(reporte, salida);
+        }
+    };
+
+    private final String tipoContenido;
+    private final String extension;
+
+    FormatoReporte(String tipoContenido, String extension) {
+        this.tipoContenido = tipoContenido;
+        this.extension = extension;
+    }
+
+    public abstract void escribir(ReporteVentas reporte, OutputStream salida) throws IOException;
+
+    public String getTipoContenido() {
+        return tipoContenido;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public static FormatoReporte desde(String formato) {
+        for (FormatoReporte valor : values()) {
+            if (valor.extension.equalsIgnoreCase(formato)) {
+                return valor;
+            }
+        }
+        throw new IllegalArgumentException("Formato de reporte no soportado: " + formato + " (use csv o xlsx)");
+    }
+}
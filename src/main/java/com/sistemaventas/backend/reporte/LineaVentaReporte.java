@@ -0,0 +1,24 @@
+package com.sistemaventas.backend.reporte;
+
+import java.math.BigDecimal;
+import java.util.Date;
+
+/**
+ * Una línea de una venta confirmada, con los datos de su factura, tal como
+ * se lee del cursor del reporte. Las líneas de una misma factura llegan
+ * seguidas.
+ */
+public record LineaVentaReporte(
+        int idFactura,
+        Date fecha,
+        int idUsuario,
+        String cajero,
+        String metodoPago,
+        BigDecimal subtotalFactura,
+        BigDecimal ivaFactura,
+        BigDecimal totalFactura,
+        boolean devuelta,
+        String categoria,
+        int cantidad,
+        BigDecimal subtotalLinea) {
+}
@@ -0,0 +1,51 @@
+package com.sistemaventas.backend.reporte;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reporte de las ventas confirmadas de los días [desde, hasta], con los
+ * totales del período y agrupados por día, cajero, categoría y método de pago.
+ */
+public record ReporteVentas(
+        LocalDate desde,
+        LocalDate hasta,
+        Fila total,
+        List<Fila> porDia,
+        List<Fila> porCajero,
+        List<Fila> porCategoria,
+        List<Fila> porMetodoPago) {
+
+    // Columnas de cada fila, en el orden en que se exportan
+    public static final List<String> COLUMNAS = List.of(
+            "ventas", "unidades", "subtotal", "iva", "total", "devoluciones", "total_devuelto");
+
+    // Agrupaciones en el orden en que se exportan, con el total del período primero
+    public Map<String, List<Fila>> agrupaciones() {
+        Map<String, List<Fila>> agrupaciones = new LinkedHashMap<>();
+        agrupaciones.put("total", List.of(total));
+        agrupaciones.put("dia", porDia);
+        agrupaciones.put("cajero", porCajero);
+        agrupaciones.put("categoria", porCategoria);
+        agrupaciones.put("metodo_pago", porMetodoPago);
+        return agrupaciones;
+    }
+
+    /**
+     * Totales de un grupo. Como en el resumen de ventas, las devoluciones no
+     * restan de las ventas: se cuentan aparte en devoluciones y totalDevuelto.
+     * En las categorías, ventas es el número de facturas con alguna línea de
+     * la categoría y el IVA es la parte proporcional del IVA de cada factura.
+     */
+    public record Fila(String clave, long ventas, long unidades, BigDecimal subtotal, BigDecimal iva,
+            BigDecimal total, long devoluciones, BigDecimal totalDevuelto) {
+
+        // Valores en el orden de COLUMNAS
+        public List<Object> valores() {
+            return List.of(ventas, unidades, subtotal, iva, total, devoluciones, totalDevuelto);
+        }
+    }
+}
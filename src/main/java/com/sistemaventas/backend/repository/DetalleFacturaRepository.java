@@ -3,6 +3,7 @@ package com.sistemaventas.backend.repository;
 import java.util.List;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import com.sistemaventas.backend.entity.DetalleFactura;
@@ -14,4 +15,10 @@ public interface DetalleFacturaRepository extends JpaRepository<DetalleFactura,
      * Busca todos los detalles de una factura específica
      */
     List<DetalleFactura> findByFactura_IdFactura(Integer idFactura);
+    
+    /**
+     * Unidades vendidas de cada producto: filas [idProducto, cantidad]
+     */
+    @Query("SELECT d.producto.idProducto, SUM(d.cantidad) FROM DetalleFactura d GROUP BY d.producto.idProducto")
+    List<Object[]> sumarCantidadesPorProducto();
 }
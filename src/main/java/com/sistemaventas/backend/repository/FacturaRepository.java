@@ -1,10 +1,14 @@
 package com.sistemaventas.backend.repository;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
+import java.util.Optional;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -12,12 +16,48 @@ import org.springframework.stereotype.Repository;
 import com.sistemaventas.backend.entity.Factura;
 
 @Repository
-public interface FacturaRepository extends JpaRepository<Factura, Integer> {
+public interface FacturaRepository extends JpaRepository<Factura, Integer>, FacturaRepositoryCustom {
+    
+    // Asociar el pago a una factura ya guardada sin volver a guardar toda la factura
+    @Modifying
+    @Query("UPDATE Factura f SET f.idPago = :idPago WHERE f.idFactura = :idFactura")
+    int asignarPago(@Param("idFactura") Integer idFactura, @Param("idPago") Integer idPago);
+    
+    // Planes de carga por caso de uso: cada lectura trae en una sola consulta
+    // exactamente las relaciones que va a recorrer, en lugar de una consulta
+    // por línea, producto o pago al acceder a las relaciones LAZY.
+    // El pago va en todos los planes: es el lado inverso de un OneToOne y
+    // Hibernate lo consultaría aparte por cada factura aunque no se use.
+    
+    // Factura con sus líneas (ver una venta y sus detalles)
+    @EntityGraph(attributePaths = {"detallesFactura", "pago"})
+    @Query("SELECT f FROM Factura f WHERE f.idFactura = :idFactura")
+    Optional<Factura> findConDetallesById(@Param("idFactura") Integer idFactura);
+    
+    // Factura con sus líneas y los productos de cada línea (devoluciones)
+    @EntityGraph(attributePaths = {"detallesFactura", "detallesFactura.producto", "pago"})
+    @Query("SELECT f FROM Factura f WHERE f.idFactura = :idFactura")
+    Optional<Factura> findConDetallesYProductosById(@Param("idFactura") Integer idFactura);
+    
+    // Factura con líneas, productos, usuario y pago (PDF de la factura)
+    @EntityGraph(attributePaths = {"detallesFactura", "detallesFactura.producto", "usuario", "usuario.rol", "pago"})
+    @Query("SELECT f FROM Factura f WHERE f.idFactura = :idFactura")
+    Optional<Factura> findCompletaById(@Param("idFactura") Integer idFactura);
+    
+    // Todas las facturas con sus líneas (listado que serializa los detalles)
+    @EntityGraph(attributePaths = {"detallesFactura", "pago"})
+    @Query("SELECT f FROM Factura f")
+    List<Factura> findAllConDetalles();
     
     // Buscar facturas por usuario
+    @EntityGraph(attributePaths = {"detallesFactura", "pago"})
     @Query("SELECT f FROM Factura f WHERE f.usuario.idUsuario = :idUsuario")
     List<Factura> findByUsuarioId(@Param("idUsuario") Integer idUsuario);
     
+    // ID de la venta en la caja, ID de factura y total de las ventas ya importadas con esos IDs
+    @Query("SELECT f.idVentaCaja, f.idFactura, f.total FROM Factura f WHERE f.idVentaCaja IN :idsVentaCaja")
+    List<Object[]> findVentasDeCaja(@Param("idsVentaCaja") Collection<String> idsVentaCaja);
+    
     // Buscar facturas por fecha exacta
     List<Factura> findByFecha(Date fecha);
     
@@ -33,17 +73,23 @@ public interface FacturaRepository extends JpaRepository<Factura, Integer> {
     // Buscar facturas por rango de total
     List<Factura> findByTotalBetween(BigDecimal totalMin, BigDecimal totalMax);
     
-    // Buscar facturas de hoy
-    @Query("SELECT f FROM Factura f WHERE DATE(f.fecha) = DATE(:fecha)")
-    List<Factura> findFacturasDeHoy(@Param("fecha") Date fecha);
+    // Días y meses como rangos [inicio, fin) sobre la columna (ver CalendarioTienda):
+    // con DATE(f.fecha) o MONTH(f.fecha) PostgreSQL no puede usar el índice sobre
+    // FECHA y recorre todas las facturas.
+    
+    // Buscar facturas de un período (un día, un mes)
+    @EntityGraph(attributePaths = {"detallesFactura", "pago"})
+    @Query("SELECT f FROM Factura f WHERE f.fecha >= :inicio AND f.fecha < :fin")
+    List<Factura> findFacturasEntre(@Param("inicio") Date inicio, @Param("fin") Date fin);
     
-    // Buscar facturas de un mes específico
-    @Query("SELECT f FROM Factura f WHERE MONTH(f.fecha) = :mes AND YEAR(f.fecha) = :ano")
-    List<Factura> findFacturasPorMes(@Param("mes") int mes, @Param("ano") int ano);
+    // IDs de las facturas con pago de un período, en el orden del índice IX_FACTURA_FECHA
+    @Query("SELECT f.idFactura FROM Factura f WHERE f.fecha >= :inicio AND f.fecha < :fin "
+            + "AND f.idPago IS NOT NULL ORDER BY f.fecha, f.idFactura")
+    List<Integer> findIdsConfirmadasEntre(@Param("inicio") Date inicio, @Param("fin") Date fin);
     
-    // Sumar total de ventas por fecha
-    @Query("SELECT SUM(f.total) FROM Factura f WHERE DATE(f.fecha) = DATE(:fecha)")
-    BigDecimal sumTotalVentasByFecha(@Param("fecha") Date fecha);
+    // Sumar total de ventas de un período
+    @Query("SELECT SUM(f.total) FROM Factura f WHERE f.fecha >= :inicio AND f.fecha < :fin")
+    BigDecimal sumTotalVentasEntre(@Param("inicio") Date inicio, @Param("fin") Date fin);
     
     // Sumar total de ventas entre fechas
     @Query("SELECT SUM(f.total) FROM Factura f WHERE f.fecha BETWEEN :fechaInicio AND :fechaFin")
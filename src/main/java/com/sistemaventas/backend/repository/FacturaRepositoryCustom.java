@@ -0,0 +1,30 @@
+package com.sistemaventas.backend.repository;
+
+import java.util.Date;
+import java.util.List;
+
+import com.sistemaventas.backend.dto.response.VentaResumenResponse;
+
+/**
+ * Consultas del historial de ventas que devuelven proyecciones (DTO) en una
+ * sola consulta, con paginación por cursor sobre (fecha, idFactura), y los
+ * índices sobre FECHA que las sostienen.
+ */
+public interface FacturaRepositoryCustom {
+
+    /**
+     * Ventas con fecha en [desde, hasta), de la más reciente a la más antigua.
+     * Todos los filtros son opcionales (null). El cursor (despuesDeFecha,
+     * despuesDeId) es la última fila de la página anterior; se devuelven como
+     * máximo {@code limite} filas.
+     */
+    List<VentaResumenResponse> buscarResumenes(Date desde, Date hasta, Integer idUsuario,
+                                               Date despuesDeFecha, Integer despuesDeId, int limite);
+
+    /**
+     * Crear los índices de FACTURA sobre la fecha si no existen (ver
+     * db/indices_factura.sql). Se crean sin bloquear las escrituras, por lo
+     * que debe llamarse fuera de una transacción.
+     */
+    void crearIndices();
+}
@@ -0,0 +1,67 @@
+package com.sistemaventas.backend.repository;
+
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import com.sistemaventas.backend.dto.response.VentaResumenResponse;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+public class FacturaRepositoryCustomImpl implements FacturaRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Override
+    public List<VentaResumenResponse> buscarResumenes(Date desde, Date hasta, Integer idUsuario,
+                                                      Date despuesDeFecha, Integer despuesDeId, int limite) {
+        StringBuilder jpql = new StringBuilder(
+                "SELECT new com.sistemaventas.backend.dto.response.VentaResumenResponse("
+                + "f.idFactura, f.fecha, f.total, u.nombre, p.metodoPago, f.devuelta) "
+                + "FROM Factura f JOIN f.usuario u LEFT JOIN f.pago p WHERE 1 = 1");
+        Map<String, Object> parametros = new LinkedHashMap<>();
+
+        if (desde != null) {
+            jpql.append(" AND f.fecha >= :desde");
+            parametros.put("desde", desde);
+        }
+        if (hasta != null) {
+            jpql.append(" AND f.fecha < :hasta");
+            parametros.put("hasta", hasta);
+        }
+        if (idUsuario != null) {
+            jpql.append(" AND u.idUsuario = :idUsuario");
+            parametros.put("idUsuario", idUsuario);
+        }
+        if (despuesDeFecha != null && despuesDeId != null) {
+            // Keyset: continuar justo después de la última fila de la página anterior
+            jpql.append(" AND (f.fecha < :despuesDeFecha OR (f.fecha = :despuesDeFecha AND f.idFactura < :despuesDeId))");
+            parametros.put("despuesDeFecha", despuesDeFecha);
+            parametros.put("despuesDeId", despuesDeId);
+        }
+        jpql.append(" ORDER BY f.fecha DESC, f.idFactura DESC");
+
+        TypedQuery<VentaResumenResponse> query = entityManager.createQuery(jpql.toString(), VentaResumenResponse.class);
+        parametros.forEach(query::setParameter);
+        query.setMaxResults(limite);
+        return query.getResultList();
+    }
+
+    @Override
+    public void crearIndices() {
+        new ResourceDatabasePopulator(new ClassPathResource("db/indices_factura.sql")).execute(dataSource);
+    }
+}
@@ -1,6 +1,7 @@
 package com.sistemaventas.backend.repository;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -8,10 +9,11 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.sistemaventas.backend.cache.ProductoCatalogo;
 import com.sistemaventas.backend.entity.Producto;
 
 @Repository
-public interface ProductoRepository extends JpaRepository<Producto, Integer> {
+public interface ProductoRepository extends JpaRepository<Producto, Integer>, ProductoRepositoryCustom {
     
     // Buscar productos por categoría
     List<Producto> findByCategoria(String categoria);
@@ -22,6 +24,14 @@ public interface ProductoRepository extends JpaRepository<Producto, Integer> {
     // Buscar productos por descripción o categoría (búsqueda general)
     List<Producto> findByDescripcionContainingIgnoreCaseOrCategoriaContainingIgnoreCase(String descripcion, String categoria);
     
+    // Datos de catálogo de todos los productos (sin stock ni relaciones), para índices en memoria
+    @Query("SELECT new com.sistemaventas.backend.cache.ProductoCatalogo(p.idProducto, p.descripcion, p.precioUnitario, p.categoria) FROM Producto p")
+    List<ProductoCatalogo> findCatalogo();
+    
+    // De los IDs indicados, los que ya existen (una sola consulta IN)
+    @Query("SELECT p.idProducto FROM Producto p WHERE p.idProducto IN :ids")
+    List<Integer> findIdsExistentes(@Param("ids") Collection<Integer> ids);
+    
     // Buscar productos con stock disponible (cantidad > 0)
     @Query("SELECT p FROM Producto p WHERE p.cantidadDisponible > 0")
     List<Producto> findProductosConStock();
@@ -0,0 +1,57 @@
+package com.sistemaventas.backend.repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import com.sistemaventas.backend.entity.Producto;
+
+/**
+ * Operaciones de stock y de catálogo que se ejecutan en lote (un solo viaje
+ * a la base de datos por lote), y lecturas por cursor (keyset) que devuelven
+ * las filas como Stream.
+ */
+public interface ProductoRepositoryCustom {
+
+    /**
+     * Suma a cada producto su variación de stock (negativa para descontar) con
+     * un UPDATE relativo y condicional por producto, enviados en un único lote
+     * JDBC. Devuelve las filas afectadas en el mismo orden del mapa: 0 significa
+     * que la variación dejaría el stock negativo (o que el producto ya no existe)
+     * y no se aplicó.
+     */
+    int[] aplicarVariacionesStock(Map<Integer, Integer> variacionesPorProducto);
+
+    /**
+     * Lee el stock actual (directo de la base de datos) de los productos indicados
+     */
+    Map<Integer, Integer> consultarStock(Collection<Integer> idsProductos);
+
+    /**
+     * Insertar productos nuevos (con ID ya asignado) sin consultar antes cada
+     * fila, como hace save() con IDs asignados. Los INSERT salen en lotes
+     * JDBC y los productos quedan fuera de la sesión al terminar.
+     */
+    void insertarProductos(List<Producto> productos);
+
+    /**
+     * Actualizar descripción, precio y categoría de productos existentes con
+     * un UPDATE por producto, enviados en un único lote JDBC. El stock no se
+     * toca (lo mantiene AlmacenStock).
+     */
+    void actualizarCatalogo(List<Producto> productos);
+
+    /**
+     * Productos ordenados por ID a partir del cursor (exclusivo; null = desde el
+     * inicio), como máximo {@code limite} (0 = sin límite). Las filas se leen
+     * de la base de datos por bloques a medida que se consume el Stream, que
+     * debe cerrarse y consumirse dentro de una transacción.
+     */
+    Stream<Producto> streamProductos(Integer despuesDeId, int limite);
+
+    /**
+     * Igual que {@link #streamProductos} pero ordenados por (categoría, ID).
+     */
+    Stream<Producto> streamProductosPorCategoria(String despuesDeCategoria, Integer despuesDeId, int limite);
+}
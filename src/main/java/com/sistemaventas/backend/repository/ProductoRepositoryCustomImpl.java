@@ -0,0 +1,135 @@
+package com.sistemaventas.backend.repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import com.sistemaventas.backend.entity.Producto;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+public class ProductoRepositoryCustomImpl implements ProductoRepositoryCustom {
+
+    // Condicional: la base de datos nunca queda con stock negativo, aunque otra instancia haya vendido lo mismo
+    private static final String SQL_VARIAR_STOCK =
+            "UPDATE PRODUCTO SET CANTIDADDISPONIBLE = COALESCE(CANTIDADDISPONIBLE, 0) + :variacion "
+            + "WHERE IDPRODUCTO = :idProducto AND COALESCE(CANTIDADDISPONIBLE, 0) + :variacion >= 0";
+
+    private static final String SQL_ACTUALIZAR_CATALOGO =
+            "UPDATE PRODUCTO SET DESCRIPCION = :descripcion, PRECIOUNITARIO = :precioUnitario, CATEGORIA = :categoria "
+            + "WHERE IDPRODUCTO = :idProducto";
+
+    private static final String SQL_CONSULTAR_STOCK =
+            "SELECT IDPRODUCTO, CANTIDADDISPONIBLE FROM PRODUCTO WHERE IDPRODUCTO IN (:ids)";
+
+    // Filas que el driver trae por cada viaje al leer un Stream
+    private static final int FILAS_POR_BLOQUE = 500;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public ProductoRepositoryCustomImpl(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public int[] aplicarVariacionesStock(Map<Integer, Integer> variacionesPorProducto) {
+        if (variacionesPorProducto.isEmpty()) {
+            return new int[0];
+        }
+
+        List<MapSqlParameterSource> parametros = new ArrayList<>(variacionesPorProducto.size());
+        variacionesPorProducto.forEach((idProducto, variacion) -> parametros.add(new MapSqlParameterSource()
+                .addValue("idProducto", idProducto)
+                .addValue("variacion", variacion)));
+
+        return jdbcTemplate.batchUpdate(SQL_VARIAR_STOCK, parametros.toArray(MapSqlParameterSource[]::new));
+    }
+
+    @Override
+    public Map<Integer, Integer> consultarStock(Collection<Integer> idsProductos) {
+        Map<Integer, Integer> stock = new HashMap<>();
+        if (idsProductos.isEmpty()) {
+            return stock;
+        }
+        jdbcTemplate.query(SQL_CONSULTAR_STOCK, new MapSqlParameterSource("ids", idsProductos),
+                rs -> {
+                    stock.put(rs.getInt("IDPRODUCTO"), rs.getInt("CANTIDADDISPONIBLE"));
+                });
+        return stock;
+    }
+
+    @Override
+    public void insertarProductos(List<Producto> productos) {
+        if (productos.isEmpty()) {
+            return;
+        }
+        productos.forEach(entityManager::persist);
+        entityManager.flush();
+        // Sin esto la sesión retendría todos los productos importados
+        productos.forEach(entityManager::detach);
+    }
+
+    @Override
+    public void actualizarCatalogo(List<Producto> productos) {
+        if (productos.isEmpty()) {
+            return;
+        }
+
+        MapSqlParameterSource[] parametros = productos.stream()
+                .map(producto -> new MapSqlParameterSource()
+                        .addValue("idProducto", producto.getIdProducto())
+                        .addValue("descripcion", producto.getDescripcion())
+                        .addValue("precioUnitario", producto.getPrecioUnitario())
+                        .addValue("categoria", producto.getCategoria()))
+                .toArray(MapSqlParameterSource[]::new);
+
+        jdbcTemplate.batchUpdate(SQL_ACTUALIZAR_CATALOGO, parametros);
+    }
+
+    @Override
+    public Stream<Producto> streamProductos(Integer despuesDeId, int limite) {
+        String jpql = "SELECT p FROM Producto p"
+                + (despuesDeId != null ? " WHERE p.idProducto > :despuesDeId" : "")
+                + " ORDER BY p.idProducto";
+        TypedQuery<Producto> query = entityManager.createQuery(jpql, Producto.class);
+        if (despuesDeId != null) {
+            query.setParameter("despuesDeId", despuesDeId);
+        }
+        return stream(query, limite);
+    }
+
+    @Override
+    public Stream<Producto> streamProductosPorCategoria(String despuesDeCategoria, Integer despuesDeId, int limite) {
+        boolean conCursor = despuesDeCategoria != null && despuesDeId != null;
+        String jpql = "SELECT p FROM Producto p"
+                + (conCursor ? " WHERE p.categoria > :categoria OR (p.categoria = :categoria AND p.idProducto > :despuesDeId)" : "")
+                + " ORDER BY p.categoria, p.idProducto";
+        TypedQuery<Producto> query = entityManager.createQuery(jpql, Producto.class);
+        if (conCursor) {
+            query.setParameter("categoria", despuesDeCategoria);
+            query.setParameter("despuesDeId", despuesDeId);
+        }
+        return stream(query, limite);
+    }
+
+    private Stream<Producto> stream(TypedQuery<Producto> query, int limite) {
+        if (limite > 0) {
+            query.setMaxResults(limite);
+        }
+        query.setHint(HibernateHints.HINT_FETCH_SIZE, FILAS_POR_BLOQUE);
+        query.setHint(HibernateHints.HINT_READ_ONLY, true);
+        return query.getResultStream();
+    }
+}
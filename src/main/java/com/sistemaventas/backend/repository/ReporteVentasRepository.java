@@ -0,0 +1,71 @@
+package com.sistemaventas.backend.repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.util.Date;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import com.sistemaventas.backend.reporte.LineaVentaReporte;
+
+/**
+ * Lectura en flujo de las líneas de venta para el reporte: un cursor de solo
+ * avance que trae las filas en bloques de sistemaventas.reportes.tamano-lectura,
+ * sin cargar las facturas como entidades ni guardarlas en una lista.
+ *
+ * En PostgreSQL el driver solo lee por bloques dentro de una transacción
+ * (sin autocommit); fuera de ella trae todo el resultado de una vez.
+ */
+@Repository
+public class ReporteVentasRepository {
+
+    // Ordenadas por (fecha, factura), el orden del índice IX_FACTURA_FECHA:
+    // las líneas de cada factura llegan seguidas y no hay que ordenar
+    private static final String SQL_LINEAS =
+            "SELECT f.IDFACTURA, f.FECHA, f.IDUSUARIO, u.NOMBRE, p.METODOPAGO, f.SUBTOTAL, f.IVA, f.TOTAL, "
+            + "f.devuelta, pr.CATEGORIA, d.CANTIDAD, d.SUBTOTAL AS SUBTOTAL_LINEA "
+            + "FROM FACTURA f "
+            + "JOIN PAGO p ON p.IDPAGO = f.IDPAGO "
+            + "JOIN USUARIO u ON u.IDUSUARIO = f.IDUSUARIO "
+            + "JOIN DETALLEFACTURA d ON d.IDFACTURA = f.IDFACTURA "
+            + "JOIN PRODUCTO pr ON pr.IDPRODUCTO = d.IDPRODUCTO "
+            + "WHERE f.FECHA >= ? AND f.FECHA < ? "
+            + "ORDER BY f.FECHA, f.IDFACTURA";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int tamanoLectura;
+
+    public ReporteVentasRepository(JdbcTemplate jdbcTemplate,
+            @Value("${sistemaventas.reportes.tamano-lectura:1000}") int tamanoLectura) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.tamanoLectura = tamanoLectura;
+    }
+
+    // Recorrer las líneas de las ventas confirmadas con fecha en [inicio, fin)
+    public void recorrerLineas(Date inicio, Date fin, Consumer<LineaVentaReporte> consumidor) {
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(SQL_LINEAS, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(tamanoLectura);
+            ps.setTimestamp(1, new Timestamp(inicio.getTime()));
+            ps.setTimestamp(2, new Timestamp(fin.getTime()));
+            return ps;
+        }, (RowCallbackHandler) rs -> consumidor.accept(new LineaVentaReporte(
+                rs.getInt("IDFACTURA"),
+                rs.getTimestamp("FECHA"),
+                rs.getInt("IDUSUARIO"),
+                rs.getString("NOMBRE"),
+                rs.getString("METODOPAGO"),
+                rs.getBigDecimal("SUBTOTAL"),
+                rs.getBigDecimal("IVA"),
+                rs.getBigDecimal("TOTAL"),
+                rs.getBoolean("devuelta"),
+                rs.getString("CATEGORIA"),
+                rs.getInt("CANTIDAD"),
+                rs.getBigDecimal("SUBTOTAL_LINEA"))));
+    }
+}
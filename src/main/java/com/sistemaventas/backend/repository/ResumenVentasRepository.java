@@ -0,0 +1,205 @@
+package com.sistemaventas.backend.repository;
+
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import javax.sql.DataSource;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.stereotype.Repository;
+
+import com.sistemaventas.backend.resumen.FranjaVentas;
+import com.sistemaventas.backend.resumen.ResumenDiaVentas;
+import com.sistemaventas.backend.resumen.TotalesVentas;
+
+/**
+ * Tablas del resumen de ventas (ver db/resumen_ventas.sql). Las variaciones se
+ * suman con INSERT ... ON CONFLICT DO UPDATE, enviados en lotes JDBC, así que
+ * varias ventas del mismo día no necesitan leer la fila antes de actualizarla.
+ */
+@Repository
+public class ResumenVentasRepository {
+
+    private static final String COLUMNAS_TOTALES = "VENTAS, SUBTOTAL, IVA, TOTAL, DEVOLUCIONES, TOTAL_DEVUELTO";
+
+    private static final String SUMAR_TOTALES =
+            "VENTAS = %1$s.VENTAS + EXCLUDED.VENTAS, "
+            + "SUBTOTAL = %1$s.SUBTOTAL + EXCLUDED.SUBTOTAL, "
+            + "IVA = %1$s.IVA + EXCLUDED.IVA, "
+            + "TOTAL = %1$s.TOTAL + EXCLUDED.TOTAL, "
+            + "DEVOLUCIONES = %1$s.DEVOLUCIONES + EXCLUDED.DEVOLUCIONES, "
+            + "TOTAL_DEVUELTO = %1$s.TOTAL_DEVUELTO + EXCLUDED.TOTAL_DEVUELTO";
+
+    private static final String VALORES_TOTALES = ":ventas, :subtotal, :iva, :total, :devoluciones, :totalDevuelto";
+
+    private static final String SQL_ACUMULAR_HORA =
+            "INSERT INTO RESUMEN_VENTAS_HORA (FECHA, HORA, IDUSUARIO, METODOPAGO, " + COLUMNAS_TOTALES + ") "
+            + "VALUES (:fecha, :hora, :idUsuario, :metodoPago, " + VALORES_TOTALES + ") "
+            + "ON CONFLICT (FECHA, HORA, IDUSUARIO, METODOPAGO) DO UPDATE SET "
+            + SUMAR_TOTALES.formatted("RESUMEN_VENTAS_HORA");
+
+    private static final String SQL_ACUMULAR_DIA =
+            "INSERT INTO RESUMEN_VENTAS_DIA (FECHA, " + COLUMNAS_TOTALES + ") "
+            + "VALUES (:fecha, " + VALORES_TOTALES + ") "
+            + "ON CONFLICT (FECHA) DO UPDATE SET "
+            + SUMAR_TOTALES.formatted("RESUMEN_VENTAS_DIA");
+
+    private static final String SQL_DIA =
+            "SELECT " + COLUMNAS_TOTALES + " FROM RESUMEN_VENTAS_DIA WHERE FECHA = :fecha";
+
+    private static final String SQL_DIAS =
+            "SELECT COALESCE(SUM(VENTAS), 0) AS VENTAS, COALESCE(SUM(SUBTOTAL), 0) AS SUBTOTAL, "
+            + "COALESCE(SUM(IVA), 0) AS IVA, COALESCE(SUM(TOTAL), 0) AS TOTAL, "
+            + "COALESCE(SUM(DEVOLUCIONES), 0) AS DEVOLUCIONES, COALESCE(SUM(TOTAL_DEVUELTO), 0) AS TOTAL_DEVUELTO "
+            + "FROM RESUMEN_VENTAS_DIA WHERE FECHA BETWEEN :desde AND :hasta";
+
+    private static final String SQL_FRANJAS =
+            "SELECT HORA, IDUSUARIO, METODOPAGO, " + COLUMNAS_TOTALES + " FROM RESUMEN_VENTAS_HORA "
+            + "WHERE FECHA = :fecha ORDER BY HORA, IDUSUARIO, METODOPAGO";
+
+    // FACTURA.FECHA guarda la hora local del servidor: se pasa a la zona de la
+    // tienda antes de tomar su fecha y su hora
+    private static final String SQL_CARGAR_HORAS =
+            "INSERT INTO RESUMEN_VENTAS_HORA (FECHA, HORA, IDUSUARIO, METODOPAGO, " + COLUMNAS_TOTALES + ") "
+            + "SELECT CAST(v.LOCAL AS DATE), EXTRACT(HOUR FROM v.LOCAL), v.IDUSUARIO, v.METODOPAGO, COUNT(*), "
+            + "COALESCE(SUM(v.SUBTOTAL), 0), COALESCE(SUM(v.IVA), 0), COALESCE(SUM(v.TOTAL), 0), "
+            + "SUM(CASE WHEN v.DEVUELTA THEN 1 ELSE 0 END), "
+            + "COALESCE(SUM(CASE WHEN v.DEVUELTA THEN v.TOTAL ELSE 0 END), 0) "
+            + "FROM (SELECT (f.FECHA AT TIME ZONE :zonaServidor) AT TIME ZONE :zonaTienda AS LOCAL, f.IDUSUARIO, "
+            + "COALESCE(p.METODOPAGO, 'DESCONOCIDO') AS METODOPAGO, f.SUBTOTAL, f.IVA, f.TOTAL, f.devuelta AS DEVUELTA "
+            + "FROM FACTURA f JOIN PAGO p ON p.IDPAGO = f.IDPAGO) v "
+            + "GROUP BY CAST(v.LOCAL AS DATE), EXTRACT(HOUR FROM v.LOCAL), v.IDUSUARIO, v.METODOPAGO";
+
+    private static final String SQL_CARGAR_DIAS =
+            "INSERT INTO RESUMEN_VENTAS_DIA (FECHA, " + COLUMNAS_TOTALES + ") "
+            + "SELECT FECHA, SUM(VENTAS), SUM(SUBTOTAL), SUM(IVA), SUM(TOTAL), SUM(DEVOLUCIONES), SUM(TOTAL_DEVUELTO) "
+            + "FROM RESUMEN_VENTAS_HORA GROUP BY FECHA";
+
+    private static final String SQL_MARCAR_CARGA =
+            "INSERT INTO RESUMEN_VENTAS_CARGA (ID, CARGADO_EN) VALUES (1, CURRENT_TIMESTAMP) ON CONFLICT (ID) DO NOTHING";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final DataSource dataSource;
+
+    public ResumenVentasRepository(NamedParameterJdbcTemplate jdbcTemplate, DataSource dataSource) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dataSource = dataSource;
+    }
+
+    // Crear las tablas si no existen
+    public void crearTablas() {
+        new ResourceDatabasePopulator(new ClassPathResource("db/resumen_ventas.sql")).execute(dataSource);
+    }
+
+    /**
+     * Bloquear las tablas del resumen hasta el fin de la transacción. Las
+     * ventas que intenten sumar esperan, y las que ya sumaron terminan antes
+     * de que se obtenga el bloqueo, así que sus facturas ya están confirmadas.
+     */
+    public void bloquear() {
+        jdbcTemplate.getJdbcTemplate().execute("LOCK TABLE RESUMEN_VENTAS_HORA, RESUMEN_VENTAS_DIA IN EXCLUSIVE MODE");
+    }
+
+    // Indica si el resumen ya se llenó con las facturas existentes
+    public boolean cargaCompleta() {
+        Integer filas = jdbcTemplate.getJdbcTemplate().queryForObject(
+                "SELECT COUNT(*) FROM RESUMEN_VENTAS_CARGA", Integer.class);
+        return filas != null && filas > 0;
+    }
+
+    /**
+     * Rehacer el resumen con las facturas ya registradas, por día y hora de
+     * la tienda, y marcarlo como cargado. Lo que haya en las tablas (ventas
+     * registradas antes de completar la carga) se descarta: esas facturas
+     * también entran en la carga. Debe llamarse con las tablas bloqueadas.
+     */
+    public void cargarDesdeFacturas(ZoneId zonaTienda) {
+        jdbcTemplate.getJdbcTemplate().update("DELETE FROM RESUMEN_VENTAS_HORA");
+        jdbcTemplate.getJdbcTemplate().update("DELETE FROM RESUMEN_VENTAS_DIA");
+        jdbcTemplate.update(SQL_CARGAR_HORAS, new MapSqlParameterSource()
+                .addValue("zonaServidor", nombreZona(ZoneId.systemDefault()))
+                .addValue("zonaTienda", nombreZona(zonaTienda)));
+        jdbcTemplate.getJdbcTemplate().update(SQL_CARGAR_DIAS);
+        jdbcTemplate.getJdbcTemplate().update(SQL_MARCAR_CARGA);
+    }
+
+    /**
+     * Sumar las variaciones por franja a las filas por hora y, agrupadas por
+     * fecha, a las filas por día. Las filas se actualizan en el orden de su
+     * clave para evitar bloqueos cruzados entre transacciones concurrentes.
+     */
+    public void acumular(Map<FranjaVentas, TotalesVentas> variaciones) {
+        if (variaciones.isEmpty()) {
+            return;
+        }
+        SortedMap<FranjaVentas, TotalesVentas> porHora = new TreeMap<>(FranjaVentas.ORDEN);
+        porHora.putAll(variaciones);
+        SortedMap<LocalDate, TotalesVentas> porDia = new TreeMap<>();
+        variaciones.forEach((franja, totales) -> porDia.merge(franja.fecha(), totales, TotalesVentas::sumar));
+
+        jdbcTemplate.batchUpdate(SQL_ACUMULAR_HORA, porHora.entrySet().stream()
+                .map(entry -> parametros(entry.getKey().fecha(), entry.getValue())
+                        .addValue("hora", entry.getKey().hora())
+                        .addValue("idUsuario", entry.getKey().idUsuario())
+                        .addValue("metodoPago", entry.getKey().metodoPago()))
+                .toArray(MapSqlParameterSource[]::new));
+        jdbcTemplate.batchUpdate(SQL_ACUMULAR_DIA, porDia.entrySet().stream()
+                .map(entry -> parametros(entry.getKey(), entry.getValue()))
+                .toArray(MapSqlParameterSource[]::new));
+    }
+
+    // Totales de un día (una sola fila)
+    public Optional<TotalesVentas> buscarDia(LocalDate fecha) {
+        List<TotalesVentas> filas = jdbcTemplate.query(SQL_DIA, new MapSqlParameterSource("fecha", Date.valueOf(fecha)),
+                (rs, i) -> totales(rs));
+        return filas.stream().findFirst();
+    }
+
+    // Totales de varios días [desde, hasta] (una fila por día)
+    public TotalesVentas sumarDias(LocalDate desde, LocalDate hasta) {
+        return jdbcTemplate.queryForObject(SQL_DIAS, new MapSqlParameterSource()
+                .addValue("desde", Date.valueOf(desde))
+                .addValue("hasta", Date.valueOf(hasta)),
+                (rs, i) -> totales(rs));
+    }
+
+    // Detalle por hora, cajero y método de pago de un día
+    public List<ResumenDiaVentas.Franja> buscarFranjas(LocalDate fecha) {
+        return jdbcTemplate.query(SQL_FRANJAS, new MapSqlParameterSource("fecha", Date.valueOf(fecha)),
+                (rs, i) -> new ResumenDiaVentas.Franja(rs.getInt("HORA"), rs.getInt("IDUSUARIO"),
+                        rs.getString("METODOPAGO"), totales(rs)));
+    }
+
+    // Nombre de la zona para AT TIME ZONE (PostgreSQL no reconoce "Z")
+    private static String nombreZona(ZoneId zona) {
+        return zona.normalized().equals(ZoneOffset.UTC) ? "UTC" : zona.getId();
+    }
+
+    private static MapSqlParameterSource parametros(LocalDate fecha, TotalesVentas totales) {
+        return new MapSqlParameterSource()
+                .addValue("fecha", Date.valueOf(fecha))
+                .addValue("ventas", totales.ventas())
+                .addValue("subtotal", totales.subtotal())
+                .addValue("iva", totales.iva())
+                .addValue("total", totales.total())
+                .addValue("devoluciones", totales.devoluciones())
+                .addValue("totalDevuelto", totales.totalDevuelto());
+    }
+
+    private static TotalesVentas totales(ResultSet rs) throws SQLException {
+        return new TotalesVentas(rs.getInt("VENTAS"), rs.getBigDecimal("SUBTOTAL"), rs.getBigDecimal("IVA"),
+                rs.getBigDecimal("TOTAL"), rs.getInt("DEVOLUCIONES"), rs.getBigDecimal("TOTAL_DEVUELTO"));
+    }
+}
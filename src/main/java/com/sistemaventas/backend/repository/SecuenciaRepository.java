@@ -0,0 +1,109 @@
+package com.sistemaventas.backend.repository;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.sistemaventas.backend.id.BloqueIds;
+import com.sistemaventas.backend.id.FuenteBloques;
+import com.sistemaventas.backend.id.Secuencia;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Acceso a las secuencias de PostgreSQL que respaldan al generador de IDs.
+ *
+ * Las secuencias que no existan se crean al arrancar, empezando en
+ * MAX(id) + 1 para respetar los datos existentes. La creación va en su propia
+ * transacción: nunca dentro de la de una venta, donde un fallo del DDL
+ * abortaría la venta y un rollback desharía la secuencia. El tamaño real del
+ * bloque se lee de la propia secuencia (INCREMENT BY), así que cambiar la
+ * propiedad {@code sistemaventas.ids.tamano-bloque} no puede producir rangos
+ * solapados.
+ */
+@Repository
+@Slf4j
+public class SecuenciaRepository implements FuenteBloques {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transaccionPropia;
+    private final int tamanoBloque;
+    // Solo secuencias que ya existen en la base de datos (creación confirmada)
+    private final Map<Secuencia, Integer> incrementos = new ConcurrentHashMap<>();
+
+    public SecuenciaRepository(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                               @Value("${sistemaventas.ids.tamano-bloque:50}") int tamanoBloque) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transaccionPropia = new TransactionTemplate(transactionManager);
+        this.transaccionPropia.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.tamanoBloque = tamanoBloque;
+    }
+
+    // Crear al arrancar las secuencias que falten
+    @EventListener(ApplicationReadyEvent.class)
+    public void crearSecuencias() {
+        for (Secuencia secuencia : Secuencia.values()) {
+            try {
+                incremento(secuencia);
+            } catch (RuntimeException e) {
+                // Se reintentará con el primer ID que se pida
+                log.warn("No se pudo preparar la secuencia {}: {}", secuencia.getNombre(), e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public BloqueIds siguienteBloque(Secuencia secuencia) {
+        int incremento = incremento(secuencia);
+        Long inicio = jdbcTemplate.queryForObject("SELECT nextval('" + secuencia.getNombre() + "')", Long.class);
+        return new BloqueIds(inicio, incremento);
+    }
+
+    // setval no es transaccional: la secuencia queda movida aunque la importación se revierta
+    @Override
+    public void avanzarHasta(Secuencia secuencia, long id) {
+        incremento(secuencia);
+        jdbcTemplate.queryForObject("SELECT setval('" + secuencia.getNombre() + "', GREATEST(last_value, ?)) FROM "
+                + secuencia.getNombre(), Long.class, id);
+    }
+
+    // INCREMENT BY de la secuencia, creándola si hace falta; solo se guarda si la secuencia existe
+    private int incremento(Secuencia secuencia) {
+        Integer incremento = incrementos.get(secuencia);
+        if (incremento == null) {
+            incremento = transaccionPropia.execute(status -> asegurarSecuencia(secuencia));
+            incrementos.put(secuencia, incremento);
+        }
+        return incremento;
+    }
+
+    // Crea la secuencia si no existe y devuelve su INCREMENT BY (se ejecuta en su propia transacción)
+    private int asegurarSecuencia(Secuencia secuencia) {
+        Integer incremento = leerIncremento(secuencia);
+        if (incremento == null) {
+            Long maxActual = jdbcTemplate.queryForObject(
+                    "SELECT COALESCE(MAX(" + secuencia.getColumnaId() + "), 0) FROM " + secuencia.getTabla(), Long.class);
+            jdbcTemplate.execute("CREATE SEQUENCE IF NOT EXISTS " + secuencia.getNombre()
+                    + " START WITH " + (maxActual + 1) + " INCREMENT BY " + tamanoBloque);
+            incremento = leerIncremento(secuencia);
+            if (incremento == null) {
+                throw new IllegalStateException("La secuencia " + secuencia.getNombre() + " no existe tras crearla");
+            }
+        }
+        log.info("Secuencia {} lista (bloques de {} IDs)", secuencia.getNombre(), incremento);
+        return incremento;
+    }
+
+    private Integer leerIncremento(Secuencia secuencia) {
+        return jdbcTemplate.query("SELECT increment_by FROM pg_sequences WHERE sequencename = ?",
+                rs -> rs.next() ? rs.getInt(1) : null, secuencia.getNombre());
+    }
+}
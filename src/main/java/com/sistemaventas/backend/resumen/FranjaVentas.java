@@ -0,0 +1,18 @@
+package com.sistemaventas.backend.resumen;
+
+import java.time.LocalDate;
+import java.util.Comparator;
+
+/**
+ * Una hora de un día de la tienda, para un cajero y un método de pago:
+ * la unidad más fina del resumen de ventas.
+ */
+public record FranjaVentas(LocalDate fecha, int hora, Integer idUsuario, String metodoPago) {
+
+    // Orden de la clave primaria: las filas se actualizan siempre en este orden
+    // para que dos transacciones no se bloqueen mutuamente
+    public static final Comparator<FranjaVentas> ORDEN = Comparator.comparing(FranjaVentas::fecha)
+            .thenComparingInt(FranjaVentas::hora)
+            .thenComparing(FranjaVentas::idUsuario)
+            .thenComparing(FranjaVentas::metodoPago);
+}
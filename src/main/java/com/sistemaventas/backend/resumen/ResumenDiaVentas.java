@@ -0,0 +1,14 @@
+package com.sistemaventas.backend.resumen;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Resumen de un día de la tienda: los totales del día y el detalle por hora,
+ * cajero y método de pago.
+ */
+public record ResumenDiaVentas(LocalDate fecha, TotalesVentas totales, List<Franja> franjas) {
+
+    public record Franja(int hora, Integer idUsuario, String metodoPago, TotalesVentas totales) {
+    }
+}
@@ -0,0 +1,43 @@
+package com.sistemaventas.backend.resumen;
+
+import java.math.BigDecimal;
+import java.util.Objects;
+
+import com.sistemaventas.backend.entity.Factura;
+
+/**
+ * Totales de ventas de un día o de una franja del día: ventas confirmadas y
+ * sus importes, y devoluciones de esas ventas. Es inmutable; también se usa
+ * como variación a sumar al resumen.
+ */
+public record TotalesVentas(int ventas, BigDecimal subtotal, BigDecimal iva, BigDecimal total,
+        int devoluciones, BigDecimal totalDevuelto) {
+
+    public static final TotalesVentas VACIO = new TotalesVentas(0, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO,
+            0, BigDecimal.ZERO);
+
+    // Una venta confirmada
+    public static TotalesVentas deVenta(Factura factura) {
+        return new TotalesVentas(1, importe(factura.getSubtotal()), importe(factura.getIva()), importe(factura.getTotal()),
+                0, BigDecimal.ZERO);
+    }
+
+    // La devolución completa de una venta
+    public static TotalesVentas deDevolucion(Factura factura) {
+        return new TotalesVentas(0, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO, 1, importe(factura.getTotal()));
+    }
+
+    public TotalesVentas sumar(TotalesVentas otros) {
+        return new TotalesVentas(ventas + otros.ventas, subtotal.add(otros.subtotal), iva.add(otros.iva),
+                total.add(otros.total), devoluciones + otros.devoluciones, totalDevuelto.add(otros.totalDevuelto));
+    }
+
+    // Lo vendido menos lo devuelto
+    public BigDecimal totalNeto() {
+        return total.subtract(totalDevuelto);
+    }
+
+    private static BigDecimal importe(BigDecimal valor) {
+        return Objects.requireNonNullElse(valor, BigDecimal.ZERO);
+    }
+}
@@ -1,7 +1,9 @@
 package com.sistemaventas.backend.service;
 
 import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -21,10 +23,11 @@ import com.sistemaventas.backend.entity.Devolucion;
 import com.sistemaventas.backend.entity.Factura;
 import com.sistemaventas.backend.entity.Producto;
 import com.sistemaventas.backend.exception.ResourceNotFoundException;
-import com.sistemaventas.backend.repository.DetalleFacturaRepository;
+import com.sistemaventas.backend.observer.CambioStock;
+import com.sistemaventas.backend.observer.InventarioNotificationService;
 import com.sistemaventas.backend.repository.DevolucionRepository;
 import com.sistemaventas.backend.repository.FacturaRepository;
-import com.sistemaventas.backend.repository.ProductoRepository;
+import com.sistemaventas.backend.stock.AlmacenStock;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -40,10 +43,16 @@ public class DevolucionService {
     private FacturaRepository facturaRepository;
 
     @Autowired
-    private DetalleFacturaRepository detalleFacturaRepository;
+    private InventarioNotificationService notificationService;
 
     @Autowired
-    private ProductoRepository productoRepository;
+    private AlmacenStock almacenStock;
+
+    @Autowired
+    private ResumenVentasService resumenVentasService;
+
+    @Autowired
+    private PdfFacturasService pdfFacturasService;
 
     @Value("${mercadopago.access.token}")
     private String mercadoPagoAccessToken;
@@ -53,15 +62,17 @@ public class DevolucionService {
      * 1. Valida la factura
      * 2. Procesa el reembolso en Mercado Pago
      * 3. Restaura el inventario
-     * 4. Marca la factura como devuelta
+     * 4. Marca la factura como devuelta e invalida su PDF
      * 5. Registra la devolución
+     * 6. Actualiza el resumen de ventas
      */
     @Transactional
     public DevolucionDTO procesarDevolucion(DevolucionRequestDTO request) {
         log.info("Iniciando proceso de devolución para factura ID: {}", request.getIdFactura());
 
         // 1. Validar factura
-        Factura factura = facturaRepository.findById(request.getIdFactura())
+        // Con sus líneas y productos: restaurar el inventario no vuelve a consultarlos
+        Factura factura = facturaRepository.findConDetallesYProductosById(request.getIdFactura())
                 .orElseThrow(() -> new ResourceNotFoundException(
                         "Factura no encontrada con ID: " + request.getIdFactura()));
 
@@ -91,6 +102,7 @@ public class DevolucionService {
         // 4. Marcar factura como devuelta
         factura.setDevuelta(true);
         facturaRepository.save(factura);
+        pdfFacturasService.invalidar(factura.getIdFactura());
 
         // 5. Registrar la devolución
         Devolucion devolucion = Devolucion.builder()
@@ -106,6 +118,9 @@ public class DevolucionService {
 
         devolucion = devolucionRepository.save(devolucion);
 
+        // 6. Sumar la devolución al resumen del día de la venta (último paso de la transacción)
+        resumenVentasService.registrarDevolucion(factura);
+
         log.info("Devolución procesada exitosamente. ID: {}, RefundID: {}", 
                 devolucion.getIdDevolucion(), refundId);
 
@@ -144,24 +159,45 @@ public class DevolucionService {
     }
 
     /**
-     * Restaura el inventario de los productos de la factura
+     * Restaura el inventario de los productos de la factura sumando en los
+     * contadores de AlmacenStock (se deshace si la devolución se revierte).
+     * La tabla PRODUCTO recibe la suma en la siguiente escritura en lote.
      */
     private void restaurarInventario(Factura factura) {
         log.info("Restaurando inventario para factura ID: {}", factura.getIdFactura());
 
-        List<DetalleFactura> detalles = detalleFacturaRepository.findByFactura_IdFactura(factura.getIdFactura());
+        List<DetalleFactura> detalles = factura.getDetallesFactura();
+
+        // Cantidad devuelta por producto (un producto puede venir en varias líneas)
+        Map<Integer, Integer> devueltoPorProducto = new LinkedHashMap<>();
+        Map<Integer, Producto> productos = new LinkedHashMap<>();
 
         for (DetalleFactura detalle : detalles) {
-            Producto producto = detalle.getProducto();
-            int cantidadAnterior = producto.getCantidadDisponible();
-            int nuevaCantidad = cantidadAnterior + detalle.getCantidad();
+            Integer idProducto = detalle.getProducto().getIdProducto();
+
+            log.info("Restaurando producto ID: {} - Devolver: {}", idProducto, detalle.getCantidad());
 
-            log.info("Restaurando producto ID: {} - Cantidad anterior: {}, Devolver: {}, Nueva cantidad: {}",
-                    producto.getIdProducto(), cantidadAnterior, detalle.getCantidad(), nuevaCantidad);
+            devueltoPorProducto.merge(idProducto, detalle.getCantidad(), Integer::sum);
+            productos.putIfAbsent(idProducto, detalle.getProducto());
+        }
 
-            producto.setCantidadDisponible(nuevaCantidad);
-            productoRepository.save(producto);
+        Map<Integer, Integer> stockPrevio = almacenStock.disponibles(devueltoPorProducto.keySet());
+        for (Integer idProducto : devueltoPorProducto.keySet()) {
+            if (!stockPrevio.containsKey(idProducto)) {
+                throw new ResourceNotFoundException("Producto no encontrado con ID: " + idProducto);
+            }
         }
+        // Se deshace solo si la devolución se revierte
+        Map<Integer, Integer> stockActual = almacenStock.sumar(devueltoPorProducto);
+
+        // Notificar a los observadores con un solo lote para toda la devolución
+        List<CambioStock> cambios = devueltoPorProducto.entrySet().stream()
+                .map(entry -> {
+                    int nuevoStock = stockActual.get(entry.getKey());
+                    return CambioStock.de(productos.get(entry.getKey()), nuevoStock - entry.getValue(), nuevoStock);
+                })
+                .toList();
+        notificationService.notificarCambiosStock(cambios);
 
         log.info("Inventario restaurado exitosamente para {} productos", detalles.size());
     }
@@ -1,6 +1,6 @@
 package com.sistemaventas.backend.service;
 
-import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
@@ -8,9 +8,12 @@ import java.time.format.DateTimeFormatter;
 import org.springframework.stereotype.Service;
 
 import com.itextpdf.kernel.colors.ColorConstants;
+import com.itextpdf.kernel.geom.PageSize;
 import com.itextpdf.kernel.pdf.PdfDocument;
 import com.itextpdf.kernel.pdf.PdfWriter;
 import com.itextpdf.layout.Document;
+import com.itextpdf.layout.Style;
+import com.itextpdf.layout.borders.Border;
 import com.itextpdf.layout.element.Cell;
 import com.itextpdf.layout.element.Paragraph;
 import com.itextpdf.layout.element.Table;
@@ -22,15 +25,39 @@ import com.sistemaventas.backend.entity.Factura;
 @Service
 public class FacturaPdfService {
 
+    // Líneas de producto que se maquetan y escriben juntas; acota la memoria de facturas largas
+    private static final int LINEAS_POR_BLOQUE = 50;
+    
+    private static final DateTimeFormatter FORMATO_FECHA = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
+    
+    // Estilos de celda compartidos por todas las facturas (y por los hilos que las
+    // generan en paralelo): solo se leen al maquetar. Las celdas y fuentes no se
+    // pueden compartir porque pertenecen a su documento.
+    private static final Style ESTILO_INFO = new Style()
+        .setBorder(Border.NO_BORDER)
+        .setPadding(5);
+    private static final Style ESTILO_ENCABEZADO = new Style()
+        .setBackgroundColor(ColorConstants.DARK_GRAY)
+        .setTextAlignment(TextAlignment.CENTER)
+        .setPadding(8);
+    private static final Style ESTILO_DATO = new Style()
+        .setTextAlignment(TextAlignment.CENTER)
+        .setPadding(5);
+    private static final Style ESTILO_TOTAL = new Style()
+        .setTextAlignment(TextAlignment.RIGHT)
+        .setBorder(Border.NO_BORDER)
+        .setPadding(3);
+    
     /**
-     * Genera un PDF de la factura con todos los detalles
+     * Escribe el PDF de la factura con todos los detalles en el flujo de
+     * salida (que queda cerrado al terminar el documento). El PdfWriter
+     * escribe directamente en ese flujo, sin armar el PDF en un byte[].
      */
-    public byte[] generarFacturaPdf(Factura factura) {
+    public void escribirFacturaPdf(Factura factura, OutputStream salida) {
         try {
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            PdfWriter writer = new PdfWriter(baos);
+            PdfWriter writer = new PdfWriter(salida);
             PdfDocument pdf = new PdfDocument(writer);
-            Document document = new Document(pdf);
+            Document document = new Document(pdf, PageSize.A4);
             
             // Título principal
             Paragraph titulo = new Paragraph("FACTURA DE VENTA")
@@ -40,6 +67,15 @@ public class FacturaPdfService {
                 .setMarginBottom(20);
             document.add(titulo);
             
+            if (Boolean.TRUE.equals(factura.getDevuelta())) {
+                document.add(new Paragraph("FACTURA DEVUELTA")
+                    .setFontSize(14)
+                    .setBold()
+                    .setFontColor(ColorConstants.RED)
+                    .setTextAlignment(TextAlignment.CENTER)
+                    .setMarginBottom(10));
+            }
+            
             // Información de la empresa
             document.add(new Paragraph("Sistema POS - Tienda")
                 .setFontSize(14)
@@ -78,8 +114,9 @@ public class FacturaPdfService {
             document.add(infoTable);
             document.add(new Paragraph(" ").setMarginBottom(10)); // Espacio
             
-            // Tabla de productos
-            Table productTable = new Table(UnitValue.createPercentArray(new float[]{4, 1, 2, 2}))
+            // Tabla de productos (tabla grande: se agrega al documento antes de
+            // llenarla y se vacía por bloques en lugar de guardar todas sus celdas)
+            Table productTable = new Table(UnitValue.createPercentArray(new float[]{4, 1, 2, 2}), true)
                 .useAllAvailableWidth();
             
             // Encabezados
@@ -87,16 +124,20 @@ public class FacturaPdfService {
             productTable.addHeaderCell(createHeaderCell("Cant."));
             productTable.addHeaderCell(createHeaderCell("Precio Unit."));
             productTable.addHeaderCell(createHeaderCell("Subtotal"));
+            document.add(productTable);
             
             // Detalles de productos
+            int lineas = 0;
             for (DetalleFactura detalle : factura.getDetallesFactura()) {
                 productTable.addCell(createDataCell(detalle.getProducto().getDescripcion()));
                 productTable.addCell(createDataCell(String.valueOf(detalle.getCantidad())));
                 productTable.addCell(createDataCell(formatCurrency(detalle.getPrecioUnitario())));
                 productTable.addCell(createDataCell(formatCurrency(detalle.getSubtotal())));
+                if (++lineas % LINEAS_POR_BLOQUE == 0) {
+                    productTable.flush();
+                }
             }
-            
-            document.add(productTable);
+            productTable.complete();
             document.add(new Paragraph(" ").setMarginBottom(10)); // Espacio
             
             // Totales
@@ -133,15 +174,13 @@ public class FacturaPdfService {
                 .setBold()
                 .setTextAlignment(TextAlignment.CENTER));
             
-            document.add(new Paragraph("Generado el: " + LocalDateTime.now().format(DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm")))
+            document.add(new Paragraph("Generado el: " + LocalDateTime.now().format(FORMATO_FECHA))
                 .setFontSize(8)
                 .setTextAlignment(TextAlignment.CENTER)
                 .setMarginTop(10));
             
             document.close();
             
-            return baos.toByteArray();
-            
         } catch (Exception e) {
             throw new RuntimeException("Error generando PDF de factura: " + e.getMessage(), e);
         }
@@ -151,44 +190,36 @@ public class FacturaPdfService {
         return new Cell()
             .add(new Paragraph(label).setBold().setFontSize(10))
             .add(new Paragraph(value).setFontSize(10))
-            .setBorder(null)
-            .setPadding(5);
+            .addStyle(ESTILO_INFO);
     }
     
     private Cell createHeaderCell(String text) {
         return new Cell()
             .add(new Paragraph(text).setBold().setFontColor(ColorConstants.WHITE))
-            .setBackgroundColor(ColorConstants.DARK_GRAY)
-            .setTextAlignment(TextAlignment.CENTER)
-            .setPadding(8);
+            .addStyle(ESTILO_ENCABEZADO);
     }
     
     private Cell createDataCell(String text) {
         return new Cell()
             .add(new Paragraph(text).setFontSize(10))
-            .setTextAlignment(TextAlignment.CENTER)
-            .setPadding(5);
+            .addStyle(ESTILO_DATO);
     }
     
     private Cell createTotalLabelCell(String text) {
         return new Cell()
             .add(new Paragraph(text).setBold().setFontSize(11))
-            .setTextAlignment(TextAlignment.RIGHT)
-            .setBorder(null)
-            .setPadding(3);
+            .addStyle(ESTILO_TOTAL);
     }
     
     private Cell createTotalValueCell(String text) {
         return new Cell()
             .add(new Paragraph(text).setFontSize(11))
-            .setTextAlignment(TextAlignment.RIGHT)
-            .setBorder(null)
-            .setPadding(3);
+            .addStyle(ESTILO_TOTAL);
     }
     
     private String formatDate(Object date) {
         if (date == null) return "N/A";
-        return LocalDateTime.now().format(DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm"));
+        return LocalDateTime.now().format(FORMATO_FECHA);
     }
     
     private String formatCurrency(BigDecimal amount) {
@@ -1,20 +1,39 @@
 package com.sistemaventas.backend.service;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Base64;
+import java.util.Collection;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.sistemaventas.backend.config.CalendarioTienda;
+import com.sistemaventas.backend.dto.response.PaginaVentasResponse;
+import com.sistemaventas.backend.dto.response.VentaResumenResponse;
 import com.sistemaventas.backend.entity.DetalleFactura;
 import com.sistemaventas.backend.entity.Factura;
+import com.sistemaventas.backend.id.GeneradorIds;
+import com.sistemaventas.backend.id.Secuencia;
 import com.sistemaventas.backend.repository.FacturaRepository;
 
+import lombok.extern.slf4j.Slf4j;
+
 @Service
 @Transactional
+@Slf4j
 @SuppressWarnings("null")
 public class FacturaService {
     /**
@@ -26,37 +45,31 @@ public class FacturaService {
     @Autowired
     private FacturaRepository facturaRepository;
     
+    @Autowired
+    private GeneradorIds generadorIds;
+    
+    @Autowired
+    private ResumenVentasService resumenVentasService;
+    
+    @Autowired
+    private CalendarioTienda calendarioTienda;
+    
+    // Crear al arrancar los índices sobre la fecha que usan las consultas por período.
+    // Fuera de transacción: el índice se crea sin bloquear las ventas (CONCURRENTLY)
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void crearIndices() {
+        try {
+            facturaRepository.crearIndices();
+        } catch (RuntimeException e) {
+            log.warn("No se pudieron crear los índices de facturas: {}", e.getMessage());
+        }
+    }
+    
     // Guardar factura completa con detalles
     public Factura guardarFactura(Factura factura) {
         try {
-            // Generar ID si no existe
-            if (factura.getIdFactura() == null) {
-                factura.setIdFactura(generarIdFactura());
-            }
-            
-            // Asegurar que la fecha esté establecida
-            if (factura.getFecha() == null) {
-                factura.setFecha(new Date());
-            }
-            
-            // Generar IDs para los detalles si no existen
-            if (factura.getDetallesFactura() != null) {
-                int contadorDetalle = 1;
-                for (DetalleFactura detalle : factura.getDetallesFactura()) {
-                    if (detalle.getIdDetalle() == null) {
-                        detalle.setIdDetalle(generarIdDetalle() + contadorDetalle);
-                        contadorDetalle++;
-                    }
-                    detalle.setFactura(factura); // Asegurar relación bidireccional
-                }
-            }
-            
-            // Calcular totales antes de guardar
-            factura.calcularTotales();
-
-            // Validar factura antes de guardar
-            validarFactura(factura);
-            
+            prepararFactura(factura);
             return facturaRepository.save(factura);
             
         } catch (Exception e) {
@@ -64,9 +77,82 @@ public class FacturaService {
         }
     }
     
+    // Guardar varias facturas nuevas en la misma transacción: los INSERT de
+    // facturas y de detalles salen en lotes JDBC en lugar de uno por fila
+    public List<Factura> guardarFacturas(List<Factura> facturas) {
+        try {
+            facturas.forEach(this::prepararFactura);
+            return facturaRepository.saveAll(facturas);
+            
+        } catch (Exception e) {
+            throw new RuntimeException("Error al guardar facturas: " + e.getMessage());
+        }
+    }
+    
+    // IDs, fecha y totales de una factura antes de guardarla
+    private void prepararFactura(Factura factura) {
+        // Generar ID si no existe
+        if (factura.getIdFactura() == null) {
+            factura.setIdFactura(generarIdFactura());
+        }
+        
+        // Asegurar que la fecha esté establecida
+        if (factura.getFecha() == null) {
+            factura.setFecha(new Date());
+        }
+        
+        // Generar IDs para los detalles si no existen (un solo bloque reservado por factura)
+        if (factura.getDetallesFactura() != null) {
+            asignarIdsDetalles(factura);
+        }
+        
+        // Calcular totales antes de guardar
+        factura.calcularTotales();
+
+        // Validar factura antes de guardar
+        validarFactura(factura);
+    }
+    
+    /**
+     * Historial de ventas paginado por cursor, de la más reciente a la más
+     * antigua, filtrado por rango de fechas [desde, hasta] (días completos)
+     * y opcionalmente por usuario. Cada página es una sola consulta que trae
+     * solo las columnas del resumen; su costo depende del tamaño de página y
+     * no de cuántas facturas hay.
+     */
+    @Transactional(readOnly = true)
+    public PaginaVentasResponse listarHistorial(LocalDate desde, LocalDate hasta, Integer idUsuario,
+                                                String cursor, int tamano) {
+        Date inicio = desde != null ? calendarioTienda.inicioDe(desde) : null;
+        Date fin = hasta != null ? calendarioTienda.inicioDe(hasta.plusDays(1)) : null;
+
+        Date despuesDeFecha = null;
+        Integer despuesDeId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            try {
+                String[] partes = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":");
+                despuesDeFecha = new Date(Long.parseLong(partes[0]));
+                despuesDeId = Integer.valueOf(partes[1]);
+            } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+                throw new IllegalArgumentException("Cursor inválido: " + cursor);
+            }
+        }
+
+        // Una fila de más para saber si hay otra página
+        List<VentaResumenResponse> ventas = facturaRepository.buscarResumenes(
+                inicio, fin, idUsuario, despuesDeFecha, despuesDeId, tamano + 1);
+        if (ventas.size() <= tamano) {
+            return new PaginaVentasResponse(ventas, null);
+        }
+        VentaResumenResponse ultima = ventas.get(tamano - 1);
+        String siguienteCursor = Base64.getUrlEncoder().withoutPadding().encodeToString(
+                (ultima.getFecha().getTime() + ":" + ultima.getIdFactura()).getBytes(StandardCharsets.UTF_8));
+        return new PaginaVentasResponse(ventas.subList(0, tamano), siguienteCursor);
+    }
+    
     // Obtener todas las facturas
     public List<Factura> obtenerTodasLasFacturas() {
-        return facturaRepository.findAll();
+        return facturaRepository.findAllConDetalles();
     }
     
     // Buscar factura por ID
@@ -74,17 +160,43 @@ public class FacturaService {
         return facturaRepository.findById(id);
     }
     
+    // Buscar factura por ID junto con sus líneas, en una sola consulta
+    public Optional<Factura> buscarConDetalles(Integer id) {
+        return facturaRepository.findConDetallesById(id);
+    }
+    
+    // Facturas ya registradas para esas ventas de caja (importación), por ID de venta en la caja
+    public Map<String, VentaDeCaja> buscarVentasDeCaja(Collection<String> idsVentaCaja) {
+        Map<String, VentaDeCaja> ventas = new HashMap<>();
+        if (idsVentaCaja.isEmpty()) {
+            return ventas;
+        }
+        for (Object[] fila : facturaRepository.findVentasDeCaja(idsVentaCaja)) {
+            ventas.put((String) fila[0], new VentaDeCaja((Integer) fila[1], (BigDecimal) fila[2]));
+        }
+        return ventas;
+    }
+    
+    // Factura con la que quedó registrada una venta de caja
+    public record VentaDeCaja(Integer idFactura, BigDecimal total) {
+    }
+    
+    // Referencia a una factura existente sin consultarla (para asociaciones)
+    public Factura obtenerReferencia(Integer id) {
+        return facturaRepository.getReferenceById(id);
+    }
+    
+    // Registrar el pago de una factura pendiente con un UPDATE puntual
+    public void asignarPago(Integer idFactura, Integer idPago) {
+        if (facturaRepository.asignarPago(idFactura, idPago) == 0) {
+            throw new RuntimeException("Factura no encontrada con ID: " + idFactura);
+        }
+    }
+    
     // Obtener factura completa con detalles para PDF
     public Factura obtenerFacturaCompleta(Long id) {
-        Optional<Factura> facturaOpt = facturaRepository.findById(id.intValue());
-        if (facturaOpt.isPresent()) {
-            Factura factura = facturaOpt.get();
-            // Las relaciones deberían cargarse automáticamente por JPA
-            // Si no, podrías forzar la carga con:
-            // Hibernate.initialize(factura.getDetallesFactura());
-            return factura;
-        }
-        return null;
+        // Líneas, productos, usuario y pago en una sola consulta (lo que recorre el PDF)
+        return facturaRepository.findCompletaById(id.intValue()).orElse(null);
     }
     
     // Buscar facturas por usuario
@@ -116,59 +228,51 @@ public class FacturaService {
         return false;
     }
     
-    // Obtener total de ventas del día
+    // Obtener total de ventas del día (una fila del resumen de ventas)
     public BigDecimal obtenerTotalVentasDelDia(Date fecha) {
-        return facturaRepository.sumTotalVentasByFecha(fecha);
+        return resumenVentasService.totalesDelDia(calendarioTienda.diaDe(fecha)).total();
     }
     
-    // Obtener facturas de hoy
+    // Obtener facturas de hoy (día de la tienda)
     public List<Factura> obtenerFacturasDeHoy() {
-        Date hoy = new Date();
-        return facturaRepository.findFacturasDeHoy(hoy);
+        LocalDate hoy = calendarioTienda.hoy();
+        return facturaRepository.findFacturasEntre(calendarioTienda.inicioDe(hoy), calendarioTienda.inicioDe(hoy.plusDays(1)));
     }
     
-    // Generar reporte de ventas
-    @SuppressWarnings("deprecation")
-    public void generarReporteVentas(Date fechaInicio, Date fechaFin) {
-        System.out.println("=== REPORTE DE VENTAS ===");
-        System.out.println("Período: " + fechaInicio + " a " + fechaFin);
-        
-        List<Factura> facturas = buscarEntreFechas(fechaInicio, fechaFin);
-        
-        BigDecimal totalVentas = facturas.stream()
-                .map(Factura::getTotal)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        
-        BigDecimal totalIVA = facturas.stream()
-                .map(Factura::getIva)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        
-        System.out.println("Número de facturas: " + facturas.size());
-        System.out.println("Total ventas: $" + totalVentas);
-        System.out.println("Total IVA: $" + totalIVA);
-        System.out.println("Promedio por factura: $" + 
-                (!facturas.isEmpty() ? totalVentas.divide(new BigDecimal(facturas.size()), 2, BigDecimal.ROUND_HALF_UP) : BigDecimal.ZERO));
-        
-        System.out.println("=== FIN REPORTE ===");
+    // Obtener facturas de un mes (días de la tienda)
+    public List<Factura> obtenerFacturasDelMes(YearMonth mes) {
+        return facturaRepository.findFacturasEntre(calendarioTienda.inicioDe(mes.atDay(1)),
+                calendarioTienda.inicioDe(mes.plusMonths(1).atDay(1)));
     }
     
-    // Generar nuevo ID de factura
-    private Integer generarIdFactura() {
-        List<Factura> facturas = facturaRepository.findAll();
-        if (facturas.isEmpty()) {
-            return 1;
+    // IDs de las facturas pagadas de los días [desde, hasta]
+    public List<Integer> obtenerIdsFacturasConfirmadas(LocalDate desde, LocalDate hasta) {
+        if (desde.isAfter(hasta)) {
+            throw new IllegalArgumentException("La fecha 'desde' no puede ser posterior a 'hasta'");
         }
-        return facturas.stream()
-                .mapToInt(Factura::getIdFactura)
-                .max()
-                .orElse(0) + 1;
+        return facturaRepository.findIdsConfirmadasEntre(calendarioTienda.inicioDe(desde),
+                calendarioTienda.inicioDe(hasta.plusDays(1)));
+    }
+    
+    // Generar nuevo ID de factura (secuencia con bloques en memoria, sin recorrer la tabla)
+    private Integer generarIdFactura() {
+        return generadorIds.siguienteId(Secuencia.FACTURA);
     }
     
-    // Generar nuevo ID de detalle (base)
-    private Integer generarIdDetalle() {
-        // En una implementación real, esto debería consultar la tabla DETALLEFACTURA
-        // Por ahora, usar un número base y agregar contador
-        return (int) (System.currentTimeMillis() % 10000);
+    // Asignar IDs a los detalles nuevos reservándolos todos de una vez.
+    // Los IDs salen de la secuencia de DETALLEFACTURA, por lo que dos facturas
+    // guardadas en paralelo nunca comparten un ID de detalle.
+    private void asignarIdsDetalles(Factura factura) {
+        List<DetalleFactura> sinId = factura.getDetallesFactura().stream()
+                .filter(detalle -> detalle.getIdDetalle() == null)
+                .toList();
+        Iterator<Integer> ids = generadorIds.reservarIds(Secuencia.DETALLE_FACTURA, sinId.size()).iterator();
+        for (DetalleFactura detalle : sinId) {
+            detalle.setIdDetalle(ids.next());
+        }
+        for (DetalleFactura detalle : factura.getDetallesFactura()) {
+            detalle.setFactura(factura); // Asegurar relación bidireccional
+        }
     }
     
     // Validar factura antes de guardar
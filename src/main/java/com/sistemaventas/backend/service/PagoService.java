@@ -3,20 +3,28 @@ package com.sistemaventas.backend.service;
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
-import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.sistemaventas.backend.dto.request.VentaRequest;
 import com.sistemaventas.backend.entity.Factura;
 import com.sistemaventas.backend.entity.Pago;
+import com.sistemaventas.backend.id.GeneradorIds;
+import com.sistemaventas.backend.id.Secuencia;
+import com.sistemaventas.backend.pasarela.PasarelaPago;
 import com.sistemaventas.backend.repository.PagoRepository;
 
+import lombok.extern.slf4j.Slf4j;
+
 @Service
 @Transactional
 @SuppressWarnings("null")
+@Slf4j
 /**
  * Service (Business layer): contiene la lógica de procesamiento de pagos.
  * En el patrón MVC esta capa implementa la lógica de negocio y actúa como
@@ -27,48 +35,112 @@ public class PagoService {
     @Autowired
     private PagoRepository pagoRepository;
     
-    // Procesar pago para una venta
+    @Autowired
+    private GeneradorIds generadorIds;
+    
+    @Autowired
+    private List<PasarelaPago> pasarelas;
+    
+    // Procesar pago para una venta (autorizar + registrar en un solo paso)
     public Pago procesarPago(VentaRequest.DatosPago datosPago, BigDecimal monto, Factura factura) {
+        if (!autorizarPago(datosPago, monto)) {
+            throw new RuntimeException("Error al procesar pago: Error al procesar el pago con " + datosPago.getMetodoPago());
+        }
+        return registrarPago(datosPago, monto, factura);
+    }
+    
+    // Autorizar el pago con el banco/pasarela. Puede tardar varios segundos, por eso
+    // se ejecuta SIN transacción: no retiene ninguna conexión del pool mientras espera.
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public boolean autorizarPago(VentaRequest.DatosPago datosPago, BigDecimal monto) {
+        try {
+            return autorizarPagoAsync(datosPago, monto).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException causa ? causa : e;
+        }
+    }
+    
+    // Autorizar el pago sin bloquear: los datos se validan de inmediato (lanza excepción
+    // si son inválidos) y la respuesta del banco llega en el futuro devuelto.
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public CompletableFuture<Boolean> autorizarPagoAsync(VentaRequest.DatosPago datosPago, BigDecimal monto) {
         try {
             // Validar datos de pago
             validarDatosPago(datosPago, monto);
-            
-            // Simular procesamiento del pago según método
-            boolean pagoExitoso = procesarPagoSegunMetodo(datosPago, monto);
-            
-            if (!pagoExitoso) {
-                throw new RuntimeException("Error al procesar el pago con " + datosPago.getMetodoPago());
-            }
-            
-            // Crear registro de pago
-            Pago pago = new Pago();
-            pago.setIdPago(generarIdPago());
-            pago.setFactura(factura);
-            pago.setMetodoPago(datosPago.getMetodoPago());
-            pago.setMonto(monto);
-            
-            // Agregar datos del titular si es pago con tarjeta
-            String metodo = datosPago.getMetodoPago().toLowerCase();
-            if (metodo.contains("tarjeta") || metodo.contains("credito") || metodo.contains("debito")) {
-                pago.setNombreTitular(datosPago.getNombreTitular());
-                // Solo almacenar los últimos 4 dígitos por seguridad
-                if (datosPago.getNumeroTarjeta() != null) {
-                    String numeroTarjeta = datosPago.getNumeroTarjeta().replaceAll("\\s", "");
-                    if (numeroTarjeta.length() >= 4) {
-                        pago.setNumeroTarjeta("****" + numeroTarjeta.substring(numeroTarjeta.length() - 4));
-                    }
-                }
-            }
-            
-            return pagoRepository.save(pago);
-            
         } catch (IllegalArgumentException e) {
             throw new RuntimeException("Error de validación de pago: " + e.getMessage());
+        }
+        
+        log.info("💳 Procesando pago: {} por ${}", datosPago.getMetodoPago(), monto);
+        
+        // Delegar en la pasarela del método de pago
+        String metodo = datosPago.getMetodoPago().toLowerCase();
+        Optional<PasarelaPago> pasarela = pasarelas.stream()
+                .filter(p -> p.soporta(metodo))
+                .findFirst();
+        
+        if (pasarela.isEmpty()) {
+            log.warn("⚠️ Método de pago no reconocido, procesando como genérico");
+            return CompletableFuture.completedFuture(true); // Por defecto aceptar
+        }
+        
+        return pasarela.get().autorizar(datosPago, monto);
+    }
+    
+    // Anular con la pasarela un pago autorizado que no se pudo registrar.
+    // Devuelve false si no se pudo anular y debe reversarse a mano.
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public boolean anularPago(VentaRequest.DatosPago datosPago, BigDecimal monto) {
+        String metodo = datosPago.getMetodoPago().toLowerCase();
+        Optional<PasarelaPago> pasarela = pasarelas.stream()
+                .filter(p -> p.soporta(metodo))
+                .findFirst();
+        try {
+            return pasarela.isPresent() && pasarela.get().anular(datosPago, monto);
+        } catch (RuntimeException e) {
+            log.warn("⚠️ La pasarela no pudo anular el pago {} por ${}: {}", datosPago.getMetodoPago(), monto, e.getMessage());
+            return false;
+        }
+    }
+    
+    // Registrar un pago ya autorizado para la factura indicada (operación corta de BD)
+    public Pago registrarPago(VentaRequest.DatosPago datosPago, BigDecimal monto, Factura factura) {
+        try {
+            return pagoRepository.save(crearPago(datosPago, monto, factura));
         } catch (RuntimeException e) {
             throw new RuntimeException("Error al procesar pago: " + e.getMessage());
         }
     }
     
+    // Registrar varios pagos ya cobrados en un solo lote de INSERT (importación de ventas)
+    public List<Pago> registrarPagos(List<Pago> pagos) {
+        return pagoRepository.saveAll(pagos);
+    }
+    
+    // Armar el pago (con su ID) sin guardarlo
+    public Pago crearPago(VentaRequest.DatosPago datosPago, BigDecimal monto, Factura factura) {
+        // Crear registro de pago
+        Pago pago = new Pago();
+        pago.setIdPago(generarIdPago());
+        pago.setFactura(factura);
+        pago.setMetodoPago(datosPago.getMetodoPago());
+        pago.setMonto(monto);
+        
+        // Agregar datos del titular si es pago con tarjeta
+        String metodo = datosPago.getMetodoPago().toLowerCase();
+        if (metodo.contains("tarjeta") || metodo.contains("credito") || metodo.contains("debito")) {
+            pago.setNombreTitular(datosPago.getNombreTitular());
+            // Solo almacenar los últimos 4 dígitos por seguridad
+            if (datosPago.getNumeroTarjeta() != null) {
+                String numeroTarjeta = datosPago.getNumeroTarjeta().replaceAll("\\s", "");
+                if (numeroTarjeta.length() >= 4) {
+                    pago.setNumeroTarjeta("****" + numeroTarjeta.substring(numeroTarjeta.length() - 4));
+                }
+            }
+        }
+        return pago;
+    }
+    
     // Obtener todos los pagos
     public List<Pago> obtenerTodosLosPagos() {
         return pagoRepository.findAll();
@@ -126,139 +198,14 @@ public class PagoService {
         }
     }
     
-    // Simular procesamiento de pago según método
-    private boolean procesarPagoSegunMetodo(VentaRequest.DatosPago datosPago, BigDecimal monto) {
-        String metodo = datosPago.getMetodoPago().toLowerCase();
-        
-        System.out.println("💳 Procesando pago: " + datosPago.getMetodoPago() + " por $" + monto);
-        
-        switch (metodo) {
-            case "efectivo" -> {
-                return procesarPagoEfectivo(monto);
-            }
-                
-            case "tarjeta credito", "tarjeta crédito", "tarjeta_credito" -> {
-                return procesarPagoTarjetaCredito(datosPago, monto);
-            }
-            case "tarjeta debito", "tarjeta débito", "tarjeta_debito" -> {
-                return procesarPagoTarjetaDebito(datosPago, monto);
-            }
-                
-            case "transferencia" -> {
-                return procesarPagoTransferencia(monto);
-            }
-            
-            case "mercado_pago", "mercado pago" -> {
-                return procesarPagoMercadoPago(monto);
-            }
-            
-            default -> {
-                System.out.println("⚠️ Método de pago no reconocido, procesando como genérico");
-                return true; // Por defecto aceptar
-            }
-        }
-    }
-    
-    private boolean procesarPagoEfectivo(BigDecimal monto) {
-        System.out.println("💵 Procesando pago en efectivo por $" + monto);
-        // Siempre exitoso para efectivo
-        System.out.println("✅ Pago en efectivo procesado exitosamente");
-        return true;
-    }
-    
-    private boolean procesarPagoTarjetaCredito(VentaRequest.DatosPago datosPago, BigDecimal monto) {
-        System.out.println("💳 Procesando tarjeta de crédito:");
-        System.out.println("   Titular: " + datosPago.getNombreTitular());
-        System.out.println("   Número: ****" + datosPago.getNumeroTarjeta().substring(Math.max(0, datosPago.getNumeroTarjeta().length() - 4)));
-        System.out.println("   Monto: $" + monto);
-        
-        // Simular validación con banco (aquí iría integración real)
-        simulateDelay(2000); // Simular tiempo de procesamiento
-        
-        // 95% de éxito para simulación
-        boolean exitoso = ThreadLocalRandom.current().nextDouble() > 0.05;
-        
-        if (exitoso) {
-            System.out.println("✅ Pago con tarjeta de crédito aprobado");
-        } else {
-            System.out.println("❌ Pago con tarjeta de crédito rechazado");
-        }
-        
-        return exitoso;
-    }
-    
-    private boolean procesarPagoTarjetaDebito(VentaRequest.DatosPago datosPago, BigDecimal monto) {
-        System.out.println("💳 Procesando tarjeta de débito:");
-        System.out.println("   Titular: " + datosPago.getNombreTitular());
-        System.out.println("   Número: ****" + datosPago.getNumeroTarjeta().substring(Math.max(0, datosPago.getNumeroTarjeta().length() - 4)));
-        System.out.println("   Monto: $" + monto);
-        
-        // Simular validación de fondos
-        simulateDelay(1500);
-        
-        // 90% de éxito para débito
-        boolean exitoso = ThreadLocalRandom.current().nextDouble() > 0.10;
-        
-        if (exitoso) {
-            System.out.println("✅ Pago con tarjeta de débito aprobado");
-        } else {
-            System.out.println("❌ Pago con tarjeta de débito rechazado (fondos insuficientes)");
-        }
-        
-        return exitoso;
-    }
-    
-    private boolean procesarPagoTransferencia(BigDecimal monto) {
-        System.out.println("🏦 Procesando transferencia bancaria por $" + monto);
-        
-        // Simular tiempo de procesamiento bancario
-        simulateDelay(3000);
-        
-        // 98% de éxito para transferencias
-        boolean exitoso = ThreadLocalRandom.current().nextDouble() > 0.02;
-        
-        if (exitoso) {
-            System.out.println("✅ Transferencia bancaria procesada exitosamente");
-        } else {
-            System.out.println("❌ Error en transferencia bancaria");
-        }
-        
-        return exitoso;
-    }
-    
-    private boolean procesarPagoMercadoPago(BigDecimal monto) {
-        System.out.println("🔵 Procesando pago con Mercado Pago:");
-        System.out.println("   Monto: $" + monto);
-        
-        // El pago ya fue aprobado por Mercado Pago, solo registramos
-        System.out.println("✅ Pago con Mercado Pago confirmado");
-        return true;
-    }
-    
-    // Simular delay de procesamiento
-    private void simulateDelay(int milliseconds) {
-        try {
-            Thread.sleep(milliseconds);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
-    }
-    
     // Generar ID de pago
     private Integer generarIdPago() {
-        List<Pago> pagos = pagoRepository.findAll();
-        if (pagos.isEmpty()) {
-            return 1;
-        }
-        return pagos.stream()
-                .mapToInt(Pago::getIdPago)
-                .max()
-                .orElse(0) + 1;
+        return generadorIds.siguienteId(Secuencia.PAGO);
     }
     
     // Obtener estadísticas de pagos por método
     public void mostrarEstadisticasPagos() {
-        System.out.println("=== ESTADÍSTICAS DE PAGOS ===");
+        log.info("=== ESTADÍSTICAS DE PAGOS ===");
         
         List<String> metodos = pagoRepository.findDistinctMetodosPago();
         
@@ -268,9 +215,9 @@ public class PagoService {
                     .map(Pago::getMonto)
                     .reduce(BigDecimal.ZERO, BigDecimal::add);
             
-            System.out.println(metodo + ": " + pagosPorMetodo.size() + " pagos, Total: $" + total);
+            log.info("{}: {} pagos, Total: ${}", metodo, pagosPorMetodo.size(), total);
         }
         
-        System.out.println("=== FIN ESTADÍSTICAS ===");
+        log.info("=== FIN ESTADÍSTICAS ===");
     }
 }
\ No newline at end of file
@@ -0,0 +1,256 @@
+package com.sistemaventas.backend.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.sistemaventas.backend.entity.Factura;
+import com.sistemaventas.backend.pdf.AlmacenPdfFacturas;
+import com.sistemaventas.backend.pdf.PdfAlmacenado;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * PDF de las facturas, generados una sola vez y servidos desde disco.
+ *
+ * El PDF se genera en segundo plano cuando se confirma la venta, así la
+ * primera descarga ya lo encuentra hecho. Si no está (venta importada, cola
+ * llena, almacén borrado) se genera al pedirlo y queda guardado. Cada
+ * factura se genera una sola vez aunque la pidan varios hilos a la vez. Una
+ * devolución cambia la factura, así que su PDF se invalida.
+ *
+ * Las exportaciones por período generan los PDF que falten en paralelo y
+ * los escriben en un ZIP en el orden de las facturas.
+ */
+@Service
+@Slf4j
+public class PdfFacturasService {
+
+    private final FacturaService facturaService;
+    private final FacturaPdfService facturaPdfService;
+    private final AlmacenPdfFacturas almacen;
+    private final Executor pdfExecutor;
+    private final Executor pdfLoteExecutor;
+    private final int pdfsEnVuelo;
+
+    // Cambia con cada invalidación; un PDF que empezó a generarse antes no debe quedar guardado
+    private final AtomicLong generacion = new AtomicLong();
+
+    // PDF que se están generando; quien pide la misma factura espera ese resultado
+    private final ConcurrentHashMap<Integer, CompletableFuture<Optional<PdfAlmacenado>>> enGeneracion =
+            new ConcurrentHashMap<>();
+
+    public PdfFacturasService(FacturaService facturaService, FacturaPdfService facturaPdfService,
+            AlmacenPdfFacturas almacen, @Qualifier("pdfExecutor") Executor pdfExecutor,
+            @Qualifier("pdfLoteExecutor") Executor pdfLoteExecutor,
+            @Value("${sistemaventas.facturas.pdf.lote.en-vuelo:8}") int pdfsEnVuelo) {
+        this.facturaService = facturaService;
+        this.facturaPdfService = facturaPdfService;
+        this.almacen = almacen;
+        this.pdfExecutor = pdfExecutor;
+        this.pdfLoteExecutor = pdfLoteExecutor;
+        this.pdfsEnVuelo = Math.max(1, pdfsEnVuelo);
+    }
+
+    // PDF de la factura, generándolo si aún no existe; vacío si la factura no existe
+    public Optional<PdfAlmacenado> obtener(int idFactura) {
+        Optional<PdfAlmacenado> guardado = almacen.buscar(idFactura);
+        if (guardado.isPresent()) {
+            return guardado;
+        }
+        return generar(idFactura);
+    }
+
+    // Generar el PDF en el pool de PDF; si el pool está lleno se generará al descargarlo
+    public void generarEnSegundoPlano(int idFactura) {
+        try {
+            pdfExecutor.execute(() -> {
+                try {
+                    if (almacen.buscar(idFactura).isEmpty()) {
+                        generar(idFactura);
+                    }
+                } catch (RuntimeException e) {
+                    log.warn("No se pudo generar el PDF de la factura {}: {}", idFactura, e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.debug("Cola de PDF llena, la factura {} se generará al descargarla", idFactura);
+        }
+    }
+
+    /**
+     * Escribir en un ZIP los PDF de las facturas, en el orden recibido. Se
+     * piden como máximo sistemaventas.facturas.pdf.lote.en-vuelo PDF a la vez
+     * al pool de lotes; mientras se copia uno al ZIP los siguientes se
+     * generan, y la memoria no depende de cuántas facturas tenga el período.
+     * Las facturas que fallen se listan en errores.txt al final del ZIP.
+     * Devuelve cuántos PDF se escribieron.
+     */
+    public int exportarZip(List<Integer> idsFacturas, OutputStream salida) throws IOException {
+        long inicio = System.nanoTime();
+        Deque<CompletableFuture<Optional<PdfAlmacenado>>> enVuelo = new ArrayDeque<>();
+        Deque<Integer> idsEnVuelo = new ArrayDeque<>();
+        Iterator<Integer> pendientes = idsFacturas.iterator();
+        List<String> errores = new ArrayList<>();
+        int escritos = 0;
+
+        ZipOutputStream zip = new ZipOutputStream(salida);
+        // Los PDF ya vienen comprimidos: comprimir otra vez apenas reduce el tamaño
+        zip.setLevel(Deflater.BEST_SPEED);
+        while (pendientes.hasNext() || !enVuelo.isEmpty()) {
+            while (pendientes.hasNext() && enVuelo.size() < pdfsEnVuelo) {
+                int idFactura = pendientes.next();
+                idsEnVuelo.add(idFactura);
+                enVuelo.add(CompletableFuture.supplyAsync(() -> obtener(idFactura), pdfLoteExecutor));
+            }
+            int idFactura = idsEnVuelo.poll();
+            Optional<PdfAlmacenado> pdf;
+            try {
+                pdf = enVuelo.poll().join();
+            } catch (CompletionException e) {
+                log.warn("No se pudo generar el PDF de la factura {}: {}", idFactura, e.getCause().getMessage());
+                errores.add("factura_" + idFactura + ".pdf: " + e.getCause().getMessage());
+                continue;
+            }
+            if (pdf.isEmpty()) {
+                errores.add("factura_" + idFactura + ".pdf: la factura no existe");
+                continue;
+            }
+            // Abrir el archivo antes de empezar la entrada: si una devolución lo
+            // invalidó entretanto se vuelve a pedir sin dejar una entrada a medias
+            InputStream archivo;
+            try {
+                archivo = abrir(idFactura, pdf.get());
+            } catch (IOException | RuntimeException e) {
+                log.warn("No se pudo leer el PDF de la factura {}: {}", idFactura, e.getMessage());
+                errores.add("factura_" + idFactura + ".pdf: " + e.getMessage());
+                continue;
+            }
+            try (archivo) {
+                zip.putNextEntry(new ZipEntry("factura_" + idFactura + ".pdf"));
+                archivo.transferTo(zip);
+                zip.closeEntry();
+            }
+            escritos++;
+        }
+        if (!errores.isEmpty()) {
+            zip.putNextEntry(new ZipEntry("errores.txt"));
+            zip.write(String.join("\r\n", errores).getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+        }
+        zip.finish();
+        log.info("Exportación de PDF: {} de {} facturas en {} ms", escritos, idsFacturas.size(),
+                (System.nanoTime() - inicio) / 1_000_000);
+        return escritos;
+    }
+
+    private InputStream abrir(int idFactura, PdfAlmacenado pdf) throws IOException {
+        try {
+            return Files.newInputStream(pdf.archivo());
+        } catch (NoSuchFileException e) {
+            PdfAlmacenado actual = obtener(idFactura)
+                    .orElseThrow(() -> new NoSuchFileException("la factura no existe"));
+            return Files.newInputStream(actual.archivo());
+        }
+    }
+
+    /**
+     * Invalidar el PDF de una factura que cambió. Se repite al terminar la
+     * transacción para que una generación concurrente que leyó la factura
+     * antes del cambio no deje guardado el PDF anterior.
+     */
+    public void invalidar(int idFactura) {
+        Runnable invalidacion = () -> {
+            generacion.incrementAndGet();
+            almacen.eliminar(idFactura);
+        };
+        invalidacion.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    invalidacion.run();
+                }
+            });
+        }
+    }
+
+    private Optional<PdfAlmacenado> generar(int idFactura) {
+        CompletableFuture<Optional<PdfAlmacenado>> propia = new CompletableFuture<>();
+        CompletableFuture<Optional<PdfAlmacenado>> enCurso = enGeneracion.putIfAbsent(idFactura, propia);
+        if (enCurso != null) {
+            return esperar(enCurso);
+        }
+        try {
+            // Otro hilo pudo terminar de generarlo entre la búsqueda del llamador y ahora
+            Optional<PdfAlmacenado> pdf = almacen.buscar(idFactura);
+            if (pdf.isEmpty()) {
+                pdf = generarVigente(idFactura);
+            }
+            propia.complete(pdf);
+            return pdf;
+        } catch (RuntimeException | Error e) {
+            propia.completeExceptionally(e);
+            throw e;
+        } finally {
+            enGeneracion.remove(idFactura, propia);
+        }
+    }
+
+    private static Optional<PdfAlmacenado> esperar(CompletableFuture<Optional<PdfAlmacenado>> enCurso) {
+        try {
+            return enCurso.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw e;
+        }
+    }
+
+    private Optional<PdfAlmacenado> generarVigente(int idFactura) {
+        long inicio = System.nanoTime();
+        long lectura = generacion.get();
+        Optional<PdfAlmacenado> pdf = generarYGuardar(idFactura);
+        if (generacion.get() != lectura) {
+            // Hubo una invalidación mientras se generaba: lo generado puede estar desactualizado
+            almacen.eliminar(idFactura);
+            pdf = generarYGuardar(idFactura);
+        }
+        pdf.ifPresent(p -> log.debug("PDF de la factura {} generado en {} ms ({} bytes)", idFactura,
+                (System.nanoTime() - inicio) / 1_000_000, p.tamano()));
+        return pdf;
+    }
+
+    private Optional<PdfAlmacenado> generarYGuardar(int idFactura) {
+        Factura factura = facturaService.obtenerFacturaCompleta((long) idFactura);
+        if (factura == null) {
+            return Optional.empty();
+        }
+        return Optional.of(almacen.guardar(idFactura, salida -> facturaPdfService.escribirFacturaPdf(factura, salida)));
+    }
+}
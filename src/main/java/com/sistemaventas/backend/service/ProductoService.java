@@ -1,21 +1,47 @@
 package com.sistemaventas.backend.service;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.sistemaventas.backend.busqueda.AutocompletadoProductos;
+import com.sistemaventas.backend.busqueda.IndiceProductos;
+import com.sistemaventas.backend.cache.ProductoCache;
+import com.sistemaventas.backend.cache.ProductoCatalogo;
 import com.sistemaventas.backend.dto.request.ProductoRequest;
 import com.sistemaventas.backend.entity.Producto;
+import com.sistemaventas.backend.exception.StockInsuficienteException;
 import com.sistemaventas.backend.factory.ProductoFactory;
+import com.sistemaventas.backend.id.GeneradorIds;
+import com.sistemaventas.backend.id.Secuencia;
+import com.sistemaventas.backend.observer.CambioStock;
 import com.sistemaventas.backend.observer.InventarioNotificationService;
 import com.sistemaventas.backend.repository.ProductoRepository;
+import com.sistemaventas.backend.stock.AlmacenStock;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+import lombok.extern.slf4j.Slf4j;
 
 @Service
 @Transactional
 @SuppressWarnings("null")
+@Slf4j
 public class ProductoService {
 
     @Autowired
@@ -24,12 +50,30 @@ public class ProductoService {
     @Autowired
     private InventarioNotificationService notificationService;
 
+    @Autowired
+    private GeneradorIds generadorIds;
+
+    @Autowired
+    private ProductoCache productoCache;
+
+    @Autowired
+    private AlmacenStock almacenStock;
+
+    @Autowired
+    private IndiceProductos indiceProductos;
+
+    @Autowired
+    private AutocompletadoProductos autocompletado;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
     // Crear producto usando Factory Method Pattern
     @Transactional
     public Producto crearProducto(ProductoRequest productoRequest) {
-        System.out.println("=== INICIO SERVICIO CREAR PRODUCTO ===");
+        log.info("=== INICIO SERVICIO CREAR PRODUCTO ===");
         try {
-            System.out.println("Request recibido en servicio: " + productoRequest);
+            log.info("Request recibido en servicio: {}", productoRequest);
             
             // Validaciones básicas
             if (productoRequest == null) {
@@ -55,7 +99,7 @@ public class ProductoService {
             // Generar nuevo ID si no se proporciona o es 0
             if (productoRequest.getIdProducto() == null || productoRequest.getIdProducto() == 0) {
                 Integer nuevoId = generarNuevoId();
-                System.out.println("ProductoService: Generando nuevo ID: " + nuevoId);
+                log.info("ProductoService: Generando nuevo ID: {}", nuevoId);
                 productoRequest.setIdProducto(nuevoId);
             } else {
                 // Verificar que no exista ya un producto con ese ID
@@ -65,7 +109,7 @@ public class ProductoService {
             }
 
             // Usar Factory Method para crear el producto según la categoría
-            System.out.println("ProductoService: Creando factory para categoría: " + productoRequest.getCategoria());
+            log.info("ProductoService: Creando factory para categoría: {}", productoRequest.getCategoria());
             ProductoFactory productoFactory;
             try {
                 productoFactory = ProductoFactory.obtenerFactory(productoRequest.getCategoria());
@@ -73,7 +117,7 @@ public class ProductoService {
                 throw new IllegalArgumentException("Categoría de producto no válida: " + productoRequest.getCategoria());
             }
             
-            System.out.println("ProductoService: Creando producto usando factory");
+            log.info("ProductoService: Creando producto usando factory");
             Producto producto;
             try {
                 producto = productoFactory.crearProducto(productoRequest);
@@ -88,7 +132,7 @@ public class ProductoService {
             }
             
             // Guardar en la base de datos
-            System.out.println("ProductoService: Guardando producto en base de datos");
+            log.info("ProductoService: Guardando producto en base de datos");
             Producto productoGuardado;
             try {
                 productoGuardado = productoRepository.save(producto);
@@ -96,39 +140,65 @@ public class ProductoService {
                 throw new RuntimeException("Error al guardar el producto en la base de datos: " + e.getMessage());
             }
             
-            System.out.println("ProductoService: Producto guardado exitosamente con ID: " + productoGuardado.getIdProducto());
+            log.info("ProductoService: Producto guardado exitosamente con ID: {}", productoGuardado.getIdProducto());
+            productoCache.invalidarCatalogo(productoGuardado.getIdProducto());
+            indiceProductos.actualizar(ProductoCatalogo.de(productoGuardado));
+            autocompletado.actualizar(ProductoCatalogo.de(productoGuardado));
             return productoGuardado;
             
         } catch (IllegalArgumentException e) {
             String mensaje = "Error de validación al crear producto: " + e.getMessage();
-            System.err.println("ProductoService: " + mensaje);
+            log.error("ProductoService: {}", mensaje);
             throw e;
         } catch (RuntimeException e) {
-            System.err.println("ProductoService: Error interno - " + e.getMessage());
+            log.error("ProductoService: Error interno - {}", e.getMessage());
             throw e;
         } catch (Exception e) {
             String mensaje = "Error inesperado al crear producto: " + e.getMessage();
-            System.err.println("ProductoService: " + mensaje);
-            System.err.println("ProductoService: Tipo de error: " + e.getClass().getSimpleName());
+            log.error("ProductoService: {}", mensaje);
+            log.error("ProductoService: Tipo de error: {}", e.getClass().getSimpleName());
             throw new RuntimeException(mensaje, e);
         } finally {
-            System.out.println("=== FIN SERVICIO CREAR PRODUCTO ===");
+            log.info("=== FIN SERVICIO CREAR PRODUCTO ===");
         }
     }
 
+    // Las lecturas combinan el catálogo en caché con el stock en memoria;
+    // los productos devueltos no están gestionados por JPA.
+
     // Obtener todos los productos
+    @Transactional(readOnly = true)
     public List<Producto> obtenerTodosLosProductos() {
-        return productoRepository.findAll();
+        return conStock(productoCache.obtenerTodos(productoRepository::findAll));
     }
 
     // Buscar producto por ID
+    @Transactional(readOnly = true)
     public Optional<Producto> buscarPorId(Integer id) {
-        return productoRepository.findById(id);
+        return productoCache.obtener(id).flatMap(catalogo ->
+                Optional.ofNullable(almacenStock.disponible(id)).map(catalogo::conStock));
+    }
+
+    // Buscar varios productos, indexados por ID; los que no están en caché
+    // se cargan en una sola consulta (IN)
+    @Transactional(readOnly = true)
+    public Map<Integer, Producto> buscarPorIds(Collection<Integer> ids) {
+        Map<Integer, Producto> productos = new LinkedHashMap<>();
+        conStock(List.copyOf(productoCache.obtenerVarios(ids).values()))
+                .forEach(producto -> productos.put(producto.getIdProducto(), producto));
+        return productos;
+    }
+
+    // Referencia al producto para asociarlo (por ejemplo, a un detalle de
+    // factura) sin consultarlo a la base de datos
+    public Producto obtenerReferencia(Integer id) {
+        return entityManager.getReference(Producto.class, id);
     }
 
     // Buscar productos por categoría
+    @Transactional(readOnly = true)
     public List<Producto> buscarPorCategoria(String categoria) {
-        return productoRepository.findByCategoria(categoria);
+        return conStock(productoCache.obtenerPorCategoria(categoria, () -> productoRepository.findByCategoria(categoria)));
     }
 
     // Buscar productos por descripción (búsqueda parcial)
@@ -136,9 +206,118 @@ public class ProductoService {
         return productoRepository.findByDescripcionContainingIgnoreCase(descripcion);
     }
     
-    // Buscar productos por término general (descripción o categoría)
-    public List<Producto> buscarProductosPorTermino(String termino) {
-        return productoRepository.findByDescripcionContainingIgnoreCaseOrCategoriaContainingIgnoreCase(termino, termino);
+    // Buscar productos por término general (descripción o categoría), ordenados por relevancia.
+    // Se resuelve con el índice en memoria; si aún no está cargado, con la base de datos.
+    @Transactional(readOnly = true)
+    public List<Producto> buscarProductosPorTermino(String termino, int limite) {
+        if (!indiceProductos.estaCargado()) {
+            return productoRepository.findByDescripcionContainingIgnoreCaseOrCategoriaContainingIgnoreCase(termino, termino)
+                    .stream()
+                    .limit(limite)
+                    .toList();
+        }
+        List<Integer> ids = indiceProductos.buscar(termino, limite);
+        Map<Integer, Producto> productos = buscarPorIds(ids);
+        return ids.stream().map(productos::get).filter(producto -> producto != null).toList();
+    }
+
+    /**
+     * Página de productos por cursor (keyset), ordenada por ID o por
+     * (categoría, ID). El costo no depende de la página: el cursor indica
+     * dónde seguir y la base de datos no recorre las filas anteriores.
+     */
+    @Transactional(readOnly = true)
+    public PaginaProductos listarPagina(String cursor, int tamano, String orden) {
+        boolean porCategoria = "categoria".equalsIgnoreCase(orden);
+        String[] posicion = cursor == null || cursor.isBlank() ? null : decodificarCursor(cursor, porCategoria);
+
+        // Se pide una fila de más para saber si hay otra página
+        List<Producto> productos = new ArrayList<>(tamano + 1);
+        try (Stream<Producto> filas = porCategoria
+                ? productoRepository.streamProductosPorCategoria(posicion != null ? posicion[2] : null,
+                        posicion != null ? Integer.valueOf(posicion[1]) : null, tamano + 1)
+                : productoRepository.streamProductos(posicion != null ? Integer.valueOf(posicion[1]) : null, tamano + 1)) {
+            filas.forEach(producto -> productos.add(conStockDeFila(producto)));
+        }
+
+        if (productos.size() <= tamano) {
+            return new PaginaProductos(productos, null);
+        }
+        List<Producto> pagina = productos.subList(0, tamano);
+        return new PaginaProductos(pagina, codificarCursor(pagina.get(tamano - 1), porCategoria));
+    }
+
+    /**
+     * Recorrer todo el catálogo por ID sin cargarlo completo: las filas se leen
+     * por bloques y cada producto se entrega al consumidor y se libera de la
+     * sesión, así la memoria usada no crece con el tamaño del catálogo.
+     */
+    @Transactional(readOnly = true)
+    public void exportarProductos(Consumer<Producto> consumidor) {
+        try (Stream<Producto> filas = productoRepository.streamProductos(null, 0)) {
+            filas.forEach(producto -> {
+                entityManager.detach(producto);
+                consumidor.accept(conStockDeFila(producto));
+            });
+        }
+    }
+
+    // Copia del producto con el stock actual (la columna puede ir un poco atrasada)
+    private Producto conStockDeFila(Producto producto) {
+        return ProductoCatalogo.de(producto)
+                .conStock(almacenStock.disponibleSegunFila(producto.getIdProducto(), producto.getCantidadDisponible()));
+    }
+
+    // Cursor opaco: "id:<id>" o "categoria:<id>:<categoria>" en Base64 URL
+    private static String codificarCursor(Producto ultimo, boolean porCategoria) {
+        String valor = porCategoria
+                ? "categoria:" + ultimo.getIdProducto() + ":" + ultimo.getCategoria()
+                : "id:" + ultimo.getIdProducto();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(valor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String[] decodificarCursor(String cursor, boolean porCategoria) {
+        try {
+            String valor = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] partes = valor.split(":", 3);
+            boolean valido = porCategoria
+                    ? partes.length == 3 && partes[0].equals("categoria")
+                    : partes.length == 2 && partes[0].equals("id");
+            if (!valido) {
+                throw new IllegalArgumentException("Cursor inválido para el orden solicitado");
+            }
+            Integer.parseInt(partes[1]);
+            return partes;
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Cursor inválido: " + cursor);
+        }
+    }
+
+    // Productos de una página y cursor de la siguiente (null si es la última)
+    public record PaginaProductos(List<Producto> productos, String siguienteCursor) {
+    }
+
+    // Sugerencias mientras se escribe: productos más vendidos cuya descripción
+    // (o alguna de sus palabras) empieza por el texto. Todo se resuelve en memoria.
+    @Transactional(readOnly = true)
+    public List<Producto> autocompletar(String texto, int limite) {
+        if (!autocompletado.estaCargado()) {
+            return buscarProductosPorTermino(texto, limite);
+        }
+        int[] ids = autocompletado.sugerir(texto, limite);
+        List<Integer> idsOrdenados = Arrays.stream(ids).boxed().toList();
+        Map<Integer, Producto> productos = buscarPorIds(idsOrdenados);
+        return idsOrdenados.stream().map(productos::get).filter(producto -> producto != null).toList();
+    }
+
+    // Completar los datos de catálogo con el stock actual (un producto eliminado
+    // entre ambas lecturas se omite)
+    private List<Producto> conStock(List<ProductoCatalogo> catalogo) {
+        Map<Integer, Integer> stock = almacenStock.disponibles(catalogo.stream().map(ProductoCatalogo::idProducto).toList());
+        return catalogo.stream()
+                .filter(producto -> stock.containsKey(producto.idProducto()))
+                .map(producto -> producto.conStock(stock.get(producto.idProducto())))
+                .toList();
     }
 
     // Buscar productos con stock disponible
@@ -153,73 +332,77 @@ public class ProductoService {
 
     // Actualizar producto
     public Producto actualizarProducto(Integer id, ProductoRequest productoRequest) {
-        System.out.println("=== ACTUALIZAR PRODUCTO ===");
-        System.out.println("ID a actualizar: " + id);
-        System.out.println("Request: " + productoRequest);
+        log.info("=== ACTUALIZAR PRODUCTO ===");
+        log.info("ID a actualizar: {}", id);
+        log.info("Request: {}", productoRequest);
         
         Optional<Producto> productoExistente = productoRepository.findById(id);
 
         if (productoExistente.isEmpty()) {
-            System.err.println("❌ ERROR: Producto no encontrado con ID: " + id);
+            log.error("❌ ERROR: Producto no encontrado con ID: {}", id);
             throw new RuntimeException("Producto no encontrado con ID: " + id);
         }
         
-        System.out.println("✅ Producto encontrado: " + productoExistente.get().getDescripcion());
+        log.info("✅ Producto encontrado: {}", productoExistente.get().getDescripcion());
 
         try {
             // Crear producto actualizado usando Factory
             productoRequest.setIdProducto(id);
-            System.out.println("Obteniendo factory para categoría: " + productoRequest.getCategoria());
+            log.info("Obteniendo factory para categoría: {}", productoRequest.getCategoria());
             ProductoFactory factory = ProductoFactory.obtenerFactory(productoRequest.getCategoria());
             
-            System.out.println("Creando producto actualizado con factory");
+            log.info("Creando producto actualizado con factory");
             Producto productoActualizado = factory.crearProducto(productoRequest);
             
-            System.out.println("Guardando producto actualizado en BD");
+            log.info("Guardando producto actualizado en BD");
             Producto resultado = productoRepository.save(productoActualizado);
-            System.out.println("✅ Producto actualizado exitosamente");
+            productoCache.invalidarCatalogo(id);
+            indiceProductos.actualizar(ProductoCatalogo.de(resultado));
+            autocompletado.actualizar(ProductoCatalogo.de(resultado));
+            // La columna de stock no se actualiza con la entidad: el ajuste pasa por el almacén
+            if (productoRequest.getCantidadDisponible() != null) {
+                almacenStock.establecer(id, productoRequest.getCantidadDisponible());
+            }
+            log.info("✅ Producto actualizado exitosamente");
             
             return resultado;
         } catch (Exception e) {
-            System.err.println("❌ ERROR actualizando producto: " + e.getMessage());
+            log.error("❌ ERROR actualizando producto: {}", e.getMessage());
             throw new RuntimeException("Error actualizando producto: " + e.getMessage(), e);
         }
     }
 
     // Eliminar producto
     public boolean eliminarProducto(Integer id) {
-        System.out.println("=== ELIMINAR PRODUCTO ===");
-        System.out.println("ID a eliminar: " + id);
+        log.info("=== ELIMINAR PRODUCTO ===");
+        log.info("ID a eliminar: {}", id);
         
         try {
             if (productoRepository.existsById(id)) {
-                System.out.println("✅ Producto existe, procediendo a eliminar");
+                log.info("✅ Producto existe, procediendo a eliminar");
                 productoRepository.deleteById(id);
-                System.out.println("✅ Producto eliminado exitosamente");
+                productoCache.invalidarCatalogo(id);
+                almacenStock.descartar(id);
+                indiceProductos.eliminar(id);
+                autocompletado.eliminar(id);
+                log.info("✅ Producto eliminado exitosamente");
                 return true;
             } else {
-                System.err.println("❌ Producto no encontrado con ID: " + id);
+                log.error("❌ Producto no encontrado con ID: {}", id);
                 return false;
             }
         } catch (Exception e) {
-            System.err.println("❌ ERROR eliminando producto: " + e.getMessage());
+            log.error("❌ ERROR eliminando producto: {}", e.getMessage());
             throw new RuntimeException("Error eliminando producto: " + e.getMessage(), e);
         }
     }
 
     // Actualizar stock de producto (CON OBSERVER PATTERN)
     public Producto actualizarStock(Integer id, Integer nuevaCantidad) {
-        Optional<Producto> productoOpt = productoRepository.findById(id);
-
-        if (productoOpt.isEmpty()) {
-            throw new RuntimeException("Producto no encontrado con ID: " + id);
-        }
-
-        Producto producto = productoOpt.get();
-        int stockAnterior = producto.getCantidadDisponible();
-        producto.setCantidadDisponible(nuevaCantidad);
+        ProductoCatalogo catalogo = obtenerCatalogo(id);
 
-        Producto productoActualizado = productoRepository.save(producto);
+        int stockAnterior = almacenStock.establecer(id, nuevaCantidad);
+        Producto productoActualizado = catalogo.conStock(nuevaCantidad);
 
         // NOTIFICAR A OBSERVADORES
         notificationService.procesarCambioStock(productoActualizado, stockAnterior);
@@ -228,50 +411,148 @@ public class ProductoService {
     }
 
     // Reducir stock (para ventas) - CON OBSERVER PATTERN
+    // La reserva se hace sobre el contador en memoria del producto: dos cajas
+    // vendiendo el mismo producto no pueden dejar el stock negativo ni perder unidades.
     public Producto reducirStock(Integer id, Integer cantidad) {
-        Optional<Producto> productoOpt = productoRepository.findById(id);
+        ProductoCatalogo catalogo = obtenerCatalogo(id);
 
-        if (productoOpt.isEmpty()) {
-            throw new RuntimeException("Producto no encontrado con ID: " + id);
-        }
-
-        Producto producto = productoOpt.get();
-        int stockAnterior = producto.getCantidadDisponible();
-
-        if (!producto.tieneStockSuficiente(cantidad)) {
+        int nuevoStock;
+        try {
+            nuevoStock = almacenStock.reservar(Map.of(id, cantidad)).get(id);
+        } catch (StockInsuficienteException e) {
             throw new RuntimeException(
                     String.format("Stock insuficiente para producto %s. Disponible: %d, Solicitado: %d",
-                            producto.getDescripcion(), producto.getCantidadDisponible(), cantidad)
+                            catalogo.descripcion(), e.getDisponible(), cantidad)
             );
         }
 
-        producto.reducirStock(cantidad);
-        Producto productoActualizado = productoRepository.save(producto);
+        Producto producto = catalogo.conStock(nuevoStock);
 
         // NOTIFICAR A OBSERVADORES
-        notificationService.procesarCambioStock(productoActualizado, stockAnterior);
+        notificationService.procesarCambioStock(producto, nuevoStock + cantidad);
 
-        return productoActualizado;
+        return producto;
+    }
+
+    // Reducir stock de varios productos de una venta (CON OBSERVER PATTERN).
+    // Se reserva todo o nada sobre los contadores en memoria; si alguno no tiene
+    // stock se lanza excepción, y si la transacción se revierte la reserva se deshace.
+    // La escritura en PRODUCTO la hace AlmacenStock en lote, en segundo plano.
+    public void reducirStockEnLote(Map<Producto, Integer> cantidadesPorProducto) {
+        Map<Integer, Integer> cantidades = new LinkedHashMap<>();
+        cantidadesPorProducto.forEach((producto, cantidad) -> cantidades.put(producto.getIdProducto(), cantidad));
+
+        Map<Integer, Integer> stockActual;
+        try {
+            stockActual = almacenStock.reservar(cantidades);
+        } catch (StockInsuficienteException e) {
+            String descripcion = cantidadesPorProducto.keySet().stream()
+                    .filter(producto -> producto.getIdProducto().equals(e.getIdProducto()))
+                    .map(Producto::getDescripcion)
+                    .findFirst()
+                    .orElse(String.valueOf(e.getIdProducto()));
+            throw new RuntimeException(
+                    String.format("Stock insuficiente para producto %s. Solicitado: %d", descripcion, e.getSolicitado())
+            );
+        }
+
+        // NOTIFICAR A OBSERVADORES (un solo lote para toda la venta)
+        List<CambioStock> cambios = new ArrayList<>();
+        cantidadesPorProducto.forEach((producto, cantidad) -> {
+            int nuevoStock = stockActual.get(producto.getIdProducto());
+            cambios.add(CambioStock.de(producto, nuevoStock + cantidad, nuevoStock));
+        });
+        notificationService.notificarCambiosStock(cambios);
+    }
+
+    // Devolver al inventario lo reservado por una venta que no se completó
+    // (por ejemplo, pago rechazado).
+    public void liberarStockEnLote(Map<Producto, Integer> cantidadesPorProducto) {
+        Map<Integer, Integer> cantidades = new LinkedHashMap<>();
+        cantidadesPorProducto.forEach((producto, cantidad) -> cantidades.put(producto.getIdProducto(), cantidad));
+
+        Map<Integer, Integer> stockActual = almacenStock.sumar(cantidades);
+
+        // NOTIFICAR A OBSERVADORES (un solo lote para toda la venta)
+        List<CambioStock> cambios = new ArrayList<>();
+        cantidadesPorProducto.forEach((producto, cantidad) -> {
+            int nuevoStock = stockActual.get(producto.getIdProducto());
+            cambios.add(CambioStock.de(producto, nuevoStock - cantidad, nuevoStock));
+        });
+        notificationService.notificarCambiosStock(cambios);
     }
 
     // Aumentar stock (para compras/devoluciones) - CON OBSERVER PATTERN
     public Producto aumentarStock(Integer id, Integer cantidad) {
-        Optional<Producto> productoOpt = productoRepository.findById(id);
+        ProductoCatalogo catalogo = obtenerCatalogo(id);
 
-        if (productoOpt.isEmpty()) {
-            throw new RuntimeException("Producto no encontrado con ID: " + id);
+        int nuevoStock = almacenStock.sumar(Map.of(id, cantidad)).get(id);
+        Producto producto = catalogo.conStock(nuevoStock);
+
+        // NOTIFICAR A OBSERVADORES
+        notificationService.procesarCambioStock(producto, nuevoStock - cantidad);
+
+        return producto;
+    }
+
+    // De los IDs indicados, los que ya existen en la base de datos (una consulta)
+    @Transactional(readOnly = true)
+    public Set<Integer> buscarIdsExistentes(Collection<Integer> ids) {
+        if (ids.isEmpty()) {
+            return Set.of();
         }
+        return new HashSet<>(productoRepository.findIdsExistentes(ids));
+    }
 
-        Producto producto = productoOpt.get();
-        int stockAnterior = producto.getCantidadDisponible();
+    // IDs para productos nuevos, reservados de una sola vez
+    public List<Integer> reservarIds(int cantidad) {
+        return generadorIds.reservarIds(Secuencia.PRODUCTO, cantidad);
+    }
 
-        producto.aumentarStock(cantidad);
-        Producto productoActualizado = productoRepository.save(producto);
+    // Los productos importados con su propio ID: los IDs generados después deben ser mayores
+    public void reservarIdsHasta(int idMaximo) {
+        generadorIds.avanzarHasta(Secuencia.PRODUCTO, idMaximo);
+    }
 
-        // NOTIFICAR A OBSERVADORES
-        notificationService.procesarCambioStock(productoActualizado, stockAnterior);
+    /**
+     * Guardar productos importados ya validados: INSERT en lote de los nuevos,
+     * UPDATE en lote del catálogo de los existentes y un solo ajuste de stock
+     * para todos ellos. La caché y los índices se actualizan como en el alta
+     * y la edición de un producto.
+     */
+    public void guardarImportados(List<Producto> nuevos, List<Producto> existentes) {
+        productoRepository.insertarProductos(nuevos);
+        productoRepository.actualizarCatalogo(existentes);
+
+        Map<Integer, Integer> stock = new LinkedHashMap<>();
+        existentes.stream()
+                .filter(producto -> producto.getCantidadDisponible() != null)
+                .forEach(producto -> stock.put(producto.getIdProducto(), producto.getCantidadDisponible()));
+        if (!stock.isEmpty()) {
+            almacenStock.establecerVarios(stock);
+        }
 
-        return productoActualizado;
+        List<Producto> guardados = new ArrayList<>(nuevos);
+        guardados.addAll(existentes);
+        productoCache.invalidarCatalogo(guardados.stream().map(Producto::getIdProducto).toList());
+        for (Producto producto : guardados) {
+            indiceProductos.actualizar(ProductoCatalogo.de(producto));
+            autocompletado.actualizar(ProductoCatalogo.de(producto));
+        }
+    }
+
+    private ProductoCatalogo obtenerCatalogo(Integer id) {
+        return productoCache.obtener(id)
+                .orElseThrow(() -> new RuntimeException("Producto no encontrado con ID: " + id));
+    }
+
+    // Estadísticas de la caché del catálogo y de los contadores de stock
+    public Map<String, Object> obtenerEstadisticasCache() {
+        Map<String, Object> estadisticas = new LinkedHashMap<>(productoCache.obtenerEstadisticas());
+        estadisticas.put("stock", almacenStock.obtenerEstadisticas());
+        estadisticas.put("busqueda", indiceProductos.obtenerEstadisticas());
+        estadisticas.put("autocompletado", autocompletado.obtenerEstadisticas());
+        return estadisticas;
     }
 
     // Obtener categorías disponibles
@@ -279,40 +560,30 @@ public class ProductoService {
         return productoRepository.findDistinctCategorias();
     }
 
-    // Método auxiliar para generar nuevo ID
+    // Método auxiliar para generar nuevo ID (secuencia con bloques en memoria)
     private Integer generarNuevoId() {
-        try {
-            Integer maxId = productoRepository.findMaxId();
-            if (maxId == null || maxId == 0) {
-                return 1;
-            }
-            return maxId + 1;
-        } catch (Exception e) {
-            // En caso de cualquier problema con la consulta, caer en un fallback
-            System.err.println("ProductoService: No se pudo obtener maxId desde repositorio, usando fallback (1). Detalle: " + e.getMessage());
-            return 1;
-        }
+        return generadorIds.siguienteId(Secuencia.PRODUCTO);
     }
 
     // Métodos de demostración (opcionales)
     public void demostrarFactoryPattern() {
-        System.out.println("=== DEMOSTRACIÓN FACTORY METHOD PATTERN ===");
+        log.info("=== DEMOSTRACIÓN FACTORY METHOD PATTERN ===");
         ProductoRequest arroz = new ProductoRequest(999, 100, new java.math.BigDecimal("2500"), "Arroz Premium", "granos");
         ProductoRequest aceite = new ProductoRequest(998, 50, new java.math.BigDecimal("3500"), "Aceite de Oliva", "aceites");
         ProductoRequest leche = new ProductoRequest(997, 30, new java.math.BigDecimal("4500"), "Leche Deslactosada", "lácteos");
 
         try {
             Producto p1 = crearProducto(arroz);
-            System.out.println("Creado: " + p1);
+            log.info("Creado: {}", p1);
             Producto p2 = crearProducto(aceite);
-            System.out.println("Creado: " + p2);
+            log.info("Creado: {}", p2);
             Producto p3 = crearProducto(leche);
-            System.out.println("Creado: " + p3);
+            log.info("Creado: {}", p3);
         } catch (Exception e) {
-            System.out.println("Error en demostración: " + e.getMessage());
+            log.warn("Error en demostración: {}", e.getMessage());
         }
 
-        System.out.println("=== FIN DEMOSTRACIÓN ===");
+        log.info("=== FIN DEMOSTRACIÓN ===");
     }
 
     public void demostrarObserverPattern() {
@@ -327,11 +598,11 @@ public class ProductoService {
     }
 
     public void demostrarAmbosPatrones() {
-        System.out.println("=== DEMOSTRACIÓN PATRONES DE DISEÑO ===");
-        System.out.println("1. Factory Method Pattern:");
+        log.info("=== DEMOSTRACIÓN PATRONES DE DISEÑO ===");
+        log.info("1. Factory Method Pattern:");
         demostrarFactoryPattern();
-        System.out.println("\n2. Observer Pattern:");
+        log.info("2. Observer Pattern:");
         demostrarObserverPattern();
-        System.out.println("=== FIN DEMOSTRACIÓN COMPLETA ===");
+        log.info("=== FIN DEMOSTRACIÓN COMPLETA ===");
     }
 }
\ No newline at end of file
@@ -0,0 +1,47 @@
+package com.sistemaventas.backend.service;
+
+import java.time.LocalDate;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.sistemaventas.backend.config.CalendarioTienda;
+import com.sistemaventas.backend.reporte.AcumuladorReporteVentas;
+import com.sistemaventas.backend.reporte.ReporteVentas;
+import com.sistemaventas.backend.repository.ReporteVentasRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Reporte de ventas de un período, agrupado por día, cajero, categoría y
+ * método de pago. Las líneas de venta se recorren una vez con un cursor y se
+ * van sumando: un reporte de un año usa la misma memoria que uno de un día.
+ */
+@Service
+@Slf4j
+public class ReporteVentasService {
+
+    private final ReporteVentasRepository reporteVentasRepository;
+    private final CalendarioTienda calendarioTienda;
+
+    public ReporteVentasService(ReporteVentasRepository reporteVentasRepository, CalendarioTienda calendarioTienda) {
+        this.reporteVentasRepository = reporteVentasRepository;
+        this.calendarioTienda = calendarioTienda;
+    }
+
+    // Reporte de los días [desde, hasta]; la transacción permite leer el cursor por bloques
+    @Transactional(readOnly = true)
+    public ReporteVentas generar(LocalDate desde, LocalDate hasta) {
+        if (desde.isAfter(hasta)) {
+            throw new IllegalArgumentException("La fecha 'desde' no puede ser posterior a 'hasta'");
+        }
+        long inicio = System.nanoTime();
+        AcumuladorReporteVentas acumulador = new AcumuladorReporteVentas(calendarioTienda);
+        reporteVentasRepository.recorrerLineas(calendarioTienda.inicioDe(desde),
+                calendarioTienda.inicioDe(hasta.plusDays(1)), acumulador::agregar);
+        ReporteVentas reporte = acumulador.resultado(desde, hasta);
+        log.info("Reporte de ventas {} a {}: {} ventas en {} ms", desde, hasta, reporte.total().ventas(),
+                (System.nanoTime() - inicio) / 1_000_000);
+        return reporte;
+    }
+}
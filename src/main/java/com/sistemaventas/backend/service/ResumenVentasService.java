@@ -0,0 +1,118 @@
+package com.sistemaventas.backend.service;
+
+import java.time.LocalDate;
+import java.time.ZonedDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.sistemaventas.backend.config.CalendarioTienda;
+import com.sistemaventas.backend.entity.Factura;
+import com.sistemaventas.backend.entity.Pago;
+import com.sistemaventas.backend.repository.ResumenVentasRepository;
+import com.sistemaventas.backend.resumen.FranjaVentas;
+import com.sistemaventas.backend.resumen.ResumenDiaVentas;
+import com.sistemaventas.backend.resumen.TotalesVentas;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Resumen de ventas por día, y por hora, cajero y método de pago, mantenido
+ * a medida que se registran ventas y devoluciones: los totales del tablero se
+ * leen de una fila en lugar de recorrer todas las facturas del día.
+ *
+ * Las ventas y devoluciones deben registrarse aquí dentro de su propia
+ * transacción, como último paso: si se revierte, el resumen también, y las
+ * filas del resumen (muy concurridas) quedan bloqueadas el menor tiempo posible.
+ */
+@Service
+@Slf4j
+public class ResumenVentasService {
+
+    static final String METODO_DESCONOCIDO = "DESCONOCIDO";
+
+    private final ResumenVentasRepository resumenVentasRepository;
+    private final CalendarioTienda calendarioTienda;
+    private final TransactionTemplate transactionTemplate;
+
+    public ResumenVentasService(ResumenVentasRepository resumenVentasRepository, CalendarioTienda calendarioTienda,
+            PlatformTransactionManager transactionManager) {
+        this.resumenVentasRepository = resumenVentasRepository;
+        this.calendarioTienda = calendarioTienda;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Crear las tablas del resumen al arrancar y, hasta que se complete una
+     * vez, llenarlas con las facturas existentes. Ya se atienden ventas: la
+     * carga se hace con las tablas bloqueadas y reemplaza lo que estas hayan
+     * sumado, así que ninguna venta queda contada dos veces ni se pierde.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void preparar() {
+        try {
+            resumenVentasRepository.crearTablas();
+            transactionTemplate.executeWithoutResult(status -> {
+                resumenVentasRepository.bloquear();
+                if (!resumenVentasRepository.cargaCompleta()) {
+                    resumenVentasRepository.cargarDesdeFacturas(calendarioTienda.getZona());
+                    log.info("Resumen de ventas cargado desde las facturas existentes");
+                }
+            });
+        } catch (RuntimeException e) {
+            log.warn("No se pudo preparar el resumen de ventas: {}", e.getMessage());
+        }
+    }
+
+    // Sumar una venta confirmada al resumen
+    public void registrarVenta(Factura factura, String metodoPago) {
+        resumenVentasRepository.acumular(Map.of(franja(factura, metodoPago), TotalesVentas.deVenta(factura)));
+    }
+
+    /**
+     * Sumar varias ventas confirmadas (cada pago con su factura). Las ventas
+     * de la misma franja se agrupan antes: una fila por franja y una por día,
+     * sin importar cuántas ventas sean.
+     */
+    public void registrarVentas(Collection<Pago> pagos) {
+        Map<FranjaVentas, TotalesVentas> variaciones = new HashMap<>();
+        for (Pago pago : pagos) {
+            Factura factura = pago.getFactura();
+            variaciones.merge(franja(factura, pago.getMetodoPago()), TotalesVentas.deVenta(factura), TotalesVentas::sumar);
+        }
+        resumenVentasRepository.acumular(variaciones);
+    }
+
+    // Registrar la devolución de una venta, en la franja de la venta original
+    public void registrarDevolucion(Factura factura) {
+        String metodoPago = factura.getPago() != null ? factura.getPago().getMetodoPago() : null;
+        resumenVentasRepository.acumular(Map.of(franja(factura, metodoPago), TotalesVentas.deDevolucion(factura)));
+    }
+
+    // Totales de un día de la tienda
+    public TotalesVentas totalesDelDia(LocalDate fecha) {
+        return resumenVentasRepository.buscarDia(fecha).orElse(TotalesVentas.VACIO);
+    }
+
+    // Totales de los días [desde, hasta]
+    public TotalesVentas totalesEntre(LocalDate desde, LocalDate hasta) {
+        return resumenVentasRepository.sumarDias(desde, hasta);
+    }
+
+    // Totales del día y detalle por hora, cajero y método de pago
+    public ResumenDiaVentas resumenDelDia(LocalDate fecha) {
+        return new ResumenDiaVentas(fecha, totalesDelDia(fecha), resumenVentasRepository.buscarFranjas(fecha));
+    }
+
+    private FranjaVentas franja(Factura factura, String metodoPago) {
+        ZonedDateTime momento = calendarioTienda.momentoDe(factura.getFecha());
+        return new FranjaVentas(momento.toLocalDate(), momento.getHour(), factura.getUsuario().getIdUsuario(),
+                metodoPago == null || metodoPago.isBlank() ? METODO_DESCONOCIDO : metodoPago);
+    }
+}
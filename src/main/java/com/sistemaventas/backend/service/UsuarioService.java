@@ -1,12 +1,17 @@
 package com.sistemaventas.backend.service;
 
 import com.sistemaventas.backend.entity.Usuario;
+import com.sistemaventas.backend.id.GeneradorIds;
+import com.sistemaventas.backend.id.Secuencia;
 import com.sistemaventas.backend.repository.UsuarioRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -17,6 +22,9 @@ public class UsuarioService {
     @Autowired
     private UsuarioRepository usuarioRepository;
     
+    @Autowired
+    private GeneradorIds generadorIds;
+    
     // Obtener todos los usuarios
     public List<Usuario> obtenerTodosLosUsuarios() {
         return usuarioRepository.findAll();
@@ -27,6 +35,13 @@ public class UsuarioService {
         return usuarioRepository.findById(id);
     }
     
+    // Buscar varios usuarios con una sola consulta (IN), indexados por ID
+    public Map<Integer, Usuario> buscarPorIds(Collection<Integer> ids) {
+        Map<Integer, Usuario> usuarios = new HashMap<>();
+        usuarioRepository.findAllById(ids).forEach(usuario -> usuarios.put(usuario.getIdUsuario(), usuario));
+        return usuarios;
+    }
+    
     // Buscar usuario por correo
     public Optional<Usuario> buscarPorCorreo(String correo) {
         return usuarioRepository.findByCorreo(correo);
@@ -39,7 +54,7 @@ public class UsuarioService {
             throw new RuntimeException("Ya existe un usuario con ese correo electrónico");
         }
         
-        // Generar nuevo ID (en un caso real, mejor usar @GeneratedValue)
+        // Generar nuevo ID desde la secuencia de usuarios
         Integer nuevoId = generarNuevoId();
         usuario.setIdUsuario(nuevoId);
         
@@ -108,15 +123,6 @@ public class UsuarioService {
     
     // Método auxiliar para generar ID
     private Integer generarNuevoId() {
-        // En un caso real, es mejor usar @GeneratedValue en la entidad
-        // Este es solo un ejemplo simple
-        List<Usuario> usuarios = usuarioRepository.findAll();
-        if (usuarios.isEmpty()) {
-            return 1;
-        }
-        return usuarios.stream()
-                .mapToInt(Usuario::getIdUsuario)
-                .max()
-                .orElse(0) + 1;
+        return generadorIds.siguienteId(Secuencia.USUARIO);
     }
 }
\ No newline at end of file
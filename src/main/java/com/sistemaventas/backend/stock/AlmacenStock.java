@@ -0,0 +1,365 @@
+package com.sistemaventas.backend.stock;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.sistemaventas.backend.exception.ResourceNotFoundException;
+import com.sistemaventas.backend.exception.StockInsuficienteException;
+import com.sistemaventas.backend.repository.ProductoRepository;
+
+import jakarta.annotation.PreDestroy;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Contadores de stock en memoria, separados del catálogo.
+ *
+ * Cada producto tiene un contador con el stock disponible y la variación que
+ * aún no se escribió en PRODUCTO. Las reservas, liberaciones y ajustes se
+ * aplican sobre el contador (sin tocar la base de datos) y una tarea periódica
+ * envía las variaciones acumuladas en un único lote de UPDATEs relativos
+ * (CANTIDADDISPONIBLE = CANTIDADDISPONIBLE + variación).
+ *
+ * Los contadores se cargan desde la base de datos la primera vez que se usan.
+ * Si la transacción que hizo un cambio se revierte, el cambio se deshace.
+ * Este almacén es la fuente de verdad del stock: todas las escrituras deben
+ * pasar por aquí (con una sola instancia de la aplicación). Aun así, los
+ * UPDATE son condicionales y la tabla nunca queda con stock negativo: si
+ * otra instancia o un cambio directo ya tomó ese stock, la variación se
+ * rechaza, se registra como error y el contador se vuelve a leer de la tabla.
+ */
+@Component
+@Slf4j
+public class AlmacenStock {
+
+    private final ProductoRepository productoRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<Integer, Contador> contadores = new ConcurrentHashMap<>();
+
+    private final AtomicLong lotesEscritos = new AtomicLong();
+    private final AtomicLong productosEscritos = new AtomicLong();
+
+    public AlmacenStock(ProductoRepository productoRepository, PlatformTransactionManager transactionManager) {
+        this.productoRepository = productoRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Stock disponible de los productos indicados. Los que no tienen contador
+     * se cargan en una sola consulta; los que no existen no aparecen en el mapa.
+     */
+    public Map<Integer, Integer> disponibles(Collection<Integer> idsProductos) {
+        Map<Integer, Integer> resultado = new LinkedHashMap<>();
+        for (Contador contador : cargar(idsProductos).values()) {
+            resultado.put(contador.idProducto, contador.disponible());
+        }
+        return resultado;
+    }
+
+    public Integer disponible(Integer idProducto) {
+        return disponibles(List.of(idProducto)).get(idProducto);
+    }
+
+    /**
+     * Stock de un producto leído junto con su fila: si hay contador se usa su
+     * valor (la fila puede no tener aún las últimas variaciones); si no, el de
+     * la fila es el real. No carga contadores, para recorridos de todo el catálogo.
+     */
+    public Integer disponibleSegunFila(Integer idProducto, Integer stockEnFila) {
+        Contador contador = contadores.get(idProducto);
+        return contador != null ? contador.disponible() : stockEnFila;
+    }
+
+    /**
+     * Reservar (descontar) stock de varios productos: se descuenta todo o nada.
+     * Devuelve el stock que queda de cada producto.
+     *
+     * @throws StockInsuficienteException si algún producto no tiene stock suficiente
+     */
+    public Map<Integer, Integer> reservar(Map<Integer, Integer> cantidadesPorProducto) {
+        Map<Integer, Contador> cargados = cargarTodos(cantidadesPorProducto.keySet());
+        Map<Integer, Integer> nuevoStock = new LinkedHashMap<>();
+        List<Integer> reservados = new ArrayList<>();
+
+        for (Map.Entry<Integer, Integer> entry : cantidadesPorProducto.entrySet()) {
+            int cantidad = entry.getValue();
+            Integer restante = cargados.get(entry.getKey()).descontarSiAlcanza(cantidad);
+            if (restante == null) {
+                // Devolver lo ya reservado de esta misma operación
+                reservados.forEach(id -> cargados.get(id).sumar(cantidadesPorProducto.get(id)));
+                throw new StockInsuficienteException(entry.getKey(), cargados.get(entry.getKey()).disponible(), cantidad);
+            }
+            nuevoStock.put(entry.getKey(), restante);
+            reservados.add(entry.getKey());
+        }
+
+        deshacerSiSeRevierte(cantidadesPorProducto, -1);
+        return nuevoStock;
+    }
+
+    /**
+     * Sumar stock (liberar una reserva, devoluciones, compras).
+     * Devuelve el stock resultante de cada producto.
+     */
+    public Map<Integer, Integer> sumar(Map<Integer, Integer> cantidadesPorProducto) {
+        Map<Integer, Contador> cargados = cargarTodos(cantidadesPorProducto.keySet());
+        Map<Integer, Integer> nuevoStock = new LinkedHashMap<>();
+        cantidadesPorProducto.forEach((id, cantidad) -> nuevoStock.put(id, cargados.get(id).sumar(cantidad)));
+
+        deshacerSiSeRevierte(cantidadesPorProducto, 1);
+        return nuevoStock;
+    }
+
+    /**
+     * Fijar el stock de un producto (ajuste manual de inventario).
+     * Devuelve el stock que tenía antes.
+     */
+    public int establecer(Integer idProducto, int cantidad) {
+        return establecerVarios(Map.of(idProducto, cantidad)).get(idProducto);
+    }
+
+    /**
+     * Fijar el stock de varios productos (importación del catálogo), cargando
+     * los contadores que falten en una sola consulta.
+     * Devuelve el stock que tenía antes cada producto.
+     */
+    public Map<Integer, Integer> establecerVarios(Map<Integer, Integer> cantidadesPorProducto) {
+        Map<Integer, Contador> cargados = cargarTodos(cantidadesPorProducto.keySet());
+        Map<Integer, Integer> anteriores = new LinkedHashMap<>();
+        Map<Integer, Integer> variaciones = new LinkedHashMap<>();
+        cantidadesPorProducto.forEach((id, cantidad) -> {
+            int anterior = cargados.get(id).establecer(cantidad);
+            anteriores.put(id, anterior);
+            variaciones.put(id, cantidad - anterior);
+        });
+
+        deshacerSiSeRevierte(variaciones, 1);
+        return anteriores;
+    }
+
+    /**
+     * Olvidar el contador de un producto eliminado. Dentro de una transacción
+     * se hace al confirmarla: si el borrado falla (por ejemplo, el producto
+     * tiene ventas) el contador y sus variaciones pendientes se conservan.
+     */
+    public void descartar(Integer idProducto) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            contadores.remove(idProducto);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                contadores.remove(idProducto);
+            }
+        });
+    }
+
+    /**
+     * Escribir en PRODUCTO las variaciones pendientes, en un solo lote y una
+     * sola transacción. Si falla, las variaciones vuelven al contador y se
+     * reintentan en la siguiente ejecución.
+     */
+    @Scheduled(fixedDelayString = "${sistemaventas.inventario.stock.intervalo-escritura-ms:500}")
+    public void escribirPendientes() {
+        Map<Integer, Integer> variaciones = new LinkedHashMap<>();
+        contadores.values().forEach(contador -> {
+            int pendiente = contador.tomarPendiente();
+            if (pendiente != 0) {
+                variaciones.put(contador.idProducto, pendiente);
+            }
+        });
+        if (variaciones.isEmpty()) {
+            return;
+        }
+
+        int[] filas;
+        try {
+            filas = transactionTemplate.execute(status -> productoRepository.aplicarVariacionesStock(variaciones));
+            lotesEscritos.incrementAndGet();
+            productosEscritos.addAndGet(variaciones.size());
+            log.debug("Stock escrito en base de datos para {} productos", variaciones.size());
+        } catch (RuntimeException e) {
+            variaciones.forEach((id, variacion) -> {
+                Contador contador = contadores.get(id);
+                if (contador != null) {
+                    contador.devolverPendiente(variacion);
+                }
+            });
+            log.error("Error escribiendo stock de {} productos, se reintentará: {}", variaciones.size(), e.getMessage());
+            return;
+        }
+        resincronizarRechazados(variaciones, filas);
+    }
+
+    /**
+     * Variaciones que la tabla rechazó (el stock quedaría negativo o el producto
+     * ya no existe): la tabla no coincide con el contador, así que este se
+     * vuelve a leer conservando lo que cambió después de tomar el lote.
+     */
+    private void resincronizarRechazados(Map<Integer, Integer> variaciones, int[] filas) {
+        List<Integer> rechazados = new ArrayList<>();
+        int i = 0;
+        for (Map.Entry<Integer, Integer> entry : variaciones.entrySet()) {
+            if (filas != null && i < filas.length && filas[i] == 0) {
+                rechazados.add(entry.getKey());
+                log.error("❌ Variación de stock {} del producto {} rechazada por la base de datos (otra instancia o un "
+                        + "cambio directo ya tomó ese stock); se recarga el contador", entry.getValue(), entry.getKey());
+            }
+            i++;
+        }
+        if (rechazados.isEmpty()) {
+            return;
+        }
+        Map<Integer, Integer> stockEnTabla = productoRepository.consultarStock(rechazados);
+        for (Integer id : rechazados) {
+            Contador contador = contadores.get(id);
+            if (contador == null) {
+                continue;
+            }
+            Integer stock = stockEnTabla.get(id);
+            if (stock == null) {
+                contadores.remove(id, contador);
+            } else {
+                contador.resincronizar(stock);
+            }
+        }
+    }
+
+    // Contadores cargados, variaciones sin escribir y lotes enviados
+    public Map<String, Object> obtenerEstadisticas() {
+        Map<String, Object> estadisticas = new LinkedHashMap<>();
+        estadisticas.put("contadores", contadores.size());
+        estadisticas.put("productosPendientes", contadores.values().stream().filter(Contador::tienePendiente).count());
+        estadisticas.put("lotesEscritos", lotesEscritos.get());
+        estadisticas.put("productosEscritos", productosEscritos.get());
+        return estadisticas;
+    }
+
+    // No perder las variaciones pendientes al cerrar la aplicación
+    @PreDestroy
+    public void detener() {
+        escribirPendientes();
+    }
+
+    // Si hay una transacción activa y se revierte, aplicar la variación contraria
+    private void deshacerSiSeRevierte(Map<Integer, Integer> cantidadesPorProducto, int signo) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        Map<Integer, Integer> cantidades = new LinkedHashMap<>(cantidadesPorProducto);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    cantidades.forEach((id, cantidad) -> {
+                        Contador contador = contadores.get(id);
+                        if (contador != null) {
+                            contador.sumar(-signo * cantidad);
+                        }
+                    });
+                }
+            }
+        });
+    }
+
+    // Contadores de los productos indicados; falla si alguno no existe
+    private Map<Integer, Contador> cargarTodos(Collection<Integer> idsProductos) {
+        Map<Integer, Contador> cargados = cargar(idsProductos);
+        for (Integer id : idsProductos) {
+            if (!cargados.containsKey(id)) {
+                throw new ResourceNotFoundException("Producto no encontrado con ID: " + id);
+            }
+        }
+        return cargados;
+    }
+
+    private Map<Integer, Contador> cargar(Collection<Integer> idsProductos) {
+        Map<Integer, Contador> cargados = new LinkedHashMap<>();
+        List<Integer> faltantes = new ArrayList<>();
+        for (Integer id : idsProductos) {
+            Contador contador = contadores.get(id);
+            if (contador != null) {
+                cargados.put(id, contador);
+            } else {
+                faltantes.add(id);
+            }
+        }
+        if (!faltantes.isEmpty()) {
+            // Sin contador no hay variaciones pendientes: la base de datos tiene el valor real
+            productoRepository.consultarStock(faltantes).forEach((id, stock) ->
+                    cargados.put(id, contadores.computeIfAbsent(id, clave -> new Contador(clave, stock))));
+        }
+        return cargados;
+    }
+
+    // Stock de un producto y variación aún no escrita en la base de datos
+    private static final class Contador {
+        private final Integer idProducto;
+        private int disponible;
+        private int pendiente;
+
+        Contador(Integer idProducto, int disponible) {
+            this.idProducto = idProducto;
+            this.disponible = disponible;
+        }
+
+        synchronized int disponible() {
+            return disponible;
+        }
+
+        synchronized int sumar(int variacion) {
+            disponible += variacion;
+            pendiente += variacion;
+            return disponible;
+        }
+
+        // Fija el stock y devuelve el valor anterior
+        synchronized int establecer(int cantidad) {
+            int anterior = disponible;
+            sumar(cantidad - anterior);
+            return anterior;
+        }
+
+        // Descuenta y devuelve el stock restante, o null si no alcanza
+        synchronized Integer descontarSiAlcanza(int cantidad) {
+            if (disponible < cantidad) {
+                return null;
+            }
+            return sumar(-cantidad);
+        }
+
+        synchronized int tomarPendiente() {
+            int valor = pendiente;
+            pendiente = 0;
+            return valor;
+        }
+
+        synchronized void devolverPendiente(int variacion) {
+            pendiente += variacion;
+        }
+
+        // Partir del stock de la tabla más lo que aún no se escribió
+        synchronized void resincronizar(int stockEnTabla) {
+            disponible = stockEnTabla + pendiente;
+        }
+
+        synchronized boolean tienePendiente() {
+            return pendiente != 0;
+        }
+    }
+}
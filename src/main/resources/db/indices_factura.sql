@@ -0,0 +1,20 @@
+-- Índices de FACTURA para las consultas por rango de fechas (día, mes, historial)
+-- y para no registrar dos veces una venta importada de una caja.
+--
+-- (FECHA, IDFACTURA): días y meses de la tienda, y el orden del historial
+-- (fecha DESC, idFactura DESC) sin ordenar en memoria.
+-- (IDUSUARIO, FECHA, IDFACTURA): ventas de un cajero en un período.
+-- UNIQUE (ID_VENTA_CAJA): ID de la venta en la caja que la importó; las ventas
+-- en línea lo dejan en NULL y no chocan entre sí.
+--
+-- CONCURRENTLY no bloquea las ventas mientras se crea el índice. Si la creación
+-- se interrumpe queda un índice inválido que IF NOT EXISTS no vuelve a crear:
+-- hay que eliminarlo (DROP INDEX) y reiniciar la aplicación.
+
+ALTER TABLE FACTURA ADD COLUMN IF NOT EXISTS ID_VENTA_CAJA VARCHAR(100);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS IX_FACTURA_FECHA ON FACTURA (FECHA, IDFACTURA);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS IX_FACTURA_USUARIO_FECHA ON FACTURA (IDUSUARIO, FECHA, IDFACTURA);
+
+CREATE UNIQUE INDEX CONCURRENTLY IF NOT EXISTS UX_FACTURA_VENTA_CAJA ON FACTURA (ID_VENTA_CAJA);
@@ -0,0 +1,41 @@
+-- Resumen de ventas precalculado, mantenido en la misma transacción de cada
+-- venta y devolución (ver ResumenVentasService).
+--
+-- RESUMEN_VENTAS_DIA: una fila por día de la tienda, para los totales del tablero.
+-- RESUMEN_VENTAS_HORA: el mismo resumen por hora, cajero y método de pago.
+--
+-- VENTAS, SUBTOTAL, IVA y TOTAL son las ventas confirmadas (con pago) del día;
+-- una devolución no las resta: suma en DEVOLUCIONES y TOTAL_DEVUELTO del día
+-- en que se hizo la venta.
+--
+-- RESUMEN_VENTAS_CARGA: su única fila indica que el resumen ya se llenó con
+-- las facturas existentes; mientras no exista se vuelve a cargar al arrancar.
+
+CREATE TABLE IF NOT EXISTS RESUMEN_VENTAS_DIA (
+    FECHA           DATE           NOT NULL PRIMARY KEY,
+    VENTAS          INTEGER        NOT NULL DEFAULT 0,
+    SUBTOTAL        NUMERIC(14, 2) NOT NULL DEFAULT 0,
+    IVA             NUMERIC(14, 2) NOT NULL DEFAULT 0,
+    TOTAL           NUMERIC(14, 2) NOT NULL DEFAULT 0,
+    DEVOLUCIONES    INTEGER        NOT NULL DEFAULT 0,
+    TOTAL_DEVUELTO  NUMERIC(14, 2) NOT NULL DEFAULT 0
+);
+
+CREATE TABLE IF NOT EXISTS RESUMEN_VENTAS_HORA (
+    FECHA           DATE           NOT NULL,
+    HORA            SMALLINT       NOT NULL,
+    IDUSUARIO       INTEGER        NOT NULL,
+    METODOPAGO      VARCHAR(256)   NOT NULL,
+    VENTAS          INTEGER        NOT NULL DEFAULT 0,
+    SUBTOTAL        NUMERIC(14, 2) NOT NULL DEFAULT 0,
+    IVA             NUMERIC(14, 2) NOT NULL DEFAULT 0,
+    TOTAL           NUMERIC(14, 2) NOT NULL DEFAULT 0,
+    DEVOLUCIONES    INTEGER        NOT NULL DEFAULT 0,
+    TOTAL_DEVUELTO  NUMERIC(14, 2) NOT NULL DEFAULT 0,
+    PRIMARY KEY (FECHA, HORA, IDUSUARIO, METODOPAGO)
+);
+
+CREATE TABLE IF NOT EXISTS RESUMEN_VENTAS_CARGA (
+    ID              SMALLINT       NOT NULL PRIMARY KEY CHECK (ID = 1),
+    CARGADO_EN      TIMESTAMP      NOT NULL
+);
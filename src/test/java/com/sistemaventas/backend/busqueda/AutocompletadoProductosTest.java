@@ -0,0 +1,67 @@
+package com.sistemaventas.backend.busqueda;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.sistemaventas.backend.cache.ProductoCatalogo;
+import com.sistemaventas.backend.repository.DetalleFacturaRepository;
+import com.sistemaventas.backend.repository.ProductoRepository;
+
+/**
+ * Sugerencias por prefijo ordenadas por unidades vendidas.
+ */
+class AutocompletadoProductosTest {
+
+	private AutocompletadoProductos autocompletado;
+
+	@BeforeEach
+	void setUp() {
+		ProductoRepository productoRepository = mock(ProductoRepository.class);
+		when(productoRepository.findCatalogo()).thenReturn(List.of(
+				producto(1, "Pan Integral"),
+				producto(2, "Panela Orgánica"),
+				producto(3, "Pañales Etapa 3"),
+				producto(4, "Leche Entera")));
+		DetalleFacturaRepository detalleFacturaRepository = mock(DetalleFacturaRepository.class);
+		when(detalleFacturaRepository.sumarCantidadesPorProducto()).thenReturn(List.of(
+				new Object[] {1, 5L}, new Object[] {2, 50L}, new Object[] {3, 20L}));
+		autocompletado = new AutocompletadoProductos(productoRepository, detalleFacturaRepository, 10);
+		autocompletado.cargar();
+	}
+
+	@Test
+	void sugiereLosMasVendidosPrimero() {
+		assertArrayEquals(new int[] {2, 3, 1}, autocompletado.sugerir("pa", 10));
+		assertArrayEquals(new int[] {2, 3}, autocompletado.sugerir("Pa", 2));
+		// La ñ se pliega como n, igual que en el índice de búsqueda
+		assertArrayEquals(new int[] {2, 3, 1}, autocompletado.sugerir("pañ", 10));
+	}
+
+	@Test
+	void sugierePorCualquierPalabraDeLaDescripcion() {
+		assertArrayEquals(new int[] {1}, autocompletado.sugerir("integ", 10));
+		assertArrayEquals(new int[] {4}, autocompletado.sugerir("ENTERA", 10));
+		assertArrayEquals(new int[0], autocompletado.sugerir("xyz", 10));
+	}
+
+	@Test
+	void seActualizaAlEditarYEliminar() {
+		autocompletado.actualizar(producto(4, "Pan de Leche"));
+		assertArrayEquals(new int[] {2, 3, 1, 4}, autocompletado.sugerir("pa", 10));
+		assertArrayEquals(new int[0], autocompletado.sugerir("entera", 10));
+
+		autocompletado.eliminar(2);
+		assertArrayEquals(new int[] {3, 1, 4}, autocompletado.sugerir("pa", 10));
+	}
+
+	private static ProductoCatalogo producto(int id, String descripcion) {
+		return new ProductoCatalogo(id, descripcion, BigDecimal.ONE, "general");
+	}
+}
@@ -0,0 +1,68 @@
+package com.sistemaventas.backend.busqueda;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.sistemaventas.backend.cache.ProductoCatalogo;
+import com.sistemaventas.backend.repository.ProductoRepository;
+
+/**
+ * Búsqueda sin tildes, por prefijo y por parte de palabra, y orden por relevancia.
+ */
+class IndiceProductosTest {
+
+	private IndiceProductos indice;
+
+	@BeforeEach
+	void setUp() {
+		ProductoRepository productoRepository = mock(ProductoRepository.class);
+		when(productoRepository.findCatalogo()).thenReturn(List.of(
+				producto(1, "Pan Integral", "Panadería"),
+				producto(2, "Leche Deslactosada", "Lácteos"),
+				producto(3, "Yogurt Natural", "lácteos"),
+				producto(4, "Panela Orgánica", "endulzantes")));
+		indice = new IndiceProductos(productoRepository);
+		indice.cargar();
+	}
+
+	@Test
+	void ignoraTildesYMayusculas() {
+		assertEquals(List.of(2, 3), indice.buscar("LACTEOS", 10));
+		assertEquals(List.of(4), indice.buscar("organica", 10));
+	}
+
+	@Test
+	void ordenaPorRelevancia() {
+		// "pan" exacto en la descripción > prefijo en la descripción ("panela") > prefijo en la categoría
+		assertEquals(List.of(1, 4), indice.buscar("pan", 10));
+	}
+
+	@Test
+	void encuentraPartesDePalabraYExigeTodasLasPalabras() {
+		assertEquals(List.of(2), indice.buscar("lactosada", 10));
+		assertEquals(List.of(3), indice.buscar("yog lact", 10));
+		assertTrue(indice.buscar("yogurt pan", 10).isEmpty());
+	}
+
+	@Test
+	void seActualizaAlEditarYEliminar() {
+		indice.actualizar(producto(1, "Pan Blanco", "Panadería"));
+		assertTrue(indice.buscar("integral", 10).isEmpty());
+		assertEquals(List.of(1), indice.buscar("blanco", 10));
+
+		indice.eliminar(1);
+		assertTrue(indice.buscar("blanco", 10).isEmpty());
+	}
+
+	private static ProductoCatalogo producto(int id, String descripcion, String categoria) {
+		return new ProductoCatalogo(id, descripcion, BigDecimal.ONE, categoria);
+	}
+}
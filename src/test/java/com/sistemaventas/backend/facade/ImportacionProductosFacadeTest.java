@@ -0,0 +1,168 @@
+package com.sistemaventas.backend.facade;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sistemaventas.backend.dto.request.ProductoRequest;
+import com.sistemaventas.backend.dto.response.ResultadoImportacionProductoResponse;
+import com.sistemaventas.backend.entity.Producto;
+import com.sistemaventas.backend.importacion.LectorCsvProductos;
+import com.sistemaventas.backend.importacion.LectorNdjson;
+import com.sistemaventas.backend.service.ProductoService;
+
+/**
+ * Importación del catálogo desde CSV y NDJSON: errores por fila sin detener la
+ * importación, una consulta de IDs existentes, una reserva de IDs (después
+ * de adelantar la secuencia a los IDs nuevos del archivo) y un guardado por
+ * lote, y guardado producto por producto si el lote falla.
+ */
+class ImportacionProductosFacadeTest {
+
+	private final List<List<Producto>> nuevosGuardados = new ArrayList<>();
+	private final List<List<Producto>> existentesGuardados = new ArrayList<>();
+
+	private ProductoService productoService;
+	private ImportacionProductosFacade importacion;
+
+	@BeforeEach
+	void setUp() {
+		productoService = mock(ProductoService.class);
+		when(productoService.buscarIdsExistentes(any())).thenAnswer(inv -> {
+			Set<Integer> existentes = new HashSet<>(inv.<Collection<Integer>>getArgument(0));
+			existentes.retainAll(Set.of(7));
+			return existentes;
+		});
+		when(productoService.reservarIds(anyInt())).thenAnswer(inv ->
+				IntStream.range(100, 100 + inv.<Integer>getArgument(0)).boxed().toList());
+		doAnswer(inv -> {
+			List<Producto> nuevos = inv.getArgument(0);
+			List<Producto> existentes = inv.getArgument(1);
+			if (nuevos.stream().anyMatch(p -> p.getDescripcion().startsWith("Falla"))) {
+				throw new RuntimeException("Error de base de datos");
+			}
+			nuevosGuardados.add(nuevos);
+			existentesGuardados.add(existentes);
+			return null;
+		}).when(productoService).guardarImportados(any(), any());
+
+		importacion = new ImportacionProductosFacade(productoService, mock(PlatformTransactionManager.class), 10);
+	}
+
+	@Test
+	void importaCsvConErroresPorFilaYUnGuardadoPorLote() {
+		String csv = """
+				idProducto;descripcion;precioUnitario;cantidadDisponible;categoria
+				;Arroz Diana;2500,50;10;granos
+				7;"Aceite ""Premium""\";3500;5;aceites
+				7;Aceite repetido;3000;1;aceites
+				;Arroz barato;500;3;granos
+				x;Sal;800;1;condimentos
+				;Leche;4000;2
+
+				;Pan integral;3000;20;panadería
+				""";
+
+		List<ResultadoImportacionProductoResponse> resultados = new ArrayList<>();
+		importacion.importar(new LectorCsvProductos(new StringReader(csv)), resultados::addAll);
+
+		assertEquals(List.of("CREADO", "ACTUALIZADO", "ERROR", "ERROR", "ERROR", "ERROR", "CREADO"),
+				resultados.stream().map(ResultadoImportacionProductoResponse::getEstado).toList());
+		assertEquals(List.of(0, 1, 2, 3, 4, 5, 6),
+				resultados.stream().map(ResultadoImportacionProductoResponse::getIndice).toList());
+		assertEquals("ID de producto repetido en la importación: 7", resultados.get(2).getMensaje());
+		assertEquals("El arroz debe tener un precio mínimo de $1000", resultados.get(3).getMensaje());
+		assertEquals("Valor inválido en 'idProducto': x", resultados.get(4).getMensaje());
+		assertEquals("Se esperaban 5 columnas y la fila tiene 4", resultados.get(5).getMensaje());
+
+		// Una consulta de existentes, una reserva de IDs y un guardado para todo el lote
+		verify(productoService, times(1)).buscarIdsExistentes(any());
+		verify(productoService, times(1)).reservarIds(2);
+		assertEquals(1, nuevosGuardados.size());
+		assertEquals(List.of(100, 101), nuevosGuardados.get(0).stream().map(Producto::getIdProducto).toList());
+		assertEquals(new BigDecimal("2500.50"), nuevosGuardados.get(0).get(0).getPrecioUnitario());
+
+		Producto aceite = existentesGuardados.get(0).get(0);
+		assertEquals(7, aceite.getIdProducto());
+		assertEquals("Aceite \"Premium\"", aceite.getDescripcion());
+		assertEquals("Aceites", aceite.getCategoria());
+	}
+
+	@Test
+	void unaLineaNdjsonMalFormadaSoloFallaEsaLinea() {
+		String ndjson = """
+				{"descripcion":"Frijol","precioUnitario":4000,"cantidadDisponible":8,"categoria":"granos"}
+				{"descripcion":"Lenteja","precioUnitario":
+				{"descripcion":"Sal","precioUnitario":"barato","cantidadDisponible":1,"categoria":"condimentos"}
+
+				{"descripcion":"Garbanzo","precioUnitario":5000,"cantidadDisponible":2,"categoria":"granos"}
+				""";
+
+		List<ResultadoImportacionProductoResponse> resultados = new ArrayList<>();
+		importacion.importar(new LectorNdjson<ProductoRequest>(new StringReader(ndjson),
+				new ObjectMapper().readerFor(ProductoRequest.class)), resultados::addAll);
+
+		assertEquals(List.of("CREADO", "ERROR", "ERROR", "CREADO"),
+				resultados.stream().map(ResultadoImportacionProductoResponse::getEstado).toList());
+		assertTrue(resultados.get(1).getMensaje().startsWith("JSON inválido"));
+		assertTrue(resultados.get(2).getMensaje().startsWith("JSON inválido"));
+	}
+
+	@Test
+	void losIdsNuevosDelArchivoAdelantanLaSecuenciaAntesDeReservar() {
+		String csv = """
+				idProducto,descripcion,precioUnitario,cantidadDisponible,categoria
+				7,Aceite,3500,5,aceites
+				500,Frijol,4000,8,granos
+				,Lenteja,3000,4,granos
+				120,Garbanzo,5000,2,granos
+				""";
+
+		importacion.importar(new LectorCsvProductos(new StringReader(csv)), resultados -> { });
+
+		// El 7 ya existe: solo cuentan los IDs que se van a insertar
+		InOrder orden = inOrder(productoService);
+		orden.verify(productoService).reservarIdsHasta(500);
+		orden.verify(productoService).reservarIds(1);
+	}
+
+	@Test
+	void siElLoteFallaSeGuardaProductoPorProducto() {
+		String csv = """
+				descripcion,precioUnitario,cantidadDisponible,categoria
+				Falla al guardar,1500,1,granos
+				Frijol,4000,8,granos
+				""";
+
+		List<ResultadoImportacionProductoResponse> resultados = new ArrayList<>();
+		importacion.importar(new LectorCsvProductos(new StringReader(csv)), resultados::addAll);
+
+		assertEquals("ERROR", resultados.get(0).getEstado());
+		assertEquals("Error de base de datos", resultados.get(0).getMensaje());
+		assertEquals("CREADO", resultados.get(1).getEstado());
+		assertEquals(101, resultados.get(1).getIdProducto());
+		assertTrue(nuevosGuardados.stream().flatMap(List::stream).noneMatch(p -> p.getDescripcion().startsWith("Falla")));
+	}
+}
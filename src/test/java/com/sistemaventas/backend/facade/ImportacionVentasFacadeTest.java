@@ -0,0 +1,176 @@
+package com.sistemaventas.backend.facade;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.sistemaventas.backend.dto.request.VentaRequest;
+import com.sistemaventas.backend.dto.response.ResultadoImportacionResponse;
+import com.sistemaventas.backend.entity.Factura;
+import com.sistemaventas.backend.entity.Pago;
+import com.sistemaventas.backend.entity.Producto;
+import com.sistemaventas.backend.entity.Usuario;
+import com.sistemaventas.backend.service.FacturaService;
+import com.sistemaventas.backend.service.PagoService;
+import com.sistemaventas.backend.service.ProductoService;
+import com.sistemaventas.backend.service.ResumenVentasService;
+import com.sistemaventas.backend.service.UsuarioService;
+
+/**
+ * Importación por lotes: validación en memoria contra el stock que van
+ * dejando las ventas anteriores, una sola reserva de stock por lote y
+ * registro venta por venta cuando el lote completo no puede guardarse, y
+ * ventas repetidas (mismo idVentaCaja) que no vuelven a registrarse.
+ */
+class ImportacionVentasFacadeTest {
+
+	private final List<Map<Integer, Integer>> reservas = new ArrayList<>();
+	private final List<Integer> facturasPorLote = new ArrayList<>();
+
+	private final AtomicInteger ventasCaja = new AtomicInteger();
+
+	private ProductoService productoService;
+	private UsuarioService usuarioService;
+	private FacturaService facturaService;
+	private ImportacionVentasFacade importacion;
+
+	@BeforeEach
+	void setUp() {
+		Usuario cajero = new Usuario();
+		cajero.setIdUsuario(2);
+		usuarioService = mock(UsuarioService.class);
+		when(usuarioService.buscarPorIds(any())).thenReturn(Map.of(2, cajero));
+
+		productoService = mock(ProductoService.class);
+		when(productoService.buscarPorIds(any())).thenAnswer(inv -> {
+			Map<Integer, Producto> productos = new HashMap<>();
+			for (Integer id : inv.<Collection<Integer>>getArgument(0)) {
+				if (id == 1) {
+					productos.put(1, new Producto(1, 5, new BigDecimal("1000"), "Arroz", "granos"));
+				} else if (id == 2) {
+					productos.put(2, new Producto(2, 100, new BigDecimal("500"), "Sal", "condimentos"));
+				}
+			}
+			return productos;
+		});
+		when(productoService.obtenerReferencia(anyInt())).thenAnswer(inv -> {
+			Producto referencia = new Producto();
+			referencia.setIdProducto(inv.getArgument(0));
+			return referencia;
+		});
+		doAnswer(inv -> {
+			Map<Integer, Integer> cantidades = new HashMap<>();
+			inv.<Map<Producto, Integer>>getArgument(0).forEach((producto, cantidad) -> cantidades.put(producto.getIdProducto(), cantidad));
+			reservas.add(cantidades);
+			return null;
+		}).when(productoService).reducirStockEnLote(any());
+
+		AtomicInteger ids = new AtomicInteger(100);
+		facturaService = mock(FacturaService.class);
+		when(facturaService.guardarFacturas(any())).thenAnswer(inv -> {
+			List<Factura> facturas = inv.getArgument(0);
+			facturas.forEach(factura -> factura.setIdFactura(ids.incrementAndGet()));
+			facturasPorLote.add(facturas.size());
+			return facturas;
+		});
+		PagoService pagoService = mock(PagoService.class);
+		when(pagoService.crearPago(any(), any(), any())).thenAnswer(inv -> new Pago(
+				ids.incrementAndGet(), inv.getArgument(2), "Efectivo", inv.getArgument(1)));
+
+		importacion = new ImportacionVentasFacade(productoService, usuarioService, facturaService, pagoService,
+				mock(ResumenVentasService.class), mock(PlatformTransactionManager.class), 10);
+	}
+
+	@Test
+	void validaEnMemoriaYReservaElStockUnaVezPorLote() {
+		List<VentaRequest> ventas = List.of(
+				venta(2, item(1, 3), item(2, 1)),
+				venta(99, item(2, 1)),            // usuario inexistente
+				venta(2, item(1, 3)),             // solo quedan 2 de producto 1
+				venta(2, item(2, 2), item(404, 1)), // producto inexistente
+				venta(2, item(2, 4)));
+
+		List<ResultadoImportacionResponse> resultados = new ArrayList<>();
+		importacion.importar(ventas.iterator(), resultados::addAll);
+
+		assertEquals(List.of("EXITOSA", "ERROR", "ERROR", "ERROR", "EXITOSA"),
+				resultados.stream().map(ResultadoImportacionResponse::getEstado).toList());
+		assertEquals(List.of(0, 1, 2, 3, 4),
+				resultados.stream().map(ResultadoImportacionResponse::getIndice).toList());
+		assertEquals("Stock insuficiente para 'Arroz'. Disponible: 2, Solicitado: 3", resultados.get(2).getMensaje());
+		assertEquals(new BigDecimal("2380.00"), resultados.get(4).getTotal().setScale(2));
+
+		// Una consulta de usuarios, una de productos, una reserva y un guardado para todo el lote
+		verify(usuarioService, times(1)).buscarPorIds(any());
+		verify(productoService, times(1)).buscarPorIds(any());
+		assertEquals(List.of(Map.of(1, 3, 2, 5)), reservas);
+		assertEquals(List.of(2), facturasPorLote);
+	}
+
+	@Test
+	void siElLoteFallaSeRegistraVentaPorVenta() {
+		// Otra venta se llevó el producto 1 entre la validación y la reserva
+		doAnswer(inv -> {
+			Map<Producto, Integer> cantidades = inv.getArgument(0);
+			if (cantidades.keySet().stream().anyMatch(producto -> producto.getIdProducto() == 1)) {
+				throw new RuntimeException("Stock insuficiente para producto Arroz. Solicitado: 1");
+			}
+			return null;
+		}).when(productoService).reducirStockEnLote(any());
+
+		List<ResultadoImportacionResponse> resultados = new ArrayList<>();
+		importacion.importar(List.of(venta(2, item(1, 1)), venta(2, item(2, 1))).iterator(), resultados::addAll);
+
+		assertEquals("ERROR", resultados.get(0).getEstado());
+		assertNull(resultados.get(0).getIdFactura());
+		assertEquals("Stock insuficiente para producto Arroz. Solicitado: 1", resultados.get(0).getMensaje());
+		assertEquals("EXITOSA", resultados.get(1).getEstado());
+	}
+
+	@Test
+	void ventasYaImportadasNoSeRegistranOtraVez() {
+		VentaRequest registrada = venta(2, item(1, 1));
+		VentaRequest nueva = venta(2, item(2, 1));
+		when(facturaService.buscarVentasDeCaja(any())).thenReturn(
+				Map.of(registrada.getIdVentaCaja(), new FacturaService.VentaDeCaja(77, new BigDecimal("1190"))));
+
+		// La caja repite la importación tras un corte, con una venta además repetida en la entrada
+		List<ResultadoImportacionResponse> resultados = new ArrayList<>();
+		importacion.importar(List.of(registrada, nueva, nueva).iterator(), resultados::addAll);
+
+		assertEquals(List.of("YA_REGISTRADA", "EXITOSA", "YA_REGISTRADA"),
+				resultados.stream().map(ResultadoImportacionResponse::getEstado).toList());
+		assertEquals(77, resultados.get(0).getIdFactura());
+		assertEquals(resultados.get(1).getIdFactura(), resultados.get(2).getIdFactura());
+		assertEquals(List.of(Map.of(2, 1)), reservas);
+		assertEquals(List.of(1), facturasPorLote);
+	}
+
+	private VentaRequest venta(int idUsuario, VentaRequest.ItemVenta... items) {
+		VentaRequest venta = new VentaRequest(idUsuario, List.of(items), new VentaRequest.DatosPago("Efectivo"));
+		venta.setIdVentaCaja("caja-1:" + ventasCaja.incrementAndGet());
+		return venta;
+	}
+
+	private VentaRequest.ItemVenta item(int idProducto, int cantidad) {
+		return new VentaRequest.ItemVenta(idProducto, cantidad);
+	}
+}
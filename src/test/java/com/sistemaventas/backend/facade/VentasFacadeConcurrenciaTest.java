@@ -0,0 +1,171 @@
+package com.sistemaventas.backend.facade;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.sistemaventas.backend.dto.request.VentaRequest;
+import com.sistemaventas.backend.entity.DetalleFactura;
+import com.sistemaventas.backend.entity.Factura;
+import com.sistemaventas.backend.entity.Pago;
+import com.sistemaventas.backend.entity.Producto;
+import com.sistemaventas.backend.entity.Usuario;
+import com.sistemaventas.backend.id.BloqueIds;
+import com.sistemaventas.backend.id.GeneradorIdsSecuencia;
+import com.sistemaventas.backend.id.Secuencia;
+import com.sistemaventas.backend.observer.InventarioNotificationService;
+import com.sistemaventas.backend.repository.FacturaRepository;
+import com.sistemaventas.backend.service.FacturaService;
+import com.sistemaventas.backend.service.PagoService;
+import com.sistemaventas.backend.service.PdfFacturasService;
+import com.sistemaventas.backend.service.ProductoService;
+import com.sistemaventas.backend.service.ResumenVentasService;
+import com.sistemaventas.backend.service.UsuarioService;
+
+/**
+ * Prueba de estrés: miles de ventas simultáneas no deben producir claves
+ * primarias duplicadas ni en FACTURA ni en DETALLEFACTURA. Además, un pago
+ * aprobado que no se puede registrar se anula con la pasarela.
+ */
+class VentasFacadeConcurrenciaTest {
+
+	private static final int VENTAS = 4000;
+	private static final int HILOS = 32;
+
+	// Simula las restricciones PRIMARY KEY de ambas tablas
+	private final Map<Integer, Factura> facturasGuardadas = new ConcurrentHashMap<>();
+	private final Map<Integer, DetalleFactura> detallesGuardados = new ConcurrentHashMap<>();
+
+	private VentasFacade ventasFacade;
+	private PagoService pagoService;
+
+	@BeforeEach
+	void configurar() {
+		// Una "secuencia" en memoria por entidad, con bloques de 20 IDs
+		Map<Secuencia, AtomicLong> secuencias = new ConcurrentHashMap<>();
+		GeneradorIdsSecuencia generadorIds = new GeneradorIdsSecuencia(s -> new BloqueIds(
+				secuencias.computeIfAbsent(s, k -> new AtomicLong(1)).getAndAdd(20), 20));
+
+		FacturaRepository facturaRepository = mock(FacturaRepository.class);
+		when(facturaRepository.save(any(Factura.class))).thenAnswer(inv -> guardar(inv.getArgument(0)));
+		when(facturaRepository.asignarPago(anyInt(), anyInt()))
+				.thenAnswer(inv -> facturasGuardadas.containsKey(inv.<Integer>getArgument(0)) ? 1 : 0);
+
+		FacturaService facturaService = new FacturaService();
+		ReflectionTestUtils.setField(facturaService, "facturaRepository", facturaRepository);
+		ReflectionTestUtils.setField(facturaService, "generadorIds", generadorIds);
+
+		Usuario cajero = new Usuario();
+		cajero.setIdUsuario(2);
+		cajero.setNombre("Cajero");
+		UsuarioService usuarioService = mock(UsuarioService.class);
+		when(usuarioService.buscarPorId(2)).thenReturn(Optional.of(cajero));
+
+		ProductoService productoService = mock(ProductoService.class);
+		when(productoService.buscarPorIds(any())).thenAnswer(inv -> {
+			Map<Integer, Producto> productos = new HashMap<>();
+			for (Integer id : inv.<Collection<Integer>>getArgument(0)) {
+				productos.put(id, new Producto(id, 1_000_000, new BigDecimal("2500"), "Producto", "General"));
+			}
+			return productos;
+		});
+
+		AtomicInteger idsPago = new AtomicInteger();
+		pagoService = mock(PagoService.class);
+		when(pagoService.autorizarPago(any(), any())).thenReturn(true);
+		when(pagoService.registrarPago(any(), any(), any())).thenAnswer(inv -> new Pago(
+				idsPago.incrementAndGet(), inv.getArgument(2), "Efectivo", inv.getArgument(1)));
+
+		ventasFacade = new VentasFacade(facturaService, mock(InventarioNotificationService.class),
+				pagoService, productoService, usuarioService, mock(ResumenVentasService.class),
+				mock(PdfFacturasService.class), mock(PlatformTransactionManager.class));
+	}
+
+	@Test
+	void ventasConcurrentesNoGeneranClavesDuplicadas() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(HILOS);
+		CountDownLatch inicio = new CountDownLatch(1);
+		AtomicInteger fallos = new AtomicInteger();
+		List<Throwable> errores = new ArrayList<>();
+
+		for (int i = 0; i < VENTAS; i++) {
+			executor.execute(() -> {
+				try {
+					inicio.await();
+					ventasFacade.procesarVenta(crearVenta());
+				} catch (Throwable e) {
+					fallos.incrementAndGet();
+					synchronized (errores) {
+						errores.add(e);
+					}
+				}
+			});
+		}
+
+		inicio.countDown();
+		executor.shutdown();
+		assertTrue(executor.awaitTermination(2, TimeUnit.MINUTES), "Las ventas no terminaron a tiempo");
+
+		assertEquals(0, fallos.get(), () -> "Ventas fallidas: " + errores.stream().limit(3).toList());
+		assertEquals(VENTAS, facturasGuardadas.size());
+		assertEquals(VENTAS * 3, detallesGuardados.size());
+	}
+
+	@Test
+	void pagoAprobadoQueNoSeRegistraSeAnula() {
+		when(pagoService.registrarPago(any(), any(), any())).thenThrow(new RuntimeException("conexión perdida"));
+		VentaRequest venta = crearVenta();
+
+		assertThrows(RuntimeException.class, () -> ventasFacade.procesarVenta(venta));
+
+		verify(pagoService).anularPago(venta.getDatosPago(), new BigDecimal("23800.00"));
+	}
+
+	private VentaRequest crearVenta() {
+		List<VentaRequest.ItemVenta> items = List.of(
+				new VentaRequest.ItemVenta(1, 2),
+				new VentaRequest.ItemVenta(2, 1),
+				new VentaRequest.ItemVenta(3, 5));
+		return new VentaRequest(2, items, new VentaRequest.DatosPago("Efectivo"));
+	}
+
+	private Factura guardar(Factura factura) {
+		Factura previa = facturasGuardadas.putIfAbsent(factura.getIdFactura(), factura);
+		if (previa != null && previa != factura) {
+			throw new DataIntegrityViolationException("Clave duplicada en FACTURA: " + factura.getIdFactura());
+		}
+		for (DetalleFactura detalle : factura.getDetallesFactura()) {
+			DetalleFactura previo = detallesGuardados.putIfAbsent(detalle.getIdDetalle(), detalle);
+			if (previo != null && previo != detalle) {
+				throw new DataIntegrityViolationException("Clave duplicada en DETALLEFACTURA: " + detalle.getIdDetalle());
+			}
+		}
+		return factura;
+	}
+}
@@ -0,0 +1,267 @@
+package com.sistemaventas.backend.facade;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.sistemaventas.backend.dto.request.VentaRequest;
+import com.sistemaventas.backend.entity.Factura;
+import com.sistemaventas.backend.entity.Pago;
+import com.sistemaventas.backend.entity.Producto;
+import com.sistemaventas.backend.entity.Usuario;
+import com.sistemaventas.backend.observer.CambioStock;
+import com.sistemaventas.backend.observer.EmailNotificationObserver;
+import com.sistemaventas.backend.observer.InventarioNotificationService;
+import com.sistemaventas.backend.observer.PushNotificationObserver;
+import com.sistemaventas.backend.observer.ReporteInventarioObserver;
+import com.sistemaventas.backend.pasarela.PasarelaEfectivo;
+import com.sistemaventas.backend.service.FacturaService;
+import com.sistemaventas.backend.service.PagoService;
+import com.sistemaventas.backend.service.PdfFacturasService;
+import com.sistemaventas.backend.service.ProductoService;
+import com.sistemaventas.backend.service.ResumenVentasService;
+import com.sistemaventas.backend.service.UsuarioService;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.OutputStreamAppender;
+
+/**
+ * Benchmark: coste de CPU y contención por venta con el logging de la
+ * aplicación apagado frente a nivel INFO.
+ * El logging usa el mismo esquema que logback-spring.xml (AsyncAppender) pero
+ * escribe en un stream que descarta la salida, para medir solo el coste en
+ * los hilos de venta. Las notificaciones se entregan en línea (modo sync)
+ * para incluir a los observadores en la medición.
+ *
+ * Ejecutar con: mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+class VentasFacadeLoggingBenchmarkTest {
+
+	private static final int VENTAS = 20_000;
+	private static final int HILOS = 16;
+	private static final int LINEAS_POR_VENTA = 5;
+
+	private final Logger loggerAplicacion = (Logger) LoggerFactory.getLogger("com.sistemaventas.backend");
+	private final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+	private AsyncAppender appender;
+	private VentasFacade ventasFacade;
+
+	@BeforeEach
+	void configurar() {
+		configurarLogging();
+
+		InventarioNotificationService notificationService = new InventarioNotificationService(
+				List.of(new EmailNotificationObserver(), new ReporteInventarioObserver(), new PushNotificationObserver()),
+				"sync", 1, 1000, 50, 500, 0);
+
+		AtomicInteger idsFactura = new AtomicInteger();
+		FacturaService facturaService = mock(FacturaService.class);
+		when(facturaService.guardarFactura(any())).thenAnswer(inv -> {
+			Factura factura = inv.getArgument(0);
+			factura.setIdFactura(idsFactura.incrementAndGet());
+			return factura;
+		});
+
+		Usuario cajero = new Usuario();
+		cajero.setIdUsuario(2);
+		cajero.setNombre("Cajero");
+		UsuarioService usuarioService = mock(UsuarioService.class);
+		when(usuarioService.buscarPorId(2)).thenReturn(Optional.of(cajero));
+
+		ProductoService productoService = mock(ProductoService.class);
+		when(productoService.buscarPorIds(any())).thenAnswer(inv -> {
+			Map<Integer, Producto> productos = new HashMap<>();
+			for (Integer id : inv.<Collection<Integer>>getArgument(0)) {
+				productos.put(id, new Producto(id, 1_000_000, new BigDecimal("2500.50"), "Producto " + id, "General"));
+			}
+			return productos;
+		});
+		// El descuento de stock notifica a los observadores como lo hace ProductoService
+		doAnswer(inv -> {
+			Map<Producto, Integer> cantidades = inv.getArgument(0);
+			List<CambioStock> cambios = new ArrayList<>();
+			cantidades.forEach((producto, cantidad) -> cambios.add(CambioStock.de(producto,
+					producto.getCantidadDisponible(), producto.getCantidadDisponible() - cantidad)));
+			notificationService.notificarCambiosStock(cambios);
+			return null;
+		}).when(productoService).reducirStockEnLote(any());
+
+		PasarelaEfectivo pasarela = new PasarelaEfectivo();
+		AtomicInteger idsPago = new AtomicInteger();
+		PagoService pagoService = mock(PagoService.class);
+		when(pagoService.autorizarPago(any(), any()))
+				.thenAnswer(inv -> pasarela.autorizar(inv.getArgument(0), inv.getArgument(1)).join());
+		when(pagoService.registrarPago(any(), any(), any())).thenAnswer(inv -> new Pago(
+				idsPago.incrementAndGet(), inv.getArgument(2), "Efectivo", inv.getArgument(1)));
+
+		ventasFacade = new VentasFacade(facturaService, notificationService,
+				pagoService, productoService, usuarioService, mock(ResumenVentasService.class),
+				mock(PdfFacturasService.class), mock(PlatformTransactionManager.class));
+	}
+
+	@AfterEach
+	void restaurarLogging() {
+		loggerAplicacion.detachAppender(appender);
+		loggerAplicacion.setAdditive(true);
+		loggerAplicacion.setLevel(null);
+		appender.stop();
+	}
+
+	@Test
+	void costePorVentaConLoggingApagadoFrenteAInfo() throws Exception {
+		// Calentamiento del JIT con ambos niveles
+		medir(Level.INFO);
+		medir(Level.OFF);
+
+		Resultado apagado = medir(Level.OFF);
+		Resultado info = medir(Level.INFO);
+
+		System.out.printf("%n=== BENCHMARK LOGGING (%d ventas, %d hilos, %d líneas por venta) ===%n",
+				VENTAS, HILOS, LINEAS_POR_VENTA);
+		System.out.printf("%-6s %14s %14s %16s %16s%n", "Nivel", "CPU/venta µs", "Ventas/s", "Bloqueos/venta", "Bloqueado ms");
+		apagado.imprimir("OFF");
+		info.imprimir("INFO");
+	}
+
+	private Resultado medir(Level nivel) throws Exception {
+		loggerAplicacion.setLevel(nivel);
+		if (!threadMXBean.isThreadContentionMonitoringSupported()) {
+			throw new IllegalStateException("La JVM no permite medir la contención de hilos");
+		}
+		threadMXBean.setThreadContentionMonitoringEnabled(true);
+
+		ExecutorService executor = Executors.newFixedThreadPool(HILOS);
+		Set<Long> hilos = ConcurrentHashMap.newKeySet();
+		LongAdder cpuNanos = new LongAdder();
+		AtomicInteger fallos = new AtomicInteger();
+		CountDownLatch fin = new CountDownLatch(VENTAS);
+
+		long inicio = System.nanoTime();
+		for (int i = 0; i < VENTAS; i++) {
+			executor.execute(() -> {
+				hilos.add(Thread.currentThread().getId());
+				long cpuInicio = threadMXBean.getCurrentThreadCpuTime();
+				try {
+					ventasFacade.procesarVenta(crearVenta());
+				} catch (RuntimeException e) {
+					fallos.incrementAndGet();
+				} finally {
+					cpuNanos.add(threadMXBean.getCurrentThreadCpuTime() - cpuInicio);
+					fin.countDown();
+				}
+			});
+		}
+		fin.await(5, TimeUnit.MINUTES);
+		long duracion = System.nanoTime() - inicio;
+
+		// Contención acumulada de los hilos de venta (el pool es nuevo en cada medición)
+		long bloqueos = 0;
+		long bloqueadoMs = 0;
+		for (ThreadInfo info : threadMXBean.getThreadInfo(hilos.stream().mapToLong(Long::longValue).toArray())) {
+			if (info != null) {
+				bloqueos += info.getBlockedCount() + info.getWaitedCount();
+				bloqueadoMs += info.getBlockedTime() + info.getWaitedTime();
+			}
+		}
+		executor.shutdown();
+		executor.awaitTermination(1, TimeUnit.MINUTES);
+
+		assertEquals(0, fallos.get(), "Ninguna venta debe fallar");
+		return new Resultado(cpuNanos.sum(), duracion, bloqueos, bloqueadoMs);
+	}
+
+	private VentaRequest crearVenta() {
+		VentaRequest venta = new VentaRequest();
+		venta.setIdUsuario(2);
+		List<VentaRequest.ItemVenta> items = new ArrayList<>();
+		for (int i = 1; i <= LINEAS_POR_VENTA; i++) {
+			items.add(new VentaRequest.ItemVenta(i, 1));
+		}
+		venta.setItems(items);
+		venta.setDatosPago(new VentaRequest.DatosPago("Efectivo"));
+		return venta;
+	}
+
+	// Mismo esquema que logback-spring.xml, escribiendo en un stream que descarta la salida
+	private void configurarLogging() {
+		LoggerContext contexto = loggerAplicacion.getLoggerContext();
+
+		PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+		encoder.setContext(contexto);
+		encoder.setPattern("%d{yyyy-MM-dd'T'HH:mm:ss.SSSXXX} %5p [%15.15t] %-40.40logger{39} : %m%n");
+		encoder.start();
+
+		OutputStreamAppender<ILoggingEvent> destino = new OutputStreamAppender<>();
+		destino.setContext(contexto);
+		destino.setEncoder(encoder);
+		destino.setOutputStream(OutputStream.nullOutputStream());
+		destino.start();
+
+		appender = new AsyncAppender();
+		appender.setContext(contexto);
+		appender.setQueueSize(8192);
+		appender.setNeverBlock(true);
+		appender.addAppender(destino);
+		appender.start();
+
+		loggerAplicacion.addAppender(appender);
+		loggerAplicacion.setAdditive(false);
+	}
+
+	private static class Resultado {
+		private final long cpuNanos;
+		private final long duracionNanos;
+		private final long bloqueos;
+		private final long bloqueadoMs;
+
+		Resultado(long cpuNanos, long duracionNanos, long bloqueos, long bloqueadoMs) {
+			this.cpuNanos = cpuNanos;
+			this.duracionNanos = duracionNanos;
+			this.bloqueos = bloqueos;
+			this.bloqueadoMs = bloqueadoMs;
+		}
+
+		void imprimir(String nivel) {
+			System.out.printf("%-6s %14.1f %14.0f %16.2f %16d%n", nivel,
+					cpuNanos / 1000.0 / VENTAS,
+					VENTAS / (duracionNanos / 1_000_000_000.0),
+					(double) bloqueos / VENTAS,
+					bloqueadoMs);
+		}
+	}
+}
@@ -0,0 +1,66 @@
+package com.sistemaventas.backend.pdf;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Almacén de PDF: cada PDF queda con su hash como nombre y ETag, al
+ * regenerarlo el puntero pasa al nuevo sin borrar el anterior (puede estar
+ * descargándose); al eliminarlo solo se quita el puntero y la limpieza
+ * borra después los objetos que ya no tienen factura.
+ */
+class AlmacenPdfFacturasTest {
+
+	@TempDir
+	Path directorio;
+
+	@Test
+	void guardaPorHashYApuntaAlNuevoSinBorrarElAnterior() throws IOException {
+		AlmacenPdfFacturas almacen = new AlmacenPdfFacturas(directorio.toString());
+		assertTrue(almacen.buscar(7).isEmpty());
+
+		byte[] original = "%PDF-original".getBytes(StandardCharsets.US_ASCII);
+		PdfAlmacenado primero = almacen.guardar(7, salida -> salida.write(original));
+		assertEquals("\"" + primero.hash() + "\"", primero.etag());
+		assertEquals(primero.hash() + ".pdf", primero.archivo().getFileName().toString());
+		assertEquals(original.length, primero.tamano());
+		assertArrayEquals(original, Files.readAllBytes(almacen.buscar(7).orElseThrow().archivo()));
+
+		PdfAlmacenado segundo = almacen.guardar(7, salida -> salida.write("%PDF-devuelta".getBytes(StandardCharsets.US_ASCII)));
+		assertNotEquals(primero.hash(), segundo.hash());
+		assertEquals(segundo, almacen.buscar(7).orElseThrow());
+		assertTrue(Files.exists(primero.archivo()));
+	}
+
+	@Test
+	void eliminarDejaElObjetoHastaLaLimpieza() throws IOException {
+		AlmacenPdfFacturas almacen = new AlmacenPdfFacturas(directorio.toString());
+		PdfAlmacenado pdf = almacen.guardar(3, salida -> salida.write(new byte[] { 1, 2, 3 }));
+		PdfAlmacenado vigente = almacen.guardar(4, salida -> salida.write(new byte[] { 4, 5, 6 }));
+
+		almacen.eliminar(3);
+
+		assertTrue(almacen.buscar(3).isEmpty());
+		assertTrue(Files.exists(pdf.archivo()));
+		assertEquals(0, almacen.limpiar(60_000));
+		assertEquals(1, almacen.limpiar(-1));
+		assertFalse(Files.exists(pdf.archivo()));
+		assertTrue(Files.exists(vigente.archivo()));
+		almacen.eliminar(4);
+		almacen.limpiar(-1);
+		try (var archivos = Files.walk(directorio)) {
+			assertTrue(archivos.noneMatch(Files::isRegularFile));
+		}
+	}
+}
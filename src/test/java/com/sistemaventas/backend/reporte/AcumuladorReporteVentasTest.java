@@ -0,0 +1,112 @@
+package com.sistemaventas.backend.reporte;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import org.junit.jupiter.api.Test;
+
+import com.sistemaventas.backend.config.CalendarioTienda;
+
+/**
+ * Reporte de ventas en una pasada: los importes de cada factura se suman una
+ * vez aunque tenga varias líneas, las categorías se suman por línea, y el
+ * reporte se exporta a CSV y a un XLSX con una hoja por agrupación.
+ */
+class AcumuladorReporteVentasTest {
+
+	private static final ZoneId ZONA = ZoneId.of("America/Bogota");
+	private static final LocalDate DIA = LocalDate.of(2025, 3, 14);
+
+	@Test
+	void sumaCadaFacturaUnaVezYCadaLineaEnSuCategoria() {
+		ReporteVentas reporte = reporte();
+
+		ReporteVentas.Fila total = reporte.total();
+		assertEquals(3, total.ventas());
+		assertEquals(7, total.unidades());
+		assertEquals(new BigDecimal("7000.00"), total.subtotal());
+		assertEquals(new BigDecimal("1330.00"), total.iva());
+		assertEquals(new BigDecimal("8330.00"), total.total());
+		assertEquals(1, total.devoluciones());
+		assertEquals(new BigDecimal("1190.00"), total.totalDevuelto());
+
+		assertEquals(List.of("2025-03-14", "2025-03-15"), reporte.porDia().stream().map(ReporteVentas.Fila::clave).toList());
+		assertEquals(2, reporte.porDia().get(0).ventas());
+		assertEquals(List.of("Ana (2)", "Juan (1)"), reporte.porCajero().stream().map(ReporteVentas.Fila::clave).toList());
+		assertEquals(List.of("DESCONOCIDO", "EFECTIVO"), reporte.porMetodoPago().stream().map(ReporteVentas.Fila::clave).toList());
+
+		// La factura 1 tiene dos líneas de granos: cuenta como una venta de la categoría
+		ReporteVentas.Fila granos = reporte.porCategoria().get(1);
+		assertEquals("granos", granos.clave());
+		assertEquals(2, granos.ventas());
+		assertEquals(5, granos.unidades());
+		assertEquals(new BigDecimal("6000.00"), granos.subtotal());
+		assertEquals(new BigDecimal("1140.00"), granos.iva());
+		ReporteVentas.Fila aceites = reporte.porCategoria().get(0);
+		assertEquals(new BigDecimal("1190.00"), aceites.total());
+		assertEquals(1, aceites.devoluciones());
+	}
+
+	@Test
+	void exportaCsvYXlsx() throws IOException {
+		ReporteVentas reporte = reporte();
+
+		ByteArrayOutputStream csv = new ByteArrayOutputStream();
+		FormatoReporte.CSV.escribir(reporte, csv);
+		List<String> lineas = csv.toString(StandardCharsets.UTF_8).lines().toList();
+		assertEquals("\uFEFFagrupacion,clave,ventas,unidades,subtotal,iva,total,devoluciones,total_devuelto", lineas.get(0));
+		assertEquals("total,TOTAL,3,7,7000.00,1330.00,8330.00,1,1190.00", lineas.get(1));
+		assertTrue(lineas.contains("cajero,Juan (1),2,5,6000.00,1140.00,7140.00,0,0"));
+
+		ByteArrayOutputStream xlsx = new ByteArrayOutputStream();
+		FormatoReporte.XLSX.escribir(reporte, xlsx);
+		List<String> partes = new ArrayList<>();
+		String hojaCategorias = null;
+		try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(xlsx.toByteArray()))) {
+			for (ZipEntry parte; (parte = zip.getNextEntry()) != null; ) {
+				partes.add(parte.getName());
+				String contenido = new String(zip.readAllBytes(), StandardCharsets.UTF_8);
+				if (parte.getName().equals("xl/worksheets/sheet4.xml")) {
+					hojaCategorias = contenido;
+				}
+			}
+		}
+		assertEquals(List.of("[Content_Types].xml", "_rels/.rels", "xl/workbook.xml", "xl/_rels/workbook.xml.rels",
+				"xl/worksheets/sheet1.xml", "xl/worksheets/sheet2.xml", "xl/worksheets/sheet3.xml",
+				"xl/worksheets/sheet4.xml", "xl/worksheets/sheet5.xml"), partes);
+		assertTrue(hojaCategorias.contains("<t>aceites &amp; grasas</t>"));
+	}
+
+	// En el orden del cursor (fecha, factura). Factura 1: Juan, dos líneas de granos.
+	// Factura 3: Ana, aceites, devuelta y sin método de pago. Factura 2: Juan, granos, al día siguiente.
+	private static ReporteVentas reporte() {
+		AcumuladorReporteVentas acumulador = new AcumuladorReporteVentas(new CalendarioTienda(ZONA.getId()));
+		acumulador.agregar(linea(1, 10, 1, "Juan", "EFECTIVO", "4000", false, "granos", 2, "2000"));
+		acumulador.agregar(linea(1, 10, 1, "Juan", "EFECTIVO", "4000", false, "granos", 2, "2000"));
+		acumulador.agregar(linea(3, 18, 2, "Ana", null, "1000", true, "aceites & grasas", 2, "1000"));
+		acumulador.agregar(linea(2, 24, 1, "Juan", "EFECTIVO", "2000", false, "granos", 1, "2000"));
+		return acumulador.resultado(DIA, DIA.plusDays(1));
+	}
+
+	private static LineaVentaReporte linea(int idFactura, int hora, int idUsuario, String cajero, String metodoPago,
+			String subtotal, boolean devuelta, String categoria, int cantidad, String subtotalLinea) {
+		BigDecimal subtotalFactura = new BigDecimal(subtotal).setScale(2);
+		BigDecimal iva = subtotalFactura.multiply(new BigDecimal("0.19")).setScale(2);
+		Date fecha = Date.from(DIA.atStartOfDay(ZONA).plusHours(hora).plusMinutes(30).toInstant());
+		return new LineaVentaReporte(idFactura, fecha, idUsuario, cajero, metodoPago, subtotalFactura, iva,
+				subtotalFactura.add(iva), devuelta, categoria, cantidad, new BigDecimal(subtotalLinea).setScale(2));
+	}
+}
@@ -0,0 +1,160 @@
+package com.sistemaventas.backend.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.sistemaventas.backend.config.CalendarioTienda;
+import com.sistemaventas.backend.entity.Rol;
+import com.sistemaventas.backend.entity.Usuario;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Benchmark: totales de un día y de un mes sobre una tabla FACTURA de varios
+ * millones de filas, con el índice de db/indices_factura.sql.
+ * "funcion" reproduce las consultas anteriores (DATE(fecha), MONTH(fecha) y
+ * YEAR(fecha)), que no pueden usar el índice y recorren toda la tabla;
+ * "rango" son las consultas actuales (fecha >= :inicio AND fecha < :fin).
+ *
+ * Ejecutar con: mvn test -Pbenchmark [-Dbenchmark.facturas=2000000]
+ */
+@Tag("benchmark")
+@DataJpaTest(properties = {
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+		"spring.jpa.show-sql=false",
+		"logging.level.org.hibernate.SQL=OFF"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class FacturaConsultasPorFechaBenchmarkTest {
+
+	private static final int FACTURAS = Integer.getInteger("benchmark.facturas", 2_000_000);
+	private static final int DIAS = 730;
+	private static final int LOTE = 10_000;
+	private static final int REPETICIONES = 20;
+
+	private static final LocalDate PRIMER_DIA = LocalDate.of(2023, 1, 1);
+	private static final LocalDate DIA_CONSULTADO = PRIMER_DIA.plusDays(400);
+
+	@Autowired
+	private FacturaRepository facturaRepository;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	private final CalendarioTienda calendario = new CalendarioTienda(ZoneId.systemDefault().getId());
+
+	@Test
+	void totalesPorDiaYPorMes() {
+		cargarFacturas();
+		jdbcTemplate.execute("CREATE INDEX IX_FACTURA_FECHA ON FACTURA (FECHA, IDFACTURA)");
+		jdbcTemplate.execute("ANALYZE");
+
+		Date dia = Date.valueOf(DIA_CONSULTADO);
+		java.util.Date inicioDia = calendario.inicioDe(DIA_CONSULTADO);
+		java.util.Date finDia = calendario.inicioDe(DIA_CONSULTADO.plusDays(1));
+		int mes = DIA_CONSULTADO.getMonthValue();
+		int ano = DIA_CONSULTADO.getYear();
+		java.util.Date inicioMes = calendario.inicioDe(DIA_CONSULTADO.withDayOfMonth(1));
+		java.util.Date finMes = calendario.inicioDe(DIA_CONSULTADO.withDayOfMonth(1).plusMonths(1));
+
+		String sqlDia = "SELECT SUM(TOTAL) FROM FACTURA WHERE CAST(FECHA AS DATE) = ?";
+		String sqlMes = "SELECT SUM(TOTAL) FROM FACTURA WHERE MONTH(FECHA) = ? AND YEAR(FECHA) = ?";
+		String sqlRango = "SELECT SUM(TOTAL) FROM FACTURA WHERE FECHA >= ? AND FECHA < ?";
+
+		// Mismo resultado: el rango [inicio, fin) cubre exactamente el día y el mes
+		assertEquals(0, sumar(sqlDia, dia).compareTo(facturaRepository.sumTotalVentasEntre(inicioDia, finDia)));
+		assertEquals(0, sumar(sqlMes, mes, ano).compareTo(facturaRepository.sumTotalVentasEntre(inicioMes, finMes)));
+
+		assertFalse(plan(sqlDia, dia).contains("IX_FACTURA_FECHA"), "DATE(fecha) no puede usar el índice");
+		assertTrue(plan(sqlRango, inicioDia, finDia).contains("IX_FACTURA_FECHA"), "El rango debe usar el índice");
+
+		System.out.printf("=== Totales por fecha sobre %,d facturas ===%n", FACTURAS);
+		System.out.printf("%-6s %-8s %14s%n", "periodo", "consulta", "ms/consulta");
+		double diaFuncion = medir(() -> sumar(sqlDia, dia));
+		double diaRango = medir(() -> facturaRepository.sumTotalVentasEntre(inicioDia, finDia));
+		double mesFuncion = medir(() -> sumar(sqlMes, mes, ano));
+		double mesRango = medir(() -> facturaRepository.sumTotalVentasEntre(inicioMes, finMes));
+		System.out.printf("%-6s %-8s %14.2f%n", "dia", "funcion", diaFuncion);
+		System.out.printf("%-6s %-8s %14.2f%n", "dia", "rango", diaRango);
+		System.out.printf("%-6s %-8s %14.2f%n", "mes", "funcion", mesFuncion);
+		System.out.printf("%-6s %-8s %14.2f%n", "mes", "rango", mesRango);
+
+		assertTrue(diaRango < diaFuncion, "El total del día por rango debe ser más rápido");
+		assertTrue(mesRango < mesFuncion, "El total del mes por rango debe ser más rápido");
+	}
+
+	// Facturas repartidas de forma pareja entre DIAS días, insertadas por JDBC en lotes
+	private void cargarFacturas() {
+		TransactionTemplate tx = new TransactionTemplate(transactionManager);
+		tx.executeWithoutResult(status -> {
+			entityManager.persist(new Rol(1, "Cajero"));
+			Usuario usuario = new Usuario(1, "Juan Reyes", "juan@ventas.com", "secreta123", "3000000000");
+			usuario.setIdRol(1);
+			entityManager.persist(usuario);
+		});
+
+		LocalDateTime inicio = PRIMER_DIA.atStartOfDay();
+		long segundosPorFactura = Math.max(1, (long) DIAS * 86_400 / FACTURAS);
+		BigDecimal subtotal = new BigDecimal("10000.00");
+		BigDecimal iva = new BigDecimal("1900.00");
+		BigDecimal total = new BigDecimal("11900.00");
+		for (int desde = 1; desde <= FACTURAS; desde += LOTE) {
+			List<Object[]> filas = new ArrayList<>(LOTE);
+			for (int id = desde; id < desde + LOTE && id <= FACTURAS; id++) {
+				filas.add(new Object[] {id, 1, Timestamp.valueOf(inicio.plusSeconds(id * segundosPorFactura)),
+						subtotal, iva, total, false});
+			}
+			tx.executeWithoutResult(status -> jdbcTemplate.batchUpdate(
+					"INSERT INTO FACTURA (IDFACTURA, IDUSUARIO, FECHA, SUBTOTAL, IVA, TOTAL, devuelta) "
+							+ "VALUES (?, ?, ?, ?, ?, ?, ?)", filas));
+		}
+	}
+
+	private BigDecimal sumar(String sql, Object... parametros) {
+		return jdbcTemplate.queryForObject(sql, BigDecimal.class, parametros);
+	}
+
+	private String plan(String sql, Object... parametros) {
+		return jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class, parametros);
+	}
+
+	// Milisegundos por consulta, después de calentar
+	private double medir(Supplier<BigDecimal> consulta) {
+		for (int i = 0; i < 3; i++) {
+			consulta.get();
+		}
+		long inicio = System.nanoTime();
+		for (int i = 0; i < REPETICIONES; i++) {
+			consulta.get();
+		}
+		return (System.nanoTime() - inicio) / 1_000_000.0 / REPETICIONES;
+	}
+}
@@ -0,0 +1,181 @@
+package com.sistemaventas.backend.repository;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.sistemaventas.backend.entity.DetalleFactura;
+import com.sistemaventas.backend.entity.Factura;
+import com.sistemaventas.backend.entity.Pago;
+import com.sistemaventas.backend.entity.Producto;
+import com.sistemaventas.backend.entity.Rol;
+import com.sistemaventas.backend.entity.Usuario;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Benchmark: idas y vueltas a la base de datos y latencia al guardar una
+ * factura con su pago, para canastas de 1, 10 y 100 líneas.
+ * "merge" reproduce el guardado anterior (save() con ID asignado terminaba en
+ * merge(), que consulta cada fila antes de insertarla); "persist" es el
+ * guardado actual con INSERT en lotes JDBC.
+ * Cada sentencia, lote y commit enviado por JDBC cuenta como una ida y vuelta.
+ *
+ * Ejecutar con: mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+@DataJpaTest(properties = {
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+		"spring.jpa.show-sql=false",
+		"logging.level.org.hibernate.SQL=OFF"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class FacturaPersistenciaBenchmarkTest {
+
+	private static final int[] CANASTAS = {1, 10, 100};
+	private static final int CALENTAMIENTO = 50;
+	private static final int VENTAS = 300;
+
+	private static final AtomicLong idasYVueltas = new AtomicLong();
+
+	@Autowired
+	private FacturaRepository facturaRepository;
+
+	@Autowired
+	private PagoRepository pagoRepository;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	private final AtomicInteger ids = new AtomicInteger();
+
+	@Test
+	void guardarFacturaConPago() {
+		TransactionTemplate tx = new TransactionTemplate(transactionManager);
+		tx.executeWithoutResult(status -> {
+			entityManager.persist(new Rol(1, "Cajero"));
+			Usuario usuario = new Usuario(1, "Juan Reyes", "juan@ventas.com", "secreta123", "3000000000");
+			usuario.setIdRol(1);
+			entityManager.persist(usuario);
+			for (int p = 1; p <= 100; p++) {
+				entityManager.persist(new Producto(p, 1000, new BigDecimal("1000"), "Producto " + p, "granos"));
+			}
+		});
+
+		System.out.println("=== Guardado de factura + pago ===");
+		System.out.printf("%-8s %-8s %16s %14s%n", "lineas", "modo", "idas/venta", "us/venta");
+		for (int lineas : CANASTAS) {
+			double[] antes = medir(tx, lineas, (factura, pago) -> {
+				entityManager.merge(factura);
+				entityManager.merge(pago);
+			});
+			double[] ahora = medir(tx, lineas, (factura, pago) -> {
+				facturaRepository.save(factura);
+				pagoRepository.save(pago);
+			});
+			System.out.printf("%-8d %-8s %16.1f %14.1f%n", lineas, "merge", antes[0], antes[1]);
+			System.out.printf("%-8d %-8s %16.1f %14.1f%n", lineas, "persist", ahora[0], ahora[1]);
+
+			assertTrue(ahora[0] < antes[0], "El guardado con persist debe usar menos idas y vueltas");
+		}
+	}
+
+	// Devuelve {idas y vueltas por venta, microsegundos por venta}
+	private double[] medir(TransactionTemplate tx, int lineas, BiConsumer<Factura, Pago> guardar) {
+		for (int i = 0; i < CALENTAMIENTO; i++) {
+			guardarVenta(tx, lineas, guardar);
+		}
+		idasYVueltas.set(0);
+		long inicio = System.nanoTime();
+		for (int i = 0; i < VENTAS; i++) {
+			guardarVenta(tx, lineas, guardar);
+		}
+		long nanos = System.nanoTime() - inicio;
+		return new double[] {(double) idasYVueltas.get() / VENTAS, nanos / 1000.0 / VENTAS};
+	}
+
+	// Misma forma que la venta: productos y usuario como referencias, detalles en cascada
+	private void guardarVenta(TransactionTemplate tx, int lineas, BiConsumer<Factura, Pago> guardar) {
+		tx.executeWithoutResult(status -> {
+			Factura factura = new Factura(ids.incrementAndGet(), entityManager.getReference(Usuario.class, 1),
+					null, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO);
+			for (int p = 1; p <= lineas; p++) {
+				Producto producto = entityManager.getReference(Producto.class, p);
+				factura.agregarDetalle(new DetalleFactura(ids.incrementAndGet(), producto, factura, 1, new BigDecimal("1000")));
+			}
+			guardar.accept(factura, new Pago(factura.getIdFactura(), factura, "Efectivo", factura.getTotal()));
+		});
+	}
+
+	/**
+	 * Envuelve el DataSource para contar lo que realmente viaja por JDBC:
+	 * cada execute*, cada executeBatch (un lote entero) y cada commit/rollback.
+	 */
+	@TestConfiguration
+	static class ContadorIdasYVueltas {
+
+		private static final Set<String> EJECUCIONES = Set.of(
+				"execute", "executeQuery", "executeUpdate", "executeLargeUpdate",
+				"executeBatch", "executeLargeBatch", "commit", "rollback");
+
+		@Bean
+		static BeanPostProcessor contarIdasYVueltas() {
+			return new BeanPostProcessor() {
+				@Override
+				public Object postProcessAfterInitialization(Object bean, String beanName) {
+					return bean instanceof DataSource dataSource
+							? envolver(dataSource, DataSource.class)
+							: bean;
+				}
+			};
+		}
+
+		@SuppressWarnings("unchecked")
+		private static <T> T envolver(T objetivo, Class<T> tipo) {
+			InvocationHandler handler = (proxy, method, args) -> {
+				if (EJECUCIONES.contains(method.getName())) {
+					idasYVueltas.incrementAndGet();
+				}
+				Object resultado;
+				try {
+					resultado = method.invoke(objetivo, args);
+				} catch (InvocationTargetException e) {
+					throw e.getCause();
+				}
+				Class<?> retorno = method.getReturnType();
+				if (resultado != null && retorno.isInterface()
+						&& (retorno == Connection.class || java.sql.Statement.class.isAssignableFrom(retorno))) {
+					return envolver(resultado, (Class<Object>) retorno);
+				}
+				return resultado;
+			};
+			return (T) Proxy.newProxyInstance(tipo.getClassLoader(), new Class<?>[] {tipo}, handler);
+		}
+	}
+}
@@ -0,0 +1,128 @@
+package com.sistemaventas.backend.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import com.sistemaventas.backend.entity.DetalleFactura;
+import com.sistemaventas.backend.entity.Factura;
+import com.sistemaventas.backend.entity.Pago;
+import com.sistemaventas.backend.entity.Producto;
+import com.sistemaventas.backend.entity.Rol;
+import com.sistemaventas.backend.entity.Usuario;
+
+/**
+ * Número de consultas SQL de cada plan de carga de facturas, medido con las
+ * estadísticas de Hibernate: recorrer lo que usa cada endpoint no debe
+ * disparar consultas adicionales por línea, producto, usuario o pago.
+ */
+@DataJpaTest(properties = {
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+		"spring.jpa.properties.hibernate.generate_statistics=true",
+		"spring.jpa.show-sql=false"
+})
+class FacturaRepositoryConsultasTest {
+
+	private static final int FACTURAS = 3;
+	private static final int LINEAS_POR_FACTURA = 4;
+
+	@Autowired
+	private FacturaRepository facturaRepository;
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	private Statistics estadisticas;
+
+	@BeforeEach
+	void setUp() {
+		Rol rol = new Rol(1, "Cajero");
+		entityManager.persist(rol);
+		Usuario usuario = new Usuario(1, "Juan Reyes", "juan@ventas.com", "secreta123", "3000000000");
+		usuario.setIdRol(1);
+		entityManager.persist(usuario);
+
+		for (int p = 1; p <= LINEAS_POR_FACTURA; p++) {
+			entityManager.persist(new Producto(p, 100, new BigDecimal("1000"), "Producto " + p, "granos"));
+		}
+
+		int idDetalle = 1;
+		for (int f = 1; f <= FACTURAS; f++) {
+			Factura factura = new Factura(f, usuario, null, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO);
+			for (int p = 1; p <= LINEAS_POR_FACTURA; p++) {
+				Producto producto = entityManager.find(Producto.class, p);
+				factura.agregarDetalle(new DetalleFactura(idDetalle++, producto, factura, 2, producto.getPrecioUnitario()));
+			}
+			entityManager.persist(factura);
+			Pago pago = new Pago(f, factura, "Efectivo", factura.getTotal());
+			entityManager.persist(pago);
+		}
+
+		entityManager.flush();
+		entityManager.clear();
+
+		estadisticas = entityManager.getEntityManager().getEntityManagerFactory()
+				.unwrap(SessionFactory.class).getStatistics();
+		estadisticas.clear();
+	}
+
+	@Test
+	void pdfDeLaFacturaEnUnaSolaConsulta() {
+		Factura factura = facturaRepository.findCompletaById(1).orElseThrow();
+
+		// Lo mismo que recorre FacturaPdfService
+		factura.getUsuario().getNombre();
+		factura.getUsuario().getCorreo();
+		factura.getPago().getMetodoPago();
+		for (DetalleFactura detalle : factura.getDetallesFactura()) {
+			detalle.getProducto().getDescripcion();
+		}
+
+		assertEquals(LINEAS_POR_FACTURA, factura.getDetallesFactura().size());
+		assertEquals(1, estadisticas.getPrepareStatementCount());
+	}
+
+	@Test
+	void detallesDeUnaVentaEnUnaSolaConsulta() {
+		Factura factura = facturaRepository.findConDetallesById(1).orElseThrow();
+
+		assertEquals(LINEAS_POR_FACTURA, factura.getDetallesFactura().size());
+		assertEquals(1, estadisticas.getPrepareStatementCount());
+	}
+
+	@Test
+	void devolucionCargaLineasYProductosEnUnaSolaConsulta() {
+		Factura factura = facturaRepository.findConDetallesYProductosById(2).orElseThrow();
+
+		for (DetalleFactura detalle : factura.getDetallesFactura()) {
+			detalle.getProducto().getDescripcion();
+		}
+
+		assertEquals(LINEAS_POR_FACTURA, factura.getDetallesFactura().size());
+		assertEquals(1, estadisticas.getPrepareStatementCount());
+	}
+
+	@Test
+	void listadosNoConsultanLasLineasPorFactura() {
+		List<Factura> todas = facturaRepository.findAllConDetalles();
+		todas.forEach(factura -> factura.getDetallesFactura().size());
+		assertEquals(FACTURAS, todas.size());
+		assertEquals(1, estadisticas.getPrepareStatementCount());
+
+		estadisticas.clear();
+		List<Factura> delUsuario = facturaRepository.findByUsuarioId(1);
+		delUsuario.forEach(factura -> factura.getDetallesFactura().size());
+		assertEquals(FACTURAS, delUsuario.size());
+		assertEquals(1, estadisticas.getPrepareStatementCount());
+	}
+}
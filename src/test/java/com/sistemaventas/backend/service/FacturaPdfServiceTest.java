@@ -0,0 +1,50 @@
+package com.sistemaventas.backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.util.Date;
+
+import org.junit.jupiter.api.Test;
+
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.canvas.parser.PdfTextExtractor;
+import com.sistemaventas.backend.entity.DetalleFactura;
+import com.sistemaventas.backend.entity.Factura;
+import com.sistemaventas.backend.entity.Producto;
+
+/**
+ * Una factura de cientos de líneas se escribe por bloques: la tabla de
+ * productos continúa en varias páginas y los totales quedan al final.
+ */
+class FacturaPdfServiceTest {
+
+	@Test
+	void escribeFacturasLargasEnVariasPaginas() throws Exception {
+		Factura factura = new Factura(42, null, new Date(), new BigDecimal("300000"), new BigDecimal("57000"),
+				new BigDecimal("357000"));
+		for (int i = 1; i <= 300; i++) {
+			Producto producto = new Producto(i, 10, new BigDecimal("1000"), "Producto " + i, "general");
+			factura.getDetallesFactura().add(new DetalleFactura(i, producto, factura, 1, new BigDecimal("1000")));
+		}
+
+		ByteArrayOutputStream salida = new ByteArrayOutputStream();
+		new FacturaPdfService().escribirFacturaPdf(factura, salida);
+
+		StringBuilder texto = new StringBuilder();
+		try (PdfDocument pdf = new PdfDocument(new PdfReader(new ByteArrayInputStream(salida.toByteArray())))) {
+			assertTrue(pdf.getNumberOfPages() > 1);
+			// El encabezado de la tabla se repite en cada página
+			assertTrue(PdfTextExtractor.getTextFromPage(pdf.getPage(2)).startsWith("Producto Cant. Precio Unit. Subtotal"));
+			for (int i = 1; i <= pdf.getNumberOfPages(); i++) {
+				texto.append(PdfTextExtractor.getTextFromPage(pdf.getPage(i))).append('\n');
+			}
+		}
+		int ultimaLinea = texto.indexOf("Producto 300 1 $1,000");
+		assertTrue(texto.indexOf("Producto 1 1 $1,000") >= 0);
+		assertTrue(ultimaLinea >= 0 && ultimaLinea < texto.indexOf("TOTAL: $357,000"));
+	}
+}
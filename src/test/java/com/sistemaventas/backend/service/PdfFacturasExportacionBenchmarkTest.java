@@ -0,0 +1,101 @@
+package com.sistemaventas.backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import com.sistemaventas.backend.config.PdfConfig;
+import com.sistemaventas.backend.entity.DetalleFactura;
+import com.sistemaventas.backend.entity.Factura;
+import com.sistemaventas.backend.entity.Producto;
+import com.sistemaventas.backend.entity.Usuario;
+import com.sistemaventas.backend.pdf.AlmacenPdfFacturas;
+
+/**
+ * Benchmark: facturas por segundo al exportar los PDF de un período a un ZIP,
+ * generándolos con 1 hilo frente a un hilo por núcleo, y volviendo a exportar
+ * cuando los PDF ya están en el almacén. Las facturas se cargan de un mock,
+ * así que solo se mide la generación, el almacén y el ZIP.
+ *
+ * Ejecutar con: mvn test -Pbenchmark [-Dbenchmark.facturas=1000]
+ */
+@Tag("benchmark")
+class PdfFacturasExportacionBenchmarkTest {
+
+	private static final int FACTURAS = Integer.getInteger("benchmark.facturas", 1_000);
+	private static final int LINEAS_POR_FACTURA = 20;
+
+	@TempDir
+	Path directorio;
+
+	@Test
+	void facturasPorSegundoSegunHilos() throws IOException {
+		FacturaService facturaService = mock(FacturaService.class);
+		when(facturaService.obtenerFacturaCompleta(anyLong())).thenAnswer(inv -> factura(inv.<Long>getArgument(0).intValue()));
+		List<Integer> ids = IntStream.rangeClosed(1, FACTURAS).boxed().toList();
+		int nucleos = Runtime.getRuntime().availableProcessors();
+
+		// Calentamiento del JIT
+		exportar(facturaService, directorio.resolve("calentamiento"), 1, ids.subList(0, Math.min(200, FACTURAS)));
+
+		System.out.printf("%n=== EXPORTACIÓN DE PDF (%,d facturas de %d líneas, %d núcleos) ===%n",
+				FACTURAS, LINEAS_POR_FACTURA, nucleos);
+		System.out.printf("%-28s %10s %14s%n", "caso", "ms", "facturas/s");
+		for (int hilos : nucleos > 1 ? new int[] { 1, nucleos } : new int[] { 1 }) {
+			Path almacen = directorio.resolve("hilos-" + hilos);
+			imprimir("generar, " + hilos + " hilo(s)", exportar(facturaService, almacen, hilos, ids));
+			imprimir("desde almacén, " + hilos + " hilo(s)", exportar(facturaService, almacen, hilos, ids));
+		}
+	}
+
+	private static long exportar(FacturaService facturaService, Path almacen, int hilos, List<Integer> ids)
+			throws IOException {
+		ThreadPoolTaskExecutor lote = new PdfConfig().pdfLoteExecutor(hilos, 64);
+		lote.initialize();
+		try {
+			PdfFacturasService servicio = new PdfFacturasService(facturaService, new FacturaPdfService(),
+					new AlmacenPdfFacturas(almacen.toString()), Runnable::run, lote, hilos * 2);
+			long inicio = System.nanoTime();
+			int escritos = servicio.exportarZip(ids, OutputStream.nullOutputStream());
+			long duracion = System.nanoTime() - inicio;
+			assertEquals(ids.size(), escritos);
+			return duracion;
+		} finally {
+			lote.shutdown();
+		}
+	}
+
+	private static void imprimir(String caso, long duracionNanos) {
+		System.out.printf("%-28s %10d %14.0f%n", caso, duracionNanos / 1_000_000,
+				FACTURAS / (duracionNanos / 1e9));
+	}
+
+	private static Factura factura(int id) {
+		Usuario cajero = new Usuario();
+		cajero.setIdUsuario(2);
+		cajero.setNombre("Cajero");
+		cajero.setCorreo("cajero@tienda.com");
+		Factura factura = new Factura(id, cajero, new Date(), new BigDecimal("50000"), new BigDecimal("9500"),
+				new BigDecimal("59500"));
+		factura.setIdPago(id);
+		for (int i = 1; i <= LINEAS_POR_FACTURA; i++) {
+			Producto producto = new Producto(i, 100, new BigDecimal("2500"), "Producto " + i, "General");
+			factura.getDetallesFactura().add(new DetalleFactura(i, producto, factura, 1, new BigDecimal("2500")));
+		}
+		return factura;
+	}
+}
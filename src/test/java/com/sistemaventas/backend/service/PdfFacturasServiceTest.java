@@ -0,0 +1,84 @@
+package com.sistemaventas.backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Date;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.sistemaventas.backend.entity.DetalleFactura;
+import com.sistemaventas.backend.entity.Factura;
+import com.sistemaventas.backend.entity.Producto;
+import com.sistemaventas.backend.entity.Usuario;
+import com.sistemaventas.backend.pdf.AlmacenPdfFacturas;
+import com.sistemaventas.backend.pdf.PdfAlmacenado;
+
+/**
+ * PDF de facturas: dos descargas simultáneas de una factura sin PDF
+ * comparten una sola generación y reciben el mismo archivo.
+ */
+class PdfFacturasServiceTest {
+
+	@TempDir
+	Path directorio;
+
+	@Test
+	void descargasSimultaneasGeneranUnaSolaVez() throws Exception {
+		CountDownLatch leyendo = new CountDownLatch(1);
+		CountDownLatch continuar = new CountDownLatch(1);
+		FacturaService facturaService = mock(FacturaService.class);
+		when(facturaService.obtenerFacturaCompleta(5L)).thenAnswer(inv -> {
+			leyendo.countDown();
+			continuar.await(5, TimeUnit.SECONDS);
+			return factura(5);
+		});
+		PdfFacturasService servicio = new PdfFacturasService(facturaService, new FacturaPdfService(),
+				new AlmacenPdfFacturas(directorio.toString()), Runnable::run, Runnable::run, 1);
+
+		CompletableFuture<Optional<PdfAlmacenado>> primera = CompletableFuture.supplyAsync(() -> servicio.obtener(5));
+		assertTrue(leyendo.await(5, TimeUnit.SECONDS));
+		AtomicReference<Optional<PdfAlmacenado>> segunda = new AtomicReference<>();
+		Thread hilo = new Thread(() -> segunda.set(servicio.obtener(5)));
+		hilo.start();
+		// La segunda descarga queda esperando la generación en curso
+		while (hilo.getState() != Thread.State.WAITING && hilo.isAlive()) {
+			Thread.sleep(5);
+		}
+		continuar.countDown();
+		hilo.join(5_000);
+
+		PdfAlmacenado pdf = primera.get(5, TimeUnit.SECONDS).orElseThrow();
+		assertEquals(pdf, segunda.get().orElseThrow());
+		verify(facturaService, times(1)).obtenerFacturaCompleta(5L);
+		try (var objetos = Files.list(pdf.archivo().getParent())) {
+			assertEquals(1, objetos.count());
+		}
+	}
+
+	private static Factura factura(int id) {
+		Usuario cajero = new Usuario();
+		cajero.setIdUsuario(2);
+		cajero.setNombre("Cajero");
+		cajero.setCorreo("cajero@tienda.com");
+		Factura factura = new Factura(id, cajero, new Date(), new BigDecimal("5000"), new BigDecimal("950"),
+				new BigDecimal("5950"));
+		factura.setIdPago(id);
+		Producto producto = new Producto(1, 100, new BigDecimal("5000"), "Producto 1", "General");
+		factura.getDetallesFactura().add(new DetalleFactura(1, producto, factura, 1, new BigDecimal("5000")));
+		return factura;
+	}
+}
@@ -0,0 +1,113 @@
+package com.sistemaventas.backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.sistemaventas.backend.config.CalendarioTienda;
+import com.sistemaventas.backend.entity.Factura;
+import com.sistemaventas.backend.entity.Pago;
+import com.sistemaventas.backend.entity.Usuario;
+import com.sistemaventas.backend.repository.ResumenVentasRepository;
+import com.sistemaventas.backend.resumen.FranjaVentas;
+import com.sistemaventas.backend.resumen.TotalesVentas;
+
+/**
+ * Variaciones que se suman al resumen de ventas: las ventas de la misma hora,
+ * cajero y método de pago se agrupan en una sola franja, y una devolución se
+ * registra en la franja de la venta original. El día y la hora son los de la
+ * zona de la tienda, no los del servidor.
+ */
+class ResumenVentasServiceTest {
+
+	private static final ZoneId ZONA_TIENDA = ZoneId.of("America/Bogota");
+	private static final LocalDate DIA = LocalDate.of(2025, 3, 14);
+
+	private final Usuario cajero = new Usuario(1, "Juan Reyes", "juan@ventas.com", "secreta123", "3000000000");
+
+	private ResumenVentasRepository repository;
+	private ResumenVentasService resumen;
+
+	@BeforeEach
+	void setUp() {
+		repository = mock(ResumenVentasRepository.class);
+		resumen = new ResumenVentasService(repository, new CalendarioTienda(ZONA_TIENDA.getId()),
+				mock(PlatformTransactionManager.class));
+	}
+
+	@Test
+	void agrupaLasVentasDeLaMismaFranja() {
+		resumen.registrarVentas(List.of(
+				pago(factura(10, 5, "10000"), "EFECTIVO"),
+				pago(factura(10, 40, "5000"), "EFECTIVO"),
+				pago(factura(15, 0, "2000"), null)));
+
+		Map<FranjaVentas, TotalesVentas> variaciones = variacionAcumulada();
+		assertEquals(2, variaciones.size());
+
+		TotalesVentas efectivo = variaciones.get(new FranjaVentas(DIA, 10, 1, "EFECTIVO"));
+		assertEquals(2, efectivo.ventas());
+		assertEquals(new BigDecimal("12605.04"), efectivo.subtotal());
+		assertEquals(new BigDecimal("2394.96"), efectivo.iva());
+		assertEquals(new BigDecimal("15000"), efectivo.total());
+
+		TotalesVentas sinMetodo = variaciones.get(new FranjaVentas(DIA, 15, 1, "DESCONOCIDO"));
+		assertEquals(1, sinMetodo.ventas());
+		assertEquals(new BigDecimal("2000"), sinMetodo.total());
+	}
+
+	@Test
+	void registraLaDevolucionEnLaFranjaDeLaVenta() {
+		Factura factura = factura(9, 30, "8000");
+		factura.setPago(pago(factura, "TARJETA"));
+
+		resumen.registrarDevolucion(factura);
+
+		Map<FranjaVentas, TotalesVentas> variaciones = variacionAcumulada();
+		TotalesVentas devolucion = variaciones.get(new FranjaVentas(DIA, 9, 1, "TARJETA"));
+		assertEquals(0, devolucion.ventas());
+		assertEquals(BigDecimal.ZERO, devolucion.total());
+		assertEquals(1, devolucion.devoluciones());
+		assertEquals(new BigDecimal("8000"), devolucion.totalDevuelto());
+	}
+
+	@SuppressWarnings("unchecked")
+	private Map<FranjaVentas, TotalesVentas> variacionAcumulada() {
+		ArgumentCaptor<Map<FranjaVentas, TotalesVentas>> captor = ArgumentCaptor.forClass(Map.class);
+		verify(repository, times(1)).acumular(captor.capture());
+		return captor.getValue();
+	}
+
+	private Factura factura(int hora, int minuto, String total) {
+		Factura factura = new Factura();
+		factura.setUsuario(cajero);
+		factura.setFecha(Date.from(DIA.atTime(hora, minuto).atZone(ZONA_TIENDA).toInstant()));
+		BigDecimal importe = new BigDecimal(total);
+		BigDecimal subtotal = importe.divide(new BigDecimal("1.19"), 2, RoundingMode.HALF_UP);
+		factura.setSubtotal(subtotal);
+		factura.setIva(importe.subtract(subtotal));
+		factura.setTotal(importe);
+		return factura;
+	}
+
+	private static Pago pago(Factura factura, String metodoPago) {
+		Pago pago = new Pago();
+		pago.setFactura(factura);
+		pago.setMetodoPago(metodoPago);
+		return pago;
+	}
+}
@@ -0,0 +1,139 @@
+package com.sistemaventas.backend.stock;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.sistemaventas.backend.exception.StockInsuficienteException;
+import com.sistemaventas.backend.repository.ProductoRepository;
+
+/**
+ * Reservas concurrentes sobre los contadores en memoria, escritura en lote
+ * de las variaciones en PRODUCTO, variaciones que la tabla rechaza y borrados
+ * de productos que se revierten.
+ */
+class AlmacenStockTest {
+
+	// Simula la columna CANTIDADDISPONIBLE de PRODUCTO
+	private final Map<Integer, Integer> tablaProducto = new ConcurrentHashMap<>();
+
+	private AlmacenStock almacenStock;
+
+	@BeforeEach
+	@SuppressWarnings("unchecked")
+	void setUp() {
+		tablaProducto.put(1, 1000);
+		tablaProducto.put(2, 5);
+
+		ProductoRepository productoRepository = mock(ProductoRepository.class);
+		when(productoRepository.consultarStock(any())).thenAnswer(inv -> {
+			Map<Integer, Integer> stock = new HashMap<>();
+			for (Integer id : (Collection<Integer>) inv.getArgument(0)) {
+				if (tablaProducto.containsKey(id)) {
+					stock.put(id, tablaProducto.get(id));
+				}
+			}
+			return stock;
+		});
+		// UPDATE condicional: no aplica la variación si el stock quedaría negativo
+		when(productoRepository.aplicarVariacionesStock(any())).thenAnswer(inv -> {
+			Map<Integer, Integer> variaciones = inv.getArgument(0);
+			int[] filas = new int[variaciones.size()];
+			int i = 0;
+			for (Map.Entry<Integer, Integer> entry : variaciones.entrySet()) {
+				Integer stock = tablaProducto.get(entry.getKey());
+				if (stock != null && stock + entry.getValue() >= 0) {
+					tablaProducto.put(entry.getKey(), stock + entry.getValue());
+					filas[i] = 1;
+				}
+				i++;
+			}
+			return filas;
+		});
+
+		almacenStock = new AlmacenStock(productoRepository, mock(PlatformTransactionManager.class));
+	}
+
+	@Test
+	void reservasConcurrentesNoVendenMasDeLoDisponible() throws InterruptedException {
+		AtomicInteger reservadas = new AtomicInteger();
+		ExecutorService executor = Executors.newFixedThreadPool(16);
+		for (int i = 0; i < 2000; i++) {
+			executor.submit(() -> {
+				try {
+					almacenStock.reservar(Map.of(1, 1));
+					reservadas.incrementAndGet();
+				} catch (StockInsuficienteException e) {
+					// esperado cuando se agota
+				}
+			});
+		}
+		executor.shutdown();
+		executor.awaitTermination(30, TimeUnit.SECONDS);
+
+		assertEquals(1000, reservadas.get());
+		assertEquals(0, almacenStock.disponible(1));
+
+		almacenStock.escribirPendientes();
+		assertEquals(0, tablaProducto.get(1));
+	}
+
+	@Test
+	void reservaDeVariosProductosEsTodoONada() {
+		assertThrows(StockInsuficienteException.class, () -> almacenStock.reservar(Map.of(1, 10, 2, 6)));
+
+		assertEquals(1000, almacenStock.disponible(1));
+		assertEquals(5, almacenStock.disponible(2));
+
+		almacenStock.escribirPendientes();
+		assertEquals(1000, tablaProducto.get(1));
+	}
+
+	@Test
+	void variacionRechazadaPorLaTablaRecargaElContador() {
+		almacenStock.reservar(Map.of(2, 4));
+		// Otra instancia vendió 3 unidades del mismo producto
+		tablaProducto.put(2, 2);
+
+		almacenStock.escribirPendientes();
+
+		assertEquals(2, tablaProducto.get(2));
+		assertEquals(2, almacenStock.disponible(2));
+	}
+
+	@Test
+	void borradoRevertidoConservaLasVariacionesPendientes() {
+		almacenStock.reservar(Map.of(1, 3));
+
+		// El borrado del producto falla al confirmar (tiene ventas): la transacción se revierte
+		TransactionSynchronizationManager.initSynchronization();
+		try {
+			almacenStock.descartar(1);
+			TransactionSynchronizationManager.getSynchronizations()
+					.forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+		} finally {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+
+		assertEquals(997, almacenStock.disponible(1));
+		almacenStock.escribirPendientes();
+		assertEquals(997, tablaProducto.get(1));
+	}
+}